@@ -0,0 +1,111 @@
+package com.relatia.customer_service.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU work every customer request pays for outside the database: mapping a {@link CustomerRequest}
+ * to a {@link Customer}, mapping the entity back to a {@link CustomerResponse} (audit fields included),
+ * writing the response as JSON and validating the request.
+ *
+ * <p>The {@link ObjectMapper} and {@link Validator} are set up the way Spring Boot sets them up:
+ * Java time support with the {@code DATE_TIME_FORMAT} {@code @JsonFormat} on the audit timestamps, and
+ * constraint messages resolved from {@code messages.properties}. Run with
+ * {@code mvn test-compile exec:exec@jmh -Pjmh}; see {@code src/jmh/baseline.json} for the last recorded run.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-XX:+UseParallelGC")
+public class CustomerMappingBenchmark {
+
+    private CustomerRequest request;
+    private CustomerRequest invalidRequest;
+    private Customer customer;
+    private CustomerResponse response;
+    private ObjectWriter writer;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        request = CustomerRequest.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@example.com")
+                .phone("+1234567890")
+                .address("123 Main St, Anytown, USA")
+                .build();
+        invalidRequest = CustomerRequest.builder()
+                .firstName("")
+                .lastName("Doe")
+                .email("not-an-email")
+                .phone("+1234567890123456789012")
+                .build();
+
+        customer = request.toEntity();
+        customer.setId(42L);
+        customer.setCreatedAt(LocalDateTime.of(2025, 7, 25, 17, 30));
+        customer.setUpdatedAt(LocalDateTime.of(2025, 7, 26, 9, 15));
+        customer.setCreatedBy("customer-service");
+        customer.setUpdatedBy("customer-service");
+        customer.setVersion(3L);
+        response = CustomerResponse.fromEntity(customer);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(CustomerResponse.class);
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        LocalValidatorFactoryBean validatorFactory = new LocalValidatorFactoryBean();
+        validatorFactory.setValidationMessageSource(messageSource);
+        validatorFactory.afterPropertiesSet();
+        validator = validatorFactory;
+    }
+
+    @Benchmark
+    public Customer toEntity() {
+        return request.toEntity();
+    }
+
+    @Benchmark
+    public CustomerResponse fromEntity() {
+        return CustomerResponse.fromEntity(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(CustomerResponse.fromEntity(customer));
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CustomerRequest>> validateValidRequest() {
+        return validator.validate(request);
+    }
+
+    /**
+     * Three violations, each with its message looked up in {@code messages.properties} and interpolated.
+     */
+    @Benchmark
+    public Set<ConstraintViolation<CustomerRequest>> validateInvalidRequest() {
+        return validator.validate(invalidRequest);
+    }
+}
@@ -0,0 +1,128 @@
+package com.relatia.customer_service.exception;
+
+import com.relatia.customer_service.customer.CustomerRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of turning an exception into an {@link ErrorResponse}: the handler alone, and for a missing
+ * customer also the cost of resolving the message and creating the exception, which is what a 404 really
+ * costs per request.
+ *
+ * <p>{@code legacyNotFound} replays the 404 path as it was before messages were precomputed and
+ * {@link ResourceNotFoundException} lost its stack trace, so comparing it with {@code notFound} (the
+ * {@code gc.alloc.rate.norm} column in particular) shows what that change saves. Both run
+ * {@code stackDepth} frames deep, since a stack trace costs in proportion to the stack it captures and
+ * a request thread in Spring MVC is well over a hundred frames deep.</p>
+ *
+ * <p>Run with {@code mvn test-compile exec:exec@jmh -Pjmh}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-XX:+UseParallelGC")
+public class GlobalExceptionHandlerBenchmark {
+
+    @Param({"0", "150"})
+    public int stackDepth;
+
+    private GlobalExceptionHandler handler;
+    private MeterRegistry meterRegistry;
+    private MessageSource messageSource;
+    private ErrorMessages errorMessages;
+    private WebRequest request;
+    private ResourceNotFoundException notFound;
+    private MethodArgumentNotValidException invalid;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        ResourceBundleMessageSource resourceBundleMessageSource = new ResourceBundleMessageSource();
+        resourceBundleMessageSource.setBasename("messages");
+        resourceBundleMessageSource.setDefaultEncoding("UTF-8");
+        messageSource = resourceBundleMessageSource;
+        errorMessages = new ErrorMessages(messageSource);
+        handler = new GlobalExceptionHandler(new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry))
+                .getBeanProvider(MeterRegistry.class));
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/customers/42"));
+        notFound = new ResourceNotFoundException("Customer not found with id: 42");
+
+        CustomerRequest customerRequest = new CustomerRequest();
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(customerRequest, "customerRequest");
+        bindingResult.addError(new FieldError("customerRequest", "firstName", "First name is required"));
+        bindingResult.addError(new FieldError("customerRequest", "lastName", "Last name is required"));
+        bindingResult.addError(new FieldError("customerRequest", "email", "Email is required"));
+        MethodParameter parameter = new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("create", CustomerRequest.class), 0);
+        invalid = new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> handleNotFound() {
+        return handler.handleResourceNotFoundException(notFound, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> notFound() {
+        return atDepth(stackDepth, () -> handler.handleResourceNotFoundException(
+                new ResourceNotFoundException(errorMessages.get("error.customer.notfound", 42L)), request));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> legacyNotFound() {
+        return atDepth(stackDepth, () -> {
+            RuntimeException ex = new RuntimeException(messageSource.getMessage("error.customer.notfound",
+                    new Object[]{42L}, LocaleContextHolder.getLocale()));
+            Counter.builder("api.exceptions")
+                    .description("Exceptions turned into error responses")
+                    .tag("exception", "ResourceNotFoundException")
+                    .tag("status", String.valueOf(HttpStatus.NOT_FOUND.value()))
+                    .register(meterRegistry)
+                    .increment();
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                    .status(HttpStatus.NOT_FOUND.value())
+                    .error(HttpStatus.NOT_FOUND.getReasonPhrase())
+                    .message(ex.getMessage())
+                    .path(request.getDescription(false).replace("uri=", ""))
+                    .build();
+            return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        });
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> handleValidationErrors() {
+        return handler.handleValidationExceptions(invalid, request);
+    }
+
+    private static <T> T atDepth(int depth, Supplier<T> action) {
+        return depth == 0 ? action.get() : atDepth(depth - 1, action);
+    }
+
+    /**
+     * Stands in for the controller method whose argument failed validation.
+     */
+    @SuppressWarnings("unused")
+    private void create(CustomerRequest customerRequest) {
+    }
+}
@@ -2,14 +2,26 @@ package com.relatia.customer_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
 @EnableFeignClients
 @SpringBootApplication
 public class CustomerServiceApplication {
 
+	/**
+	 * Set to {@code true} to record every startup step, for the startup report and {@code /actuator/startup}.
+	 */
+	public static final String STARTUP_REPORT = "startup.report";
+
+	private static final int STARTUP_STEPS = 20_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(CustomerServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(CustomerServiceApplication.class);
+		if (Boolean.getBoolean(STARTUP_REPORT)) {
+			application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		}
+		application.run(args);
 	}
 
 }
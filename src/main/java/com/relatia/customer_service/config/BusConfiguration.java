@@ -0,0 +1,10 @@
+package com.relatia.customer_service.config;
+
+import com.relatia.customer_service.CustomerServiceApplication;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.annotation.Configuration;
+
+@RemoteApplicationEventScan(basePackageClasses = CustomerServiceApplication.class)
+@Configuration
+public class BusConfiguration {
+}
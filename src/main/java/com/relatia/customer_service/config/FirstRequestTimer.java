@@ -0,0 +1,74 @@
+package com.relatia.customer_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.relatia.customer_service.constants.GlobalConstants.CUSTOMER_API;
+
+/**
+ * Records how long after JVM start the first {@code GET api/v1/customers/{id}} was answered, as the
+ * {@code application.first-request.time} gauge, so cold starts can be compared across builds.
+ *
+ * <p>Any answer below 500 counts, a 404 included: it shows the whole read path is up. Once recorded,
+ * the filter costs one volatile read per request.</p>
+ */
+@Slf4j
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+    private static final String CUSTOMER_PATH = "/" + CUSTOMER_API + "/";
+
+    private final AtomicLong uptimeMillis = new AtomicLong(-1);
+    private volatile boolean recorded;
+
+    /**
+     * @param meterRegistry the registry for the gauge; test slices without one use the global registry
+     */
+    public FirstRequestTimer(ObjectProvider<MeterRegistry> meterRegistry) {
+        TimeGauge.builder("application.first-request.time", uptimeMillis,
+                        TimeUnit.MILLISECONDS, uptime -> uptime.get() < 0 ? Double.NaN : uptime.get())
+                .description("Time from JVM start until the first customer read was answered")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        if (!recorded && isCustomerRead(request) && response.getStatus() < 500
+                && uptimeMillis.compareAndSet(-1, ManagementFactory.getRuntimeMXBean().getUptime())) {
+            recorded = true;
+            log.info("First customer read answered {} ms after JVM start", uptimeMillis.get());
+        }
+    }
+
+    private static boolean isCustomerRead(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        String uri = request.getRequestURI();
+        if (!uri.startsWith(CUSTOMER_PATH) || uri.length() == CUSTOMER_PATH.length()) {
+            return false;
+        }
+        for (int i = CUSTOMER_PATH.length(); i < uri.length(); i++) {
+            if (!Character.isDigit(uri.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,10 +1,15 @@
 package com.relatia.customer_service.config;
 
+import com.relatia.customer_service.customer.CustomerProperties;
+import com.relatia.customer_service.datasource.DataSourceRoutingProperties;
+import com.relatia.customer_service.datasource.ShardingProperties;
 import com.relatia.customer_service.model.OrganisationInfo;
+import com.relatia.customer_service.notification.NotificationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
-@EnableConfigurationProperties(OrganisationInfo.class)
+@EnableConfigurationProperties({OrganisationInfo.class, CustomerProperties.class, NotificationProperties.class,
+        DataSourceRoutingProperties.class, ShardingProperties.class})
 @Configuration
 public class Properties {
 }
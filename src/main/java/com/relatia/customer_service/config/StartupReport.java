@@ -0,0 +1,99 @@
+package com.relatia.customer_service.config;
+
+import com.relatia.customer_service.CustomerServiceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Logs where startup time went once the application is ready.
+ *
+ * <p>Always reported are the phases: JVM start until {@code SpringApplication.run} (class loading, where a
+ * class-data sharing archive helps), context refresh, and runners until ready. When started with
+ * {@code -Dstartup.report=true} the recorded timeline is broken down further into the slowest top-level
+ * steps and the slowest beans; bean times include the beans they depend on.</p>
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    private static final int TOP = 15;
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private volatile Duration started;
+
+    @EventListener
+    void onStarted(ApplicationStartedEvent event) {
+        started = event.getTimeTaken();
+    }
+
+    @EventListener
+    void onReady(ApplicationReadyEvent event) {
+        Duration ready = event.getTimeTaken();
+        Duration uptime = Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+        StringBuilder report = new StringBuilder("Startup report:");
+        line(report, "JVM start to SpringApplication.run", uptime.minus(ready));
+        if (started != null) {
+            line(report, "environment and context refresh", started);
+            line(report, "runners until ready", ready.minus(started));
+        }
+        line(report, "total since JVM start", uptime);
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup buffering) {
+            List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+            report.append("\n  slowest steps:");
+            stepTotals(events).entrySet().stream()
+                    .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                    .limit(TOP)
+                    .forEach(step -> line(report, "  " + step.getKey(), step.getValue()));
+            report.append("\n  slowest beans (including their dependencies):");
+            events.stream()
+                    .filter(e -> BEAN_INSTANTIATION.equals(e.getStartupStep().getName()))
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(TOP)
+                    .forEach(e -> line(report, "  " + beanName(e.getStartupStep()), e.getDuration()));
+        } else {
+            report.append("\n  start with -D").append(CustomerServiceApplication.STARTUP_REPORT)
+                    .append("=true for steps and beans");
+        }
+        log.info(report.toString());
+    }
+
+    /**
+     * Total time per step name, counting only steps that are not nested in another one.
+     */
+    private static Map<String, Duration> stepTotals(List<StartupTimeline.TimelineEvent> events) {
+        return events.stream()
+                .filter(e -> e.getStartupStep().getParentId() == null)
+                .collect(Collectors.toMap(e -> e.getStartupStep().getName(),
+                        StartupTimeline.TimelineEvent::getDuration, Duration::plus, LinkedHashMap::new));
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+
+    private static void line(StringBuilder report, String phase, Duration duration) {
+        report.append(String.format("%n  %-60s %7d ms", phase, duration.toMillis()));
+    }
+}
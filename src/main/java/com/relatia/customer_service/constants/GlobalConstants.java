@@ -3,8 +3,10 @@ package com.relatia.customer_service.constants;
 public class GlobalConstants {
     public static final String SERVICE_NAME = "customer-service";
     public static final String CUSTOMER_API = "api/v1/customers";
+    public static final String CUSTOMER_IMPORT_API = "api/v1/customer-imports";
     public static final String NOTIFICATION_API = "/api/v1/notifications";
     public static final String ORGANISATION_API = "api/v1/organisation";
+    public static final String NOTIFICATION_CAMPAIGN_API = "/api/v1/notification-campaigns";
     public static final String CUSTOMER_NOTIFICATION_API = "/api/v1/customers/{customerId}/notifications";
     public static final String DATE_TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
     private GlobalConstants(){}
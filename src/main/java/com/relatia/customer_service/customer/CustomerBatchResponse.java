@@ -0,0 +1,29 @@
+package com.relatia.customer_service.customer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response of a bulk create request, with one result per submitted item in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Per-item results of a bulk create request")
+public class CustomerBatchResponse {
+
+    @Schema(description = "Number of customers created", example = "998")
+    private int created;
+
+    @Schema(description = "Number of items rejected", example = "2")
+    private int rejected;
+
+    @Schema(description = "One result per submitted item, in request order")
+    private List<CustomerBatchResult> results;
+}
@@ -0,0 +1,43 @@
+package com.relatia.customer_service.customer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of a single item of a bulk create request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of one customer in a bulk create request")
+public class CustomerBatchResult {
+
+    @Schema(description = "Zero-based position of the item in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Whether the item was created or why it was rejected")
+    private Status status;
+
+    @Schema(description = "Id of the created customer", example = "1", nullable = true)
+    private Long id;
+
+    @Schema(description = "Reason the item was rejected", nullable = true)
+    private String message;
+
+    @Schema(description = "Field validation errors of a rejected item", nullable = true)
+    private Map<String, String> errors;
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        DUPLICATE_EMAIL
+    }
+}
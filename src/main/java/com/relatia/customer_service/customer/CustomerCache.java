@@ -0,0 +1,124 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.ReplicaReads;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the {@value #NAME} cache in front of {@link CustomerService#findById(Long)} coherent.
+ *
+ * <p>Entries are evicted after the writing transaction commits, and again when another replica
+ * reports a change over the bus. A read that loaded the row before such a change may only finish
+ * after the eviction; its result must not be cached, or the pre-change row would be served until
+ * it expires. Every eviction therefore stamps the id's stripe with a new generation, and a load
+ * only caches its result if no stripe stamp of its id is newer than the load's start. A stamp that
+ * lands between that check and the put makes the load evict what it just put. Unrelated ids that
+ * share a stripe merely skip caching one load.</p>
+ *
+ * <p>A load may also read from a replica that has not replicated the change yet, e.g. for a client
+ * without a write token. Evictions therefore also stamp the stripe with the time, and a load that
+ * read from a replica behind that time is not cached either, see {@link ReplicaReads}; otherwise the
+ * writer's own token-bound reads would be answered from the cache with the row it just changed.</p>
+ */
+@Component
+@RequiredArgsConstructor
+class CustomerCache {
+
+    static final String NAME = "customers";
+
+    private static final int STRIPES = 4096;
+
+    private final CacheManager cacheManager;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLongArray evictedAt = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray evictedAtMillis = new AtomicLongArray(STRIPES);
+
+    /**
+     * The current generation; a load that started here may cache what it read, see
+     * {@link #get(Long, long, Callable)}.
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the cached customer, loading and caching it on a miss.
+     */
+    CustomerResponse get(Long id, Callable<CustomerResponse> loader) {
+        return get(id, generation(), loader);
+    }
+
+    /**
+     * Returns the cached customer, loading it on a miss. The loaded customer is cached unless it was
+     * changed since {@code since}, which must be taken before the transaction first read the database.
+     */
+    CustomerResponse get(Long id, long since, Callable<CustomerResponse> loader) {
+        CustomerResponse cached = cache().get(id, CustomerResponse.class);
+        if (cached != null) {
+            return cached;
+        }
+        CustomerResponse loaded;
+        try {
+            loaded = loader.call();
+        } catch (RuntimeException e) {
+            // Surface the loader's own exception, e.g. ResourceNotFoundException
+            throw e;
+        } catch (Exception e) {
+            throw new Cache.ValueRetrievalException(id, loader, e);
+        }
+        putIfUnchanged(id, since, loaded);
+        return loaded;
+    }
+
+    /**
+     * Returns the cached customer without loading it on a miss.
+     */
+    Optional<CustomerResponse> peek(Long id) {
+        return Optional.ofNullable(cache().get(id, CustomerResponse.class));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.type() != CustomerChangedEvent.Type.CREATED) {
+            evict(event.customerId());
+        }
+    }
+
+    /**
+     * Stamps first, so a load that has not yet put sees the change and one that has is evicted here.
+     */
+    void evict(Long id) {
+        int stripe = stripe(id);
+        evictedAtMillis.accumulateAndGet(stripe, System.currentTimeMillis(), Math::max);
+        evictedAt.accumulateAndGet(stripe, generation.incrementAndGet(), Math::max);
+        cache().evict(id);
+    }
+
+    private void putIfUnchanged(Long id, long since, CustomerResponse loaded) {
+        int stripe = stripe(id);
+        if (evictedAt.get(stripe) > since || ReplicaReads.mayPredate(evictedAtMillis.get(stripe))) {
+            return;
+        }
+        cache().put(id, loaded);
+        if (evictedAt.get(stripe) > since) {
+            // Evicted between the check and the put, possibly before the put landed
+            cache().evict(id);
+        }
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(NAME);
+    }
+}
@@ -0,0 +1,51 @@
+package com.relatia.customer_service.customer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Relays committed customer changes to the other replicas over Spring Cloud Bus,
+ * and replays changes received from them as local {@link CustomerChangedEvent}s.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "spring.cloud.bus.enabled", matchIfMissing = true)
+class CustomerChangeBroadcaster {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final BusProperties busProperties;
+    private final Destination.Factory destinationFactory;
+
+    /**
+     * Broadcasts a local change once its transaction has committed.
+     */
+    @TransactionalEventListener
+    void broadcast(CustomerChangedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        eventPublisher.publishEvent(new CustomerChangedRemoteEvent(
+                this, busProperties.getId(), destinationFactory.getDestination(null), event));
+    }
+
+    /**
+     * Replays a change made on another replica.
+     */
+    @EventListener
+    void receive(CustomerChangedRemoteEvent event) {
+        // Our own broadcasts are delivered locally as well
+        if (busProperties.getId().equals(event.getOriginService())) {
+            return;
+        }
+        log.debug("Customer {} {} on {}", event.getCustomerId(), event.getType(), event.getOriginService());
+        eventPublisher.publishEvent(event.toLocalEvent());
+    }
+}
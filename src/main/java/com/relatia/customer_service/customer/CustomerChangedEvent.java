@@ -0,0 +1,41 @@
+package com.relatia.customer_service.customer;
+
+/**
+ * Published by {@link CustomerService} whenever a customer is created, updated or deleted.
+ *
+ * <p>Listeners keeping per-node state (caches, indexes) should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)}: local writes are then
+ * delivered after commit, and changes made on other replicas, which arrive over the
+ * bus outside any transaction, are delivered immediately with {@link #remote()} set.</p>
+ *
+ * @param type what happened to the customer
+ * @param customerId id of the affected customer
+ * @param customer state after the change; {@code null} for deletions
+ * @param previousEmail email before an update or deletion, when known
+ * @param remote whether the change was made on another replica
+ */
+public record CustomerChangedEvent(
+        Type type,
+        Long customerId,
+        CustomerResponse customer,
+        String previousEmail,
+        boolean remote) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    static CustomerChangedEvent created(CustomerResponse customer) {
+        return new CustomerChangedEvent(Type.CREATED, customer.getId(), customer, null, false);
+    }
+
+    static CustomerChangedEvent updated(CustomerResponse customer, String previousEmail) {
+        return new CustomerChangedEvent(Type.UPDATED, customer.getId(), customer, previousEmail, false);
+    }
+
+    static CustomerChangedEvent deleted(Long customerId, String previousEmail) {
+        return new CustomerChangedEvent(Type.DELETED, customerId, null, previousEmail, false);
+    }
+}
@@ -0,0 +1,33 @@
+package com.relatia.customer_service.customer;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Bus envelope carrying a {@link CustomerChangedEvent} to the other replicas.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class CustomerChangedRemoteEvent extends RemoteApplicationEvent {
+
+    private CustomerChangedEvent.Type type;
+    private Long customerId;
+    private CustomerResponse customer;
+    private String previousEmail;
+
+    CustomerChangedRemoteEvent(Object source, String originService, Destination destination, CustomerChangedEvent event) {
+        super(source, originService, destination);
+        this.type = event.type();
+        this.customerId = event.customerId();
+        this.customer = event.customer();
+        this.previousEmail = event.previousEmail();
+    }
+
+    CustomerChangedEvent toLocalEvent() {
+        return new CustomerChangedEvent(type, customerId, customer, previousEmail, true);
+    }
+}
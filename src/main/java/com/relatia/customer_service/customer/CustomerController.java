@@ -11,10 +11,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -46,36 +48,126 @@ class CustomerController {
     private final CustomerService customerService;
 
     /**
-     * Retrieves all customers.
+     * Retrieves one page of customers, ordered by id.
+     *
+     * @param cursor The cursor returned as {@code next} by the previous page; omit for the first page
+     * @param size The maximum number of customers to return
+     * @return The page of customers and the cursor of the next page
+     */
+    @Operation(
+        summary = "Get customers page by page",
+        description = "Retrieves customers ordered by id using keyset pagination. "
+            + "Pass the returned 'next' cursor to fetch the following page."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved page of customers",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = CustomerPage.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or page size",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @GetMapping
+    public ResponseEntity<CustomerPage> findPage(
+            @Parameter(description = "Opaque cursor of the page to retrieve")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, clamped to the configured maximum", example = "50")
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(customerService.findPage(cursor, size));
+    }
+
+    /**
+     * Searches customers by name, email or phone number.
+     *
+     * @param q The words to search for; every word must match the start of a name, email or phone number
+     * @param cursor The cursor returned as {@code next} by the previous page; omit for the first page
+     * @param size The maximum number of customers to return
+     * @return The page of matching customers, best matches first
+     */
+    @Operation(
+        summary = "Search customers",
+        description = "Type-ahead search over first name, last name, email and phone number. "
+            + "Phone numbers match on any trailing part, ignoring formatting."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved page of matching customers",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = CustomerPage.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Query too short, or invalid cursor or page size",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<CustomerPage> search(
+            @Parameter(description = "Search query", required = true, example = "john do")
+            @RequestParam String q,
+            @Parameter(description = "Opaque cursor of the page to retrieve")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, clamped to the configured maximum", example = "20")
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(customerService.search(q, cursor, size));
+    }
+
+    /**
+     * Retrieves all customers in a single response.
+     * Only available when unpaged listing has been explicitly enabled.
      *
      * @return List of all customers with their details
      */
     @Operation(
         summary = "Get all customers",
-        description = "Retrieves a list of all customers in the system"
+        description = "Retrieves a list of all customers in the system. "
+            + "Disabled unless customer.pagination.allow-unpaged is set."
     )
-    @ApiResponse(
-        responseCode = "200",
-        description = "Successfully retrieved list of customers",
-        content = @Content(
-            mediaType = MediaType.APPLICATION_JSON_VALUE,
-            array = @ArraySchema(schema = @Schema(implementation = CustomerResponse.class))
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved list of customers",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                array = @ArraySchema(schema = @Schema(implementation = CustomerResponse.class))
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unpaged listing is disabled",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
         )
-    )
-    @GetMapping
+    })
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<CustomerResponse>> findAll() {
         return ResponseEntity.ok(customerService.findAll());
     }
 
     /**
      * Retrieves a specific customer by ID.
+     * The response carries an ETag; a matching {@code If-None-Match} is answered with 304 Not Modified
+     * from the customer's version alone, without building the response body.
      *
      * @param id The ID of the customer to retrieve
-     * @return The customer details if found
+     * @param request The current request, used for conditional request handling
+     * @return The customer details if found, or an empty 304 response if the client's copy is current
      */
     @Operation(
         summary = "Get customer by ID",
-        description = "Retrieves a specific customer's details by their unique identifier"
+        description = "Retrieves a specific customer's details by their unique identifier. "
+            + "Supports conditional requests with If-None-Match."
     )
     @ApiResponses({
         @ApiResponse(
@@ -86,6 +178,10 @@ class CustomerController {
                 schema = @Schema(implementation = CustomerResponse.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Customer unchanged since the version identified by If-None-Match"
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Customer not found",
@@ -99,9 +195,61 @@ class CustomerController {
                 required = true,
                 example = "1"
             )
-            @PathVariable Long id
+            @PathVariable Long id,
+            @Parameter(hidden = true) WebRequest request
     ) {
-        return ResponseEntity.ok(customerService.findById(id));
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String eTag = customerService.findVersion(id)
+                    .map(version -> CustomerETag.of(id, version))
+                    .orElse(null);
+            if (eTag != null && request.checkNotModified(eTag)) {
+                return null;
+            }
+        }
+        CustomerResponse customer = customerService.findById(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String eTag = CustomerETag.of(customer.getId(), customer.getVersion());
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(customer);
+    }
+
+    /**
+     * Retrieves a customer by email address.
+     *
+     * @param email The email address of the customer, matched case-insensitively
+     * @return The customer details if found
+     */
+    @Operation(
+        summary = "Get customer by email",
+        description = "Retrieves a specific customer's details by their email address"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved customer details",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = CustomerResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Customer not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @GetMapping("/by-email")
+    public ResponseEntity<CustomerResponse> findByEmail(
+            @Parameter(
+                description = "Email address of the customer to be retrieved",
+                required = true,
+                example = "john.doe@example.com"
+            )
+            @RequestParam String email
+    ) {
+        return ResponseEntity.ok(customerService.findByEmail(email));
     }
 
     /**
@@ -146,6 +294,55 @@ class CustomerController {
         return new ResponseEntity<>(customerService.create(request), HttpStatus.CREATED);
     }
 
+    /**
+     * Creates many customers in one request.
+     *
+     * @param requests The customers to create
+     * @return The outcome of every item, in request order
+     */
+    @Operation(
+        summary = "Create customers in bulk",
+        description = "Creates up to the configured maximum of customers using batched inserts. "
+            + "Invalid items and duplicate emails are reported per item instead of failing the request."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Request processed; see the per-item results",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = CustomerBatchResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty or oversized batch",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "A concurrent write claimed one of the emails",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @PostMapping(
+        value = "/batch",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<CustomerBatchResponse> createAll(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Customers to create",
+                required = true,
+                content = @Content(
+                    array = @ArraySchema(schema = @Schema(implementation = CustomerRequest.class))
+                )
+            )
+            @RequestBody List<CustomerRequest> requests
+    ) {
+        return ResponseEntity.ok(customerService.createAll(requests));
+    }
+
     /**
      * Updates an existing customer.
      *
@@ -0,0 +1,35 @@
+package com.relatia.customer_service.customer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of a customer page as an opaque, URL-safe token.
+ * The token only carries the last id seen, so decoding never touches the database.
+ */
+final class CustomerCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CustomerCursor() {}
+
+    static String encode(long lastId) {
+        return ENCODER.encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return the last id seen by the previous page, or {@code 0} for the first page
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(long)}
+     */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        long lastId = Long.parseLong(new String(DECODER.decode(cursor), StandardCharsets.US_ASCII));
+        if (lastId < 0) {
+            throw new IllegalArgumentException("Negative cursor position");
+        }
+        return lastId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.relatia.customer_service.customer;
+
+/**
+ * Builds strong entity tags for customer representations from the id and the {@code @Version} counter,
+ * which is bumped on every write, so the tag changes exactly when the customer does.
+ */
+final class CustomerETag {
+
+    private CustomerETag() {}
+
+    /**
+     * @return the quoted entity tag, or {@code null} if the version is unknown
+     */
+    static String of(Long id, Long version) {
+        if (id == null || version == null) {
+            return null;
+        }
+        return "\"" + id + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,158 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Email to customer id, for the uniqueness and lookups {@code uk_customer_email} can no longer provide
+ * once customers are spread over shards.
+ *
+ * <p>Entries live in {@code customer_email_directory} on the shard the case-folded email hashes to, so a
+ * given email is always claimed in one place and its primary key decides races. A customer claims its
+ * email before its row is written; the previous email of an update is released once the update has
+ * committed. A claim left behind by a rollback the writer could not clean up after, or by a crash, is taken
+ * over by the next customer that wants the email, once it is older than {@link #CLAIM_GRACE} and its
+ * customer turns out not to have that email.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "datasource.sharding.enabled")
+class CustomerEmailDirectory {
+
+    static final Duration CLAIM_GRACE = Duration.ofMinutes(5);
+
+    static final String FIND_SQL = "SELECT customer_id FROM customer_email_directory WHERE email = :email";
+    static final String FIND_EXISTING_SQL = "SELECT email FROM customer_email_directory WHERE email IN (:emails)";
+    static final String CLAIM_SQL = """
+            INSERT INTO customer_email_directory (email, customer_id, claimed_at)
+            VALUES (:email, :customerId, :now)""";
+    static final String TAKE_OVER_SQL = """
+            UPDATE customer_email_directory SET customer_id = :customerId, claimed_at = :now
+            WHERE email = :email AND customer_id = :owner AND claimed_at < :staleBefore""";
+    static final String RELEASE_SQL = "DELETE FROM customer_email_directory WHERE email = :email AND customer_id = :customerId";
+    static final String OWNER_EMAIL_SQL = "SELECT email FROM customers WHERE id = :id";
+
+    private final Shards shards;
+    private final Map<String, NamedParameterJdbcTemplate> jdbcTemplates = new HashMap<>();
+
+    CustomerEmailDirectory(Shards shards) {
+        this.shards = shards;
+        shards.names().forEach(shard -> jdbcTemplates.put(shard, new NamedParameterJdbcTemplate(shards.dataSource(shard))));
+    }
+
+    Optional<Long> findId(String email) {
+        String normalized = CustomerEmailIndex.normalize(email);
+        return jdbcTemplates.get(shards.shardOf(normalized))
+                .queryForList(FIND_SQL, new MapSqlParameterSource("email", normalized), Long.class)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * @return the case-folded emails that are claimed
+     */
+    List<String> findExisting(Collection<String> emails) {
+        Map<String, List<String>> byShard = new HashMap<>();
+        for (String email : emails) {
+            String normalized = CustomerEmailIndex.normalize(email);
+            byShard.computeIfAbsent(shards.shardOf(normalized), shard -> new ArrayList<>()).add(normalized);
+        }
+        List<String> existing = new ArrayList<>();
+        shards.scatter(byShard.keySet(), shard -> jdbcTemplates.get(shard).queryForList(FIND_EXISTING_SQL,
+                        new MapSqlParameterSource("emails", byShard.get(shard)), String.class))
+                .forEach(existing::addAll);
+        return existing;
+    }
+
+    /**
+     * Claims {@code email} for the customer.
+     *
+     * @return {@code true} if the claim is new, {@code false} if the customer already had it
+     * @throws DuplicateKeyException if another customer has the email
+     */
+    boolean claim(String email, long customerId) {
+        Claim claim = tryClaim(CustomerEmailIndex.normalize(email), customerId);
+        if (claim == Claim.TAKEN) {
+            throw new DuplicateKeyException("Email is already in use (uk_customer_email)");
+        }
+        return claim == Claim.CLAIMED;
+    }
+
+    void release(String email, long customerId) {
+        String normalized = CustomerEmailIndex.normalize(email);
+        jdbcTemplates.get(shards.shardOf(normalized)).update(RELEASE_SQL, new MapSqlParameterSource()
+                .addValue("email", normalized)
+                .addValue("customerId", customerId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCustomerChanged(CustomerChangedEvent event) {
+        // The replica that made the change releases it; the directory is shared
+        if (event.remote() || event.type() != CustomerChangedEvent.Type.UPDATED || event.previousEmail() == null
+                || CustomerEmailIndex.normalize(event.previousEmail())
+                        .equals(CustomerEmailIndex.normalize(event.customer().getEmail()))) {
+            return;
+        }
+        release(event.previousEmail(), event.customerId());
+    }
+
+    private Claim tryClaim(String email, long customerId) {
+        NamedParameterJdbcTemplate jdbcTemplate = jdbcTemplates.get(shards.shardOf(email));
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("email", email)
+                .addValue("customerId", customerId)
+                .addValue("now", Timestamp.valueOf(now));
+        try {
+            jdbcTemplate.update(CLAIM_SQL, parameters);
+            return Claim.CLAIMED;
+        } catch (DuplicateKeyException e) {
+            Long owner = jdbcTemplate.queryForList(FIND_SQL, parameters, Long.class).stream().findFirst().orElse(null);
+            if (owner == null) {
+                // Released in the meantime
+                return tryClaim(email, customerId);
+            }
+            if (owner == customerId) {
+                return Claim.OWNED;
+            }
+            if (ownerHasEmail(owner, email)) {
+                return Claim.TAKEN;
+            }
+            boolean takenOver = jdbcTemplate.update(TAKE_OVER_SQL, parameters
+                    .addValue("owner", owner)
+                    .addValue("staleBefore", Timestamp.valueOf(now.minus(CLAIM_GRACE)))) == 1;
+            if (!takenOver) {
+                return Claim.TAKEN;
+            }
+            log.info("Took over stale email claim of customer {} for customer {}", owner, customerId);
+            return Claim.CLAIMED;
+        }
+    }
+
+    private boolean ownerHasEmail(long owner, String email) {
+        return jdbcTemplates.get(shards.shardOf(owner))
+                .queryForList(OWNER_EMAIL_SQL, new MapSqlParameterSource("id", owner), String.class)
+                .stream()
+                .anyMatch(ownerEmail -> CustomerEmailIndex.normalize(ownerEmail).equals(email));
+    }
+
+    private enum Claim {
+        CLAIMED, OWNED, TAKEN
+    }
+}
@@ -0,0 +1,162 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-node index of customer emails, built at startup and kept current from
+ * {@link CustomerChangedEvent}s of this and the other replicas.
+ *
+ * <p>A Bloom filter answers "is this email definitely new?" so uniqueness checks can
+ * skip the database for the common case; it also holds the emails of soft-deleted customers,
+ * which stay reserved until purged. A positive answer still goes to the database,
+ * and the {@code uk_customer_email} constraint remains the final authority for races.
+ * An exact map of case-folded email to id backs lookups by email.</p>
+ *
+ * <p>Until the initial build has finished, every query falls back to the database.</p>
+ */
+@Slf4j
+@Component
+class CustomerEmailIndex {
+
+    static final String INDEX_SQL = "SELECT id, email, is_deleted FROM customers";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final CustomerProperties customerProperties;
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
+    private final BloomFilter bloomFilter;
+    private volatile boolean ready;
+
+    CustomerEmailIndex(JdbcTemplate jdbcTemplate, Shards shards, CustomerProperties customerProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.customerProperties = customerProperties;
+        CustomerProperties.EmailIndex properties = customerProperties.getEmailIndex();
+        this.bloomFilter = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+    }
+
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return {@code false} only if no customer can have this email, otherwise {@code true}
+     */
+    boolean mightExist(String email) {
+        return !ready || email == null || bloomFilter.mightContain(normalize(email));
+    }
+
+    /**
+     * @return the id of the customer with this email, or empty if the index cannot tell
+     */
+    Optional<Long> findId(String email) {
+        if (!ready || email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(idsByEmail.get(normalize(email)));
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        if (!customerProperties.getEmailIndex().isEnabled()) {
+            return;
+        }
+        Thread builder = new Thread(this::build, "customer-email-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        try {
+            for (String shard : shards.names()) {
+                shards.run(shard, this::load);
+            }
+            ready = true;
+            log.info("Customer email index built with {} entries in {} ms",
+                    idsByEmail.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Could not build customer email index, uniqueness checks will keep using the database", e);
+        }
+    }
+
+    private void load() {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    INDEX_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(customerProperties.getExport().getFetchSize());
+            return statement;
+        }, (ResultSet rs) -> {
+            if (rs.getBoolean("is_deleted")) {
+                // Reserved by uk_customer_email until purged, but not found by lookups
+                reserve(rs.getString("email"));
+            } else {
+                // Changes applied by events while the build runs take precedence
+                add(rs.getLong("id"), rs.getString("email"), false);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCustomerChanged(CustomerChangedEvent event) {
+        if (!customerProperties.getEmailIndex().isEnabled()) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED -> add(event.customerId(), event.customer().getEmail(), true);
+            case UPDATED -> {
+                remove(event.customerId());
+                add(event.customerId(), event.customer().getEmail(), true);
+            }
+            case DELETED -> remove(event.customerId());
+        }
+    }
+
+    private void add(long id, String email, boolean replace) {
+        if (email == null) {
+            return;
+        }
+        String normalized = normalize(email);
+        bloomFilter.put(normalized);
+        if (replace) {
+            idsByEmail.put(normalized, id);
+            emailsById.put(id, normalized);
+        } else if (emailsById.putIfAbsent(id, normalized) == null) {
+            idsByEmail.putIfAbsent(normalized, id);
+        }
+    }
+
+    private void reserve(String email) {
+        if (email != null) {
+            bloomFilter.put(normalize(email));
+        }
+    }
+
+    /**
+     * Bloom filters cannot forget, so a removed email keeps a set bit and falls back to the database.
+     */
+    private void remove(Long id) {
+        String email = emailsById.remove(id);
+        if (email != null) {
+            idsByEmail.remove(email, id);
+        }
+    }
+}
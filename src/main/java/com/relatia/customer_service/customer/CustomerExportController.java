@@ -0,0 +1,77 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.customer.CustomerExporter.ExportFormat;
+import com.relatia.customer_service.exception.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import static com.relatia.customer_service.constants.GlobalConstants.CUSTOMER_API;
+
+/**
+ * REST controller for bulk export of the customer table.
+ * Rows are streamed straight to the response, so exports of any size run in constant memory.
+ */
+@Tag(
+    name = "Customer Export",
+    description = "APIs for streaming every customer as NDJSON or CSV"
+)
+@RequestMapping(path = CUSTOMER_API)
+@RestController
+@RequiredArgsConstructor
+@ApiResponses({
+    @ApiResponse(
+        responseCode = "500",
+        description = "Internal Server Error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+})
+class CustomerExportController {
+
+    private final CustomerExporter customerExporter;
+
+    /**
+     * Streams every customer in ascending id order.
+     *
+     * @param format The output format, either NDJSON (one JSON object per line) or CSV with a header row
+     * @param response The servlet response the rows are written to
+     */
+    @Operation(
+        summary = "Export all customers",
+        description = "Streams every customer as NDJSON or CSV without buffering the table in memory"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Customers streamed successfully",
+        content = {
+            @Content(mediaType = "application/x-ndjson"),
+            @Content(mediaType = "text/csv")
+        }
+    )
+    @GetMapping("/export")
+    public void export(
+            @Parameter(description = "Output format", example = "NDJSON")
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(format.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"customers." + format.name().toLowerCase(Locale.ROOT) + "\"");
+        customerExporter.export(format, response.getOutputStream());
+    }
+}
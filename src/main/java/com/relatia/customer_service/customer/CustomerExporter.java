@@ -0,0 +1,331 @@
+package com.relatia.customer_service.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.relatia.customer_service.datasource.Shards;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.relatia.customer_service.constants.GlobalConstants.DATE_TIME_FORMAT;
+
+/**
+ * Streams the customers table to an output stream as NDJSON or CSV.
+ *
+ * <p>Rows are read through a forward-only, read-only JDBC cursor and written one by one
+ * with a Jackson streaming generator, so only the driver's fetch window is ever held in
+ * memory regardless of the table size. Field names and date formats match
+ * {@link CustomerResponse}.</p>
+ *
+ * <p>When the table is sharded every shard is read in parallel by its own thread into a queue of
+ * one fetch window, and the writer merges the queues by id, so the output is still in id order.</p>
+ */
+@Slf4j
+@Component
+class CustomerExporter {
+
+    static final String EXPORT_SQL = """
+            SELECT id, first_name, last_name, email, phone, address,
+                   created_at, updated_at, created_by, updated_by, is_deleted, version
+            FROM customers
+            WHERE is_deleted = FALSE
+            ORDER BY id""";
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(DATE_TIME_FORMAT);
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("firstName")
+            .addColumn("lastName")
+            .addColumn("email")
+            .addColumn("phone")
+            .addColumn("address")
+            .addColumn("createdAt")
+            .addColumn("updatedAt")
+            .addColumn("createdBy")
+            .addColumn("updatedBy")
+            .addColumn("deleted")
+            .addColumn("version")
+            .build()
+            .withHeader();
+
+    private static final Row END = new Row(-1, null, null, null, null, null, null, null, null, null, false, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final CustomerProperties customerProperties;
+    private final MeterRegistry meterRegistry;
+
+    CustomerExporter(JdbcTemplate jdbcTemplate, Shards shards, ObjectMapper objectMapper,
+                     CustomerProperties customerProperties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.objectMapper = objectMapper;
+        this.customerProperties = customerProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Writes every customer to {@code out}. The stream is flushed but not closed.
+     *
+     * @return the number of rows written
+     */
+    long export(ExportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long[] rows = {0};
+        boolean csv = format == ExportFormat.CSV;
+
+        try (JsonGenerator generator = createGenerator(format, out)) {
+            Consumer<Row> writer = row -> {
+                try {
+                    writeRow(generator, row, csv);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            };
+            if (shards.isSharded()) {
+                exportMerged(writer);
+            } else {
+                query(writer);
+            }
+            generator.flush();
+        } catch (UncheckedIOException e) {
+            // Most likely the client went away mid-export
+            log.warn("Customer export aborted after {} rows: {}", rows[0], e.getMessage());
+            throw e.getCause();
+        } finally {
+            record(format, rows[0], System.nanoTime() - start);
+        }
+        return rows[0];
+    }
+
+    private void query(Consumer<Row> sink) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(customerProperties.getExport().getFetchSize());
+            return statement;
+        }, (ResultSet rs) -> sink.accept(Row.read(rs)));
+    }
+
+    /**
+     * K-way merge of the shards' id-ordered cursors.
+     */
+    private void exportMerged(Consumer<Row> writer) throws IOException {
+        List<ShardCursor> cursors = shards.names().stream().map(ShardCursor::new).toList();
+        cursors.forEach(ShardCursor::start);
+        PriorityQueue<ShardCursor> heads =
+                new PriorityQueue<>(Comparator.comparingLong((ShardCursor cursor) -> cursor.head.id()));
+        try {
+            for (ShardCursor cursor : cursors) {
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+            while (!heads.isEmpty()) {
+                ShardCursor cursor = heads.poll();
+                writer.accept(cursor.head);
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Customer export interrupted");
+        } finally {
+            // Stops the readers of shards that were not drained, e.g. because the client went away
+            cursors.forEach(ShardCursor::stop);
+        }
+    }
+
+    private JsonGenerator createGenerator(ExportFormat format, OutputStream out) throws IOException {
+        JsonGenerator generator;
+        if (format == ExportFormat.CSV) {
+            generator = csvMapper.getFactory().createGenerator(out);
+            generator.setSchema(CSV_SCHEMA);
+        } else {
+            generator = objectMapper.getFactory().createGenerator(out);
+            // One JSON document per line; the newline is written explicitly after each row
+            generator.setRootValueSeparator(new SerializedString(""));
+        }
+        // The stream belongs to the caller
+        return generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private void writeRow(JsonGenerator generator, Row row, boolean csv) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.id());
+        writeString(generator, "firstName", row.firstName(), csv);
+        writeString(generator, "lastName", row.lastName(), csv);
+        writeString(generator, "email", row.email(), csv);
+        writeString(generator, "phone", row.phone(), csv);
+        writeString(generator, "address", row.address(), csv);
+        writeString(generator, "createdAt", format(row.createdAt()), csv);
+        writeString(generator, "updatedAt", format(row.updatedAt()), csv);
+        writeString(generator, "createdBy", row.createdBy(), csv);
+        writeString(generator, "updatedBy", row.updatedBy(), csv);
+        generator.writeBooleanField("deleted", row.deleted());
+        generator.writeNumberField("version", row.version());
+        generator.writeEndObject();
+        if (!csv) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * NDJSON omits null fields like {@link CustomerResponse}; CSV keeps the column and leaves it empty.
+     */
+    private static void writeString(JsonGenerator generator, String name, String value, boolean csv) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        } else if (csv) {
+            generator.writeNullField(name);
+        }
+    }
+
+    private static String format(Timestamp timestamp) {
+        return timestamp == null ? null : DATE_TIME_FORMATTER.format(timestamp.toLocalDateTime());
+    }
+
+    private void record(ExportFormat format, long rows, long elapsedNanos) {
+        String tag = format.name().toLowerCase(Locale.ROOT);
+        meterRegistry.counter("customer.export.rows", "format", tag).increment(rows);
+        Timer.builder("customer.export.duration")
+                .description("Wall time of a full customer export")
+                .tag("format", tag)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos > 0) {
+            DistributionSummary.builder("customer.export.throughput")
+                    .description("Rows per second achieved by each customer export")
+                    .baseUnit("rows/s")
+                    .tag("format", tag)
+                    .register(meterRegistry)
+                    .record(rows * 1_000_000_000d / elapsedNanos);
+        }
+        log.info("Exported {} customers as {} in {} ms", rows, tag, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * One exported row, copied out of the result set.
+     */
+    private record Row(long id, String firstName, String lastName, String email, String phone, String address,
+                       Timestamp createdAt, Timestamp updatedAt, String createdBy, String updatedBy,
+                       boolean deleted, long version) {
+
+        static Row read(ResultSet rs) throws SQLException {
+            return new Row(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"),
+                    rs.getString("email"), rs.getString("phone"), rs.getString("address"),
+                    rs.getTimestamp("created_at"), rs.getTimestamp("updated_at"),
+                    rs.getString("created_by"), rs.getString("updated_by"),
+                    rs.getBoolean("is_deleted"), rs.getLong("version"));
+        }
+    }
+
+    /**
+     * Reads one shard on its own thread into a queue of one fetch window.
+     */
+    private final class ShardCursor implements Runnable {
+
+        private final String shard;
+        private final BlockingQueue<Row> rows;
+        private final Thread thread;
+        private volatile RuntimeException failure;
+        private Row head;
+
+        ShardCursor(String shard) {
+            this.shard = shard;
+            this.rows = new ArrayBlockingQueue<>(customerProperties.getExport().getFetchSize());
+            this.thread = new Thread(this, "customer-export-" + shard);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() {
+            thread.interrupt();
+        }
+
+        @Override
+        public void run() {
+            try {
+                shards.run(shard, () -> query(row -> {
+                    try {
+                        rows.put(row);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Export of shard " + shard + " stopped");
+                    }
+                }));
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            try {
+                rows.put(END);
+            } catch (InterruptedException e) {
+                // Nobody is reading any more
+            }
+        }
+
+        /**
+         * Moves to the next row.
+         *
+         * @return {@code false} once the shard has no more rows
+         */
+        boolean advance() throws InterruptedException {
+            head = rows.take();
+            if (head != END) {
+                return true;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+    }
+
+    enum ExportFormat {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        ExportFormat(String contentType) {
+            this.contentType = contentType;
+        }
+
+        String contentType() {
+            return contentType;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import com.relatia.customer_service.model.AssignableTableGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Hands out customer ids when the customers table is sharded.
+ *
+ * <p>The id decides the shard, so it has to be known before the row is written. Ids come from the
+ * {@code customers} row of {@code id_generator} on the main datasource, in the same blocks of
+ * {@value #BLOCK_SIZE} the pooled generator reserves, which keeps them unique across shards and
+ * continuous with the ids handed out before sharding was enabled.</p>
+ */
+@Component
+@ConditionalOnProperty(value = "datasource.sharding.enabled")
+class CustomerIdAllocator {
+
+    static final int BLOCK_SIZE = AssignableTableGenerator.INCREMENT;
+
+    static final String SELECT_SQL = "SELECT next_val FROM id_generator WHERE sequence_name = 'customers' FOR UPDATE";
+    static final String UPDATE_SQL = "UPDATE id_generator SET next_val = ? WHERE sequence_name = 'customers'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private long next;
+    private long last = -1;
+
+    CustomerIdAllocator(Shards shards) {
+        this.jdbcTemplate = new JdbcTemplate(shards.mainDataSource());
+    }
+
+    synchronized long next() {
+        if (next > last) {
+            long high = reserveBlock();
+            // Same block as the pooled optimizer takes for this value
+            next = high - BLOCK_SIZE + 1;
+            last = high;
+        }
+        return next++;
+    }
+
+    /**
+     * Moves {@code next_val} on by one block in its own short transaction.
+     *
+     * @return the highest id of the reserved block
+     */
+    private long reserveBlock() {
+        Long high = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement(SELECT_SQL);
+                 ResultSet rs = select.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("id_generator has no row for customers");
+                }
+                long value = rs.getLong(1);
+                try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
+                    update.setLong(1, value + BLOCK_SIZE);
+                    update.executeUpdate();
+                }
+                connection.commit();
+                return value;
+            } catch (RuntimeException | SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        if (high == null) {
+            throw new IllegalStateException("Could not reserve customer ids");
+        }
+        return high;
+    }
+}
@@ -0,0 +1,34 @@
+package com.relatia.customer_service.customer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A single page of customers, ordered by id or, for searches, by relevance.
+ * Clients pass {@link #next} back as the {@code cursor} parameter to fetch the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A page of customers, with an opaque cursor to the next page")
+public class CustomerPage {
+
+    @Schema(description = "Customers on this page, in ascending id order or best search matches first")
+    private List<CustomerResponse> content;
+
+    @Schema(
+        description = "Opaque cursor for the next page; absent on the last page",
+        example = "MTI0",
+        nullable = true
+    )
+    private String next;
+
+    @Schema(description = "Page size that was applied after clamping", example = "50")
+    private int size;
+}
@@ -0,0 +1,242 @@
+package com.relatia.customer_service.customer;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Tunables for the customer API, bound from the {@code customer.*} properties.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "customer")
+public class CustomerProperties {
+
+    @Valid
+    private Pagination pagination = new Pagination();
+
+    @Valid
+    private Export export = new Export();
+
+    @Valid
+    private Batch batch = new Batch();
+
+    @Valid
+    private Imports imports = new Imports();
+
+    @Valid
+    private EmailIndex emailIndex = new EmailIndex();
+
+    @Valid
+    private Purge purge = new Purge();
+
+    @Valid
+    private Search search = new Search();
+
+    /**
+     * An import chunk goes through one bulk create, which refuses more than {@code batch.max-items} rows.
+     */
+    @AssertTrue(message = "customer.imports.chunk-size must not exceed customer.batch.max-items")
+    private boolean isImportChunkWithinBatchLimit() {
+        return imports.getChunkSize() <= batch.getMaxItems();
+    }
+
+    @Getter
+    @Setter
+    public static class Pagination {
+        /**
+         * Page size used when the client does not ask for one.
+         */
+        @Min(1)
+        private int defaultSize = 50;
+
+        /**
+         * Upper bound for the requested page size; larger requests are clamped.
+         */
+        @Min(1)
+        private int maxSize = 500;
+
+        /**
+         * Whether {@code GET api/v1/customers?unpaged=true} may return the whole table.
+         */
+        private boolean allowUnpaged = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+        /**
+         * Rows the JDBC driver pulls per round trip while streaming the export cursor.
+         * On MySQL this needs {@code useCursorFetch=true} on the JDBC url to take effect.
+         */
+        @Min(1)
+        private int fetchSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Largest number of customers accepted by a single bulk create request.
+         */
+        @Min(1)
+        private int maxItems = 5000;
+
+        /**
+         * Customers written per flush; the persistence context is cleared after each chunk.
+         * Keep it a multiple of {@code hibernate.jdbc.batch_size}.
+         */
+        @Min(1)
+        private int chunkSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Imports {
+        /**
+         * Directory uploads are spooled to before parsing; defaults to the JVM temp directory.
+         */
+        private Path spoolDir = Path.of(System.getProperty("java.io.tmpdir"));
+
+        /**
+         * Rows handed to one bulk insert transaction; at most {@code customer.batch.max-items}.
+         */
+        @Min(1)
+        private int chunkSize = 1000;
+
+        /**
+         * Chunks written at the same time across all running imports.
+         * This caps the connections imports can take away from interactive traffic.
+         */
+        @Min(1)
+        private int maxConcurrentChunks = 2;
+
+        /**
+         * Imports parsed at the same time; further uploads queue until one finishes.
+         */
+        @Min(1)
+        private int maxConcurrentJobs = 2;
+
+        /**
+         * Rejected rows kept on a job for the status resource.
+         */
+        @Min(0)
+        private int maxReportedErrors = 100;
+
+        /**
+         * How long finished jobs stay queryable.
+         */
+        @NotNull
+        private Duration retention = Duration.ofHours(24);
+    }
+
+    @Getter
+    @Setter
+    public static class EmailIndex {
+        /**
+         * Whether each node keeps an in-memory email index to skip uniqueness queries.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of emails the Bloom filter is sized for.
+         */
+        @Min(1)
+        private long expectedInsertions = 5_000_000;
+
+        /**
+         * Target false positive rate of the Bloom filter once it holds the expected number of emails.
+         */
+        @DecimalMin(value = "0.0", inclusive = false)
+        @DecimalMax(value = "1.0", inclusive = false)
+        private double falsePositiveProbability = 0.01;
+    }
+
+    @Getter
+    @Setter
+    public static class Purge {
+        /**
+         * Whether this node physically removes soft-deleted customers. Enable it on one node only.
+         */
+        private boolean enabled = false;
+
+        /**
+         * When purge runs are started.
+         */
+        @NotNull
+        private String cron = "0 */15 * * * *";
+
+        /**
+         * How long a soft-deleted customer is kept before it is purged.
+         */
+        @NotNull
+        private Duration retention = Duration.ofDays(30);
+
+        /**
+         * Rows removed per statement and transaction.
+         */
+        @Min(1)
+        private int batchSize = 500;
+
+        /**
+         * Pause between two batches, leaving room for interactive traffic and replication.
+         */
+        @NotNull
+        private Duration pause = Duration.ofMillis(200);
+
+        /**
+         * Upper bound for the batches of a single run; the rest is left for the next run.
+         */
+        @Min(1)
+        private int maxBatchesPerRun = 200;
+
+        /**
+         * Whether purged rows are copied to {@code customers_archive} before being deleted.
+         */
+        private boolean archive = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Search {
+        /**
+         * Whether each node keeps an in-memory search index; when disabled, searches query the database.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Shortest accepted query, and shortest trailing part of a phone number that is indexed.
+         */
+        @Min(1)
+        private int minQueryLength = 2;
+
+        /**
+         * Customers gathered per query word before ranking, bounding the cost of very short prefixes.
+         */
+        @Min(1)
+        private int maxCandidates = 10_000;
+
+        /**
+         * Threads loading id ranges while the index is built.
+         */
+        @Min(1)
+        private int rebuildParallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Width of the id range each build task loads.
+         */
+        @Min(1)
+        private long rebuildRangeSize = 100_000;
+    }
+}
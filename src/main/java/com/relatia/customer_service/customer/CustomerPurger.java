@@ -0,0 +1,176 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Physically removes customers that were soft-deleted longer than the configured retention ago.
+ *
+ * <p>Each run walks the expired rows in id order and deletes them in small batches, one short
+ * transaction per batch with a pause in between, so a large backlog never holds long locks or
+ * floods replication. Optionally the rows are copied to {@code customers_archive} first.
+ * The email of a soft-deleted customer stays reserved until its row is purged; with sharding, the
+ * batch then releases the purged emails in the {@link CustomerEmailDirectory}.</p>
+ *
+ * <p>Runs are not coordinated across replicas, and two runs archiving the same rows would fail on
+ * the archive's primary key, so the purge is off by default: enable it on a single node.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "customer.purge.enabled")
+class CustomerPurger {
+
+    static final String SELECT_SQL = """
+            SELECT id FROM customers
+            WHERE is_deleted = TRUE AND updated_at < :cutoff AND id > :after
+            ORDER BY id
+            LIMIT :limit""";
+
+    static final String LOCK_SQL = """
+            SELECT id, email FROM customers
+            WHERE id IN (:ids) AND is_deleted = TRUE
+            FOR UPDATE""";
+
+    static final String ARCHIVE_SQL = """
+            INSERT INTO customers_archive (id, first_name, last_name, email, phone, address,
+                                           created_at, updated_at, created_by, updated_by, version)
+            SELECT id, first_name, last_name, email, phone, address,
+                   created_at, updated_at, created_by, updated_by, version
+            FROM customers
+            WHERE id IN (:ids) AND is_deleted = TRUE""";
+
+    static final String DELETE_SQL = "DELETE FROM customers WHERE id IN (:ids) AND is_deleted = TRUE";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final CustomerProperties customerProperties;
+    private final CustomerEmailDirectory emailDirectory;
+    private final Counter purgedRows;
+    private final Timer batchTimer;
+
+    CustomerPurger(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Shards shards,
+                   CustomerProperties customerProperties, ObjectProvider<CustomerEmailDirectory> emailDirectory,
+                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shards = shards;
+        this.customerProperties = customerProperties;
+        this.emailDirectory = emailDirectory.getIfAvailable();
+        this.purgedRows = Counter.builder("customer.purge.rows")
+                .description("Soft-deleted customers physically removed")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("customer.purge.batch")
+                .description("Time spent removing one batch of soft-deleted customers")
+                .register(meterRegistry);
+        Gauge.builder("customer.purge.batch.size", customerProperties, p -> p.getPurge().getBatchSize())
+                .description("Configured rows per purge batch")
+                .register(meterRegistry);
+        Gauge.builder("customer.purge.pause", customerProperties, p -> p.getPurge().getPause().toMillis())
+                .description("Configured pause between purge batches")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${customer.purge.cron:0 */15 * * * *}")
+    void purgeOnSchedule() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.error("Customer purge run failed, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * Runs one purge pass.
+     *
+     * @return the number of rows removed
+     */
+    long purge() {
+        CustomerProperties.Purge properties = customerProperties.getPurge();
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention()));
+        long purged = 0;
+        for (String shard : shards.names()) {
+            purged += shards.call(shard, () -> purge(properties, cutoff));
+        }
+        if (purged > 0) {
+            log.info("Purged {} soft-deleted customers", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Purges the shard the current thread is bound to, up to {@code max-batches-per-run} batches.
+     */
+    private long purge(CustomerProperties.Purge properties, Timestamp cutoff) {
+        long after = 0;
+        long purged = 0;
+
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_SQL, new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("after", after)
+                    .addValue("limit", properties.getBatchSize()), Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            purged += batchTimer.record(() -> purgeBatch(ids, properties.isArchive()));
+            after = ids.get(ids.size() - 1);
+            if (ids.size() < properties.getBatchSize() || !pause(properties)) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    private int purgeBatch(List<Long> ids, boolean archive) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            // Locked, so the emails released are exactly those of the rows deleted
+            List<Purged> rows = jdbcTemplate.query(LOCK_SQL, new MapSqlParameterSource("ids", ids),
+                    (rs, rowNum) -> new Purged(rs.getLong("id"), rs.getString("email")));
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", rows.stream().map(Purged::id).toList());
+            if (archive) {
+                jdbcTemplate.update(ARCHIVE_SQL, parameters);
+            }
+            int count = jdbcTemplate.update(DELETE_SQL, parameters);
+            // Before the commit, so a failed release rolls the batch back and the next run retries it
+            if (emailDirectory != null) {
+                rows.forEach(row -> emailDirectory.release(row.email(), row.id()));
+            }
+            return count;
+        });
+        int rows = deleted == null ? 0 : deleted;
+        purgedRows.increment(rows);
+        return rows;
+    }
+
+    private static boolean pause(CustomerProperties.Purge properties) {
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Purged(long id, String email) {}
+}
@@ -1,7 +1,103 @@
 package com.relatia.customer_service.customer;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for {@link Customer}s. Soft-deleted rows are filtered out of every read
+ * by the entity's {@code @SQLRestriction}.
+ *
+ * <p>Read paths select {@link CustomerView} projections; entities are only loaded to be modified.</p>
+ */
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
-    boolean existsByEmail(String email);
+    /**
+     * Whether the email is taken, by a live or a soft-deleted customer: {@code uk_customer_email}
+     * keeps the email of a soft-deleted customer reserved until the row is purged.
+     */
+    default boolean existsByEmail(String email) {
+        return countByEmailIncludingDeleted(email) > 0;
+    }
+
+    @Query(value = "SELECT COUNT(*) FROM customers WHERE email = :email", nativeQuery = true)
+    long countByEmailIncludingDeleted(@Param("email") String email);
+
+    @Query(CustomerView.SELECT + " where c.id = :id")
+    Optional<CustomerView> findViewById(@Param("id") Long id);
+
+    /**
+     * Current version of a customer, for answering conditional requests without loading the row.
+     */
+    @Query("select c.version from Customer c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query(CustomerView.SELECT + " order by c.id")
+    List<CustomerView> findAllViews();
+
+    /**
+     * Keyset page: the next {@code limit} customers after {@code id}, served straight off the primary key index.
+     */
+    @Query(CustomerView.SELECT + " where c.id > :id order by c.id")
+    List<CustomerView> findViewsAfter(@Param("id") Long id, Limit limit);
+
+    @Query(CustomerView.SELECT + " where c.id in :ids")
+    List<CustomerView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset chunk of the ids of customers in a segment, for fanning out campaigns.
+     * Either filter may be {@code null} to leave it out.
+     *
+     * @param emailPattern a lower-case {@code LIKE} pattern over the email, e.g. {@code "%@example.com"}
+     */
+    @Query("""
+            select c.id from Customer c
+             where c.id > :after
+               and (:emailPattern is null or lower(c.email) like :emailPattern)
+               and (:createdAfter is null or c.createdAt >= :createdAfter)
+             order by c.id""")
+    List<Long> findIdsInSegment(@Param("after") Long after, @Param("emailPattern") String emailPattern,
+                                @Param("createdAfter") LocalDateTime createdAfter, Limit limit);
+
+    /**
+     * Set-based duplicate check: which of the given emails already belong to a customer,
+     * soft-deleted ones included as in {@link #existsByEmail(String)}.
+     */
+    @Query(value = "SELECT email FROM customers WHERE email IN (:emails)", nativeQuery = true)
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Id of the customer with this email; matching follows the column collation.
+     */
+    @Query("select c.id from Customer c where c.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    /**
+     * Soft-deletes a customer in a single statement.
+     *
+     * @return {@code 1} if the customer was deleted, {@code 0} if it does not exist or is already deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Customer c
+               set c.isDeleted = true, c.updatedAt = :now, c.version = c.version + 1
+             where c.id = :id and c.isDeleted = false""")
+    int softDeleteById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Prefix search used while the in-memory search index is not available.
+     *
+     * @param prefix a lower-case {@code LIKE} pattern escaped with {@code !}, e.g. {@code "jo%"}
+     */
+    @Query(CustomerView.SELECT + """
+             where lower(c.firstName) like :prefix escape '!' or lower(c.lastName) like :prefix escape '!'
+                or lower(c.email) like :prefix escape '!' or c.phone like :prefix escape '!'
+             order by c.id""")
+    List<CustomerView> searchByPrefix(@Param("prefix") String prefix, Limit limit);
 }
@@ -0,0 +1,403 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Per-node prefix index over customer names, emails and phone numbers, backing type-ahead search.
+ *
+ * <p>Every indexed term is stored in a sorted map keyed by field and term, so a prefix query is a
+ * range scan over the terms starting with it. Each term maps to an {@link IdSet} of primitive ids, and
+ * each customer keeps references to the sets it is in rather than copies of its terms. Phone numbers
+ * are reduced to their digits and indexed from the start of every digit group as written, so
+ * "+1 555-010-0100" is found by "1555", "555010", "0100100" and "0100", but not by "5501". Indexing
+ * every suffix instead would multiply the phone terms, most of them unique, by the length of the
+ * number.</p>
+ *
+ * <p>Multi-word queries match customers that contain every word. Hits are ranked by how well each
+ * word matched, exact terms above prefixes and emails and phones above names, then by id. The
+ * candidates gathered per word are capped so that very short prefixes stay cheap; on a large table
+ * such a query ranks only the first {@code customer.search.max-candidates} matches.</p>
+ *
+ * <p>The index is built in parallel id ranges at startup and kept current from
+ * {@link CustomerChangedEvent}s of this and the other replicas. Until it is ready, searches fall back
+ * to the database.</p>
+ */
+@Slf4j
+@Component
+class CustomerSearchIndex {
+
+    static final String RANGE_SQL = """
+            SELECT id, first_name, last_name, email, phone
+            FROM customers
+            WHERE is_deleted = FALSE AND id > ? AND id <= ?""";
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern EMAIL_SEPARATORS = Pattern.compile("[@._+\\-]+");
+    private static final Pattern PHONE_QUERY = Pattern.compile("[+\\d\\s().\\-/]+");
+    private static final Pattern NON_DIGIT = Pattern.compile("\\D+");
+
+    enum Field {
+        FIRST_NAME(1), LAST_NAME(1), EMAIL(2), PHONE(2);
+
+        private final int weight;
+        private final char code;
+
+        Field(int weight) {
+            this.weight = weight;
+            this.code = (char) ('0' + ordinal());
+        }
+    }
+
+    /**
+     * Ids of one page of hits, best first.
+     */
+    record Hits(List<Long> ids, boolean hasMore) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final CustomerProperties customerProperties;
+    private final ConcurrentSkipListMap<String, IdSet> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IdSet[]> termsById = new ConcurrentHashMap<>();
+    private final Set<Long> removedDuringBuild = ConcurrentHashMap.newKeySet();
+    private final Timer searchTimer;
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    CustomerSearchIndex(JdbcTemplate jdbcTemplate, Shards shards, CustomerProperties customerProperties,
+                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards;
+        this.customerProperties = customerProperties;
+        this.searchTimer = Timer.builder("customer.search.duration")
+                .description("Time to answer a search from the in-memory index")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("customer.search.index.size", termsById, Map::size)
+                .description("Customers held by the search index")
+                .register(meterRegistry);
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the page of hits starting at {@code offset}.
+     */
+    Hits search(String query, int offset, int size) {
+        return searchTimer.record(() -> {
+            List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(score(query).entrySet());
+            ranked.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            int from = Math.min(offset, ranked.size());
+            int to = Math.min(from + size, ranked.size());
+            List<Long> ids = ranked.subList(from, to).stream().map(Map.Entry::getKey).toList();
+            return new Hits(ids, to < ranked.size());
+        });
+    }
+
+    private Map<Long, Integer> score(String query) {
+        Map<Long, Integer> scores = null;
+        for (String token : queryTokens(query)) {
+            Map<Long, Integer> tokenScores = match(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores == null ? Map.of() : scores;
+    }
+
+    /**
+     * Scores the customers matching one query word, exact terms first so they survive the candidate cap.
+     */
+    private Map<Long, Integer> match(String token) {
+        int maxCandidates = customerProperties.getSearch().getMaxCandidates();
+        Map<Long, Integer> scores = new HashMap<>();
+        List<Map.Entry<Field, String>> terms = queryTerms(token);
+
+        for (Map.Entry<Field, String> term : terms) {
+            IdSet ids = postings.get(key(term.getKey(), term.getValue()));
+            if (ids != null) {
+                collect(ids, term.getKey().weight * 3, scores, maxCandidates);
+            }
+        }
+        for (Map.Entry<Field, String> term : terms) {
+            String from = key(term.getKey(), term.getValue());
+            for (IdSet ids : postings.subMap(from, false, from + Character.MAX_VALUE, false).values()) {
+                if (scores.size() >= maxCandidates) {
+                    return scores;
+                }
+                collect(ids, term.getKey().weight, scores, maxCandidates);
+            }
+        }
+        return scores;
+    }
+
+    private static void collect(IdSet ids, int score, Map<Long, Integer> scores, int maxCandidates) {
+        ids.forEach(id -> {
+            if (scores.size() >= maxCandidates && !scores.containsKey(id)) {
+                return false;
+            }
+            scores.merge(id, score, Math::max);
+            return true;
+        });
+    }
+
+    private List<String> queryTokens(String query) {
+        String trimmed = query.trim();
+        // "+1 (555) 010-0100" is one phone number, not five words
+        if (PHONE_QUERY.matcher(trimmed).matches()) {
+            return List.of(NON_DIGIT.matcher(trimmed).replaceAll(""));
+        }
+        return List.of(normalize(trimmed).split("\\s+"));
+    }
+
+    private static List<Map.Entry<Field, String>> queryTerms(String token) {
+        List<Map.Entry<Field, String>> terms = new ArrayList<>();
+        String word = NON_ALPHANUMERIC.matcher(token).replaceAll("");
+        if (!word.isEmpty()) {
+            terms.add(Map.entry(Field.FIRST_NAME, word));
+            terms.add(Map.entry(Field.LAST_NAME, word));
+        }
+        terms.add(Map.entry(Field.EMAIL, token));
+        String digits = NON_DIGIT.matcher(token).replaceAll("");
+        if (!digits.isEmpty() && digits.length() == word.length()) {
+            terms.add(Map.entry(Field.PHONE, digits));
+        }
+        return terms;
+    }
+
+    private List<String> indexTerms(String firstName, String lastName, String email, String phone) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWords(keys, Field.FIRST_NAME, firstName);
+        addWords(keys, Field.LAST_NAME, lastName);
+        if (email != null) {
+            String normalized = normalize(email.trim());
+            keys.add(key(Field.EMAIL, normalized));
+            for (String part : EMAIL_SEPARATORS.split(normalized)) {
+                if (!part.isEmpty()) {
+                    keys.add(key(Field.EMAIL, part));
+                }
+            }
+        }
+        if (phone != null) {
+            String digits = NON_DIGIT.matcher(phone).replaceAll("");
+            int minLength = Math.min(digits.length(), customerProperties.getSearch().getMinQueryLength());
+            int start = 0;
+            for (String group : NON_DIGIT.split(phone)) {
+                if (!group.isEmpty() && digits.length() - start >= minLength) {
+                    keys.add(key(Field.PHONE, digits.substring(start)));
+                }
+                start += group.length();
+            }
+        }
+        return List.copyOf(keys);
+    }
+
+    /**
+     * Indexes each word of a name, and the whole name without punctuation, so "O'Brien" matches "obrien" and "brien".
+     */
+    private static void addWords(Set<String> keys, Field field, String value) {
+        if (value == null) {
+            return;
+        }
+        String normalized = normalize(value);
+        for (String word : NON_ALPHANUMERIC.split(normalized)) {
+            if (!word.isEmpty()) {
+                keys.add(key(field, word));
+            }
+        }
+        String joined = NON_ALPHANUMERIC.matcher(normalized).replaceAll("");
+        if (!joined.isEmpty()) {
+            keys.add(key(field, joined));
+        }
+    }
+
+    /**
+     * Case-folds and strips accents, so "Zoë" is found by "zoe".
+     */
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(Field field, String term) {
+        return field.code + term;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        if (!customerProperties.getSearch().isEnabled()) {
+            return;
+        }
+        Thread builder = new Thread(this::build, "customer-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Loads every customer, splitting the id space of every shard into ranges that are read and indexed
+     * in parallel.
+     */
+    void build() {
+        CustomerProperties.Search properties = customerProperties.getSearch();
+        long start = System.currentTimeMillis();
+        building = true;
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getRebuildParallelism(), task -> {
+            Thread thread = new Thread(task, "customer-search-index-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Long maxId = shards.scatter(shard -> jdbcTemplate.queryForObject("SELECT MAX(id) FROM customers", Long.class))
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .max(Long::compare)
+                    .orElse(null);
+            List<Future<?>> ranges = new ArrayList<>();
+            for (long from = 0; maxId != null && from < maxId; from += properties.getRebuildRangeSize()) {
+                long lower = from;
+                long upper = Math.min(from + properties.getRebuildRangeSize(), maxId);
+                for (String shard : shards.names()) {
+                    ranges.add(executor.submit(() -> shards.run(shard, () -> indexRange(lower, upper))));
+                }
+            }
+            for (Future<?> range : ranges) {
+                range.get();
+            }
+            ready = true;
+            log.info("Customer search index built with {} customers and {} terms in {} ms",
+                    termsById.size(), postings.size(), System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Could not build customer search index, searches will keep using the database", e);
+        } finally {
+            executor.shutdownNow();
+            building = false;
+            removedDuringBuild.clear();
+        }
+    }
+
+    private void indexRange(long lower, long upper) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    RANGE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(customerProperties.getExport().getFetchSize());
+            statement.setLong(1, lower);
+            statement.setLong(2, upper);
+            return statement;
+        }, (ResultSet rs) -> {
+            long id = rs.getLong("id");
+            // Changes applied by events while the build runs take precedence
+            if (!removedDuringBuild.contains(id)) {
+                index(id, rs.getString("first_name"), rs.getString("last_name"),
+                        rs.getString("email"), rs.getString("phone"), false);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onCustomerChanged(CustomerChangedEvent event) {
+        if (!customerProperties.getSearch().isEnabled()) {
+            return;
+        }
+        if (event.type() == CustomerChangedEvent.Type.DELETED) {
+            if (building) {
+                removedDuringBuild.add(event.customerId());
+            }
+            remove(event.customerId());
+        } else {
+            CustomerResponse customer = event.customer();
+            index(event.customerId(), customer.getFirstName(), customer.getLastName(),
+                    customer.getEmail(), customer.getPhone(), true);
+        }
+    }
+
+    private void index(long id, String firstName, String lastName, String email, String phone, boolean replace) {
+        List<String> terms = indexTerms(firstName, lastName, email, phone);
+        // Serialises changes to the same customer
+        termsById.compute(id, (key, previous) -> {
+            if (previous != null && !replace) {
+                return previous;
+            }
+            IdSet[] linked = terms.stream().map(this::postingsOf).toArray(IdSet[]::new);
+            // Only the terms that changed are touched, so an update keeps its place in large sets such as the email domain
+            if (previous != null) {
+                for (IdSet ids : previous) {
+                    if (!containsSame(linked, ids)) {
+                        ids.remove(id);
+                    }
+                }
+            }
+            for (IdSet ids : linked) {
+                if (previous == null || !containsSame(previous, ids)) {
+                    ids.add(id);
+                }
+            }
+            return linked;
+        });
+    }
+
+    private void remove(long id) {
+        termsById.computeIfPresent(id, (key, previous) -> {
+            for (IdSet ids : previous) {
+                ids.remove(id);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Emptied posting sets are left in place; removing them could race with a concurrent add to the same term.
+     */
+    private IdSet postingsOf(String term) {
+        return postings.computeIfAbsent(term, t -> new IdSet());
+    }
+
+    private static boolean containsSame(IdSet[] sets, IdSet set) {
+        for (IdSet candidate : sets) {
+            if (candidate == set) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,11 +3,17 @@ package com.relatia.customer_service.customer;
 
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CustomerService {
     List<CustomerResponse> findAll();
+    CustomerPage findPage(String cursor, Integer size);
+    CustomerPage search(String query, String cursor, Integer size);
     CustomerResponse findById(Long id);
+    Optional<Long> findVersion(Long id);
+    CustomerResponse findByEmail(String email);
     CustomerResponse create(CustomerRequest request);
+    CustomerBatchResponse createAll(List<CustomerRequest> requests);
     CustomerResponse update(Long id, CustomerRequest request);
     void delete(Long id);
 }
@@ -1,13 +1,28 @@
 package com.relatia.customer_service.customer;
 
+import com.relatia.customer_service.exception.DuplicateEmailException;
+import com.relatia.customer_service.exception.ErrorMessages;
 import com.relatia.customer_service.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.MessageSource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.context.i18n.LocaleContextHolder;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of the {@link CustomerService} interface providing business logic
@@ -25,33 +40,161 @@ import java.util.List;
 class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
-    private final MessageSource messageSource;
+    private final ErrorMessages errorMessages;
+    private final CustomerProperties customerProperties;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustomerEmailIndex emailIndex;
+    private final CustomerCache customerCache;
+    private final CustomerSearchIndex searchIndex;
 
     /**
      * Retrieves all customers from the system.
      *
-     * <p>This method fetches all customer records from the database and converts them
-     * to their corresponding DTO representation. The operation is read-only and does
-     * not modify any data.</p>
+     * <p>This method fetches all customer records from the database as {@link CustomerView}
+     * projections and maps them to their DTO representation. Because the whole table is materialised
+     * in memory, it is only available when {@code customer.pagination.allow-unpaged} is
+     * enabled; clients should use {@link #findPage(String, Integer)} instead.</p>
      *
      * @return a list of {@link CustomerResponse} objects containing customer details.
      *         Returns an empty list if no customers are found.
+     * @throws IllegalArgumentException if unpaged listing has not been enabled
      */
     @Override
     @Transactional(readOnly = true)
     public List<CustomerResponse> findAll() {
-        return customerRepository.findAll().stream()
-                .map(CustomerResponse::fromEntity)
+        if (!customerProperties.getPagination().isAllowUnpaged()) {
+            throw new IllegalArgumentException(
+                errorMessages.get("error.pagination.unpaged.disabled"));
+        }
+        return customerRepository.findAllViews().stream()
+                .map(CustomerView::toResponse)
+                .toList();
+    }
+
+    /**
+     * Retrieves one keyset page of customers ordered by id.
+     *
+     * <p>The cursor only encodes the last id of the previous page, so every page is a
+     * bounded range scan on the primary key: no OFFSET and no COUNT(*) are issued, and
+     * page N costs the same as page 1. One extra row is fetched to decide whether a
+     * {@code next} cursor should be returned.</p>
+     *
+     * @param cursor the opaque cursor returned by the previous page, or {@code null} for the first page
+     * @param size the requested page size; {@code null} uses the configured default and
+     *             values above the configured maximum are clamped
+     * @return the {@link CustomerPage} containing the customers and the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPage findPage(String cursor, Integer size) {
+        int pageSize = pageSize(size);
+        long lastId = decodeCursor(cursor);
+
+        List<CustomerView> rows = customerRepository.findViewsAfter(lastId, Limit.of(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<CustomerResponse> content = rows.stream()
+                .limit(pageSize)
+                .map(CustomerView::toResponse)
                 .toList();
+
+        return CustomerPage.builder()
+                .content(content)
+                .next(hasNext ? CustomerCursor.encode(content.get(content.size() - 1).getId()) : null)
+                .size(pageSize)
+                .build();
+    }
+
+    /**
+     * Searches customers by name, email or phone number prefix, best matches first.
+     *
+     * <p>Queries are answered by the in-memory {@link CustomerSearchIndex}; only the customers
+     * on the requested page are then loaded by id. While the index is still being built, or
+     * when it is disabled, a prefix {@code LIKE} query on the whole query string is used instead
+     * and results are ordered by id. The cursor encodes the offset of the next page.</p>
+     *
+     * @param query the words to search for; every word must match
+     * @param cursor the opaque cursor returned by the previous page, or {@code null} for the first page
+     * @param size the requested page size, clamped like {@link #findPage(String, Integer)}
+     * @return the {@link CustomerPage} of matching customers
+     * @throws IllegalArgumentException if the query is too short, or the cursor or size is invalid
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPage search(String query, String cursor, Integer size) {
+        int minLength = customerProperties.getSearch().getMinQueryLength();
+        if (query == null || query.trim().length() < minLength) {
+            throw new IllegalArgumentException(
+                errorMessages.get("error.search.query.invalid", minLength));
+        }
+        int pageSize = pageSize(size);
+        long offset = decodeCursor(cursor);
+        if (offset > Integer.MAX_VALUE - pageSize - 1) {
+            throw new IllegalArgumentException(
+                errorMessages.get("error.pagination.cursor.invalid"));
+        }
+
+        List<CustomerResponse> content;
+        boolean hasNext;
+        if (customerProperties.getSearch().isEnabled() && searchIndex.isReady()) {
+            CustomerSearchIndex.Hits hits = searchIndex.search(query, (int) offset, pageSize);
+            Map<Long, CustomerView> customers = new HashMap<>();
+            customerRepository.findViewsByIdIn(hits.ids()).forEach(customer -> customers.put(customer.id(), customer));
+            content = hits.ids().stream()
+                    .map(customers::get)
+                    .filter(Objects::nonNull)
+                    .map(CustomerView::toResponse)
+                    .toList();
+            hasNext = hits.hasMore();
+        } else {
+            String prefix = query.trim().toLowerCase(Locale.ROOT).replaceAll("[!%_]", "!$0") + "%";
+            List<CustomerView> rows = customerRepository.searchByPrefix(prefix, Limit.of((int) offset + pageSize + 1));
+            content = rows.stream()
+                    .skip(offset)
+                    .limit(pageSize)
+                    .map(CustomerView::toResponse)
+                    .toList();
+            hasNext = rows.size() > offset + pageSize;
+        }
+
+        return CustomerPage.builder()
+                .content(content)
+                .next(hasNext ? CustomerCursor.encode(offset + pageSize) : null)
+                .size(pageSize)
+                .build();
+    }
+
+    private int pageSize(Integer size) {
+        CustomerProperties.Pagination pagination = customerProperties.getPagination();
+        if (size != null && size < 1) {
+            throw new IllegalArgumentException(
+                errorMessages.get("error.pagination.size.invalid"));
+        }
+        return size == null ? pagination.getDefaultSize() : Math.min(size, pagination.getMaxSize());
+    }
+
+    private long decodeCursor(String cursor) {
+        try {
+            return CustomerCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                errorMessages.get("error.pagination.cursor.invalid"), e);
+        }
     }
 
     /**
      * Retrieves a customer by their unique identifier.
      *
-     * <p>This method looks up a customer by their ID and returns the corresponding
-     * DTO. If no customer is found with the specified ID, a {@link ResourceNotFoundException}
+     * <p>This method selects the customer as a {@link CustomerView} projection, without
+     * loading a managed entity, and returns the corresponding DTO. If no customer is found with the specified ID, a {@link ResourceNotFoundException}
      * is thrown with a localized error message.</p>
      *
+     * <p>Results are served from the bounded {@value CustomerCache#NAME} cache; entries are
+     * evicted by {@link CustomerCache} when this or another replica changes the customer, and a
+     * load that raced with such a change is not cached.</p>
+     *
      * @param id the unique identifier of the customer to retrieve
      * @return the {@link CustomerResponse} containing the customer details
      * @throws ResourceNotFoundException if no customer is found with the specified ID
@@ -62,15 +205,92 @@ class CustomerServiceImpl implements CustomerService {
     public CustomerResponse findById(Long id) {
         if (id == null) {
             throw new IllegalArgumentException(
-                messageSource.getMessage("error.id.null", null, LocaleContextHolder.getLocale()));
+                errorMessages.get("error.id.null"));
         }
         
-        return customerRepository.findById(id)
-                .map(CustomerResponse::fromEntity)
+        return customerCache.get(id, () -> customerRepository.findViewById(id)
+                .map(CustomerView::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                    errorMessages.get("error.customer.notfound", id))));
+    }
+
+    /**
+     * Returns the current version of a customer, used to answer conditional requests.
+     *
+     * <p>A customer held in the {@value CustomerCache#NAME} cache answers without touching the
+     * database; otherwise only the version column is selected. No response is built either way.</p>
+     *
+     * @param id the unique identifier of the customer
+     * @return the version, or empty if no customer exists with the specified ID
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return customerCache.peek(id)
+                .map(CustomerResponse::getVersion)
+                .or(() -> customerRepository.findVersionById(id));
+    }
+
+    /**
+     * Retrieves a customer by their email address, ignoring case.
+     *
+     * <p>The id is resolved from the in-memory {@link CustomerEmailIndex} when possible,
+     * and the customer itself is served through the {@value CustomerCache#NAME} cache.
+     * Emails the index cannot resolve are looked up in the database, so customers
+     * created on another replica moments ago are still found. The index can also lag behind
+     * a change of email made on another replica, so a customer whose email no longer matches
+     * is not returned; the email is then looked up in the database as well.</p>
+     *
+     * @param email the email address of the customer to retrieve
+     * @return the {@link CustomerResponse} containing the customer details
+     * @throws ResourceNotFoundException if no customer has this email
+     * @throws IllegalArgumentException if the email is blank
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerResponse findByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException(
+                errorMessages.get("validation.email.required"));
+        }
+
+        // Before the id lookup, which may already pin the transaction's snapshot
+        long since = customerCache.generation();
+        Optional<Long> indexed = emailIndex.findId(email);
+        if (indexed.isPresent()) {
+            Optional<CustomerResponse> customer = findByIndexedId(indexed.get(), since);
+            if (customer.isPresent() && CustomerEmailIndex.normalize(customer.get().getEmail())
+                    .equals(CustomerEmailIndex.normalize(email))) {
+                return customer.get();
+            }
+            // This node has not yet seen the change that moved the email to another customer
+        }
+
+        Long id = (indexed.isPresent() || emailIndex.mightExist(email)
+                        ? customerRepository.findIdByEmail(email.trim())
+                        : Optional.<Long>empty())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                    errorMessages.get("error.customer.email.notfound", email)));
+
+        return customerCache.get(id, since, () -> customerRepository.findViewById(id)
+                .map(CustomerView::toResponse)
                 .orElseThrow(() -> new ResourceNotFoundException(
-                    messageSource.getMessage("error.customer.notfound", 
-                    new Object[]{id}, 
-                    LocaleContextHolder.getLocale())));
+                    errorMessages.get("error.customer.email.notfound", email))));
+    }
+
+    private Optional<CustomerResponse> findByIndexedId(Long id, long since) {
+        try {
+            return Optional.of(customerCache.get(id, since, () -> customerRepository.findViewById(id)
+                    .map(CustomerView::toResponse)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                        errorMessages.get("error.customer.notfound", id)))));
+        } catch (ResourceNotFoundException e) {
+            // Deleted since the index learned about it
+            return Optional.empty();
+        }
     }
 
     /**
@@ -82,7 +302,8 @@ class CustomerServiceImpl implements CustomerService {
      *
      * @param request the {@link CustomerRequest} containing the customer details to create
      * @return the created {@link CustomerResponse} with the generated ID and audit fields
-     * @throws IllegalArgumentException if the email address is already in use or if the request is invalid
+     * @throws DuplicateEmailException if the email address is already in use
+     * @throws IllegalArgumentException if the request is invalid
      * @throws NullPointerException if the request parameter is null
      */
     @Override
@@ -92,15 +313,136 @@ class CustomerServiceImpl implements CustomerService {
             throw new NullPointerException("Customer request cannot be null");
         }
         
-        if (customerRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException(
-                messageSource.getMessage("error.email.exists", 
-                null, 
-                LocaleContextHolder.getLocale()));
+        // The email index answers "definitely new" without a query; uk_customer_email catches races
+        if (emailIndex.mightExist(request.getEmail()) && customerRepository.existsByEmail(request.getEmail())) {
+            throw new DuplicateEmailException(
+                errorMessages.get("error.email.exists"));
         }
 
         Customer customer = request.toEntity();
-        return CustomerResponse.fromEntity(customerRepository.save(customer));
+        CustomerResponse response = CustomerResponse.fromEntity(customerRepository.save(customer));
+        eventPublisher.publishEvent(CustomerChangedEvent.created(response));
+        return response;
+    }
+
+    /**
+     * Creates many customers in one transaction using JDBC batch inserts.
+     *
+     * <p>Every item is validated individually and reported in the result instead of
+     * failing the whole request. Duplicate emails are detected with one {@code IN} query
+     * per chunk rather than one {@code existsByEmail} round trip per item, and also
+     * within the request itself. Valid items are persisted chunk by chunk: each chunk is
+     * flushed as multi-row JDBC batches and then cleared from the persistence context so
+     * memory stays flat for large requests. The {@code uk_customer_email} constraint stays
+     * the final authority for concurrent writers.</p>
+     *
+     * @param requests the customers to create, in the order results should be reported
+     * @return a {@link CustomerBatchResponse} with one {@link CustomerBatchResult} per item
+     * @throws IllegalArgumentException if the request is empty or larger than the configured maximum
+     */
+    @Override
+    @Transactional
+    public CustomerBatchResponse createAll(List<CustomerRequest> requests) {
+        CustomerProperties.Batch batch = customerProperties.getBatch();
+        if (requests == null || requests.isEmpty() || requests.size() > batch.getMaxItems()) {
+            throw new IllegalArgumentException(
+                errorMessages.get("error.batch.size", batch.getMaxItems()));
+        }
+
+        CustomerBatchResult[] results = new CustomerBatchResult[requests.size()];
+        String duplicateMessage = errorMessages.get("error.email.exists");
+        Set<String> seenEmails = new HashSet<>();
+        int created = 0;
+
+        for (int from = 0; from < requests.size(); from += batch.getChunkSize()) {
+            int to = Math.min(from + batch.getChunkSize(), requests.size());
+
+            // Validate and de-duplicate the chunk in memory first
+            List<Integer> candidates = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                CustomerRequest request = requests.get(i);
+                Map<String, String> errors = validate(request);
+                if (!errors.isEmpty()) {
+                    results[i] = rejected(i, CustomerBatchResult.Status.INVALID, null, errors);
+                } else if (!seenEmails.add(request.getEmail().toLowerCase(Locale.ROOT))) {
+                    results[i] = rejected(i, CustomerBatchResult.Status.DUPLICATE_EMAIL, duplicateMessage, null);
+                } else {
+                    candidates.add(i);
+                }
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+
+            // One round trip for the whole chunk against uk_customer_email, skipped for emails
+            // the email index knows to be new
+            List<String> maybeTaken = candidates.stream()
+                    .map(i -> requests.get(i).getEmail())
+                    .filter(emailIndex::mightExist)
+                    .toList();
+            Set<String> existing = new HashSet<>();
+            if (!maybeTaken.isEmpty()) {
+                customerRepository.findExistingEmails(maybeTaken)
+                        .forEach(email -> existing.add(email.toLowerCase(Locale.ROOT)));
+            }
+
+            List<Integer> toInsert = new ArrayList<>(candidates.size());
+            List<Customer> customers = new ArrayList<>(candidates.size());
+            for (Integer i : candidates) {
+                CustomerRequest request = requests.get(i);
+                if (existing.contains(request.getEmail().toLowerCase(Locale.ROOT))) {
+                    results[i] = rejected(i, CustomerBatchResult.Status.DUPLICATE_EMAIL, duplicateMessage, null);
+                } else {
+                    toInsert.add(i);
+                    customers.add(request.toEntity());
+                }
+            }
+
+            List<Customer> saved = customerRepository.saveAll(customers);
+            entityManager.flush();
+            entityManager.clear();
+            for (int k = 0; k < saved.size(); k++) {
+                int i = toInsert.get(k);
+                results[i] = CustomerBatchResult.builder()
+                        .index(i)
+                        .status(CustomerBatchResult.Status.CREATED)
+                        .id(saved.get(k).getId())
+                        .build();
+                eventPublisher.publishEvent(CustomerChangedEvent.created(CustomerResponse.fromEntity(saved.get(k))));
+            }
+            created += saved.size();
+        }
+
+        return CustomerBatchResponse.builder()
+                .created(created)
+                .rejected(requests.size() - created)
+                .results(List.of(results))
+                .build();
+    }
+
+    private Map<String, String> validate(CustomerRequest request) {
+        if (request == null) {
+            return Map.of("request", "Customer request cannot be null");
+        }
+        Set<ConstraintViolation<CustomerRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<CustomerRequest> violation : violations) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static CustomerBatchResult rejected(int index, CustomerBatchResult.Status status,
+                                                String message, Map<String, String> errors) {
+        return CustomerBatchResult.builder()
+                .index(index)
+                .status(status)
+                .message(message)
+                .errors(errors)
+                .build();
     }
 
     /**
@@ -114,7 +456,7 @@ class CustomerServiceImpl implements CustomerService {
      * @param request the {@link CustomerRequest} containing the updated customer details
      * @return the updated {@link CustomerResponse}
      * @throws ResourceNotFoundException if no customer is found with the specified ID
-     * @throws IllegalArgumentException if the email is being changed to one that's already in use
+     * @throws DuplicateEmailException if the email is being changed to one that's already in use
      * @throws NullPointerException if the request parameter is null
      */
     @Override
@@ -122,7 +464,7 @@ class CustomerServiceImpl implements CustomerService {
     public CustomerResponse update(Long id, CustomerRequest request) {
         if (id == null) {
             throw new IllegalArgumentException(
-                messageSource.getMessage("error.id.null", null, LocaleContextHolder.getLocale()));
+                errorMessages.get("error.id.null"));
         }
         if (request == null) {
             throw new NullPointerException("Customer request cannot be null");
@@ -130,35 +472,37 @@ class CustomerServiceImpl implements CustomerService {
 
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
-                    messageSource.getMessage("error.customer.notfound", 
-                    new Object[]{id}, 
-                    LocaleContextHolder.getLocale())));
+                    errorMessages.get("error.customer.notfound", id)));
 
         // Check if email is being changed and if the new email already exists
         if (!customer.getEmail().equals(request.getEmail()) &&
+            emailIndex.mightExist(request.getEmail()) &&
             customerRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException(
-                messageSource.getMessage("error.email.exists", 
-                null, 
-                LocaleContextHolder.getLocale()));
+            throw new DuplicateEmailException(
+                errorMessages.get("error.email.exists"));
         }
 
         // Update customer details
+        String previousEmail = customer.getEmail();
         customer.setFirstName(request.getFirstName());
         customer.setLastName(request.getLastName());
         customer.setEmail(request.getEmail());
         customer.setPhone(request.getPhone());
         customer.setAddress(request.getAddress());
 
-        return CustomerResponse.fromEntity(customerRepository.save(customer));
+        CustomerResponse response = CustomerResponse.fromEntity(customerRepository.saveAndFlush(customer));
+        eventPublisher.publishEvent(CustomerChangedEvent.updated(response, previousEmail));
+        return response;
     }
 
     /**
      * Deletes a customer by their ID.
      *
-     * <p>This method checks if a customer with the specified ID exists before attempting
-     * deletion. If the customer doesn't exist, a {@link ResourceNotFoundException} is thrown.
-     * The operation is transactional and will be rolled back in case of any errors.</p>
+     * <p>The customer is soft-deleted with a single conditional {@code UPDATE}; the
+     * affected row count tells whether it existed, so no separate existence query is
+     * issued. Deleted customers disappear from every read immediately and are physically
+     * removed later, in small batches, by {@link CustomerPurger}. The operation is
+     * transactional and will be rolled back in case of any errors.</p>
      *
      * @param id the ID of the customer to delete
      * @throws ResourceNotFoundException if no customer is found with the specified ID
@@ -169,15 +513,13 @@ class CustomerServiceImpl implements CustomerService {
     public void delete(Long id) {
         if (id == null) {
             throw new IllegalArgumentException(
-                messageSource.getMessage("error.id.null", null, LocaleContextHolder.getLocale()));
+                errorMessages.get("error.id.null"));
         }
         
-        if (!customerRepository.existsById(id)) {
+        if (customerRepository.softDeleteById(id, LocalDateTime.now()) == 0) {
             throw new ResourceNotFoundException(
-                messageSource.getMessage("error.customer.notfound", 
-                new Object[]{id}, 
-                LocaleContextHolder.getLocale()));
+                errorMessages.get("error.customer.notfound", id));
         }
-        customerRepository.deleteById(id);
+        eventPublisher.publishEvent(CustomerChangedEvent.deleted(id, null));
     }
 }
@@ -0,0 +1,48 @@
+package com.relatia.customer_service.customer;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a customer row, selected with a JPQL constructor expression.
+ *
+ * <p>Projections are not managed by the persistence context, so reads through them skip
+ * entity hydration, the dirty-checking snapshot and the entity-to-DTO copy.</p>
+ */
+public record CustomerView(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String address,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        String createdBy,
+        String updatedBy,
+        boolean deleted,
+        Long version) {
+
+    static final String SELECT = """
+            select new com.relatia.customer_service.customer.CustomerView(
+                   c.id, c.firstName, c.lastName, c.email, c.phone, c.address,
+                   c.createdAt, c.updatedAt, c.createdBy, c.updatedBy, c.isDeleted, c.version)
+              from Customer c
+            """;
+
+    CustomerResponse toResponse() {
+        return CustomerResponse.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phone(phone)
+                .address(address)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .createdBy(createdBy)
+                .updatedBy(updatedBy)
+                .isDeleted(deleted)
+                .version(version)
+                .build();
+    }
+}
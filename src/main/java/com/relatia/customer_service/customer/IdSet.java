@@ -0,0 +1,69 @@
+package com.relatia.customer_service.customer;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Thread-safe set of customer ids backed by a {@code long[]}, eight bytes per id instead of the
+ * node and boxed {@link Long} of a concurrent hash set.
+ *
+ * <p>Ids are kept in ascending order as they are written, so reads never sort. Appending a larger id is
+ * the common case and costs no search; an id arriving out of order, as during a parallel index build, is
+ * found by binary search and shifted into place, as a removal shifts the ids after it. Both shifts move
+ * only the ids of one term, which for most terms is a single id.</p>
+ */
+final class IdSet {
+
+    // Most terms (full emails and phone numbers) belong to a single customer
+    private static final int INITIAL_CAPACITY = 1;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+
+    synchronized void add(long id) {
+        int index = size;
+        if (size > 0 && id <= ids[size - 1]) {
+            index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        size++;
+    }
+
+    synchronized boolean remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    synchronized boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Passes the ids to {@code action} in ascending order until it returns {@code false}.
+     * The set is locked meanwhile, so the action should be short.
+     */
+    synchronized void forEach(LongPredicate action) {
+        for (int i = 0; i < size; i++) {
+            if (!action.test(ids[i])) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.exception.DuplicateEmailException;
+import com.relatia.customer_service.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every {@link CustomerService} call as {@code customer.service.calls}, tagged with the method and
+ * its outcome, and hands it on to {@link CustomerServiceImpl}.
+ *
+ * <p>All timers are registered up front, so a call costs two clock reads and one record and allocates
+ * nothing; this matters most for {@code findById}, which is usually answered from the cache.</p>
+ */
+@Primary
+@Service
+class MeteredCustomerService implements CustomerService {
+
+    private static final String EMAIL_CONSTRAINT = "uk_customer_email";
+
+    enum Outcome {
+        SUCCESS, NOT_FOUND, DUPLICATE_EMAIL, INVALID, ERROR;
+
+        static Outcome of(RuntimeException e) {
+            if (e instanceof ResourceNotFoundException) {
+                return NOT_FOUND;
+            }
+            if (e instanceof DuplicateEmailException || violatesEmailConstraint(e)) {
+                return DUPLICATE_EMAIL;
+            }
+            // Null requests are rejected by validation first; an NPE that gets here is a bug
+            if (e instanceof IllegalArgumentException) {
+                return INVALID;
+            }
+            return ERROR;
+        }
+
+        /**
+         * Other integrity violations, e.g. a not-null column or a foreign key, are errors rather than duplicates.
+         */
+        private static boolean violatesEmailConstraint(RuntimeException e) {
+            if (!(e instanceof DataIntegrityViolationException)) {
+                return false;
+            }
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                String name = cause instanceof ConstraintViolationException violation
+                        ? violation.getConstraintName() : cause.getMessage();
+                if (name != null && name.toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final CustomerService delegate;
+    private final MethodTimers findAll;
+    private final MethodTimers findPage;
+    private final MethodTimers search;
+    private final MethodTimers findById;
+    private final MethodTimers findVersion;
+    private final MethodTimers findByEmail;
+    private final MethodTimers create;
+    private final MethodTimers createAll;
+    private final MethodTimers update;
+    private final MethodTimers delete;
+
+    MeteredCustomerService(@Qualifier("customerServiceImpl") CustomerService delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.findAll = new MethodTimers("findAll", meterRegistry);
+        this.findPage = new MethodTimers("findPage", meterRegistry);
+        this.search = new MethodTimers("search", meterRegistry);
+        this.findById = new MethodTimers("findById", meterRegistry);
+        this.findVersion = new MethodTimers("findVersion", meterRegistry);
+        this.findByEmail = new MethodTimers("findByEmail", meterRegistry);
+        this.create = new MethodTimers("create", meterRegistry);
+        this.createAll = new MethodTimers("createAll", meterRegistry);
+        this.update = new MethodTimers("update", meterRegistry);
+        this.delete = new MethodTimers("delete", meterRegistry);
+    }
+
+    @Override
+    public List<CustomerResponse> findAll() {
+        long started = System.nanoTime();
+        try {
+            List<CustomerResponse> customers = delegate.findAll();
+            findAll.success(started);
+            return customers;
+        } catch (RuntimeException e) {
+            findAll.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerPage findPage(String cursor, Integer size) {
+        long started = System.nanoTime();
+        try {
+            CustomerPage page = delegate.findPage(cursor, size);
+            findPage.success(started);
+            return page;
+        } catch (RuntimeException e) {
+            findPage.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerPage search(String query, String cursor, Integer size) {
+        long started = System.nanoTime();
+        try {
+            CustomerPage page = delegate.search(query, cursor, size);
+            search.success(started);
+            return page;
+        } catch (RuntimeException e) {
+            search.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerResponse findById(Long id) {
+        long started = System.nanoTime();
+        try {
+            CustomerResponse customer = delegate.findById(id);
+            findById.success(started);
+            return customer;
+        } catch (RuntimeException e) {
+            findById.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Long> findVersion(Long id) {
+        long started = System.nanoTime();
+        try {
+            Optional<Long> version = delegate.findVersion(id);
+            findVersion.success(started);
+            return version;
+        } catch (RuntimeException e) {
+            findVersion.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerResponse findByEmail(String email) {
+        long started = System.nanoTime();
+        try {
+            CustomerResponse customer = delegate.findByEmail(email);
+            findByEmail.success(started);
+            return customer;
+        } catch (RuntimeException e) {
+            findByEmail.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerResponse create(CustomerRequest request) {
+        long started = System.nanoTime();
+        try {
+            CustomerResponse customer = delegate.create(request);
+            create.success(started);
+            return customer;
+        } catch (RuntimeException e) {
+            create.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerBatchResponse createAll(List<CustomerRequest> requests) {
+        long started = System.nanoTime();
+        try {
+            CustomerBatchResponse response = delegate.createAll(requests);
+            createAll.success(started);
+            return response;
+        } catch (RuntimeException e) {
+            createAll.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CustomerResponse update(Long id, CustomerRequest request) {
+        long started = System.nanoTime();
+        try {
+            CustomerResponse customer = delegate.update(id, request);
+            update.success(started);
+            return customer;
+        } catch (RuntimeException e) {
+            update.failure(started, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        long started = System.nanoTime();
+        try {
+            delegate.delete(id);
+            delete.success(started);
+        } catch (RuntimeException e) {
+            delete.failure(started, e);
+            throw e;
+        }
+    }
+
+    /**
+     * One pre-registered timer per outcome of a method.
+     */
+    private static final class MethodTimers {
+        private final Timer[] timers = new Timer[Outcome.values().length];
+
+        MethodTimers(String method, MeterRegistry meterRegistry) {
+            for (Outcome outcome : Outcome.values()) {
+                timers[outcome.ordinal()] = Timer.builder("customer.service.calls")
+                        .description("Calls to the customer service")
+                        .tag("method", method)
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+        }
+
+        void success(long started) {
+            timers[Outcome.SUCCESS.ordinal()].record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        void failure(long started, RuntimeException e) {
+            timers[Outcome.of(e).ordinal()].record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
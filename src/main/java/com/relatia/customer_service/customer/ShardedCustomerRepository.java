@@ -0,0 +1,414 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link CustomerRepository} over the sharded customers table.
+ *
+ * <p>Customers live on the shard their id hashes to. Operations on one customer bind the surrounding
+ * transaction to that shard, so a transaction can only touch customers of one shard; new customers get
+ * their id from the {@link CustomerIdAllocator} first. Reads over many customers are scattered to every
+ * shard in parallel and the partial results merged by id, which gives the same order and limits as a
+ * single table. Email checks and lookups go to the {@link CustomerEmailDirectory} instead.</p>
+ *
+ * <p>A batch spanning several shards is written as one transaction per shard. All its emails are claimed
+ * before anything is written, so a duplicate still rejects the whole batch.</p>
+ */
+@Primary
+@Component
+@ConditionalOnProperty(value = "datasource.sharding.enabled")
+class ShardedCustomerRepository implements CustomerRepository {
+
+    private static final Comparator<CustomerView> BY_VIEW_ID = Comparator.comparing(CustomerView::id);
+    private static final Comparator<Customer> BY_ID = Comparator.comparing(Customer::getId);
+
+    private final CustomerRepository delegate;
+    private final Shards shards;
+    private final CustomerIdAllocator idAllocator;
+    private final CustomerEmailDirectory emailDirectory;
+
+    ShardedCustomerRepository(@Qualifier("customerRepository") CustomerRepository delegate, Shards shards,
+                              CustomerIdAllocator idAllocator, CustomerEmailDirectory emailDirectory) {
+        this.delegate = delegate;
+        this.shards = shards;
+        this.idAllocator = idAllocator;
+        this.emailDirectory = emailDirectory;
+    }
+
+    // One customer
+
+    @Override
+    public Optional<CustomerView> findViewById(Long id) {
+        return onShardOf(id, () -> delegate.findViewById(id));
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return onShardOf(id, () -> delegate.findVersionById(id));
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return onShardOf(id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return onShardOf(id, () -> delegate.existsById(id));
+    }
+
+    @Override
+    public Customer getReferenceById(Long id) {
+        return onShardOf(id, () -> delegate.getReferenceById(id));
+    }
+
+    @Override
+    @Deprecated
+    public Customer getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Customer getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public int softDeleteById(Long id, LocalDateTime now) {
+        return onShardOf(id, () -> delegate.softDeleteById(id, now));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        onShardOf(id, () -> {
+            delegate.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(Customer entity) {
+        onShardOf(entity.getId(), () -> {
+            delegate.delete(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public <S extends Customer> S save(S entity) {
+        return prepareAndSave(entity, () -> delegate.save(entity));
+    }
+
+    @Override
+    public <S extends Customer> S saveAndFlush(S entity) {
+        return prepareAndSave(entity, () -> delegate.saveAndFlush(entity));
+    }
+
+    // Emails
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return emailDirectory.findId(email).isPresent();
+    }
+
+    @Override
+    public long countByEmailIncludingDeleted(String email) {
+        return existsByEmail(email) ? 1 : 0;
+    }
+
+    @Override
+    public Optional<Long> findIdByEmail(String email) {
+        return emailDirectory.findId(email);
+    }
+
+    @Override
+    public List<String> findExistingEmails(Collection<String> emails) {
+        return emailDirectory.findExisting(emails);
+    }
+
+    // Many customers
+
+    @Override
+    public List<CustomerView> findAllViews() {
+        return merge(shards.scatter(shard -> delegate.findAllViews()), BY_VIEW_ID, Limit.unlimited());
+    }
+
+    @Override
+    public List<CustomerView> findViewsAfter(Long id, Limit limit) {
+        return merge(shards.scatter(shard -> delegate.findViewsAfter(id, limit)), BY_VIEW_ID, limit);
+    }
+
+    @Override
+    public List<CustomerView> findViewsByIdIn(Collection<Long> ids) {
+        return byShard(ids, delegate::findViewsByIdIn);
+    }
+
+    @Override
+    public List<Long> findIdsInSegment(Long after, String emailPattern, LocalDateTime createdAfter, Limit limit) {
+        return merge(shards.scatter(shard -> delegate.findIdsInSegment(after, emailPattern, createdAfter, limit)),
+                Comparator.naturalOrder(), limit);
+    }
+
+    @Override
+    public List<CustomerView> searchByPrefix(String prefix, Limit limit) {
+        return merge(shards.scatter(shard -> delegate.searchByPrefix(prefix, limit)), BY_VIEW_ID, limit);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return merge(shards.scatter(shard -> delegate.findAll()), BY_ID, Limit.unlimited());
+    }
+
+    @Override
+    public List<Customer> findAllById(Iterable<Long> ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return byShard(list, delegate::findAllById);
+    }
+
+    @Override
+    public long count() {
+        return shards.scatter(shard -> delegate.count()).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public <S extends Customer> List<S> saveAll(Iterable<S> entities) {
+        List<S> customers = new ArrayList<>();
+        entities.forEach(customers::add);
+        Map<String, List<Integer>> byShard = new LinkedHashMap<>();
+        for (int i = 0; i < customers.size(); i++) {
+            S customer = customers.get(i);
+            if (customer.getId() == null) {
+                customer.setId(idAllocator.next());
+            }
+            byShard.computeIfAbsent(shards.shardOf(customer.getId()), shard -> new ArrayList<>()).add(i);
+        }
+        claimAll(customers);
+
+        List<S> saved = new ArrayList<>(customers);
+        List<List<S>> results = shards.scatter(byShard.keySet(), shard -> {
+            List<S> group = byShard.get(shard).stream().map(customers::get).toList();
+            try {
+                return delegate.saveAll(group);
+            } catch (RuntimeException e) {
+                group.forEach(customer -> emailDirectory.release(customer.getEmail(), customer.getId()));
+                throw e;
+            }
+        });
+        int next = 0;
+        for (List<Integer> indexes : byShard.values()) {
+            List<S> group = results.get(next++);
+            for (int k = 0; k < indexes.size(); k++) {
+                saved.set(indexes.get(k), checked(customers.get(indexes.get(k)).getId(), group.get(k)));
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends Customer> List<S> saveAllAndFlush(Iterable<S> entities) {
+        // Every shard's part is committed by saveAll already
+        return saveAll(entities);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    // Not available across shards
+
+    @Override
+    public List<Customer> findAll(Sort sort) {
+        throw unsupported("findAll(Sort)");
+    }
+
+    @Override
+    public Page<Customer> findAll(Pageable pageable) {
+        throw unsupported("findAll(Pageable)");
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        throw unsupported("deleteAllById");
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Customer> entities) {
+        throw unsupported("deleteAll");
+    }
+
+    @Override
+    public void deleteAll() {
+        throw unsupported("deleteAll");
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Customer> entities) {
+        throw unsupported("deleteAllInBatch");
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        throw unsupported("deleteAllByIdInBatch");
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        throw unsupported("deleteAllInBatch");
+    }
+
+    @Override
+    public <S extends Customer> Optional<S> findOne(Example<S> example) {
+        throw unsupported("findOne(Example)");
+    }
+
+    @Override
+    public <S extends Customer> List<S> findAll(Example<S> example) {
+        throw unsupported("findAll(Example)");
+    }
+
+    @Override
+    public <S extends Customer> List<S> findAll(Example<S> example, Sort sort) {
+        throw unsupported("findAll(Example, Sort)");
+    }
+
+    @Override
+    public <S extends Customer> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw unsupported("findAll(Example, Pageable)");
+    }
+
+    @Override
+    public <S extends Customer> long count(Example<S> example) {
+        throw unsupported("count(Example)");
+    }
+
+    @Override
+    public <S extends Customer> boolean exists(Example<S> example) {
+        throw unsupported("exists(Example)");
+    }
+
+    @Override
+    public <S extends Customer, R> R findBy(Example<S> example,
+                                            Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw unsupported("findBy(Example)");
+    }
+
+    /**
+     * Runs {@code work} on the customer's shard: bound to the surrounding transaction if there is one,
+     * otherwise just for this call.
+     */
+    private <T> T onShardOf(Long id, Supplier<T> work) {
+        if (id == null) {
+            return work.get();
+        }
+        String shard = shards.shardOf(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            shards.bindTransaction(shard);
+            return work.get();
+        }
+        return shards.call(shard, work);
+    }
+
+    private <S extends Customer> S prepareAndSave(S entity, Supplier<S> save) {
+        if (entity.getId() == null) {
+            entity.setId(idAllocator.next());
+        }
+        Long id = entity.getId();
+        String email = entity.getEmail();
+        boolean claimed = emailDirectory.claim(email, id);
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (claimed && inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        emailDirectory.release(email, id);
+                    }
+                }
+            });
+        }
+        try {
+            return checked(id, onShardOf(id, save));
+        } catch (RuntimeException e) {
+            if (claimed && !inTransaction) {
+                emailDirectory.release(email, id);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Claims the emails of a batch of new customers, releasing them all again if one is taken. Claims are
+     * not tied to the caller's transaction: the shards' parts of the batch commit on their own.
+     */
+    private void claimAll(List<? extends Customer> customers) {
+        List<Customer> claimed = new ArrayList<>(customers.size());
+        try {
+            for (Customer customer : customers) {
+                emailDirectory.claim(customer.getEmail(), customer.getId());
+                claimed.add(customer);
+            }
+        } catch (DuplicateKeyException e) {
+            claimed.forEach(customer -> emailDirectory.release(customer.getEmail(), customer.getId()));
+            throw e;
+        }
+    }
+
+    /**
+     * The id decides the shard the row was written to, so it must survive the insert.
+     */
+    private static <S extends Customer> S checked(Long id, S saved) {
+        if (!id.equals(saved.getId())) {
+            throw new IllegalStateException("Customer " + id + " was saved with id " + saved.getId());
+        }
+        return saved;
+    }
+
+    private <T> List<T> byShard(Collection<Long> ids, Function<List<Long>, List<T>> query) {
+        Map<String, List<Long>> idsByShard = new LinkedHashMap<>();
+        ids.forEach(id -> idsByShard.computeIfAbsent(shards.shardOf(id), shard -> new ArrayList<>()).add(id));
+        List<T> rows = new ArrayList<>();
+        shards.scatter(idsByShard.keySet(), shard -> query.apply(idsByShard.get(shard))).forEach(rows::addAll);
+        return rows;
+    }
+
+    /**
+     * Merges lists that are each sorted by {@code order} and cuts the result to {@code limit}.
+     */
+    private static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, Limit limit) {
+        List<T> merged = new ArrayList<>();
+        sorted.forEach(merged::addAll);
+        merged.sort(order);
+        return limit.isLimited() && merged.size() > limit.max() ? merged.subList(0, limit.max()) : merged;
+    }
+
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(operation + " is not supported on the sharded customers table");
+    }
+}
@@ -0,0 +1,99 @@
+package com.relatia.customer_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Puts the primary from {@code spring.datasource} and the replicas from {@code datasource.routing.replicas}
+ * behind one {@link RoutingDataSource}, when {@code datasource.routing.enabled} is set.
+ *
+ * <p>The primary is still configured exactly as before, including {@code spring.datasource.hikari.*}.
+ * Replica pools are read-only and named {@code replica-<name>}.</p>
+ */
+@Configuration
+@ConditionalOnProperty(value = "datasource.routing.enabled")
+class DataSourceRoutingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaDataSources replicaDataSources(DataSourceRoutingProperties properties, MeterRegistry meterRegistry) {
+        return new ReplicaDataSources(properties.getReplicas().stream()
+                .map(replica -> replicaDataSource(replica, meterRegistry))
+                .toList());
+    }
+
+    @Bean
+    ReplicaPool replicaPool(ReplicaDataSources replicaDataSources, DataSourceRoutingProperties properties) {
+        return new ReplicaPool(replicaDataSources.pools().stream()
+                .map(pool -> new ReplicaPool.Replica(pool.getPoolName().substring("replica-".length()), pool))
+                .toList(), Clock.systemUTC(), properties);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource, ReplicaPool replicaPool,
+                          MeterRegistry meterRegistry) {
+        RoutingDataSource routingDataSource = new RoutingDataSource(primaryDataSource, replicaPool,
+                Clock.systemUTC(), meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    ReplicaHeartbeat replicaHeartbeat(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                      ReplicaPool replicaPool, DataSourceRoutingProperties properties,
+                                      MeterRegistry meterRegistry) {
+        return new ReplicaHeartbeat(primaryDataSource, replicaPool, Clock.systemUTC(), properties, meterRegistry);
+    }
+
+    @Bean
+    FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+
+    private static HikariDataSource replicaDataSource(DataSourceRoutingProperties.Replica replica,
+                                                      MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + replica.getName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        // A replica that is down at startup is ejected by the heartbeat instead of failing the application
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    /**
+     * Owns the replica pools so they are closed with the context.
+     */
+    record ReplicaDataSources(List<HikariDataSource> pools) {
+        void close() {
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.relatia.customer_service.datasource;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-replica routing, bound from the {@code datasource.routing.*} properties. The primary stays
+ * configured through {@code spring.datasource}.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /**
+     * Whether read-only transactions may be sent to the replicas.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How often the primary writes its heartbeat and every replica is probed for it.
+     */
+    @NotNull
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+    /**
+     * Replicas whose last replicated heartbeat is older than this stop receiving reads until they catch up.
+     */
+    @NotNull
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Consecutive failed probes after which a replica is ejected; one successful probe brings it back.
+     */
+    @Min(1)
+    private int failureThreshold = 3;
+
+    /**
+     * Margin for clock differences between instances when comparing a write token with a replica's heartbeat.
+     */
+    @NotNull
+    private Duration clockSkew = Duration.ofMillis(250);
+
+    @Valid
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+        /**
+         * Name used in the pool name and in metrics.
+         */
+        @NotBlank
+        private String name;
+
+        @NotBlank
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        @Min(1)
+        private int maximumPoolSize = 10;
+    }
+}
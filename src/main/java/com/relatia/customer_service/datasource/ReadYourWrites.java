@@ -0,0 +1,71 @@
+package com.relatia.customer_service.datasource;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Write tokens, which keep a client that just wrote from reading a replica that has not caught up yet.
+ *
+ * <p>Every committed write answers with an {@value #HEADER} header holding the commit time in epoch millis.
+ * A client that sends the token back on later requests only gets replicas that have replicated a primary
+ * heartbeat written after that time; until then its reads go to the primary. Reads later in the same
+ * request as a write are held to the same rule.</p>
+ */
+final class ReadYourWrites {
+
+    static final String HEADER = "X-Write-Token";
+
+    private static final ThreadLocal<Long> WRITTEN_AT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * @return time of the current client's last write in epoch millis, or 0 if there is none
+     */
+    static long writtenAt() {
+        Long writtenAt = WRITTEN_AT.get();
+        return writtenAt == null ? 0 : writtenAt;
+    }
+
+    static void require(long writtenAt) {
+        if (writtenAt > writtenAt()) {
+            WRITTEN_AT.set(writtenAt);
+        }
+    }
+
+    static void clear() {
+        WRITTEN_AT.remove();
+    }
+
+    /**
+     * Called after a write transaction committed: hands the client its token, if this is a request that
+     * has not started its response yet.
+     */
+    static void committed(long commitMillis) {
+        require(commitMillis);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                response.setHeader(HEADER, Long.toString(writtenAt()));
+            }
+        }
+    }
+
+    /**
+     * @return the token's commit time, or 0 if it is missing or malformed
+     */
+    static long parse(String token) {
+        if (token == null || token.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(token.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
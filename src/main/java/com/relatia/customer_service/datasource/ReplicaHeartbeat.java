@@ -0,0 +1,91 @@
+package com.relatia.customer_service.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replication lag and replica health with a heartbeat row.
+ *
+ * <p>On every tick the primary's {@code replication_heartbeat} row is set to the current time and each
+ * replica is asked for its copy of it. How old that copy is, is the replica's lag; it is also the point up
+ * to which the replica is known to have every write, which is what write tokens are compared against.
+ * A replica that cannot be queried {@code failureThreshold} times in a row is ejected until a probe
+ * succeeds again. Lag and health are published as {@code datasource.replica.lag} and
+ * {@code datasource.replica.healthy}.</p>
+ */
+@Slf4j
+class ReplicaHeartbeat {
+
+    private static final String BEAT = "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String PROBE = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final ReplicaPool pool;
+    private final Map<ReplicaPool.Replica, JdbcTemplate> replicas = new HashMap<>();
+    private final Clock clock;
+
+    ReplicaHeartbeat(DataSource primary, ReplicaPool pool, Clock clock, DataSourceRoutingProperties properties,
+                     MeterRegistry meterRegistry) {
+        int timeoutSeconds = (int) Math.max(1, properties.getHeartbeatInterval().toSeconds());
+        this.primary = jdbcTemplate(primary, timeoutSeconds);
+        this.pool = pool;
+        this.clock = clock;
+        for (ReplicaPool.Replica replica : pool.replicas()) {
+            replicas.put(replica, jdbcTemplate(replica.getDataSource(), timeoutSeconds));
+            TimeGauge.builder("datasource.replica.lag", replica, TimeUnit.MILLISECONDS, r -> {
+                        long lag = pool.lagMillis(r);
+                        return lag < 0 ? Double.NaN : lag;
+                    })
+                    .description("Age of the newest primary heartbeat the replica has replicated")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("Whether the replica is taking reads (1) or ejected (0)")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.heartbeat-interval:1s}")
+    void beat() {
+        try {
+            primary.update(BEAT, clock.millis());
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replication heartbeat: {}", e.getMessage());
+        }
+        replicas.forEach(this::probe);
+    }
+
+    private void probe(ReplicaPool.Replica replica, JdbcTemplate jdbcTemplate) {
+        boolean wasHealthy = replica.isHealthy();
+        try {
+            Long heartbeat = jdbcTemplate.queryForObject(PROBE, Long.class);
+            pool.probeSucceeded(replica, heartbeat == null ? 0 : heartbeat);
+            if (!wasHealthy) {
+                log.info("Replica {} is taking reads, {} ms behind", replica.getName(), pool.lagMillis(replica));
+            }
+        } catch (DataAccessException e) {
+            pool.probeFailed(replica);
+            if (wasHealthy && !replica.isHealthy()) {
+                log.warn("Replica {} ejected: {}", replica.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private static JdbcTemplate jdbcTemplate(DataSource dataSource, int timeoutSeconds) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout(timeoutSeconds);
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,113 @@
+package com.relatia.customer_service.datasource;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The replicas reads can be routed to, with what the last probes found out about each of them.
+ *
+ * <p>A replica takes reads while it is healthy, its lag is within {@code maxLag} and, for a client that
+ * presented a write token, it has replicated the primary's heartbeat from after that write. Eligible
+ * replicas are taken in turn.</p>
+ */
+class ReplicaPool {
+
+    private final List<Replica> replicas;
+    private final Clock clock;
+    private final long maxLagMillis;
+    private final long clockSkewMillis;
+    private final int failureThreshold;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReplicaPool(List<Replica> replicas, Clock clock, DataSourceRoutingProperties properties) {
+        this.replicas = List.copyOf(replicas);
+        this.clock = clock;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        this.clockSkewMillis = properties.getClockSkew().toMillis();
+        this.failureThreshold = properties.getFailureThreshold();
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    /**
+     * @param writtenAt time of the client's last write in epoch millis, or 0 if it sent no write token
+     * @return the replica to read from, or {@code null} when none can serve the read
+     */
+    Replica select(long writtenAt) {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        long now = clock.millis();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (canServe(replica, now, writtenAt)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records a probe that found the replica had replicated the heartbeat written at {@code heartbeatMillis}.
+     */
+    void probeSucceeded(Replica replica, long heartbeatMillis) {
+        replica.caughtUpTo = Math.max(replica.caughtUpTo, heartbeatMillis);
+        replica.failures = 0;
+        replica.healthy = true;
+    }
+
+    void probeFailed(Replica replica) {
+        if (++replica.failures >= failureThreshold) {
+            replica.healthy = false;
+        }
+    }
+
+    /**
+     * @return how far the replica is behind the primary's heartbeat, or -1 before its first successful probe
+     */
+    long lagMillis(Replica replica) {
+        return replica.caughtUpTo == 0 ? -1 : Math.max(0, clock.millis() - replica.caughtUpTo);
+    }
+
+    /**
+     * @return the time in epoch millis before which every committed write has reached the replica
+     */
+    long replicatedBefore(Replica replica) {
+        return replica.caughtUpTo - clockSkewMillis;
+    }
+
+    private boolean canServe(Replica replica, long now, long writtenAt) {
+        long caughtUpTo = replica.caughtUpTo;
+        return replica.healthy
+                && now - caughtUpTo <= maxLagMillis
+                && (writtenAt == 0 || caughtUpTo >= writtenAt + clockSkewMillis);
+    }
+
+    static final class Replica {
+        @Getter
+        private final String name;
+        @Getter
+        private final DataSource dataSource;
+        private volatile long caughtUpTo;
+        private volatile boolean healthy;
+        // Only touched by the heartbeat
+        private int failures;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+    }
+}
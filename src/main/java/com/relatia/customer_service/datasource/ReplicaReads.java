@@ -0,0 +1,56 @@
+package com.relatia.customer_service.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * How fresh the reads of the current transaction are, for callers that keep what they read beyond it.
+ *
+ * <p>A client without a write token may be served by a replica that is still behind a write another
+ * client just made. That is fine for the one response, but a cache filled from such a read would keep
+ * serving the old row to everyone, including the writer, whose token only steers its database reads.</p>
+ */
+public final class ReplicaReads {
+
+    private static final Object REPLICATED_BEFORE = new Object();
+
+    private ReplicaReads() {
+    }
+
+    /**
+     * @param committedAt commit time of a write in epoch millis, or 0 if there is none
+     * @return whether the current transaction read from a replica that may not have replicated that write yet
+     */
+    public static boolean mayPredate(long committedAt) {
+        if (committedAt == 0) {
+            return false;
+        }
+        Long replicatedBefore = (Long) TransactionSynchronizationManager.getResource(REPLICATED_BEFORE);
+        return replicatedBefore != null && replicatedBefore < committedAt;
+    }
+
+    /**
+     * Records that the current transaction reads from a replica holding every write committed before
+     * {@code replicatedBefore}; only takes effect inside a transaction.
+     */
+    static void servedBy(long replicatedBefore) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long bound = (Long) TransactionSynchronizationManager.getResource(REPLICATED_BEFORE);
+        if (bound != null) {
+            if (replicatedBefore < bound) {
+                TransactionSynchronizationManager.unbindResource(REPLICATED_BEFORE);
+                TransactionSynchronizationManager.bindResource(REPLICATED_BEFORE, replicatedBefore);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICATED_BEFORE, replicatedBefore);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICATED_BEFORE);
+            }
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package com.relatia.customer_service.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a replica picked by the {@link ReplicaPool} and everything else to the
+ * primary. Write transactions hand out a write token once they commit, see {@link ReadYourWrites}, and
+ * read-only transactions record how far their replica has replicated, see {@link ReplicaReads}.
+ *
+ * <p>The decision needs the transaction's read-only flag, which is only known once the transaction has
+ * started, so this must sit behind a {@code LazyConnectionDataSourceProxy} that fetches the connection on
+ * the first statement.</p>
+ */
+class RoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final Object WRITE_TRACKED = new Object();
+
+    private final ReplicaPool replicas;
+    private final Clock clock;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    RoutingDataSource(DataSource primary, ReplicaPool replicas, Clock clock, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.clock = clock;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.replicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        this.replicaReads = readCounter("replica", meterRegistry);
+        this.primaryReads = readCounter("primary", meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return PRIMARY;
+        }
+        ReplicaPool.Replica replica = replicas.select(ReadYourWrites.writtenAt());
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        ReplicaReads.servedBy(replicas.replicatedBefore(replica));
+        return replica.getName();
+    }
+
+    /**
+     * Issues a write token when the current transaction commits; only once per transaction.
+     */
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_TRACKED)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_TRACKED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.committed(clock.millis());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_TRACKED);
+            }
+        });
+    }
+
+    private static Counter readCounter(String target, MeterRegistry meterRegistry) {
+        return Counter.builder("datasource.reads")
+                .description("Read-only transactions by where they were sent")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
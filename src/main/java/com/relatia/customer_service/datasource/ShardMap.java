@@ -0,0 +1,97 @@
+package com.relatia.customer_service.datasource;
+
+import java.util.List;
+
+/**
+ * Which shard owns a customer id or an email.
+ *
+ * <p>Keys are hashed into a fixed number of buckets and every bucket belongs to exactly one shard.
+ * Moving a bucket to another shard only moves the rows hashed into it; changing the number of buckets
+ * would move almost everything.</p>
+ */
+public final class ShardMap {
+
+    private final List<String> names;
+    private final String[] owners;
+
+    ShardMap(ShardingProperties properties) {
+        this.names = properties.getShards().stream().map(ShardingProperties.Shard::getName).toList();
+        if (names.isEmpty()) {
+            throw new IllegalStateException("datasource.sharding.shards must list at least one shard");
+        }
+        if (names.stream().distinct().count() != names.size()) {
+            throw new IllegalStateException("datasource.sharding.shards has duplicate names: " + names);
+        }
+        this.owners = new String[properties.getBuckets()];
+        boolean explicit = properties.getShards().stream().anyMatch(shard -> !shard.getBuckets().isEmpty());
+        if (explicit) {
+            properties.getShards().forEach(shard -> shard.getBuckets().forEach(range -> assign(shard.getName(), range)));
+            for (int bucket = 0; bucket < owners.length; bucket++) {
+                if (owners[bucket] == null) {
+                    throw new IllegalStateException("Bucket " + bucket + " is not assigned to any shard");
+                }
+            }
+        } else {
+            for (int bucket = 0; bucket < owners.length; bucket++) {
+                owners[bucket] = names.get((int) ((long) bucket * names.size() / owners.length));
+            }
+        }
+    }
+
+    /**
+     * @return the shards in declaration order
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    public String shardOf(long id) {
+        return owners[bucketOf(id)];
+    }
+
+    /**
+     * @param key an already normalized key, e.g. a lower-cased email
+     */
+    public String shardOf(String key) {
+        return owners[bucketOf(key.hashCode())];
+    }
+
+    int bucketOf(long key) {
+        return (int) Math.floorMod(mix(key), (long) owners.length);
+    }
+
+    /**
+     * Spreads consecutive ids evenly over the buckets (the finalizer of MurmurHash3).
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private void assign(String shard, String range) {
+        String[] bounds = range.trim().split("-", 2);
+        int from;
+        int to;
+        try {
+            from = Integer.parseInt(bounds[0].trim());
+            to = bounds.length == 1 ? from : Integer.parseInt(bounds[1].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid bucket range '" + range + "' for shard " + shard, e);
+        }
+        if (from < 0 || to >= owners.length || from > to) {
+            throw new IllegalStateException("Bucket range '" + range + "' for shard " + shard
+                    + " is outside 0-" + (owners.length - 1));
+        }
+        for (int bucket = from; bucket <= to; bucket++) {
+            if (owners[bucket] != null) {
+                throw new IllegalStateException("Bucket " + bucket + " is assigned to both "
+                        + owners[bucket] + " and " + shard);
+            }
+            owners[bucket] = shard;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.relatia.customer_service.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends connections to the shard {@link Shards} has bound to the current thread, or to the main
+ * datasource when none is bound.
+ *
+ * <p>Like the replica routing, this must sit behind a {@code LazyConnectionDataSourceProxy}: a
+ * transaction's connection is only fetched on its first statement, after the shard has been bound.</p>
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    ShardRoutingDataSource(DataSource mainDataSource, Map<String, ? extends DataSource> shards) {
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(mainDataSource);
+        // An unknown shard is a bug, never a reason to write to the main datasource
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Shards.current();
+    }
+}
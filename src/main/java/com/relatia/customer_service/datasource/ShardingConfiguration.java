@@ -0,0 +1,125 @@
+package com.relatia.customer_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Provides the {@link Shards} of the customers table.
+ *
+ * <p>With {@code datasource.sharding.enabled} the datasource from {@code spring.datasource} becomes the main
+ * datasource, which keeps everything that is not sharded, and one pool is opened per configured shard.
+ * Both sit behind one {@link ShardRoutingDataSource}. {@code spring.sql.init} is applied to every shard as
+ * well. Read-replica routing cannot be enabled at the same time.</p>
+ */
+@Configuration
+class ShardingConfiguration {
+
+    @Configuration
+    @ConditionalOnProperty(value = "datasource.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    static class Unsharded {
+
+        @Bean
+        Shards shards() {
+            return Shards.unsharded();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(value = "datasource.sharding.enabled")
+    static class Sharded {
+
+        @Bean(destroyMethod = "close")
+        @ConfigurationProperties("spring.datasource.hikari")
+        HikariDataSource mainDataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean(destroyMethod = "close")
+        ShardDataSources shardDataSources(ShardingProperties properties, MeterRegistry meterRegistry) {
+            Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+            properties.getShards().forEach(shard -> pools.put(shard.getName(), shardDataSource(shard, meterRegistry)));
+            return new ShardDataSources(pools);
+        }
+
+        @Bean
+        ShardSchemaInitializer shardSchemaInitializer(ShardDataSources shardDataSources,
+                                                      ObjectProvider<SqlInitializationProperties> sqlInitialization) {
+            return new ShardSchemaInitializer(shardDataSources, sqlInitialization.getIfAvailable());
+        }
+
+        @Bean(destroyMethod = "close")
+        Shards shards(@Qualifier("mainDataSource") DataSource mainDataSource, ShardDataSources shardDataSources,
+                      ShardingProperties properties) {
+            return new Shards(new ShardMap(properties), shardDataSources.pools(), mainDataSource, properties);
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(@Qualifier("mainDataSource") DataSource mainDataSource,
+                              ShardDataSources shardDataSources) {
+            ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(mainDataSource, shardDataSources.pools());
+            routingDataSource.afterPropertiesSet();
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+
+        private static HikariDataSource shardDataSource(ShardingProperties.Shard shard, MeterRegistry meterRegistry) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + shard.getName());
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            return dataSource;
+        }
+    }
+
+    /**
+     * Owns the shard pools so they are closed with the context.
+     */
+    record ShardDataSources(Map<String, HikariDataSource> pools) {
+        void close() {
+            pools.values().forEach(HikariDataSource::close);
+        }
+    }
+
+    /**
+     * Runs the {@code spring.sql.init} scripts against every shard, as Boot does for the main datasource.
+     */
+    static final class ShardSchemaInitializer implements InitializingBean {
+
+        private final ShardDataSources shardDataSources;
+        private final SqlInitializationProperties properties;
+
+        ShardSchemaInitializer(ShardDataSources shardDataSources, SqlInitializationProperties properties) {
+            this.shardDataSources = shardDataSources;
+            this.properties = properties;
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+            if (properties == null) {
+                return;
+            }
+            shardDataSources.pools().values().forEach(dataSource ->
+                    new SqlDataSourceScriptDatabaseInitializer(dataSource, properties).initializeDatabase());
+        }
+    }
+}
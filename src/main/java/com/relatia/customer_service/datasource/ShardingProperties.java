@@ -0,0 +1,78 @@
+package com.relatia.customer_service.datasource;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Horizontal sharding of the customers table, bound from the {@code datasource.sharding.*} properties.
+ * Everything that is not sharded stays on the datasource configured through {@code spring.datasource}.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "datasource.sharding")
+public class ShardingProperties {
+
+    /**
+     * Whether customers are spread over the shards below.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of hash buckets customer ids and emails are spread over. Buckets, not rows, are assigned to
+     * shards, so this must not change once data has been written.
+     */
+    @Min(1)
+    private int buckets = 1024;
+
+    /**
+     * Upper bound on the concurrent per-shard queries of one scatter-gather read.
+     */
+    @Min(1)
+    private int scatterParallelism = 16;
+
+    /**
+     * How long a scatter-gather read waits for the slowest shard.
+     */
+    @NotNull
+    private Duration scatterTimeout = Duration.ofSeconds(30);
+
+    @Valid
+    private List<Shard> shards = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        /**
+         * Name used in the pool name and in metrics.
+         */
+        @NotBlank
+        private String name;
+
+        @NotBlank
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        @Min(1)
+        private int maximumPoolSize = 10;
+
+        /**
+         * Bucket ranges owned by this shard, e.g. {@code 0-511}. When no shard lists any, the buckets are
+         * split into equal consecutive ranges in the order the shards are declared.
+         */
+        private List<String> buckets = new ArrayList<>();
+    }
+}
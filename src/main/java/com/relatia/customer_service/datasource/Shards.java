@@ -0,0 +1,249 @@
+package com.relatia.customer_service.datasource;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for work on the sharded customers table.
+ *
+ * <p>Statements go to the shard bound to the current thread, or to the main datasource when none is.
+ * A transaction picks its shard once, with {@link #bindTransaction(String)} before its first statement,
+ * and keeps it until it completes. Work outside a transaction can be pointed at a shard with
+ * {@link #call(String, Supplier)}, and {@link #scatter(Function)} runs one piece of work per shard in
+ * parallel, each on its own thread and in its own transactions.</p>
+ *
+ * <p>When sharding is disabled there is a single shard, {@value #MAIN}, and all of this runs inline.</p>
+ */
+public class Shards {
+
+    public static final String MAIN = "main";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final ShardMap map;
+    private final Map<String, DataSource> dataSources;
+    private final DataSource mainDataSource;
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+
+    Shards(ShardMap map, Map<String, ? extends DataSource> dataSources, DataSource mainDataSource,
+           ShardingProperties properties) {
+        this.map = map;
+        this.dataSources = Map.copyOf(dataSources);
+        this.mainDataSource = mainDataSource;
+        this.timeoutMillis = properties.getScatterTimeout().toMillis();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getScatterParallelism(), task -> {
+            Thread thread = new Thread(task, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private Shards() {
+        this.map = null;
+        this.dataSources = Map.of();
+        this.mainDataSource = null;
+        this.executor = null;
+        this.timeoutMillis = 0;
+    }
+
+    /**
+     * @return the single-shard setup used when sharding is disabled
+     */
+    public static Shards unsharded() {
+        return new Shards();
+    }
+
+    /**
+     * @return the shard statements on this thread currently go to, {@code null} for the main datasource
+     */
+    static String current() {
+        return CURRENT.get();
+    }
+
+    public boolean isSharded() {
+        return map != null;
+    }
+
+    public List<String> names() {
+        return map == null ? List.of(MAIN) : map.names();
+    }
+
+    public String shardOf(long id) {
+        return map == null ? MAIN : map.shardOf(id);
+    }
+
+    /**
+     * @param key an already normalized key, e.g. a lower-cased email
+     */
+    public String shardOf(String key) {
+        return map == null ? MAIN : map.shardOf(key);
+    }
+
+    /**
+     * The shard's own pool, for work that manages its connections itself.
+     */
+    public DataSource dataSource(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        return dataSource;
+    }
+
+    /**
+     * The datasource of everything that is not sharded.
+     */
+    public DataSource mainDataSource() {
+        if (mainDataSource == null) {
+            throw new IllegalStateException("Sharding is disabled");
+        }
+        return mainDataSource;
+    }
+
+    /**
+     * Sends the current transaction to {@code shard} until it completes. Must be called before the
+     * transaction's first statement; binding it again to the same shard is a no-op.
+     *
+     * @throws IllegalStateException if there is no transaction, or it is already bound to another shard
+     */
+    public void bindTransaction(String shard) {
+        if (map == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("No transaction to bind to shard " + shard);
+        }
+        String bound = CURRENT.get();
+        if (bound == null) {
+            CURRENT.set(shard);
+            TransactionSynchronizationManager.registerSynchronization(new Binding(shard));
+        } else if (!bound.equals(shard)) {
+            throw new IllegalStateException("Transaction is bound to shard " + bound + ", it cannot also use " + shard);
+        }
+    }
+
+    /**
+     * Runs {@code work} with its statements, and the transactions it starts, sent to {@code shard}.
+     *
+     * @throws IllegalStateException if called inside a transaction, whose connection cannot change shard
+     */
+    public <T> T call(String shard, Supplier<T> work) {
+        if (map == null) {
+            return work.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction");
+        }
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void run(String shard, Runnable work) {
+        call(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code work} once per shard, in parallel.
+     *
+     * @return the results in the order of {@link #names()}
+     */
+    public <T> List<T> scatter(Function<String, T> work) {
+        return scatter(names(), work);
+    }
+
+    /**
+     * Runs {@code work} once for each of {@code shards}, in parallel.
+     *
+     * @return the results in the order of {@code shards}
+     * @throws QueryTimeoutException if a shard does not answer within {@code datasource.sharding.scatter-timeout}
+     */
+    public <T> List<T> scatter(Collection<String> shards, Function<String, T> work) {
+        if (map == null) {
+            return shards.stream().map(work).toList();
+        }
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            futures.add(executor.submit(() -> call(shard, () -> work.apply(shard))));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards", e);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Shards did not answer within " + timeoutMillis + " ms", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Keeps a transaction's shard while it is suspended by a nested one and drops it when it completes.
+     */
+    private record Binding(String shard) implements TransactionSynchronization {
+
+        @Override
+        public void suspend() {
+            CURRENT.remove();
+        }
+
+        @Override
+        public void resume() {
+            CURRENT.set(shard);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            CURRENT.remove();
+        }
+    }
+}
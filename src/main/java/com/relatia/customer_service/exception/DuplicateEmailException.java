@@ -0,0 +1,17 @@
+package com.relatia.customer_service.exception;
+
+/**
+ * Thrown when a customer would get an email address another customer already uses.
+ * Handled like any other {@link IllegalArgumentException}, but lets callers and metrics tell it apart.
+ * Like {@link ResourceNotFoundException} it is an expected outcome and carries no stack trace.
+ */
+public class DuplicateEmailException extends IllegalArgumentException {
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,113 @@
+package com.relatia.customer_service.exception;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Error messages from {@code messages.properties} for the current locale, resolved once per code and locale.
+ *
+ * <p>A message with a single {@code {0}} is kept as the text before and after it, so rendering it is one
+ * string concatenation instead of a {@link MessageFormat} run under the message source's lock; this is
+ * what every 404 pays. Numbers are rendered as plain digits, the way ids appear in URLs. Patterns that
+ * need {@link MessageFormat} (quotes, several arguments, format types) still go through the
+ * {@link MessageSource}.</p>
+ *
+ * <p>The locale comes from the request's {@code Accept-Language}, which a client can fill with any
+ * number of distinct locales, so only the {@value #MAX_LOCALES} most recently used are kept.</p>
+ */
+@Component
+public class ErrorMessages {
+
+    static final int MAX_LOCALES = 32;
+
+    private static final Function<Locale, ConcurrentMap<String, Template>> NEW_LOCALE =
+            locale -> new ConcurrentHashMap<>();
+
+    private final MessageSource messageSource;
+    private final Cache<Locale, ConcurrentMap<String, Template>> templates = Caffeine.newBuilder()
+            .maximumSize(MAX_LOCALES)
+            .build();
+
+    public ErrorMessages(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * @param code a message without arguments
+     * @return the message for the current locale
+     */
+    public String get(String code) {
+        return template(code, LocaleContextHolder.getLocale()).text();
+    }
+
+    /**
+     * @param code a message with a single {@code {0}}
+     * @param number the argument, rendered without grouping
+     * @return the message for the current locale
+     */
+    public String get(String code, long number) {
+        Locale locale = LocaleContextHolder.getLocale();
+        Template template = template(code, locale);
+        return template.simple()
+                ? template.prefix() + number + template.suffix()
+                : messageSource.getMessage(code, new Object[]{number}, locale);
+    }
+
+    /**
+     * @param code a message with a single {@code {0}}
+     * @param text the argument
+     * @return the message for the current locale
+     */
+    public String get(String code, String text) {
+        Locale locale = LocaleContextHolder.getLocale();
+        Template template = template(code, locale);
+        return template.simple()
+                ? template.prefix() + text + template.suffix()
+                : messageSource.getMessage(code, new Object[]{text}, locale);
+    }
+
+    private Template template(String code, Locale locale) {
+        ConcurrentMap<String, Template> forLocale = templates.get(locale, NEW_LOCALE);
+        Template template = forLocale.get(code);
+        if (template == null) {
+            // Without arguments the message source hands back the raw pattern
+            template = forLocale.computeIfAbsent(code, c -> Template.of(messageSource.getMessage(c, null, locale)));
+        }
+        return template;
+    }
+
+    long cachedLocales() {
+        templates.cleanUp();
+        return templates.estimatedSize();
+    }
+
+    /**
+     * A resolved message, split around its {@code {0}} when that is its only placeholder.
+     */
+    private record Template(String text, String prefix, String suffix) {
+
+        static Template of(String text) {
+            int placeholder = text.indexOf("{0}");
+            boolean simple = placeholder >= 0
+                    && text.indexOf('\'') < 0
+                    && text.indexOf('{', placeholder + 1) < 0
+                    && text.lastIndexOf('{', placeholder - 1) < 0;
+            return simple
+                    ? new Template(text, text.substring(0, placeholder), text.substring(placeholder + 3))
+                    : new Template(text, null, null);
+        }
+
+        boolean simple() {
+            return prefix != null;
+        }
+    }
+}
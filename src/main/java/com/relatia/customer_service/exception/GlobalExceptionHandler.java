@@ -1,10 +1,15 @@
 package com.relatia.customer_service.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,14 +17,18 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 /**
  * Global exception handler that processes exceptions and returns standardized error responses.
  * This handler ensures consistent error responses across the entire application.
+ * Every handled exception is counted as {@code api.exceptions}, tagged with its type and the response status.
  */
 @RestControllerAdvice
 @ApiResponse(
@@ -42,6 +51,16 @@ import java.util.stream.Collectors;
 )
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Class<?>, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry the registry to count exceptions in; test slices without one count in the global registry
+     */
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
     /**
      * Handles ResourceNotFoundException and returns a 404 Not Found response.
      *
@@ -71,11 +90,12 @@ public class GlobalExceptionHandler {
         )
     )
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
+        count(ex, HttpStatus.NOT_FOUND);
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .status(HttpStatus.NOT_FOUND.value())
                 .error(HttpStatus.NOT_FOUND.getReasonPhrase())
                 .message(ex.getMessage())
-                .path(request.getDescription(false).replace("uri=", ""))
+                .path(path(request))
                 .build();
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
@@ -109,15 +129,57 @@ public class GlobalExceptionHandler {
         )
     )
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
+        count(ex, HttpStatus.BAD_REQUEST);
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .status(HttpStatus.BAD_REQUEST.value())
                 .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
                 .message(ex.getMessage())
-                .path(request.getDescription(false).replace("uri=", ""))
+                .path(path(request))
                 .build();
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles DataIntegrityViolationException and returns a 409 Conflict response.
+     * Raised when a unique constraint such as {@code uk_customer_email} rejects a write
+     * that passed the application-level checks, typically because of a concurrent writer.
+     *
+     * @param ex The caught DataIntegrityViolationException
+     * @param request The web request that caused the exception
+     * @return ResponseEntity containing the error details
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ApiResponse(
+        responseCode = "409",
+        description = "Conflict - Constraint violation",
+        content = @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = ErrorResponse.class),
+            examples = @ExampleObject(
+                value = """
+                    {
+                      "timestamp": "2025-07-25T17:30:00.000Z",
+                      "status": 409,
+                      "error": "Conflict",
+                      "message": "Request conflicts with existing data",
+                      "path": "/api/v1/customers"
+                    }
+                    """
+            )
+        )
+    )
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex, WebRequest request) {
+        count(ex, HttpStatus.CONFLICT);
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message("Request conflicts with existing data")
+                .path(path(request))
+                .build();
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles MethodArgumentNotValidException and returns a 400 Bad Request response with validation errors.
      *
@@ -151,6 +213,7 @@ public class GlobalExceptionHandler {
         )
     )
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex, WebRequest request) {
+        count(ex, HttpStatus.BAD_REQUEST);
         Map<String, String> errors = ex.getBindingResult().getFieldErrors().stream()
                 .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage));
                 
@@ -159,8 +222,34 @@ public class GlobalExceptionHandler {
                 .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
                 .message("Validation failed")
                 .details(errors)
-                .path(request.getDescription(false).replace("uri=", ""))
+                .path(path(request))
                 .build();
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Each exception type is handled by exactly one handler, so its counter is registered once and reused.
+     */
+    private void count(Exception ex, HttpStatus status) {
+        Counter counter = exceptionCounters.get(ex.getClass());
+        if (counter == null) {
+            counter = exceptionCounters.computeIfAbsent(ex.getClass(), type -> Counter.builder("api.exceptions")
+                    .description("Exceptions turned into error responses")
+                    .tag("exception", type.getSimpleName())
+                    .tag("status", String.valueOf(status.value()))
+                    .register(meterRegistry));
+        }
+        counter.increment();
+    }
+
+    /**
+     * The request path, read straight from the servlet request rather than parsed out of
+     * {@link WebRequest#getDescription(boolean)}.
+     */
+    private static String path(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
 }
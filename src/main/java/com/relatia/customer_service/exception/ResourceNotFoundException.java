@@ -3,9 +3,18 @@ package com.relatia.customer_service.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Thrown when a requested resource does not exist. This is an expected outcome rather than a fault, and
+ * one that clients probing for ids trigger at high rates, so the exception carries no stack trace.
+ */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
         super(message);
     }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
 }
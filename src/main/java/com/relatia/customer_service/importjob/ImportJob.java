@@ -0,0 +1,97 @@
+package com.relatia.customer_service.importjob;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mutable progress of one customer CSV import.
+ * Counters are updated concurrently by the chunk writers and read by status polls.
+ */
+@Getter
+class ImportJob {
+
+    enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final UUID id = UUID.randomUUID();
+    private final String fileName;
+    private final Path spoolFile;
+    private final int maxReportedErrors;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsCreated = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<ImportJobResponse.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    ImportJob(String fileName, Path spoolFile, int maxReportedErrors) {
+        this.fileName = fileName;
+        this.spoolFile = spoolFile;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String reason) {
+        failure = reason;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    void reject(long row, String reason) {
+        rowsRejected.incrementAndGet();
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new ImportJobResponse.RowError(row, reason));
+        }
+    }
+
+    List<ImportJobResponse.RowError> errorsSnapshot() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    long rowsProcessed() {
+        return rowsCreated.get() + rowsRejected.get();
+    }
+
+    /**
+     * Average rows processed per second since the job started, or until it finished.
+     */
+    double rowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, end.toEpochMilli() - start.toEpochMilli());
+        return rowsProcessed() * 1000d / millis;
+    }
+}
@@ -0,0 +1,116 @@
+package com.relatia.customer_service.importjob;
+
+import com.relatia.customer_service.exception.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+import static com.relatia.customer_service.constants.GlobalConstants.CUSTOMER_IMPORT_API;
+
+/**
+ * REST controller for asynchronous customer CSV imports.
+ * An upload returns immediately with a job resource that clients poll for progress.
+ */
+@Tag(
+    name = "Customer Import",
+    description = "APIs for importing customers from large CSV files in the background"
+)
+@RequestMapping(
+    path = CUSTOMER_IMPORT_API,
+    produces = MediaType.APPLICATION_JSON_VALUE
+)
+@RestController
+@RequiredArgsConstructor
+@ApiResponses({
+    @ApiResponse(
+        responseCode = "500",
+        description = "Internal Server Error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+})
+class ImportJobController {
+
+    private final ImportJobService importJobService;
+
+    /**
+     * Starts an import of the uploaded CSV file.
+     *
+     * @param file CSV with a header row naming firstName, lastName, email, phone and address columns
+     * @return The queued job, with its status resource in the Location header
+     */
+    @Operation(
+        summary = "Import customers from CSV",
+        description = "Accepts a CSV upload and imports it in the background. "
+            + "Poll the returned job for rows processed, rejected and per second."
+    )
+    @ApiResponse(
+        responseCode = "202",
+        description = "Import accepted",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = ImportJobResponse.class)
+        )
+    )
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> submit(
+            @Parameter(description = "CSV file to import", required = true)
+            @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        ImportJob job = importJobService.submit(file);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(ImportJobResponse.from(job));
+    }
+
+    /**
+     * Retrieves the progress of an import.
+     *
+     * @param id The job identifier returned by the upload
+     * @return The current job status and counters
+     */
+    @Operation(
+        summary = "Get import status",
+        description = "Retrieves rows read, processed, created and rejected, plus throughput, of an import job. "
+            + "Jobs are held in memory on the node that accepted the upload and do not survive a restart"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved import status",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = ImportJobResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Import job not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobResponse> status(
+            @Parameter(description = "ID of the import job", required = true)
+            @PathVariable UUID id
+    ) {
+        return ResponseEntity.ok(ImportJobResponse.from(importJobService.find(id)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.relatia.customer_service.importjob;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Status of a customer CSV import job as returned to polling clients.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Progress of a customer CSV import job")
+public class ImportJobResponse {
+
+    @Schema(description = "Job identifier")
+    private UUID id;
+
+    @Schema(description = "Name of the uploaded file", example = "customers.csv")
+    private String fileName;
+
+    @Schema(description = "Job state", example = "RUNNING")
+    private String status;
+
+    @Schema(description = "Rows parsed from the file so far", example = "120000")
+    private long rowsRead;
+
+    @Schema(description = "Rows that were created or rejected so far", example = "118000")
+    private long rowsProcessed;
+
+    @Schema(description = "Customers created so far", example = "117950")
+    private long rowsCreated;
+
+    @Schema(description = "Rows rejected as invalid or duplicate so far", example = "50")
+    private long rowsRejected;
+
+    @Schema(description = "Average rows processed per second", example = "8500.0")
+    private double rowsPerSecond;
+
+    @Schema(description = "When the upload was accepted")
+    private Instant submittedAt;
+
+    @Schema(description = "When parsing started", nullable = true)
+    private Instant startedAt;
+
+    @Schema(description = "When the job completed or failed", nullable = true)
+    private Instant finishedAt;
+
+    @Schema(description = "Why the job failed", nullable = true)
+    private String failure;
+
+    @Schema(description = "The first rejected rows with the reason they were rejected")
+    private List<RowError> errors;
+
+    @Schema(description = "A rejected CSV row")
+    public record RowError(
+            @Schema(description = "One-based data row number, not counting the header", example = "42")
+            long row,
+            @Schema(description = "Why the row was rejected", example = "Email already in use")
+            String reason) {
+    }
+
+    static ImportJobResponse from(ImportJob job) {
+        return ImportJobResponse.builder()
+                .id(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus().name())
+                .rowsRead(job.getRowsRead().get())
+                .rowsProcessed(job.rowsProcessed())
+                .rowsCreated(job.getRowsCreated().get())
+                .rowsRejected(job.getRowsRejected().get())
+                .rowsPerSecond(job.rowsPerSecond())
+                .submittedAt(job.getSubmittedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .failure(job.getFailure())
+                .errors(job.errorsSnapshot())
+                .build();
+    }
+}
@@ -0,0 +1,269 @@
+package com.relatia.customer_service.importjob;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.relatia.customer_service.customer.CustomerBatchResponse;
+import com.relatia.customer_service.customer.CustomerBatchResult;
+import com.relatia.customer_service.customer.CustomerProperties;
+import com.relatia.customer_service.customer.CustomerRequest;
+import com.relatia.customer_service.customer.CustomerService;
+import com.relatia.customer_service.exception.ErrorMessages;
+import com.relatia.customer_service.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Runs customer CSV imports in the background.
+ *
+ * <p>Uploads are spooled to disk and parsed as a stream, so the file is never held in
+ * memory. Parsed rows are grouped into chunks and each chunk is written through
+ * {@link CustomerService#createAll(List)}, which validates, de-duplicates and batch
+ * inserts it in its own transaction. Chunks run in parallel, but a semaphore shared by
+ * all jobs caps how many are in flight, which bounds both the connections imports use
+ * and the rows buffered in memory.</p>
+ *
+ * <p>Jobs and their spool files are local to the node that accepted the upload and are kept in
+ * memory only: a restart loses running and finished jobs alike, and with several replicas the
+ * status of a job can only be polled on the node that runs it (route by job id or use sticky
+ * sessions). Rows already written by a lost job stay written; re-uploading the file rejects them as
+ * duplicate emails.</p>
+ */
+@Slf4j
+@Service
+class ImportJobService {
+
+    private final CustomerService customerService;
+    private final CustomerProperties.Imports properties;
+    private final ErrorMessages errorMessages;
+    private final ObjectReader csvReader = new CsvMapper()
+            .readerFor(CustomerRequest.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .with(CsvParser.Feature.TRIM_SPACES)
+            .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor jobExecutor;
+    private final ThreadPoolTaskExecutor chunkExecutor;
+    private final Semaphore chunkPermits;
+
+    ImportJobService(CustomerService customerService, CustomerProperties customerProperties, ErrorMessages errorMessages) {
+        this.customerService = customerService;
+        this.properties = customerProperties.getImports();
+        this.errorMessages = errorMessages;
+        this.jobExecutor = executor("customer-import-", properties.getMaxConcurrentJobs());
+        this.chunkExecutor = executor("customer-import-chunk-", properties.getMaxConcurrentChunks());
+        this.chunkPermits = new Semaphore(properties.getMaxConcurrentChunks());
+    }
+
+    /**
+     * Spools the upload to disk and queues it for import.
+     *
+     * @param file the uploaded CSV with a header row naming the {@link CustomerRequest} fields
+     * @return the queued job
+     * @throws IOException if the upload cannot be written to the spool directory
+     */
+    ImportJob submit(MultipartFile file) throws IOException {
+        purgeExpired();
+        Files.createDirectories(properties.getSpoolDir());
+        Path spoolFile = Files.createTempFile(properties.getSpoolDir(), "customer-import-", ".csv");
+        try {
+            file.transferTo(spoolFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(file.getOriginalFilename(), spoolFile, properties.getMaxReportedErrors());
+        jobs.put(job.getId(), job);
+        jobExecutor.execute(() -> run(job));
+        log.info("Queued customer import {} for {} ({} bytes)", job.getId(), job.getFileName(), file.getSize());
+        return job;
+    }
+
+    /**
+     * @throws ResourceNotFoundException if no job with this id exists or it has expired
+     */
+    ImportJob find(UUID id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException(errorMessages.get("error.import.notfound", id.toString()));
+        }
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        job.start();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        try (MappingIterator<CustomerRequest> rows = csvReader.readValues(job.getSpoolFile().toFile())) {
+            Chunk chunk = new Chunk(properties.getChunkSize());
+            long row = 0;
+            while (rows.hasNextValue()) {
+                row++;
+                job.getRowsRead().incrementAndGet();
+                try {
+                    chunk.add(row, rows.nextValue());
+                } catch (JsonProcessingException e) {
+                    // A row the CSV schema or the request type rejects, e.g. with too many columns
+                    job.reject(row, "Malformed row: " + e.getMessage());
+                    continue;
+                }
+                if (chunk.isFull()) {
+                    pending.add(submitChunk(job, chunk));
+                    chunk = new Chunk(properties.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submitChunk(job, chunk));
+            }
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+            job.complete();
+            log.info("Customer import {} completed: {} created, {} rejected, {} rows/s",
+                    job.getId(), job.getRowsCreated().get(), job.getRowsRejected().get(),
+                    Math.round(job.rowsPerSecond()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
+        } catch (Exception e) {
+            log.error("Customer import {} failed after {} rows", job.getId(), job.getRowsRead().get(), e);
+            // Let in-flight chunks finish so the counters stay truthful
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(t -> null).join();
+            job.fail(e.getMessage());
+        } finally {
+            deleteSpoolFile(job);
+        }
+    }
+
+    private CompletableFuture<Void> submitChunk(ImportJob job, Chunk chunk) throws InterruptedException {
+        // Blocks the parser while all writers are busy, so at most maxConcurrentChunks chunks are buffered
+        chunkPermits.acquire();
+        try {
+            return CompletableFuture.runAsync(() -> writeChunk(job, chunk), chunkExecutor)
+                    .whenComplete((ignored, error) -> chunkPermits.release());
+        } catch (RejectedExecutionException e) {
+            chunkPermits.release();
+            throw e;
+        }
+    }
+
+    private void writeChunk(ImportJob job, Chunk chunk) {
+        try {
+            record(job, chunk.rows, customerService.createAll(chunk.requests));
+        } catch (DataIntegrityViolationException e) {
+            // A parallel chunk or another writer claimed one of the emails after the duplicate check;
+            // retry row by row so only the conflicting rows are rejected
+            for (int i = 0; i < chunk.requests.size(); i++) {
+                writeSingle(job, chunk.rows.get(i), chunk.requests.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.error("Customer import {} could not write rows {}-{}", job.getId(),
+                    chunk.rows.get(0), chunk.rows.get(chunk.rows.size() - 1), e);
+            chunk.rows.forEach(row -> job.reject(row, "Could not be written: " + e.getMessage()));
+        }
+    }
+
+    private void writeSingle(ImportJob job, long row, CustomerRequest request) {
+        try {
+            record(job, List.of(row), customerService.createAll(List.of(request)));
+        } catch (DataIntegrityViolationException e) {
+            job.reject(row, errorMessages.get("error.email.exists"));
+        }
+    }
+
+    private static void record(ImportJob job, List<Long> rows, CustomerBatchResponse response) {
+        for (CustomerBatchResult result : response.getResults()) {
+            if (result.getStatus() == CustomerBatchResult.Status.CREATED) {
+                job.getRowsCreated().incrementAndGet();
+            } else {
+                job.reject(rows.get(result.getIndex()), describe(result));
+            }
+        }
+    }
+
+    private static String describe(CustomerBatchResult result) {
+        if (result.getErrors() == null || result.getErrors().isEmpty()) {
+            return result.getMessage();
+        }
+        return result.getErrors().entrySet().stream()
+                .map(error -> error.getKey() + ": " + error.getValue())
+                .collect(Collectors.joining(", "));
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static void deleteSpoolFile(ImportJob job) {
+        try {
+            Files.deleteIfExists(job.getSpoolFile());
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {} of customer import {}", job.getSpoolFile(), job.getId(), e);
+        }
+    }
+
+    private static ThreadPoolTaskExecutor executor(String threadNamePrefix, int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdown();
+        chunkExecutor.shutdown();
+    }
+
+    /**
+     * Rows of one insert transaction together with their CSV row numbers for error reporting.
+     */
+    private static final class Chunk {
+        private final int capacity;
+        private final List<Long> rows;
+        private final List<CustomerRequest> requests;
+
+        Chunk(int capacity) {
+            this.capacity = capacity;
+            this.rows = new ArrayList<>(capacity);
+            this.requests = new ArrayList<>(capacity);
+        }
+
+        void add(long row, CustomerRequest request) {
+            rows.add(row);
+            requests.add(request);
+        }
+
+        boolean isFull() {
+            return requests.size() >= capacity;
+        }
+
+        boolean isEmpty() {
+            return requests.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.relatia.customer_service.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * The pooled {@code id_generator} table generator, except that an id already set on a new entity is kept.
+ * Sharded customers get their id before they are persisted, because the id decides the shard.
+ *
+ * <p>Each entity table has its own row, named after the table, and ids are handed out in blocks of
+ * {@value #INCREMENT}. Used through {@link PooledTableId}.</p>
+ */
+public class AssignableTableGenerator extends TableGenerator {
+
+    public static final int INCREMENT = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        parameters.putIfAbsent(TABLE_PARAM, "id_generator");
+        parameters.putIfAbsent(SEGMENT_COLUMN_PARAM, "sequence_name");
+        parameters.putIfAbsent(VALUE_COLUMN_PARAM, "next_val");
+        parameters.putIfAbsent(CONFIG_PREFER_SEGMENT_PER_ENTITY, "true");
+        parameters.putIfAbsent(INCREMENT_PARAM, Integer.toString(INCREMENT));
+        parameters.putIfAbsent(OPT_PARAM, "pooled");
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return currentValue != null ? currentValue : super.generate(session, owner, currentValue, eventType);
+    }
+}
@@ -23,8 +23,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public abstract class BaseEntity {
 
+    /**
+     * Pooled table-backed ids: each entity table gets its own row in {@code id_generator}
+     * and ids are handed out in blocks, so inserts can be JDBC-batched (IDENTITY disables that).
+     * An id assigned before persisting is kept, see {@link AssignableTableGenerator}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledTableId
     private Long id;
 
     @CreationTimestamp
@@ -0,0 +1,19 @@
+package com.relatia.customer_service.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Ids from the entity table's row in {@code id_generator}, handed out by {@link AssignableTableGenerator}.
+ */
+@IdGeneratorType(AssignableTableGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledTableId {
+}
@@ -0,0 +1,218 @@
+package com.relatia.customer_service.notification;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.relatia.customer_service.constants.GlobalConstants.NOTIFICATION_API;
+
+/**
+ * Non-blocking counterpart of {@link NotificationClient} for the request paths that wait on notification-service.
+ *
+ * <p>Calls go out through one shared JDK {@link HttpClient}, which keeps HTTP/1.1 connections alive and
+ * reuses them across requests, so no thread waits while notification-service answers. Instances are
+ * chosen through the same load balancer as Feign, and every method shares its circuit breaker and
+ * bulkhead with the Feign method of the same name. Failures are answered by {@link NotificationClientFallback},
+ * as they would be for Feign. Calls are timed through {@link NotificationClientMetrics}.</p>
+ */
+@Slf4j
+@Component
+class AsyncNotificationClient {
+
+    private static final TypeReference<List<NotificationResponse>> NOTIFICATION_LIST = new TypeReference<>() {};
+
+    private final LoadBalancerClient loadBalancer;
+    private final ObjectMapper objectMapper;
+    private final NotificationClientFallback fallback;
+    private final NotificationClientMetrics metrics;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final NotificationProperties.Resilience resilience;
+    private final HttpClient httpClient;
+
+    AsyncNotificationClient(LoadBalancerClient loadBalancer, ObjectMapper objectMapper, NotificationClientFallback fallback,
+                            NotificationClientMetrics metrics, CircuitBreakerRegistry circuitBreakerRegistry,
+                            BulkheadRegistry bulkheadRegistry, NotificationProperties notificationProperties) {
+        this.loadBalancer = loadBalancer;
+        this.objectMapper = objectMapper;
+        this.fallback = fallback;
+        this.metrics = metrics;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.resilience = notificationProperties.getResilience();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(notificationProperties.getAsyncClient().getConnectTimeout())
+                .build();
+    }
+
+    CompletableFuture<NotificationResponse> getNotification(Long id) {
+        return call("getNotification",
+                uri -> uri.path("/{id}").buildAndExpand(id),
+                HttpRequest.Builder::GET,
+                objectMapper.constructType(NotificationResponse.class),
+                () -> fallback.getNotification(id));
+    }
+
+    /**
+     * @param onFallback run before the fallback answers instead of notification-service
+     */
+    CompletableFuture<List<NotificationResponse>> getNotifications(Long recipientId, boolean unread, Runnable onFallback) {
+        return call("getNotifications",
+                uri -> uri.queryParam("recipientId", recipientId).queryParam("unread", unread).build(),
+                HttpRequest.Builder::GET,
+                objectMapper.getTypeFactory().constructType(NOTIFICATION_LIST),
+                NotificationClientFallback.reporting(() -> fallback.getNotifications(recipientId, unread), onFallback));
+    }
+
+    /**
+     * @param onFallback run before the fallback answers instead of notification-service
+     */
+    CompletableFuture<Long> getNotificationCount(Long recipientId, boolean unread, Runnable onFallback) {
+        return call("getNotificationCount",
+                uri -> uri.path("/count").queryParam("recipientId", recipientId).queryParam("unread", unread).build(),
+                HttpRequest.Builder::GET,
+                objectMapper.constructType(Long.class),
+                NotificationClientFallback.reporting(() -> fallback.getNotificationCount(recipientId, unread), onFallback));
+    }
+
+    CompletableFuture<NotificationResponse> markAsRead(Long id) {
+        return call("markAsRead",
+                uri -> uri.path("/{id}/read").buildAndExpand(id),
+                request -> request.PUT(HttpRequest.BodyPublishers.noBody()),
+                objectMapper.constructType(NotificationResponse.class),
+                () -> fallback.markAsRead(id));
+    }
+
+    CompletableFuture<Void> deleteNotification(Long id) {
+        return call("deleteNotification",
+                uri -> uri.path("/{id}").buildAndExpand(id),
+                HttpRequest.Builder::DELETE,
+                null,
+                () -> {
+                    fallback.deleteNotification(id);
+                    return null;
+                });
+    }
+
+    /**
+     * Sends one request through the method's circuit breaker and bulkhead, answering failures with the fallback.
+     *
+     * @param responseType type of the response body, or {@code null} to ignore the body
+     */
+    private <T> CompletableFuture<T> call(String method,
+                                          Function<UriComponentsBuilder, UriComponents> uri,
+                                          Function<HttpRequest.Builder, HttpRequest.Builder> verb,
+                                          JavaType responseType, Supplier<T> onFailure) {
+        String id = NotificationClientConfiguration.CLIENT_NAME + "." + method;
+        NotificationProperties.MethodLimits limits = resilience.forMethod(method);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(id,
+                NotificationClientConfiguration.circuitBreakerConfig(limits));
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(id, NotificationClientConfiguration.bulkheadConfig(limits));
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> exchange = new AtomicReference<>();
+        Supplier<CompletionStage<T>> send = () -> {
+            URI target = uri.apply(UriComponentsBuilder.fromUri(chooseInstance().getUri()).path(NOTIFICATION_API))
+                    .toUri();
+            HttpRequest request = verb.apply(HttpRequest.newBuilder(target)
+                            .timeout(limits.getTimeout())
+                            .header("Accept", "application/json"))
+                    .build();
+            CompletableFuture<HttpResponse<byte[]>> sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            exchange.set(sent);
+            if (result.isCancelled()) {
+                sent.cancel(true);
+            }
+            return sent.thenApply(response -> read(method, response, responseType));
+        };
+        // Cancelling the result, as a hedged read does with its loser, aborts the exchange: its connection is
+        // closed rather than left waiting for the answer, and the bulkhead permit is handed back right away
+        result.whenComplete((value, error) -> {
+            CompletableFuture<?> sent = exchange.get();
+            if (result.isCancelled() && sent != null) {
+                sent.cancel(true);
+            }
+        });
+
+        long started = System.nanoTime();
+        try {
+            circuitBreaker.executeCompletionStage(() -> bulkhead.executeCompletionStage(send))
+                    .whenComplete((value, error) -> {
+                        if (result.isCancelled()) {
+                            return;
+                        }
+                        metrics.record(NotificationClientMetrics.Client.ASYNC, method, started, error == null);
+                        if (error == null) {
+                            result.complete(value);
+                        } else {
+                            log.debug("notification-service {} failed, answering with fallback", method, unwrap(error));
+                            completeWithFallback(result, onFailure);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            metrics.record(NotificationClientMetrics.Client.ASYNC, method, started, false);
+            log.debug("notification-service {} not attempted, answering with fallback", method, e);
+            completeWithFallback(result, onFailure);
+        }
+        return result;
+    }
+
+    private ServiceInstance chooseInstance() {
+        ServiceInstance instance = loadBalancer.choose(NotificationClientConfiguration.CLIENT_NAME);
+        if (instance == null) {
+            throw new IllegalStateException("No instance of notification-service available");
+        }
+        return instance;
+    }
+
+    private <T> T read(String method, HttpResponse<byte[]> response, JavaType responseType) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("notification-service " + method + " answered " + response.statusCode());
+        }
+        if (responseType == null || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> void completeWithFallback(CompletableFuture<T> result, Supplier<T> onFailure) {
+        try {
+            result.complete(onFailure.get());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
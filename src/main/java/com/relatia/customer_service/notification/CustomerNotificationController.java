@@ -9,11 +9,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static com.relatia.customer_service.constants.GlobalConstants.CUSTOMER_NOTIFICATION_API;
 
 /**
  * REST controller for managing customer notifications.
+ * Endpoints that wait on notification-service return futures, so no request thread is held meanwhile.
  */
 @Tag(
     name = "Customer Notifications",
@@ -28,44 +30,47 @@ public class CustomerNotificationController {
 
     @Operation(summary = "Get all notifications for a customer")
     @GetMapping
-    public ResponseEntity<List<NotificationResponse>> getCustomerNotifications(
+    public CompletableFuture<ResponseEntity<List<NotificationResponse>>> getCustomerNotifications(
             @PathVariable Long customerId) {
-        return ResponseEntity.ok(notificationService.getCustomerNotifications(customerId));
+        return notificationService.getCustomerNotifications(customerId).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Get unread notifications for a customer")
     @GetMapping("/unread")
-    public ResponseEntity<List<NotificationResponse>> getUnreadCustomerNotifications(
+    public CompletableFuture<ResponseEntity<List<NotificationResponse>>> getUnreadCustomerNotifications(
             @PathVariable Long customerId) {
-        return ResponseEntity.ok(notificationService.getUnreadCustomerNotifications(customerId));
+        return notificationService.getUnreadCustomerNotifications(customerId).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Get notification count for a customer")
     @GetMapping("/count")
-    public ResponseEntity<Long> getNotificationCount(
+    public CompletableFuture<ResponseEntity<Long>> getNotificationCount(
             @PathVariable Long customerId,
             @RequestParam(required = false, defaultValue = "false") boolean unreadOnly) {
-        return ResponseEntity.ok(notificationService.getNotificationCount(customerId, unreadOnly));
+        return notificationService.getNotificationCount(customerId, unreadOnly).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Mark a notification as read")
     @PutMapping("/{notificationId}/read")
-    public ResponseEntity<NotificationResponse> markAsRead(
+    public CompletableFuture<ResponseEntity<NotificationResponse>> markAsRead(
             @PathVariable Long customerId,
             @PathVariable Long notificationId) {
-        return ResponseEntity.ok(notificationService.markNotificationAsRead(notificationId));
+        return notificationService.markNotificationAsRead(customerId, notificationId).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Delete a notification")
     @DeleteMapping("/{notificationId}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteNotification(
+    public CompletableFuture<ResponseEntity<Void>> deleteNotification(
             @PathVariable Long customerId,
             @PathVariable Long notificationId) {
-        notificationService.deleteNotification(notificationId);
+        return notificationService.deleteNotification(customerId, notificationId)
+                .thenApply(ignored -> ResponseEntity.noContent().build());
     }
 
-    @Operation(summary = "Send a notification to a customer")
+    @Operation(
+        summary = "Send a notification to a customer",
+        description = "Queues the notification for delivery and returns 202 Accepted without waiting for notification-service"
+    )
     @PostMapping
     public ResponseEntity<NotificationResponse> sendNotification(
             @PathVariable Long customerId,
@@ -76,6 +81,6 @@ public class CustomerNotificationController {
             request.getMessage(),
             request.getType()
         );
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
     }
 }
@@ -2,40 +2,60 @@ package com.relatia.customer_service.notification;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for handling customer-related notification operations.
+ * Calls to notification-service are non-blocking and complete the returned futures once it answers.
+ * Counts and lists are served through the short-lived {@link NotificationReadCache}, which loads
+ * them through {@link HedgedNotificationReads}; writes invalidate the affected customer's entries.
  */
 @Service
 @RequiredArgsConstructor
 public class CustomerNotificationService {
 
-    private final NotificationClient notificationClient;
+    private final AsyncNotificationClient notificationClient;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationReadCache readCache;
+    private final HedgedNotificationReads hedgedReads;
 
     /**
-     * Send a notification to a customer
+     * Send a notification to a customer.
+     * The notification is written to the outbox in the caller's transaction and delivered
+     * to notification-service in the background by {@link NotificationOutboxDispatcher}.
      * @param customerId The ID of the customer
      * @param title The notification title
      * @param message The notification message
      * @param type The type of notification
-     * @return The created notification
+     * @return The queued notification; its id is assigned by notification-service on delivery
      */
+    @Transactional
     public NotificationResponse sendCustomerNotification(
             Long customerId,
             String title,
             String message,
             String type) {
         
-        NotificationRequest request = NotificationRequest.builder()
+        NotificationOutboxEntry entry = outboxRepository.save(NotificationOutboxEntry.builder()
                 .recipientId(customerId)
                 .title(title)
                 .message(message)
                 .type(type)
-                .build();
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+        readCache.invalidate(customerId);
                 
-        return notificationClient.createNotification(request);
+        return NotificationResponse.builder()
+                .recipientId(entry.getRecipientId())
+                .title(entry.getTitle())
+                .message(entry.getMessage())
+                .type(entry.getType())
+                .createdAt(entry.getCreatedAt())
+                .build();
     }
 
     /**
@@ -43,8 +63,9 @@ public class CustomerNotificationService {
      * @param customerId The ID of the customer
      * @return List of notifications
      */
-    public List<NotificationResponse> getCustomerNotifications(Long customerId) {
-        return notificationClient.getNotifications(customerId, false);
+    public CompletableFuture<List<NotificationResponse>> getCustomerNotifications(Long customerId) {
+        return readCache.getAsync(customerId, NotificationReadCache.Query.LIST_ALL,
+                onFallback -> hedgedReads.getNotifications(customerId, false, onFallback).thenApply(List::copyOf));
     }
 
     /**
@@ -52,25 +73,30 @@ public class CustomerNotificationService {
      * @param customerId The ID of the customer
      * @return List of unread notifications
      */
-    public List<NotificationResponse> getUnreadCustomerNotifications(Long customerId) {
-        return notificationClient.getNotifications(customerId, true);
+    public CompletableFuture<List<NotificationResponse>> getUnreadCustomerNotifications(Long customerId) {
+        return readCache.getAsync(customerId, NotificationReadCache.Query.LIST_UNREAD,
+                onFallback -> hedgedReads.getNotifications(customerId, true, onFallback).thenApply(List::copyOf));
     }
 
     /**
      * Mark a notification as read
+     * @param customerId The ID of the customer owning the notification
      * @param notificationId The ID of the notification
      * @return The updated notification
      */
-    public NotificationResponse markNotificationAsRead(Long notificationId) {
-        return notificationClient.markAsRead(notificationId);
+    public CompletableFuture<NotificationResponse> markNotificationAsRead(Long customerId, Long notificationId) {
+        return notificationClient.markAsRead(notificationId)
+                .whenComplete((response, error) -> readCache.invalidate(customerId));
     }
 
     /**
      * Delete a notification
+     * @param customerId The ID of the customer owning the notification
      * @param notificationId The ID of the notification to delete
      */
-    public void deleteNotification(Long notificationId) {
-        notificationClient.deleteNotification(notificationId);
+    public CompletableFuture<Void> deleteNotification(Long customerId, Long notificationId) {
+        return notificationClient.deleteNotification(notificationId)
+                .whenComplete((ignored, error) -> readCache.invalidate(customerId));
     }
 
     /**
@@ -79,7 +105,9 @@ public class CustomerNotificationService {
      * @param unreadOnly Whether to count only unread notifications
      * @return The count of notifications
      */
-    public long getNotificationCount(Long customerId, boolean unreadOnly) {
-        return notificationClient.getNotificationCount(customerId, unreadOnly);
+    public CompletableFuture<Long> getNotificationCount(Long customerId, boolean unreadOnly) {
+        return readCache.getAsync(customerId,
+                unreadOnly ? NotificationReadCache.Query.COUNT_UNREAD : NotificationReadCache.Query.COUNT_ALL,
+                onFallback -> hedgedReads.getNotificationCount(customerId, unreadOnly, onFallback));
     }
 }
@@ -0,0 +1,277 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedged, latency-bounded reads from notification-service.
+ *
+ * <p>Each read method keeps a rolling HdrHistogram of its call latencies. A read that has not answered
+ * by the method's {@code notification.hedging.hedge-percentile} latency gets a second, identical attempt;
+ * the load balancer hands that attempt to the next instance, so one slow instance no longer decides the
+ * tail. Whichever attempt answers first wins and the other one's answer is dropped. Hedges are capped at
+ * {@code max-hedge-ratio} of the reads in a window. Reads that outlast a timeout derived from the observed
+ * p99 are answered like {@link NotificationClientFallback} would answer them.</p>
+ *
+ * <p>Until a method has seen {@code min-samples} latencies it is neither hedged nor held to anything
+ * shorter than {@code max-timeout}. With {@code notification.hedging.enabled=false} (the default) every
+ * read goes straight to {@link AsyncNotificationClient}.</p>
+ */
+@Slf4j
+@Component
+class HedgedNotificationReads {
+
+    enum Method {
+        GET_NOTIFICATION("getNotification"),
+        GET_NOTIFICATIONS("getNotifications"),
+        GET_NOTIFICATION_COUNT("getNotificationCount");
+
+        private final String tag;
+
+        Method(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final AsyncNotificationClient notificationClient;
+    private final NotificationClientFallback fallback;
+    private final NotificationProperties.Hedging properties;
+    private final Map<Method, LatencyStats> stats = new EnumMap<>(Method.class);
+
+    HedgedNotificationReads(AsyncNotificationClient notificationClient, NotificationClientFallback fallback,
+                            NotificationProperties notificationProperties, MeterRegistry meterRegistry) {
+        this.notificationClient = notificationClient;
+        this.fallback = fallback;
+        this.properties = notificationProperties.getHedging();
+        for (Method method : Method.values()) {
+            stats.put(method, new LatencyStats(method, meterRegistry));
+        }
+    }
+
+    CompletableFuture<NotificationResponse> getNotification(Long id) {
+        return read(Method.GET_NOTIFICATION,
+                () -> notificationClient.getNotification(id),
+                () -> fallback.getNotification(id));
+    }
+
+    /**
+     * @param onFallback run before the fallback answers instead of notification-service
+     */
+    CompletableFuture<List<NotificationResponse>> getNotifications(Long recipientId, boolean unread, Runnable onFallback) {
+        return read(Method.GET_NOTIFICATIONS,
+                () -> notificationClient.getNotifications(recipientId, unread, onFallback),
+                NotificationClientFallback.reporting(() -> fallback.getNotifications(recipientId, unread), onFallback));
+    }
+
+    /**
+     * @param onFallback run before the fallback answers instead of notification-service
+     */
+    CompletableFuture<Long> getNotificationCount(Long recipientId, boolean unread, Runnable onFallback) {
+        return read(Method.GET_NOTIFICATION_COUNT,
+                () -> notificationClient.getNotificationCount(recipientId, unread, onFallback),
+                NotificationClientFallback.reporting(() -> fallback.getNotificationCount(recipientId, unread), onFallback));
+    }
+
+    <T> CompletableFuture<T> read(Method method, Supplier<CompletableFuture<T>> call, Supplier<T> onTimeout) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        LatencyStats stats = this.stats.get(method);
+        stats.roll();
+        stats.countRead();
+        long timeout = stats.timeoutNanos();
+        long hedgeDelay = stats.hedgeDelayNanos();
+
+        Race<T> race = new Race<>();
+        CompletableFuture<T> first = race.enter(attempt(stats, call), false);
+        if (hedgeDelay > 0 && hedgeDelay < timeout) {
+            CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (!race.winner.isDone() && stats.tryHedge()) {
+                    CompletableFuture<T> second = race.enter(attempt(stats, call), true);
+                    race.winner.whenComplete((win, error) -> second.cancel(true));
+                }
+            });
+        }
+        race.winner.whenComplete((win, error) -> first.cancel(true));
+
+        return race.winner
+                .completeOnTimeout(null, timeout, TimeUnit.NANOSECONDS)
+                .thenApply(win -> {
+                    if (win == null) {
+                        stats.timeouts.increment();
+                        log.debug("notification-service {} did not answer within {} ms", method.tag,
+                                TimeUnit.NANOSECONDS.toMillis(timeout));
+                        return onTimeout.get();
+                    }
+                    if (win.hedge()) {
+                        stats.hedgeWins.increment();
+                    }
+                    return win.value();
+                });
+    }
+
+    /**
+     * Starts one attempt and records its latency when it ends, also if it lost, so the slow tail stays visible.
+     */
+    private static <T> CompletableFuture<T> attempt(LatencyStats stats, Supplier<CompletableFuture<T>> call) {
+        long started = System.nanoTime();
+        CompletableFuture<T> attempt;
+        try {
+            attempt = call.get();
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        attempt.whenComplete((value, error) -> stats.record(System.nanoTime() - started));
+        return attempt;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String description, Method method) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("method", method.tag)
+                .register(meterRegistry);
+    }
+
+    private record Win<T>(T value, boolean hedge) {}
+
+    /**
+     * Completes with the first attempt that succeeds, or exceptionally once every attempt entered has failed.
+     * A {@code null} winner means the read timed out.
+     */
+    private static final class Race<T> {
+        private final CompletableFuture<Win<T>> winner = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        CompletableFuture<T> enter(CompletableFuture<T> attempt, boolean hedge) {
+            pending.incrementAndGet();
+            attempt.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(new Win<>(value, hedge));
+                } else if (pending.decrementAndGet() == 0) {
+                    winner.completeExceptionally(error instanceof CompletionException
+                            && error.getCause() != null ? error.getCause() : error);
+                }
+            });
+            return attempt;
+        }
+    }
+
+    /**
+     * Rolling latency histogram and hedge budget of one read method.
+     */
+    private final class LatencyStats {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 2);
+        private final AtomicLong windowReads = new AtomicLong();
+        private final AtomicLong windowHedges = new AtomicLong();
+        private final Counter reads;
+        private final Counter hedges;
+        private final Counter hedgeWins;
+        private final Counter timeouts;
+        private Histogram accumulating = new Histogram(HIGHEST_TRACKABLE_MICROS, 2);
+        private volatile Histogram snapshot;
+        private volatile long windowStartedAt = System.nanoTime();
+
+        LatencyStats(Method method, MeterRegistry meterRegistry) {
+            this.reads = counter(meterRegistry, "notification.hedge.reads", "Hedgeable reads", method);
+            this.hedges = counter(meterRegistry, "notification.hedge.sent", "Second attempts sent", method);
+            this.hedgeWins = counter(meterRegistry, "notification.hedge.wins",
+                    "Reads answered by the second attempt", method);
+            this.timeouts = counter(meterRegistry, "notification.hedge.timeouts",
+                    "Reads answered by the fallback after the adaptive timeout", method);
+            Gauge.builder("notification.hedge.delay", this, stats -> TimeUnit.NANOSECONDS.toMillis(stats.hedgeDelayNanos()))
+                    .description("Current delay before a second attempt is sent, 0 while not hedging")
+                    .baseUnit("milliseconds")
+                    .tag("method", method.tag)
+                    .register(meterRegistry);
+            Gauge.builder("notification.hedge.timeout", this, stats -> TimeUnit.NANOSECONDS.toMillis(stats.timeoutNanos()))
+                    .description("Current adaptive read timeout")
+                    .baseUnit("milliseconds")
+                    .tag("method", method.tag)
+                    .register(meterRegistry);
+        }
+
+        void record(long nanos) {
+            recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+        }
+
+        /**
+         * Closes the window once it is over. A window with too few latencies is carried into the next one.
+         */
+        void roll() {
+            long now = System.nanoTime();
+            if (now - windowStartedAt < properties.getWindow().toNanos()) {
+                return;
+            }
+            synchronized (this) {
+                if (now - windowStartedAt < properties.getWindow().toNanos()) {
+                    return;
+                }
+                accumulating.add(recorder.getIntervalHistogram());
+                if (accumulating.getTotalCount() >= properties.getMinSamples()) {
+                    snapshot = accumulating;
+                    accumulating = new Histogram(HIGHEST_TRACKABLE_MICROS, 2);
+                }
+                windowReads.set(0);
+                windowHedges.set(0);
+                windowStartedAt = now;
+            }
+        }
+
+        /**
+         * @return the delay before hedging, or {@code 0} while there are not enough latencies to hedge on
+         */
+        long hedgeDelayNanos() {
+            Histogram current = snapshot;
+            if (current == null) {
+                return 0;
+            }
+            long percentile = TimeUnit.MICROSECONDS.toNanos(
+                    current.getValueAtPercentile(properties.getHedgePercentile() * 100));
+            return Math.max(properties.getMinHedgeDelay().toNanos(), percentile);
+        }
+
+        long timeoutNanos() {
+            Duration max = properties.getMaxTimeout();
+            Histogram current = snapshot;
+            if (current == null) {
+                return max.toNanos();
+            }
+            long p99 = TimeUnit.MICROSECONDS.toNanos(current.getValueAtPercentile(99.0));
+            long timeout = (long) (p99 * properties.getTimeoutMultiplier());
+            return Math.min(max.toNanos(), Math.max(properties.getMinTimeout().toNanos(), timeout));
+        }
+
+        void countRead() {
+            reads.increment();
+            windowReads.incrementAndGet();
+        }
+
+        boolean tryHedge() {
+            long allowed = (long) (windowReads.get() * properties.getMaxHedgeRatio());
+            if (windowHedges.incrementAndGet() > allowed) {
+                windowHedges.decrementAndGet();
+                return false;
+            }
+            hedges.increment();
+            return true;
+        }
+    }
+}
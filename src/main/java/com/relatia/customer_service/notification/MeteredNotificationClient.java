@@ -0,0 +1,103 @@
+package com.relatia.customer_service.notification;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The {@link NotificationClient} injected everywhere: times every call of the Feign client through
+ * {@link NotificationClientMetrics}. Calls answered by {@link NotificationClientFallback} count as
+ * successful here and are counted separately as fallbacks.
+ */
+@Primary
+@Component
+class MeteredNotificationClient implements NotificationClient {
+
+    private final NotificationClient delegate;
+    private final NotificationClientMetrics metrics;
+
+    MeteredNotificationClient(@Qualifier(NotificationClientConfiguration.FEIGN_CLIENT) NotificationClient delegate,
+                              NotificationClientMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public NotificationResponse createNotification(NotificationRequest request) {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            NotificationResponse response = delegate.createNotification(request);
+            success = true;
+            return response;
+        } finally {
+            metrics.record(NotificationClientMetrics.Client.FEIGN, "createNotification", started, success);
+        }
+    }
+
+    @Override
+    public NotificationResponse getNotification(Long id) {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            NotificationResponse response = delegate.getNotification(id);
+            success = true;
+            return response;
+        } finally {
+            metrics.record(NotificationClientMetrics.Client.FEIGN, "getNotification", started, success);
+        }
+    }
+
+    @Override
+    public List<NotificationResponse> getNotifications(Long recipientId, boolean unread) {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            List<NotificationResponse> notifications = delegate.getNotifications(recipientId, unread);
+            success = true;
+            return notifications;
+        } finally {
+            metrics.record(NotificationClientMetrics.Client.FEIGN, "getNotifications", started, success);
+        }
+    }
+
+    @Override
+    public long getNotificationCount(Long recipientId, boolean unread) {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            long count = delegate.getNotificationCount(recipientId, unread);
+            success = true;
+            return count;
+        } finally {
+            metrics.record(NotificationClientMetrics.Client.FEIGN, "getNotificationCount", started, success);
+        }
+    }
+
+    @Override
+    public NotificationResponse markAsRead(Long id) {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            NotificationResponse response = delegate.markAsRead(id);
+            success = true;
+            return response;
+        } finally {
+            metrics.record(NotificationClientMetrics.Client.FEIGN, "markAsRead", started, success);
+        }
+    }
+
+    @Override
+    public void deleteNotification(Long id) {
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            delegate.deleteNotification(id);
+            success = true;
+        } finally {
+            metrics.record(NotificationClientMetrics.Client.FEIGN, "deleteNotification", started, success);
+        }
+    }
+}
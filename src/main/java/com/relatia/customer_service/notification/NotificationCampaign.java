@@ -0,0 +1,98 @@
+package com.relatia.customer_service.notification;
+
+import com.relatia.customer_service.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * One notification sent to every customer matching a segment filter.
+ *
+ * <p>The campaign walks the customer table in id order; {@code lastCustomerId} is the checkpoint
+ * up to which every recipient has been handled, so a campaign picked up after a crash continues
+ * from there. Customers created while the campaign runs may get an id below the checkpoint and are
+ * then skipped; see {@link NotificationCampaignService}. {@code leaseOwner} and {@code leaseUntil} record which run is working on the campaign;
+ * a run whose lease was taken over can no longer checkpoint.</p>
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "notification_campaigns")
+public class NotificationCampaign extends BaseEntity {
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, length = 2000)
+    private String message;
+
+    private String type;
+
+    @Column(name = "action_url")
+    private String actionUrl;
+
+    /**
+     * Only customers whose email is at this domain, or all customers when {@code null}.
+     */
+    @Column(name = "email_domain")
+    private String emailDomain;
+
+    /**
+     * Only customers created at or after this time, or all customers when {@code null}.
+     */
+    @Column(name = "created_after")
+    private LocalDateTime createdAfter;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private NotificationCampaignStatus status = NotificationCampaignStatus.RUNNING;
+
+    @Column(name = "last_customer_id", nullable = false)
+    private long lastCustomerId;
+
+    @Column(nullable = false)
+    private long sent;
+
+    @Column(nullable = false)
+    private long deferred;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    NotificationRequest toRequest(Long recipientId) {
+        return NotificationRequest.builder()
+                .recipientId(recipientId)
+                .title(title)
+                .message(message)
+                .type(type)
+                .actionUrl(actionUrl)
+                .build();
+    }
+
+    /**
+     * Email {@code LIKE} pattern selecting the segment, or {@code null} when not filtering by domain.
+     * The domain is validated on creation and cannot contain {@code LIKE} wildcards.
+     */
+    String emailPattern() {
+        return emailDomain == null ? null : "%@" + emailDomain.toLowerCase();
+    }
+}
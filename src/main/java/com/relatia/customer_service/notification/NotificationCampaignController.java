@@ -0,0 +1,120 @@
+package com.relatia.customer_service.notification;
+
+import com.relatia.customer_service.exception.ErrorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+import static com.relatia.customer_service.constants.GlobalConstants.NOTIFICATION_CAMPAIGN_API;
+
+/**
+ * REST controller for notification campaigns.
+ * Creating a campaign returns immediately with a resource that clients poll for progress.
+ */
+@Tag(
+    name = "Notification Campaigns",
+    description = "APIs for sending one notification to a segment of customers in the background"
+)
+@RequestMapping(
+    path = NOTIFICATION_CAMPAIGN_API,
+    produces = MediaType.APPLICATION_JSON_VALUE
+)
+@RestController
+@RequiredArgsConstructor
+@ApiResponses({
+    @ApiResponse(
+        responseCode = "500",
+        description = "Internal Server Error",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+})
+class NotificationCampaignController {
+
+    private final NotificationCampaignService campaignService;
+
+    /**
+     * Starts a campaign.
+     *
+     * @param request The notification and the segment filters
+     * @return The running campaign, with its status resource in the Location header
+     */
+    @Operation(
+        summary = "Start a notification campaign",
+        description = "Sends the notification to every customer matching the filters in the background. "
+            + "Poll the returned campaign for recipients handled and per second."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "202",
+            description = "Campaign started",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = NotificationCampaignResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid request",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<NotificationCampaignResponse> start(
+            @Valid @RequestBody NotificationCampaignRequest request
+    ) {
+        NotificationCampaign campaign = campaignService.start(request);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(campaign.getId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(NotificationCampaignResponse.from(campaign, 0));
+    }
+
+    /**
+     * Retrieves the progress of a campaign.
+     *
+     * @param id The campaign identifier
+     * @return The current status and counters
+     */
+    @Operation(
+        summary = "Get campaign status",
+        description = "Retrieves the checkpoint, recipients sent and deferred, and throughput of a campaign"
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved campaign status",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = NotificationCampaignResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Campaign not found",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<NotificationCampaignResponse> status(
+            @Parameter(description = "ID of the campaign", required = true)
+            @PathVariable Long id
+    ) {
+        NotificationCampaign campaign = campaignService.find(id);
+        return ResponseEntity.ok(NotificationCampaignResponse.from(campaign, campaignService.recipientsPerSecond(campaign)));
+    }
+}
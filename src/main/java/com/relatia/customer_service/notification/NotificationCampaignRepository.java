@@ -0,0 +1,61 @@
+package com.relatia.customer_service.notification;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationCampaignRepository extends JpaRepository<NotificationCampaign, Long> {
+
+    /**
+     * Running campaigns whose lease has run out, i.e. no live run is working on them.
+     */
+    @Query("""
+            select c.id from NotificationCampaign c
+             where c.status = com.relatia.customer_service.notification.NotificationCampaignStatus.RUNNING
+               and (c.leaseUntil is null or c.leaseUntil < :now)
+             order by c.id""")
+    List<Long> findOrphanedIds(@Param("now") LocalDateTime now);
+
+    /**
+     * Takes over an orphaned campaign. Only one run can succeed for the same expired lease.
+     *
+     * @return {@code 1} if {@code owner} now holds the campaign
+     */
+    @Modifying
+    @Query("""
+            update NotificationCampaign c
+               set c.leaseOwner = :owner, c.leaseUntil = :leaseUntil
+             where c.id = :id
+               and c.status = com.relatia.customer_service.notification.NotificationCampaignStatus.RUNNING
+               and (c.leaseUntil is null or c.leaseUntil < :now)""")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Records a handled chunk and renews the lease in one statement.
+     *
+     * @return {@code 0} if {@code owner} no longer holds the campaign
+     */
+    @Modifying
+    @Query("""
+            update NotificationCampaign c
+               set c.lastCustomerId = :lastCustomerId, c.sent = c.sent + :sent,
+                   c.deferred = c.deferred + :deferred, c.leaseUntil = :leaseUntil
+             where c.id = :id and c.leaseOwner = :owner
+               and c.status = com.relatia.customer_service.notification.NotificationCampaignStatus.RUNNING""")
+    int checkpoint(@Param("id") Long id, @Param("owner") String owner, @Param("lastCustomerId") long lastCustomerId,
+                   @Param("sent") long sent, @Param("deferred") long deferred,
+                   @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("""
+            update NotificationCampaign c
+               set c.status = com.relatia.customer_service.notification.NotificationCampaignStatus.COMPLETED,
+                   c.finishedAt = :now, c.leaseOwner = null, c.leaseUntil = null
+             where c.id = :id and c.leaseOwner = :owner""")
+    int complete(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,42 @@
+package com.relatia.customer_service.notification;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request DTO for sending one notification to a segment of customers.
+ * Filters left empty do not restrict the segment.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCampaignRequest {
+
+    @NotBlank(message = "Title is required")
+    private String title;
+
+    @NotBlank(message = "Message is required")
+    @Size(max = 2000, message = "Message must not exceed 2000 characters")
+    private String message;
+
+    @NotBlank(message = "Type is required")
+    private String type;
+
+    private String actionUrl;
+
+    @Schema(description = "Only customers with an email at this domain", example = "example.com")
+    @Pattern(regexp = "^[A-Za-z0-9-]+(\\.[A-Za-z0-9-]+)+$", message = "Email domain should be valid")
+    private String emailDomain;
+
+    @Schema(description = "Only customers created at or after this time")
+    private LocalDateTime createdAfter;
+}
@@ -0,0 +1,74 @@
+package com.relatia.customer_service.notification;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a notification campaign as returned to polling clients.
+ * Counters are persisted after every chunk of recipients.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Progress of a notification campaign")
+public class NotificationCampaignResponse {
+
+    @Schema(description = "Campaign identifier")
+    private Long id;
+
+    @Schema(description = "Notification title", example = "Spring sale")
+    private String title;
+
+    @Schema(description = "Email domain filter", example = "example.com", nullable = true)
+    private String emailDomain;
+
+    @Schema(description = "Creation time filter", nullable = true)
+    private LocalDateTime createdAfter;
+
+    @Schema(description = "Campaign state", example = "RUNNING")
+    private String status;
+
+    @Schema(description = "Every customer up to this id that existed when the campaign started has been handled; "
+            + "a customer created since then is skipped if its id is below this one", example = "250000")
+    private long lastCustomerId;
+
+    @Schema(description = "Notifications delivered directly", example = "118000")
+    private long sent;
+
+    @Schema(description = "Notifications spooled for retry because delivery failed", example = "12")
+    private long deferred;
+
+    @Schema(description = "Recipients handled per second; current rate while running, average once completed",
+            example = "195.0")
+    private double recipientsPerSecond;
+
+    @Schema(description = "When the campaign was created")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "When the last recipient was handled", nullable = true)
+    private LocalDateTime finishedAt;
+
+    static NotificationCampaignResponse from(NotificationCampaign campaign, double recipientsPerSecond) {
+        return NotificationCampaignResponse.builder()
+                .id(campaign.getId())
+                .title(campaign.getTitle())
+                .emailDomain(campaign.getEmailDomain())
+                .createdAfter(campaign.getCreatedAfter())
+                .status(campaign.getStatus().name())
+                .lastCustomerId(campaign.getLastCustomerId())
+                .sent(campaign.getSent())
+                .deferred(campaign.getDeferred())
+                .recipientsPerSecond(recipientsPerSecond)
+                .startedAt(campaign.getStartedAt())
+                .finishedAt(campaign.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,331 @@
+package com.relatia.customer_service.notification;
+
+import com.relatia.customer_service.customer.CustomerRepository;
+import com.relatia.customer_service.exception.ErrorMessages;
+import com.relatia.customer_service.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends one notification to every customer in a segment.
+ *
+ * <p>A campaign streams the matching customer ids in keyset chunks and calls notification-service
+ * for each of them on a shared pool. A semaphore caps the calls in flight and a pacer caps the calls
+ * per second, both across all campaigns on this node. A recipient whose call fails is spooled to the
+ * {@link NotificationJournal}, or written to the outbox if the journal is full, and retried from there
+ * instead of holding up the campaign.</p>
+ *
+ * <p>After every chunk the campaign records the last handled customer id together with the counters
+ * and renews its lease. A campaign whose node crashed or was stopped is taken over by the next node
+ * that finds its lease expired, and continues from that checkpoint; the recipients of the chunk that
+ * was in progress may be notified twice.</p>
+ *
+ * <p>The walk is in customer id order, so every customer that exists when the campaign starts is reached.
+ * A customer created while it runs is reached only if its id is above the checkpoint at that moment. Each
+ * instance allocates ids from its own pooled block, so a new customer can get an id below ids that are
+ * already handled and is then skipped. Whether such a customer is notified is therefore arbitrary.</p>
+ */
+@Slf4j
+@Service
+class NotificationCampaignService {
+
+    private final NotificationCampaignRepository campaignRepository;
+    private final CustomerRepository customerRepository;
+    private final NotificationClient notificationClient;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationReadCache readCache;
+    private final NotificationJournal journal;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationProperties.Campaign properties;
+    private final ErrorMessages errorMessages;
+    private final ThreadPoolTaskExecutor campaignExecutor;
+    private final ThreadPoolTaskExecutor sendExecutor;
+    private final Semaphore sendPermits;
+    private final Pacer pacer;
+    private final Map<Long, Run> runs = new ConcurrentHashMap<>();
+    private final Counter sentRecipients;
+    private final Counter deferredRecipients;
+    private final Counter rejectedRecipients;
+
+    NotificationCampaignService(NotificationCampaignRepository campaignRepository, CustomerRepository customerRepository,
+                                NotificationClient notificationClient, NotificationOutboxRepository outboxRepository,
+                                NotificationReadCache readCache, NotificationJournal journal,
+                                TransactionTemplate transactionTemplate,
+                                NotificationProperties notificationProperties, ErrorMessages errorMessages,
+                                MeterRegistry meterRegistry) {
+        this.campaignRepository = campaignRepository;
+        this.customerRepository = customerRepository;
+        this.notificationClient = notificationClient;
+        this.outboxRepository = outboxRepository;
+        this.readCache = readCache;
+        this.journal = journal;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = notificationProperties.getCampaign();
+        this.errorMessages = errorMessages;
+        this.campaignExecutor = executor("notification-campaign-", properties.getMaxConcurrent());
+        this.sendExecutor = executor("notification-campaign-send-", properties.getParallelism());
+        this.sendPermits = new Semaphore(properties.getParallelism());
+        this.pacer = new Pacer(properties.getRatePerSecond());
+
+        this.sentRecipients = recipients(meterRegistry, "sent");
+        this.deferredRecipients = recipients(meterRegistry, "deferred");
+        this.rejectedRecipients = recipients(meterRegistry, "rejected");
+        Gauge.builder("notification.campaign.active", runs, Map::size)
+                .description("Campaigns running or waiting to run on this node")
+                .register(meterRegistry);
+    }
+
+    private static Counter recipients(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("notification.campaign.recipients")
+                .description("Campaign recipients handled by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores the campaign and starts it on this node.
+     */
+    NotificationCampaign start(NotificationCampaignRequest request) {
+        String owner = UUID.randomUUID().toString();
+        NotificationCampaign campaign = campaignRepository.save(NotificationCampaign.builder()
+                .title(request.getTitle())
+                .message(request.getMessage())
+                .type(request.getType())
+                .actionUrl(request.getActionUrl())
+                .emailDomain(request.getEmailDomain())
+                .createdAfter(request.getCreatedAfter())
+                .startedAt(LocalDateTime.now())
+                .leaseOwner(owner)
+                .leaseUntil(leaseUntil())
+                .build());
+        submit(campaign.getId(), owner);
+        log.info("Started notification campaign {} for domain {} and customers created after {}",
+                campaign.getId(), campaign.getEmailDomain(), campaign.getCreatedAfter());
+        return campaign;
+    }
+
+    /**
+     * @throws ResourceNotFoundException if no campaign with this id exists
+     */
+    NotificationCampaign find(Long id) {
+        return campaignRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException(
+                errorMessages.get("error.campaign.notfound", id)));
+    }
+
+    /**
+     * Recipients per second of the run in progress on this node, or the overall average once completed.
+     */
+    double recipientsPerSecond(NotificationCampaign campaign) {
+        Run run = runs.get(campaign.getId());
+        if (run != null) {
+            return run.recipientsPerSecond();
+        }
+        if (campaign.getStartedAt() == null || campaign.getFinishedAt() == null) {
+            return 0;
+        }
+        long millis = Math.max(1, Duration.between(campaign.getStartedAt(), campaign.getFinishedAt()).toMillis());
+        return (campaign.getSent() + campaign.getDeferred()) * 1000d / millis;
+    }
+
+    /**
+     * Takes over campaigns whose lease expired, as far as this node has free campaign slots.
+     */
+    @Scheduled(fixedDelayString = "${notification.campaign.resume-interval:1m}")
+    void resumeOrphaned() {
+        try {
+            for (Long id : campaignRepository.findOrphanedIds(LocalDateTime.now())) {
+                if (runs.size() >= properties.getMaxConcurrent()) {
+                    return;
+                }
+                String owner = UUID.randomUUID().toString();
+                Integer claimed = transactionTemplate.execute(status ->
+                        campaignRepository.claim(id, owner, LocalDateTime.now(), leaseUntil()));
+                if (claimed != null && claimed == 1) {
+                    log.info("Resuming notification campaign {}", id);
+                    submit(id, owner);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not resume notification campaigns, will retry on the next run", e);
+        }
+    }
+
+    private void submit(Long id, String owner) {
+        runs.put(id, new Run());
+        try {
+            campaignExecutor.execute(() -> run(id, owner));
+        } catch (RejectedExecutionException e) {
+            runs.remove(id);
+            throw e;
+        }
+    }
+
+    private void run(Long id, String owner) {
+        Run run = runs.get(id);
+        run.start();
+        try {
+            NotificationCampaign campaign = campaignRepository.findById(id).orElse(null);
+            if (campaign == null || campaign.getStatus() != NotificationCampaignStatus.RUNNING) {
+                return;
+            }
+            long after = campaign.getLastCustomerId();
+            while (true) {
+                List<Long> ids = customerRepository.findIdsInSegment(after, campaign.emailPattern(),
+                        campaign.getCreatedAfter(), Limit.of(properties.getChunkSize()));
+                if (ids.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status ->
+                            campaignRepository.complete(id, owner, LocalDateTime.now()));
+                    log.info("Notification campaign {} completed at {} recipients/s", id,
+                            Math.round(run.recipientsPerSecond()));
+                    return;
+                }
+
+                Chunk chunk = send(campaign, ids, run);
+                after = ids.get(ids.size() - 1);
+                long lastCustomerId = after;
+                Integer updated = transactionTemplate.execute(status -> campaignRepository.checkpoint(
+                        id, owner, lastCustomerId, chunk.sent(), chunk.deferred(), leaseUntil()));
+                if (updated == null || updated == 0) {
+                    log.warn("Notification campaign {} was taken over by another run, stopping at customer {}",
+                            id, lastCustomerId);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Notification campaign {} interrupted; it resumes from its checkpoint once the lease expires", id);
+        } catch (RuntimeException e) {
+            log.error("Notification campaign {} stopped; it resumes from its checkpoint once the lease expires", id, e);
+        } finally {
+            runs.remove(id);
+        }
+    }
+
+    private Chunk send(NotificationCampaign campaign, List<Long> customerIds, Run run) throws InterruptedException {
+        AtomicLong sent = new AtomicLong();
+        AtomicLong deferred = new AtomicLong();
+        List<CompletableFuture<Void>> pending = new ArrayList<>(customerIds.size());
+        for (Long customerId : customerIds) {
+            pacer.acquire();
+            sendPermits.acquire();
+            try {
+                pending.add(CompletableFuture
+                        .runAsync(() -> {
+                            (deliver(campaign, customerId) ? sent : deferred).incrementAndGet();
+                            run.processed.incrementAndGet();
+                        }, sendExecutor)
+                        .whenComplete((ignored, error) -> sendPermits.release()));
+            } catch (RejectedExecutionException e) {
+                sendPermits.release();
+                throw e;
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        return new Chunk(sent.get(), deferred.get());
+    }
+
+    /**
+     * Sends one notification. If notification-service is unavailable, it is spooled to the local journal,
+     * or written to the outbox when the journal cannot take it; if notification-service rejects it, it is
+     * written to the outbox as failed.
+     *
+     * @return {@code true} if it was delivered directly
+     */
+    private boolean deliver(NotificationCampaign campaign, Long customerId) {
+        NotificationRequest request = campaign.toRequest(customerId);
+        try {
+            NotificationResponse response = NotificationJournal.withoutSpooling(
+                    () -> notificationClient.createNotification(request));
+            if (response != null && response.getId() != null) {
+                readCache.invalidate(customerId);
+                sentRecipients.increment();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            if (NotificationClientFallback.isRejected(e)) {
+                // Retrying would be rejected again
+                log.warn("notification-service rejected campaign {} notification for customer {}: {}",
+                        campaign.getId(), customerId, e.toString());
+                outboxRepository.save(NotificationOutboxEntry.rejected(request, e.toString()));
+                rejectedRecipients.increment();
+                return false;
+            }
+            log.debug("Campaign {} could not notify customer {}, deferring it", campaign.getId(), customerId, e);
+        }
+        if (!journal.append(request)) {
+            outboxRepository.save(NotificationOutboxEntry.builder()
+                    .recipientId(customerId)
+                    .title(campaign.getTitle())
+                    .message(campaign.getMessage())
+                    .type(campaign.getType())
+                    .actionUrl(campaign.getActionUrl())
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+        }
+        deferredRecipients.increment();
+        return false;
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plus(properties.getLease());
+    }
+
+    private static ThreadPoolTaskExecutor executor(String threadNamePrefix, int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        campaignExecutor.shutdown();
+        sendExecutor.shutdown();
+    }
+
+    private record Chunk(long sent, long deferred) {}
+
+    /**
+     * Progress of a campaign run on this node, for reporting its current throughput.
+     */
+    private static final class Run {
+        private final AtomicLong processed = new AtomicLong();
+        private volatile Instant startedAt;
+
+        void start() {
+            startedAt = Instant.now();
+        }
+
+        double recipientsPerSecond() {
+            Instant start = startedAt;
+            if (start == null) {
+                return 0;
+            }
+            long millis = Math.max(1, Duration.between(start, Instant.now()).toMillis());
+            return processed.get() * 1000d / millis;
+        }
+    }
+}
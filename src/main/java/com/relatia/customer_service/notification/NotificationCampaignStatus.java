@@ -0,0 +1,8 @@
+package com.relatia.customer_service.notification;
+
+/**
+ * Progress state of a {@link NotificationCampaign}.
+ */
+public enum NotificationCampaignStatus {
+    RUNNING, COMPLETED
+}
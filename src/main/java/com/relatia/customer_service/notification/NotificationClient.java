@@ -10,7 +10,8 @@ import static com.relatia.customer_service.constants.GlobalConstants.NOTIFICATIO
 /**
  * Feign client for interacting with the Notification Service.
  */
-@FeignClient(name = "notification-service", path = NOTIFICATION_API, fallback = NotificationClientFallback.class)
+@FeignClient(name = "notification-service", path = NOTIFICATION_API, fallbackFactory = NotificationClientFallbackFactory.class,
+        primary = false, qualifiers = NotificationClientConfiguration.FEIGN_CLIENT)
 public interface NotificationClient {
 
     /**
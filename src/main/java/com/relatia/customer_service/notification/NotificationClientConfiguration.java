@@ -0,0 +1,92 @@
+package com.relatia.customer_service.notification;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4jBulkheadProvider;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Gives every {@link NotificationClient} method its own circuit breaker, time limiter and semaphore
+ * bulkhead, configured from {@code notification.resilience}.
+ *
+ * <p>Feign names a method's circuit breaker {@code <client>.<method>}, e.g.
+ * {@code notification-service.getNotifications}; bulkheads and metrics use the same ids.</p>
+ */
+@Configuration
+class NotificationClientConfiguration {
+
+    static final String CLIENT_NAME = "notification-service";
+
+    /**
+     * Qualifier of the Feign client itself; everything else gets the {@link MeteredNotificationClient} around it.
+     */
+    static final String FEIGN_CLIENT = "feignNotificationClient";
+
+    static String circuitBreakerId(Method method) {
+        return CLIENT_NAME + "." + method.getName();
+    }
+
+    static BulkheadConfig bulkheadConfig(NotificationProperties.MethodLimits limits) {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(limits.getInitialLimit())
+                .maxWaitDuration(limits.getMaxWait())
+                .build();
+    }
+
+    static CircuitBreakerConfig circuitBreakerConfig(NotificationProperties.MethodLimits limits) {
+        return CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(limits.getSlidingWindowSize())
+                .failureRateThreshold(limits.getFailureRateThreshold())
+                .slowCallDurationThreshold(limits.getSlowCallThreshold())
+                .slowCallRateThreshold(limits.getSlowCallRateThreshold())
+                .waitDurationInOpenState(limits.getWaitInOpenState())
+                // A full bulkhead, or a hedged read cancelling its loser, says nothing about the health of notification-service
+                .ignoreExceptions(BulkheadFullException.class, CancellationException.class)
+                // Nor does a request it rejected as invalid
+                .ignoreException(NotificationClientFallback::isRejected)
+                .build();
+    }
+
+    @Bean
+    CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName + "." + method.getName();
+    }
+
+    @Bean
+    Customizer<Resilience4JCircuitBreakerFactory> notificationClientCircuitBreakers(
+            NotificationProperties notificationProperties) {
+        NotificationProperties.Resilience resilience = notificationProperties.getResilience();
+        return factory -> {
+            for (Method method : NotificationClient.class.getMethods()) {
+                NotificationProperties.MethodLimits limits = resilience.forMethod(method.getName());
+                factory.configure(builder -> builder
+                        .circuitBreakerConfig(circuitBreakerConfig(limits))
+                        .timeLimiterConfig(TimeLimiterConfig.custom()
+                                .timeoutDuration(limits.getTimeout())
+                                .cancelRunningFuture(true)
+                                .build()), circuitBreakerId(method));
+            }
+        };
+    }
+
+    @Bean
+    Customizer<Resilience4jBulkheadProvider> notificationClientBulkheads(NotificationProperties notificationProperties) {
+        NotificationProperties.Resilience resilience = notificationProperties.getResilience();
+        return provider -> {
+            for (Method method : NotificationClient.class.getMethods()) {
+                NotificationProperties.MethodLimits limits = resilience.forMethod(method.getName());
+                provider.configure(builder -> builder.bulkheadConfig(bulkheadConfig(limits)), circuitBreakerId(method));
+            }
+        };
+    }
+}
@@ -1,29 +1,112 @@
 package com.relatia.customer_service.notification;
 
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * Fallback implementation for NotificationClient that provides fallback behavior
  * when the notification service is unavailable.
+ * Notifications that cannot be created are spooled to the {@link NotificationJournal} and
+ * replayed once the service is back. Every answer is counted by {@link NotificationClientMetrics}.
+ *
+ * <p>Feign hands every failed call to {@link #forFailure}. Only a notification that failed because
+ * notification-service is unavailable is spooled; one it rejected with a client error would be rejected
+ * again on replay, so that error is passed on to the caller instead.</p>
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class NotificationClientFallback implements NotificationClient {
 
+    private final NotificationJournal journal;
+    private final NotificationClientMetrics metrics;
+
+    /**
+     * Whether a call failed because notification-service could not answer it: the circuit breaker or
+     * bulkhead turned it away, it timed out, the connection failed, or the service answered 5xx, 408 or 429.
+     */
+    static boolean isUnavailable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FeignException feign) {
+                // Connection errors carry no status
+                return feign.status() <= 0 || isUnavailableStatus(feign.status());
+            }
+            if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException
+                    || cause instanceof TimeoutException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether notification-service answered a call with a client error that a retry would get again.
+     */
+    static boolean isRejected(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FeignException feign) {
+                return feign.status() >= 400 && feign.status() < 500 && !isUnavailableStatus(feign.status());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnavailableStatus(int status) {
+        return status >= 500 || status == HttpStatus.REQUEST_TIMEOUT.value()
+                || status == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * Wraps a fallback answer so that {@code onFallback} runs before it is given, for callers that must tell
+     * it apart from an answer of notification-service.
+     */
+    static <T> Supplier<T> reporting(Supplier<T> answer, Runnable onFallback) {
+        return () -> {
+            onFallback.run();
+            return answer.get();
+        };
+    }
+
+    /**
+     * The fallback for one failed Feign call: this fallback if notification-service is unavailable, otherwise
+     * one that answers reads the same way but passes a failed {@code createNotification} on to the caller.
+     */
+    NotificationClient forFailure(Throwable failure) {
+        return isUnavailable(failure) ? this : new Rejected(failure);
+    }
+
     @Override
     public NotificationResponse createNotification(NotificationRequest request) {
+        metrics.fallback("createNotification");
+        if (!NotificationJournal.isSpoolingSuppressed() && journal.append(request)) {
+            log.debug("Fallback: Notification service is unavailable, spooled notification for recipient {}.",
+                    request.getRecipientId());
+            return NotificationResponse.builder()
+                    .recipientId(request.getRecipientId())
+                    .message("Notification service is currently unavailable. Your notification will be processed when the service is back online.")
+                    .build();
+        }
         log.warn("Fallback: Could not create notification. Notification service is unavailable.");
         return NotificationResponse.builder()
-                .message("Notification service is currently unavailable. Your notification will be processed when the service is back online.")
+                .recipientId(request.getRecipientId())
+                .message("Notification service is currently unavailable. Your notification could not be processed.")
                 .build();
     }
 
     @Override
     public NotificationResponse getNotification(Long id) {
+        metrics.fallback("getNotification");
         log.warn("Fallback: Could not retrieve notification with id {}. Notification service is unavailable.", id);
         return NotificationResponse.builder()
                 .id(id)
@@ -33,18 +116,21 @@ public class NotificationClientFallback implements NotificationClient {
 
     @Override
     public List<NotificationResponse> getNotifications(Long recipientId, boolean unread) {
+        metrics.fallback("getNotifications");
         log.warn("Fallback: Could not retrieve notifications for recipient {}. Notification service is unavailable.", recipientId);
         return Collections.emptyList();
     }
 
     @Override
     public long getNotificationCount(Long recipientId, boolean unread) {
+        metrics.fallback("getNotificationCount");
         log.warn("Fallback: Could not get notification count for recipient {}. Returning 0 as fallback.", recipientId);
         return 0L;
     }
 
     @Override
     public NotificationResponse markAsRead(Long id) {
+        metrics.fallback("markAsRead");
         log.warn("Fallback: Could not mark notification {} as read. Notification service is unavailable.", id);
         return NotificationResponse.builder()
                 .id(id)
@@ -54,7 +140,55 @@ public class NotificationClientFallback implements NotificationClient {
 
     @Override
     public void deleteNotification(Long id) {
+        metrics.fallback("deleteNotification");
         log.warn("Fallback: Could not delete notification {}. Notification service is unavailable.", id);
         // No action needed for void return type
     }
+
+    /**
+     * Fallback for a call notification-service refused or that failed for a reason other than its availability.
+     */
+    private final class Rejected implements NotificationClient {
+
+        private final Throwable failure;
+
+        private Rejected(Throwable failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public NotificationResponse createNotification(NotificationRequest request) {
+            log.debug("Notification for recipient {} was not accepted by notification-service, not spooling it",
+                    request.getRecipientId(), failure);
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            throw new IllegalStateException(failure);
+        }
+
+        @Override
+        public NotificationResponse getNotification(Long id) {
+            return NotificationClientFallback.this.getNotification(id);
+        }
+
+        @Override
+        public List<NotificationResponse> getNotifications(Long recipientId, boolean unread) {
+            return NotificationClientFallback.this.getNotifications(recipientId, unread);
+        }
+
+        @Override
+        public long getNotificationCount(Long recipientId, boolean unread) {
+            return NotificationClientFallback.this.getNotificationCount(recipientId, unread);
+        }
+
+        @Override
+        public NotificationResponse markAsRead(Long id) {
+            return NotificationClientFallback.this.markAsRead(id);
+        }
+
+        @Override
+        public void deleteNotification(Long id) {
+            NotificationClientFallback.this.deleteNotification(id);
+        }
+    }
 }
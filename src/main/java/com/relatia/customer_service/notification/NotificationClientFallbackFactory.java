@@ -0,0 +1,23 @@
+package com.relatia.customer_service.notification;
+
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands the failure of a Feign call to {@link NotificationClientFallback}, so it can tell an unavailable
+ * notification-service from a rejected request.
+ */
+@Component
+class NotificationClientFallbackFactory implements FallbackFactory<NotificationClient> {
+
+    private final NotificationClientFallback fallback;
+
+    NotificationClientFallbackFactory(NotificationClientFallback fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public NotificationClient create(Throwable cause) {
+        return fallback.forFailure(cause);
+    }
+}
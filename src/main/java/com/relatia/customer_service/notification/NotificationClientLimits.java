@@ -0,0 +1,166 @@
+package com.relatia.customer_service.notification;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limits for the per-method bulkheads of {@link NotificationClient}.
+ *
+ * <p>Every {@code notification.resilience.adjust-interval} each limit is adjusted AIMD-style: an interval
+ * with failures, timeouts or slow calls multiplies it by {@code backoff-ratio}, an interval that used at
+ * least half of it without trouble raises it by one. Limits stay between the method's minimum and maximum.</p>
+ *
+ * <p>A lower limit only takes effect once enough calls in flight have finished; the bulkhead waits for
+ * them on a virtual thread, so calls are never cut off. Exports {@code notification.client.limit},
+ * {@code notification.client.in-flight} and {@code notification.client.rejected} per method.</p>
+ */
+@Slf4j
+@Component
+class NotificationClientLimits {
+
+    private final NotificationProperties.Resilience properties;
+    private final Map<String, MethodLimit> limits = new HashMap<>();
+
+    NotificationClientLimits(BulkheadRegistry bulkheadRegistry, CircuitBreakerRegistry circuitBreakerRegistry,
+                             NotificationProperties notificationProperties, MeterRegistry meterRegistry) {
+        this.properties = notificationProperties.getResilience();
+        for (Method method : NotificationClient.class.getMethods()) {
+            String id = NotificationClientConfiguration.circuitBreakerId(method);
+            NotificationProperties.MethodLimits methodLimits = properties.forMethod(method.getName());
+            Bulkhead bulkhead = bulkheadRegistry.bulkhead(id, NotificationClientConfiguration.bulkheadConfig(methodLimits));
+            limits.put(id, new MethodLimit(method.getName(), methodLimits, bulkhead, meterRegistry));
+        }
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::observe);
+        circuitBreakerRegistry.getEventPublisher().onEntryAdded(event -> observe(event.getAddedEntry()));
+    }
+
+    private void observe(CircuitBreaker circuitBreaker) {
+        MethodLimit limit = limits.get(circuitBreaker.getName());
+        if (limit == null) {
+            return;
+        }
+        circuitBreaker.getEventPublisher()
+                .onSuccess(event -> limit.onSuccess(event.getElapsedDuration()))
+                .onError(event -> limit.onFailure());
+    }
+
+    @Scheduled(fixedDelayString = "${notification.resilience.adjust-interval:1s}")
+    void adjust() {
+        if (!properties.isAdaptive()) {
+            return;
+        }
+        limits.values().forEach(MethodLimit::adjust);
+    }
+
+    /**
+     * Limit, in-flight and rejection figures of one client method.
+     */
+    private final class MethodLimit {
+        private final String method;
+        private final NotificationProperties.MethodLimits config;
+        private final Bulkhead bulkhead;
+        private final Counter rejected;
+        private final AtomicInteger successes = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final AtomicBoolean lowering = new AtomicBoolean();
+
+        MethodLimit(String method, NotificationProperties.MethodLimits config, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+            this.method = method;
+            this.config = config;
+            this.bulkhead = bulkhead;
+            this.rejected = Counter.builder("notification.client.rejected")
+                    .description("Calls to notification-service rejected because the method's limit was reached")
+                    .tag("method", method)
+                    .register(meterRegistry);
+            Gauge.builder("notification.client.limit", this, MethodLimit::limit)
+                    .description("Calls to notification-service allowed in flight at once")
+                    .tag("method", method)
+                    .register(meterRegistry);
+            Gauge.builder("notification.client.in-flight", this, MethodLimit::inFlight)
+                    .description("Calls to notification-service in flight")
+                    .tag("method", method)
+                    .register(meterRegistry);
+            bulkhead.getEventPublisher().onCallRejected(event -> {
+                rejected.increment();
+                peakInFlight.accumulateAndGet(limit(), Math::max);
+            });
+        }
+
+        int limit() {
+            return bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        }
+
+        int inFlight() {
+            Bulkhead.Metrics metrics = bulkhead.getMetrics();
+            return Math.max(0, metrics.getMaxAllowedConcurrentCalls() - metrics.getAvailableConcurrentCalls());
+        }
+
+        void onSuccess(Duration elapsed) {
+            if (elapsed.compareTo(config.getSlowCallThreshold()) > 0) {
+                failures.incrementAndGet();
+            } else {
+                successes.incrementAndGet();
+            }
+            peakInFlight.accumulateAndGet(inFlight(), Math::max);
+        }
+
+        void onFailure() {
+            failures.incrementAndGet();
+        }
+
+        void adjust() {
+            int failed = failures.getAndSet(0);
+            int succeeded = successes.getAndSet(0);
+            int peak = peakInFlight.getAndSet(0);
+            if (lowering.get()) {
+                return;
+            }
+            int limit = limit();
+            if (failed > 0) {
+                lower(limit, Math.max(config.getMinLimit(), (int) (limit * properties.getBackoffRatio())));
+            } else if (succeeded > 0 && peak * 2 >= limit && limit < config.getMaxLimit()) {
+                change(limit + 1);
+            }
+        }
+
+        /**
+         * Lowering has to wait for calls in flight above the new limit, so it happens off the scheduler thread.
+         */
+        private void lower(int limit, int next) {
+            if (next >= limit || !lowering.compareAndSet(false, true)) {
+                return;
+            }
+            Thread.ofVirtual().name("notification-limit-" + method).start(() -> {
+                try {
+                    change(next);
+                } finally {
+                    lowering.set(false);
+                }
+            });
+        }
+
+        private void change(int next) {
+            bulkhead.changeConfig(BulkheadConfig.from(bulkhead.getBulkheadConfig())
+                    .maxConcurrentCalls(next)
+                    .build());
+            log.debug("notification-service {} limit is now {}", method, next);
+        }
+    }
+}
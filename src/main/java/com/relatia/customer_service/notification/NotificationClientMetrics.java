@@ -0,0 +1,72 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for calls to notification-service, registered up front for every {@link NotificationClient} method.
+ *
+ * <p>{@code notification.client.calls} times each call, tagged with the method, the client that made it
+ * ({@code feign} or {@code async}) and whether it succeeded. {@code notification.client.fallbacks}
+ * counts the answers given by {@link NotificationClientFallback} instead of notification-service.</p>
+ */
+@Component
+class NotificationClientMetrics {
+
+    enum Client {
+        FEIGN, ASYNC
+    }
+
+    private final Map<String, MethodMeters> meters = new HashMap<>();
+
+    NotificationClientMetrics(MeterRegistry meterRegistry) {
+        for (Method method : NotificationClient.class.getMethods()) {
+            meters.put(method.getName(), new MethodMeters(method.getName(), meterRegistry));
+        }
+    }
+
+    void record(Client client, String method, long startedNanos, boolean success) {
+        meters.get(method).timer(client, success).record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void fallback(String method) {
+        meters.get(method).fallbacks.increment();
+    }
+
+    private static final class MethodMeters {
+        private final Timer[] timers = new Timer[Client.values().length * 2];
+        private final Counter fallbacks;
+
+        MethodMeters(String method, MeterRegistry meterRegistry) {
+            for (Client client : Client.values()) {
+                for (boolean success : new boolean[]{true, false}) {
+                    timers[index(client, success)] = Timer.builder("notification.client.calls")
+                            .description("Calls to notification-service")
+                            .tag("method", method)
+                            .tag("client", client.name().toLowerCase())
+                            .tag("outcome", success ? "success" : "error")
+                            .register(meterRegistry);
+                }
+            }
+            this.fallbacks = Counter.builder("notification.client.fallbacks")
+                    .description("Calls to notification-service answered by the fallback")
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        Timer timer(Client client, boolean success) {
+            return timers[index(client, success)];
+        }
+
+        private static int index(Client client, boolean success) {
+            return client.ordinal() * 2 + (success ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only on-disk spool for notifications that notification-service could not accept.
+ *
+ * <p>The journal is a sequence of fixed-size, memory-mapped segment files. An append encodes the
+ * request into the active segment's mapping and is done; nothing is kept on the heap, and a full
+ * segment is sealed and followed by a new one. Every record carries a state byte that
+ * {@link NotificationJournalReplayer} flips to acknowledged in place once the notification has been
+ * delivered, so after a restart replay continues with the first unacknowledged record. Sealed segments
+ * whose records are all acknowledged are deleted as replay moves past them.</p>
+ *
+ * <p>Record layout: payload length ({@code int}, written last so a torn append is never read),
+ * state ({@code byte}), CRC32 of the payload ({@code int}), payload.</p>
+ *
+ * <p>Appends are visible to other processes as soon as they are written and survive a crash of this
+ * process; they reach the storage device only when the kernel writes the pages back, or immediately
+ * with {@code notification.journal.force}. Delivery is at least once: a crash between delivering a
+ * record and acknowledging it replays that one record.</p>
+ */
+@Slf4j
+@Component
+class NotificationJournal {
+
+    static final int HEADER_SIZE = Integer.BYTES + 1 + Integer.BYTES;
+    private static final byte PENDING = 0;
+    private static final byte ACKNOWLEDGED = 1;
+    private static final long NULL_ID = Long.MIN_VALUE;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{20})\\.log");
+    private static final ThreadLocal<Boolean> SPOOLING_SUPPRESSED = new ThreadLocal<>();
+
+    /**
+     * A spooled notification handed out for replay.
+     */
+    record Entry(long segment, int position, int size, NotificationRequest request) {}
+
+    private final NotificationProperties.Journal properties;
+    private final int segmentSize;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Counter appended;
+    private final Counter rejected;
+    private Segment active;
+    private long readSegment;
+    private int readPosition;
+    private long pending;
+
+    NotificationJournal(NotificationProperties notificationProperties, MeterRegistry meterRegistry) {
+        this.properties = notificationProperties.getJournal();
+        long size = properties.getSegmentSize().toBytes();
+        if (size <= HEADER_SIZE || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("notification.journal.segment-size must be between "
+                    + (HEADER_SIZE + 1) + " bytes and 2GB");
+        }
+        this.segmentSize = (int) size;
+        this.appended = Counter.builder("notification.journal.appended")
+                .description("Notifications spooled to the local journal")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("notification.journal.rejected")
+                .description("Notifications that could not be spooled because the journal was full or disabled")
+                .register(meterRegistry);
+        Gauge.builder("notification.journal.pending", this, NotificationJournal::pending)
+                .description("Spooled notifications not yet replayed")
+                .register(meterRegistry);
+        Gauge.builder("notification.journal.segments", this, NotificationJournal::segmentCount)
+                .description("Journal segment files on disk")
+                .register(meterRegistry);
+
+        if (properties.isEnabled()) {
+            try {
+                open();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open notification journal in " + properties.getDirectory(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code call} so that a {@link NotificationClientFallback} invoked on this thread does not spool.
+     * Used by callers that keep their own copy of the notification and retry it themselves.
+     */
+    static <T> T withoutSpooling(Supplier<T> call) {
+        Boolean previous = SPOOLING_SUPPRESSED.get();
+        SPOOLING_SUPPRESSED.set(Boolean.TRUE);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                SPOOLING_SUPPRESSED.remove();
+            } else {
+                SPOOLING_SUPPRESSED.set(previous);
+            }
+        }
+    }
+
+    static boolean isSpoolingSuppressed() {
+        return Boolean.TRUE.equals(SPOOLING_SUPPRESSED.get());
+    }
+
+    /**
+     * Spools a notification.
+     *
+     * @return {@code false} if the journal is disabled, closed or full and the notification was not stored
+     */
+    synchronized boolean append(NotificationRequest request) {
+        if (active == null) {
+            rejected.increment();
+            return false;
+        }
+        byte[] payload = encode(request);
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            log.warn("Notification for recipient {} is larger than a journal segment and was not spooled",
+                    request.getRecipientId());
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (active.writePosition + recordSize > segmentSize && !rotate()) {
+                rejected.increment();
+                return false;
+            }
+        } catch (IOException e) {
+            log.error("Could not start a new notification journal segment", e);
+            rejected.increment();
+            return false;
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.writePosition;
+        buffer.put(position + Integer.BYTES, PENDING);
+        buffer.putInt(position + Integer.BYTES + 1, checksum(payload));
+        buffer.put(position + HEADER_SIZE, payload);
+        buffer.putInt(position, payload.length);
+        if (properties.isForce()) {
+            buffer.force(position, recordSize);
+        }
+        active.writePosition += recordSize;
+        pending++;
+        appended.increment();
+        return true;
+    }
+
+    /**
+     * The oldest notification not yet acknowledged, or {@code null} if everything has been replayed.
+     * Repeated calls return the same entry until it is {@linkplain #acknowledge acknowledged}.
+     */
+    synchronized Entry next() {
+        while (active != null) {
+            Segment segment = segments.get(readSegment);
+            int limit = segment.writePosition;
+            if (readPosition + HEADER_SIZE <= limit) {
+                ByteBuffer buffer = segment.buffer;
+                int length = buffer.getInt(readPosition);
+                int size = HEADER_SIZE + length;
+                if (buffer.get(readPosition + Integer.BYTES) == ACKNOWLEDGED) {
+                    readPosition += size;
+                    continue;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(readPosition + HEADER_SIZE, payload);
+                if (checksum(payload) != buffer.getInt(readPosition + Integer.BYTES + 1)) {
+                    log.error("Skipping corrupt notification journal record at {}:{}", readSegment, readPosition);
+                    buffer.put(readPosition + Integer.BYTES, ACKNOWLEDGED);
+                    pending--;
+                    readPosition += size;
+                    continue;
+                }
+                return new Entry(readSegment, readPosition, size, decode(payload));
+            }
+            if (segment == active) {
+                return null;
+            }
+            // Everything in this sealed segment has been acknowledged
+            delete(segment);
+            readSegment = segments.firstKey();
+            readPosition = 0;
+        }
+        return null;
+    }
+
+    /**
+     * Marks a replayed notification as delivered, so it is never handed out again.
+     */
+    synchronized void acknowledge(Entry entry) {
+        Segment segment = segments.get(entry.segment());
+        if (segment == null || segment.buffer.get(entry.position() + Integer.BYTES) == ACKNOWLEDGED) {
+            return;
+        }
+        segment.buffer.put(entry.position() + Integer.BYTES, ACKNOWLEDGED);
+        if (properties.isForce()) {
+            segment.buffer.force(entry.position() + Integer.BYTES, 1);
+        }
+        pending--;
+        if (entry.segment() == readSegment && entry.position() == readPosition) {
+            readPosition += entry.size();
+        }
+    }
+
+    synchronized long pending() {
+        return pending;
+    }
+
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(properties.getDirectory());
+        try (Stream<Path> files = Files.list(properties.getDirectory())) {
+            for (Path file : files.toList()) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    long sequence = Long.parseLong(name.group(1));
+                    segments.put(sequence, Segment.open(file, sequence, segmentSize));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, Segment.open(segmentPath(0), 0, segmentSize));
+        }
+
+        boolean foundPending = false;
+        for (Segment segment : segments.values()) {
+            int end = recover(segment);
+            if (!foundPending && segment.firstPending >= 0) {
+                readSegment = segment.sequence;
+                readPosition = segment.firstPending;
+                foundPending = true;
+            }
+            segment.writePosition = end;
+        }
+        active = segments.lastEntry().getValue();
+        if (!foundPending) {
+            readSegment = active.sequence;
+            readPosition = active.writePosition;
+        }
+        // Segments before the first pending record were fully replayed before the restart
+        for (Segment replayed : List.copyOf(segments.headMap(readSegment).values())) {
+            delete(replayed);
+        }
+        if (pending > 0) {
+            log.info("Notification journal in {} holds {} notifications to replay in {} segments",
+                    properties.getDirectory(), pending, segments.size());
+        }
+    }
+
+    /**
+     * Scans a segment for intact records, counting the pending ones, and clears a torn tail so
+     * later appends are not hidden behind it.
+     *
+     * @return the position after the last intact record
+     */
+    private int recover(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_SIZE, payload);
+            if (checksum(payload) != buffer.getInt(position + Integer.BYTES + 1)) {
+                break;
+            }
+            if (buffer.get(position + Integer.BYTES) == PENDING) {
+                pending++;
+                if (segment.firstPending < 0) {
+                    segment.firstPending = position;
+                }
+            }
+            position += HEADER_SIZE + length;
+        }
+        if (position + Integer.BYTES <= segmentSize && buffer.getInt(position) != 0) {
+            log.warn("Discarding torn notification journal tail at {}:{}", segment.sequence, position);
+            byte[] zeros = new byte[8192];
+            for (int offset = position; offset < segmentSize; offset += zeros.length) {
+                buffer.put(offset, zeros, 0, Math.min(zeros.length, segmentSize - offset));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Seals the active segment and starts the next one.
+     *
+     * @return {@code false} if the journal already has the maximum number of segments
+     */
+    private boolean rotate() throws IOException {
+        if (segments.size() >= properties.getMaxSegments()) {
+            log.warn("Notification journal is full ({} segments), notification not spooled", segments.size());
+            return false;
+        }
+        active.buffer.force();
+        long sequence = active.sequence + 1;
+        Segment segment = Segment.open(segmentPath(sequence), sequence, segmentSize);
+        segments.put(sequence, segment);
+        active = segment;
+        return true;
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.sequence);
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Could not delete replayed notification journal segment {}", segment.path, e);
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return properties.getDirectory().resolve("segment-%020d.log".formatted(sequence));
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.close();
+        }
+        segments.clear();
+        active = null;
+    }
+
+    static byte[] encode(NotificationRequest request) {
+        List<byte[]> strings = Stream.of(request.getTitle(), request.getMessage(), request.getType(),
+                        request.getActionUrl())
+                .map(value -> value == null ? null : value.getBytes(StandardCharsets.UTF_8))
+                .toList();
+        int size = Long.BYTES;
+        for (byte[] value : strings) {
+            size += Integer.BYTES + (value == null ? 0 : value.length);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putLong(request.getRecipientId() == null ? NULL_ID : request.getRecipientId());
+        for (byte[] value : strings) {
+            if (value == null) {
+                out.putInt(-1);
+            } else {
+                out.putInt(value.length).put(value);
+            }
+        }
+        return out.array();
+    }
+
+    static NotificationRequest decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        long recipientId = in.getLong();
+        return NotificationRequest.builder()
+                .recipientId(recipientId == NULL_ID ? null : recipientId)
+                .title(readString(in))
+                .message(readString(in))
+                .type(readString(in))
+                .actionUrl(readString(in))
+                .build();
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * One mapped segment file.
+     */
+    private static final class Segment {
+        private final long sequence;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int firstPending = -1;
+
+        private Segment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long sequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                return new Segment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close notification journal segment {}", path, e);
+            }
+        }
+    }
+}
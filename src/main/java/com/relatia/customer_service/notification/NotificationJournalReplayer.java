@@ -0,0 +1,123 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers notifications spooled to the {@link NotificationJournal} once notification-service is back.
+ *
+ * <p>Each run replays the journal in order at {@code notification.journal.replay-rate-per-second}
+ * and stops at the first notification that still cannot be delivered; while the circuit breaker is
+ * open that first call fails fast, so a run costs next to nothing during an outage.</p>
+ *
+ * <p>A notification that notification-service rejects with a client error would be rejected on every
+ * run and hold up everything spooled behind it. It is acknowledged and dead-lettered instead: written
+ * to the outbox as a {@link NotificationOutboxStatus#FAILED} entry, where notifications the outbox
+ * dispatcher gave up on end up as well.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "notification.journal.enabled", matchIfMissing = true)
+class NotificationJournalReplayer {
+
+    private final NotificationJournal journal;
+    private final NotificationClient notificationClient;
+    private final NotificationReadCache readCache;
+    private final NotificationOutboxRepository outboxRepository;
+    private final Pacer pacer;
+    private final Counter replayed;
+    private final Counter deadLettered;
+
+    NotificationJournalReplayer(NotificationJournal journal, NotificationClient notificationClient,
+                                NotificationReadCache readCache, NotificationOutboxRepository outboxRepository,
+                                NotificationProperties notificationProperties, MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.notificationClient = notificationClient;
+        this.readCache = readCache;
+        this.outboxRepository = outboxRepository;
+        this.pacer = new Pacer(notificationProperties.getJournal().getReplayRatePerSecond());
+        this.replayed = Counter.builder("notification.journal.replayed")
+                .description("Spooled notifications delivered from the local journal")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("notification.journal.dead-lettered")
+                .description("Spooled notifications rejected by notification-service and moved to the outbox as failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.journal.replay-interval:10s}")
+    void replayOnSchedule() {
+        try {
+            replay();
+        } catch (RuntimeException e) {
+            log.error("Notification journal replay failed, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * Replays spooled notifications until the journal is drained or notification-service is unavailable.
+     *
+     * @return the number of notifications delivered
+     */
+    int replay() {
+        int replayedCount = 0;
+        NotificationJournal.Entry entry;
+        while ((entry = journal.next()) != null) {
+            try {
+                pacer.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            boolean delivered;
+            try {
+                delivered = deliver(entry.request());
+            } catch (RuntimeException rejection) {
+                deadLetter(entry, rejection);
+                continue;
+            }
+            if (!delivered) {
+                log.debug("notification-service still unavailable, {} notifications remain spooled", journal.pending());
+                break;
+            }
+            journal.acknowledge(entry);
+            readCache.invalidate(entry.request().getRecipientId());
+            replayed.increment();
+            replayedCount++;
+        }
+        if (replayedCount > 0) {
+            log.info("Replayed {} spooled notifications, {} remain", replayedCount, journal.pending());
+        }
+        return replayedCount;
+    }
+
+    /**
+     * @return whether the notification was delivered
+     * @throws RuntimeException the error notification-service rejected the notification with
+     */
+    private boolean deliver(NotificationRequest request) {
+        try {
+            NotificationResponse response = NotificationJournal.withoutSpooling(
+                    () -> notificationClient.createNotification(request));
+            return response != null && response.getId() != null;
+        } catch (RuntimeException e) {
+            if (NotificationClientFallback.isRejected(e)) {
+                throw e;
+            }
+            log.debug("Replaying notification for recipient {} failed", request.getRecipientId(), e);
+            return false;
+        }
+    }
+
+    private void deadLetter(NotificationJournal.Entry entry, RuntimeException rejection) {
+        // Written before the acknowledgement: if the outbox cannot take it, the entry is replayed on the next run
+        outboxRepository.save(NotificationOutboxEntry.rejected(entry.request(), rejection.toString()));
+        journal.acknowledge(entry);
+        deadLettered.increment();
+        log.warn("notification-service rejected the spooled notification for recipient {}, moved it to the outbox as failed: {}",
+                entry.request().getRecipientId(), rejection.toString());
+    }
+}
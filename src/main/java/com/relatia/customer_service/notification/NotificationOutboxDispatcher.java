@@ -0,0 +1,211 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers {@link NotificationOutboxEntry}s to notification-service in the background.
+ *
+ * <p>Each run claims a batch of due entries in a short transaction: the rows are locked with
+ * {@code SKIP LOCKED}, so concurrent dispatchers on other nodes claim disjoint batches, and leased by
+ * pushing their next attempt into the future. The calls are then made outside any transaction.
+ * Only the oldest undelivered entry of a recipient is ever claimed, which keeps each recipient's
+ * notifications in order while different recipients are served in parallel.</p>
+ *
+ * <p>Failed deliveries are retried with exponential backoff and jitter until
+ * {@code notification.outbox.max-attempts} is reached, after which the entry is marked failed and
+ * stops holding back the recipient's later notifications. A response without an id counts as a
+ * failure, since that is what {@link NotificationClientFallback} returns.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "notification.outbox.dispatch-enabled", matchIfMissing = true)
+class NotificationOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationClient notificationClient;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationProperties notificationProperties;
+    private final NotificationReadCache readCache;
+    private final ExecutorService executor;
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer deliveryDelay;
+
+    NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository, NotificationClient notificationClient,
+                                 TransactionTemplate transactionTemplate, NotificationProperties notificationProperties,
+                                 NotificationReadCache readCache, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.notificationClient = notificationClient;
+        this.transactionTemplate = transactionTemplate;
+        this.notificationProperties = notificationProperties;
+        this.readCache = readCache;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(notificationProperties.getOutbox().getParallelism(), task -> {
+            Thread thread = new Thread(task, "notification-outbox-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("notification.outbox.depth", depth, AtomicLong::get)
+                .description("Notifications waiting to be delivered")
+                .register(meterRegistry);
+        Gauge.builder("notification.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest notification waiting to be delivered")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.sent = outcome(meterRegistry, "sent");
+        this.retried = outcome(meterRegistry, "retried");
+        this.failed = outcome(meterRegistry, "failed");
+        this.deliveryDelay = Timer.builder("notification.outbox.delivery.delay")
+                .description("Time from writing a notification to the outbox until it was delivered")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("notification.outbox.dispatched")
+                .description("Notification delivery attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval:500ms}")
+    void dispatchOnSchedule() {
+        try {
+            int batchSize = notificationProperties.getOutbox().getBatchSize();
+            while (dispatch() == batchSize) {
+                // A full batch suggests a backlog; keep draining without waiting for the next run
+            }
+            updateGauges();
+        } catch (RuntimeException e) {
+            log.error("Notification outbox dispatch failed, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * Claims and delivers one batch.
+     *
+     * @return the number of entries claimed
+     */
+    int dispatch() {
+        List<NotificationOutboxEntry> batch = claim();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture.allOf(batch.stream()
+                        .map(entry -> CompletableFuture.runAsync(() -> deliver(entry), executor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+        return batch.size();
+    }
+
+    private List<NotificationOutboxEntry> claim() {
+        NotificationProperties.Outbox properties = notificationProperties.getOutbox();
+        List<NotificationOutboxEntry> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationOutboxEntry> due = outboxRepository.claimDue(now, Limit.of(properties.getBatchSize()));
+            for (NotificationOutboxEntry entry : due) {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(now.plus(properties.getLease()));
+            }
+            return due;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private void deliver(NotificationOutboxEntry entry) {
+        String error;
+        try {
+            // The entry stays in the outbox until delivered, so the fallback must not spool a second copy
+            NotificationResponse response = NotificationJournal.withoutSpooling(
+                    () -> notificationClient.createNotification(entry.toRequest()));
+            if (response != null && response.getId() != null) {
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.markSent(entry.getId(), LocalDateTime.now()));
+                readCache.invalidate(entry.getRecipientId());
+                sent.increment();
+                if (entry.getCreatedAt() != null) {
+                    deliveryDelay.record(Duration.between(entry.getCreatedAt(), LocalDateTime.now()));
+                }
+                return;
+            }
+            error = "notification-service unavailable";
+        } catch (RuntimeException e) {
+            error = e.toString();
+        }
+        fail(entry, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+    }
+
+    private void fail(NotificationOutboxEntry entry, String error) {
+        NotificationProperties.Outbox properties = notificationProperties.getOutbox();
+        if (entry.getAttempts() >= properties.getMaxAttempts()) {
+            log.error("Giving up on notification {} for recipient {} after {} attempts: {}",
+                    entry.getId(), entry.getRecipientId(), entry.getAttempts(), error);
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markFailed(entry.getId(), error));
+            failed.increment();
+        } else {
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(entry.getAttempts(), properties));
+            log.debug("Notification {} attempt {} failed, retrying at {}: {}",
+                    entry.getId(), entry.getAttempts(), nextAttemptAt, error);
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markRetry(entry.getId(), nextAttemptAt, error));
+            retried.increment();
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter: a random delay between the initial backoff and
+     * {@code initial * 2^(attempts - 1)}, capped at the maximum backoff.
+     */
+    static Duration backoff(int attempts, NotificationProperties.Outbox properties) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long ceiling = attempts >= 32 ? max : Math.min(max, initial << Math.max(0, attempts - 1));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(initial, Math.max(initial, ceiling) + 1));
+    }
+
+    private void updateGauges() {
+        depth.set(outboxRepository.countByStatus(NotificationOutboxStatus.PENDING));
+        lagMillis.set(outboxRepository.findOldestPendingCreatedAt()
+                .map(createdAt -> Math.max(0, Duration.between(createdAt, LocalDateTime.now()).toMillis()))
+                .orElse(0L));
+    }
+
+    @Scheduled(cron = "${notification.outbox.cleanup-cron:0 0 * * * *}")
+    void deleteDelivered() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(notificationProperties.getOutbox().getRetention());
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deleteSentBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} delivered notifications from the outbox", deleted);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
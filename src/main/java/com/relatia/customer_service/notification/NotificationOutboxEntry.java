@@ -0,0 +1,89 @@
+package com.relatia.customer_service.notification;
+
+import com.relatia.customer_service.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be delivered to notification-service.
+ *
+ * <p>Entries are written in the caller's transaction, so a notification exists exactly when the
+ * change that caused it was committed, and are delivered by {@link NotificationOutboxDispatcher}.</p>
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationOutboxEntry extends BaseEntity {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, length = 2000)
+    private String message;
+
+    private String type;
+
+    @Column(name = "action_url")
+    private String actionUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private NotificationOutboxStatus status = NotificationOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    /**
+     * A notification notification-service rejected, kept as a {@link NotificationOutboxStatus#FAILED} entry
+     * like one the dispatcher gave up on, so it is neither retried nor lost.
+     */
+    static NotificationOutboxEntry rejected(NotificationRequest request, String error) {
+        return NotificationOutboxEntry.builder()
+                .recipientId(request.getRecipientId())
+                .title(request.getTitle())
+                .message(request.getMessage())
+                .type(request.getType())
+                .actionUrl(request.getActionUrl())
+                .status(NotificationOutboxStatus.FAILED)
+                .attempts(1)
+                .nextAttemptAt(LocalDateTime.now())
+                .lastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error)
+                .build();
+    }
+
+    NotificationRequest toRequest() {
+        return NotificationRequest.builder()
+                .recipientId(recipientId)
+                .title(title)
+                .message(message)
+                .type(type)
+                .actionUrl(actionUrl)
+                .build();
+    }
+}
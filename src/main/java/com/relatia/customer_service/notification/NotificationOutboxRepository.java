@@ -0,0 +1,77 @@
+package com.relatia.customer_service.notification;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, Long> {
+
+    /**
+     * Locks the oldest due entry of each recipient that has no older undelivered entry,
+     * skipping rows another dispatcher has already locked.
+     *
+     * <p>"Older" is by creation time, then id. Ids alone do not give the write order: every instance
+     * hands them out from its own pooled block, so a later entry can get a lower id.</p>
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select o from NotificationOutboxEntry o
+             where o.status = com.relatia.customer_service.notification.NotificationOutboxStatus.PENDING
+               and o.nextAttemptAt <= :now
+               and not exists (
+                   select 1 from NotificationOutboxEntry p
+                    where p.recipientId = o.recipientId
+                      and p.status = com.relatia.customer_service.notification.NotificationOutboxStatus.PENDING
+                      and (p.createdAt < o.createdAt or (p.createdAt = o.createdAt and p.id < o.id)))
+             order by o.createdAt, o.id""")
+    List<NotificationOutboxEntry> claimDue(@Param("now") LocalDateTime now, Limit limit);
+
+    @Modifying
+    @Query("""
+            update NotificationOutboxEntry o
+               set o.status = com.relatia.customer_service.notification.NotificationOutboxStatus.SENT,
+                   o.sentAt = :now, o.lastError = null
+             where o.id = :id""")
+    int markSent(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            update NotificationOutboxEntry o
+               set o.nextAttemptAt = :nextAttemptAt, o.lastError = :error
+             where o.id = :id""")
+    int markRetry(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                  @Param("error") String error);
+
+    @Modifying
+    @Query("""
+            update NotificationOutboxEntry o
+               set o.status = com.relatia.customer_service.notification.NotificationOutboxStatus.FAILED,
+                   o.lastError = :error
+             where o.id = :id""")
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    long countByStatus(NotificationOutboxStatus status);
+
+    @Query("""
+            select min(o.createdAt) from NotificationOutboxEntry o
+             where o.status = com.relatia.customer_service.notification.NotificationOutboxStatus.PENDING""")
+    Optional<LocalDateTime> findOldestPendingCreatedAt();
+
+    @Modifying
+    @Query("""
+            delete from NotificationOutboxEntry o
+             where o.status = com.relatia.customer_service.notification.NotificationOutboxStatus.SENT
+               and o.sentAt < :cutoff""")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
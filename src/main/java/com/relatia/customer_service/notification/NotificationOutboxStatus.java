@@ -0,0 +1,8 @@
+package com.relatia.customer_service.notification;
+
+/**
+ * Delivery state of a {@link NotificationOutboxEntry}.
+ */
+public enum NotificationOutboxStatus {
+    PENDING, SENT, FAILED
+}
@@ -0,0 +1,376 @@
+package com.relatia.customer_service.notification;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tunables for customer notifications, bound from the {@code notification.*} properties.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "notification")
+public class NotificationProperties {
+
+    @Valid
+    private Outbox outbox = new Outbox();
+
+    @Valid
+    private ReadCache readCache = new ReadCache();
+
+    @Valid
+    private Campaign campaign = new Campaign();
+
+    @Valid
+    private Journal journal = new Journal();
+
+    @Valid
+    private Hedging hedging = new Hedging();
+
+    @Valid
+    private Resilience resilience = new Resilience();
+
+    @Valid
+    private AsyncClient asyncClient = new AsyncClient();
+
+    @Getter
+    @Setter
+    public static class AsyncClient {
+        /**
+         * How long opening a connection to notification-service may take; open connections are kept alive and reused.
+         */
+        @NotNull
+        private Duration connectTimeout = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Resilience {
+        /**
+         * Whether bulkhead limits follow observed failures and latency; otherwise they stay at the initial limit.
+         */
+        private boolean adaptive = true;
+
+        /**
+         * How often the bulkhead limits are adjusted.
+         */
+        @NotNull
+        private Duration adjustInterval = Duration.ofSeconds(1);
+
+        /**
+         * Factor a limit is multiplied with after an interval with failures, timeouts or slow calls.
+         */
+        @DecimalMin("0.1")
+        @DecimalMax("0.99")
+        private double backoffRatio = 0.75;
+
+        @Valid
+        private MethodLimits defaults = new MethodLimits();
+
+        /**
+         * Limits per {@link NotificationClient} method name, e.g. {@code getNotifications}.
+         * An entry replaces the defaults for that method as a whole.
+         */
+        private Map<String, @Valid MethodLimits> methods = new HashMap<>();
+
+        public MethodLimits forMethod(String method) {
+            return methods.getOrDefault(method, defaults);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class MethodLimits {
+        /**
+         * Calls in flight at once when the service starts.
+         */
+        @Min(1)
+        private int initialLimit = 20;
+
+        @Min(1)
+        private int minLimit = 2;
+
+        @Min(1)
+        private int maxLimit = 200;
+
+        /**
+         * How long a call may wait for a free slot before it is rejected.
+         */
+        @NotNull
+        private Duration maxWait = Duration.ZERO;
+
+        /**
+         * How long a call may take before it is abandoned and counted as failed.
+         */
+        @NotNull
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * Calls slower than this count as slow, both for the circuit breaker and for lowering the limit.
+         */
+        @NotNull
+        private Duration slowCallThreshold = Duration.ofSeconds(2);
+
+        /**
+         * Percentage of failed calls in the sliding window that opens the circuit breaker.
+         */
+        @DecimalMin("1")
+        @DecimalMax("100")
+        private float failureRateThreshold = 50;
+
+        /**
+         * Percentage of slow calls in the sliding window that opens the circuit breaker.
+         */
+        @DecimalMin("1")
+        @DecimalMax("100")
+        private float slowCallRateThreshold = 80;
+
+        /**
+         * Number of most recent calls the circuit breaker rates.
+         */
+        @Min(1)
+        private int slidingWindowSize = 50;
+
+        /**
+         * How long an open circuit breaker rejects calls before it lets trial calls through.
+         */
+        @NotNull
+        private Duration waitInOpenState = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Hedging {
+        /**
+         * Whether reads from notification-service are hedged and bounded by latency-derived timeouts.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Latency percentile after which a second attempt is sent.
+         */
+        @DecimalMin("0.5")
+        @DecimalMax("0.999")
+        private double hedgePercentile = 0.95;
+
+        /**
+         * Lower bound for the hedge delay, so fast reads are never doubled.
+         */
+        @NotNull
+        private Duration minHedgeDelay = Duration.ofMillis(20);
+
+        /**
+         * Hedges allowed as a fraction of reads, so a slow notification-service is not sent twice the load.
+         */
+        @DecimalMin("0.0")
+        @DecimalMax("1.0")
+        private double maxHedgeRatio = 0.1;
+
+        /**
+         * The read timeout is this multiple of the observed p99, kept between the minimum and maximum timeout.
+         */
+        @DecimalMin("1.0")
+        private double timeoutMultiplier = 3.0;
+
+        @NotNull
+        private Duration minTimeout = Duration.ofMillis(250);
+
+        /**
+         * Timeout used until enough latencies have been observed, and upper bound afterwards.
+         */
+        @NotNull
+        private Duration maxTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Length of the latency window the percentiles are taken from.
+         */
+        @NotNull
+        private Duration window = Duration.ofSeconds(30);
+
+        /**
+         * Latencies a window needs before its percentiles are used.
+         */
+        @Min(1)
+        private int minSamples = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Journal {
+        /**
+         * Whether notifications that cannot be delivered are spooled to the local journal.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Directory holding the journal segments; must survive restarts to survive outages across them.
+         */
+        @NotNull
+        private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "notification-journal");
+
+        /**
+         * Size of one memory-mapped segment file.
+         */
+        @NotNull
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Segments kept at most; once all are full, further notifications are rejected instead of spooled.
+         */
+        @Min(2)
+        private int maxSegments = 32;
+
+        /**
+         * Whether every append is forced to the storage device. Without it the journal survives
+         * process crashes, but an operating system crash can lose the latest appends.
+         */
+        private boolean force = false;
+
+        /**
+         * Pause between two replay runs; a run stops at the first notification that cannot be delivered
+         * because notification-service is unavailable.
+         */
+        @NotNull
+        private Duration replayInterval = Duration.ofSeconds(10);
+
+        /**
+         * Upper bound for spooled notifications replayed per second.
+         */
+        @Min(1)
+        private int replayRatePerSecond = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Campaign {
+        /**
+         * Customer ids read and checkpointed at a time.
+         */
+        @Min(1)
+        private int chunkSize = 500;
+
+        /**
+         * Calls to notification-service in flight at once, shared by all campaigns on this node.
+         */
+        @Min(1)
+        private int parallelism = 8;
+
+        /**
+         * Upper bound for campaign notifications sent per second by this node.
+         */
+        @Min(1)
+        private int ratePerSecond = 200;
+
+        /**
+         * Campaigns run at once on this node; further campaigns wait for a free slot.
+         */
+        @Min(1)
+        private int maxConcurrent = 2;
+
+        /**
+         * How long a campaign stays with a node without a checkpoint before another node takes it over.
+         * Must comfortably exceed the time to send one chunk.
+         */
+        @NotNull
+        private Duration lease = Duration.ofMinutes(2);
+
+        /**
+         * How often this node looks for campaigns left behind by a crashed or stopped node.
+         */
+        @NotNull
+        private Duration resumeInterval = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class ReadCache {
+        /**
+         * How long notification counts and lists are served from memory.
+         */
+        @NotNull
+        private Duration ttl = Duration.ofSeconds(2);
+
+        /**
+         * Upper bound for cached (customer, query) entries.
+         */
+        @Min(1)
+        private long maximumSize = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        /**
+         * Whether this node dispatches outbox entries. Several nodes may dispatch at once.
+         */
+        private boolean dispatchEnabled = true;
+
+        /**
+         * Pause between two dispatch runs; a run that finds a full batch starts the next one immediately.
+         */
+        @NotNull
+        private Duration pollInterval = Duration.ofMillis(500);
+
+        /**
+         * Entries claimed per run, at most one per recipient.
+         */
+        @Min(1)
+        private int batchSize = 100;
+
+        /**
+         * Calls to notification-service in flight at once while a batch is delivered.
+         */
+        @Min(1)
+        private int parallelism = 4;
+
+        /**
+         * How long a claimed entry is hidden from other dispatchers before it is retried.
+         * Must exceed the notification-service call timeout.
+         */
+        @NotNull
+        private Duration lease = Duration.ofMinutes(2);
+
+        /**
+         * Delivery attempts before an entry is marked failed.
+         */
+        @Min(1)
+        private int maxAttempts = 10;
+
+        /**
+         * Delay before the first retry; doubled after every further failure.
+         */
+        @NotNull
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Upper bound for the retry delay.
+         */
+        @NotNull
+        private Duration maxBackoff = Duration.ofMinutes(10);
+
+        /**
+         * How long delivered entries are kept.
+         */
+        @NotNull
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * When delivered entries older than the retention are deleted.
+         */
+        @NotNull
+        private String cleanupCron = "0 0 * * * *";
+    }
+}
@@ -0,0 +1,161 @@
+package com.relatia.customer_service.notification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache in front of the notification-service reads that the UI polls.
+ *
+ * <p>Values are cached per customer and query for {@code notification.read-cache.ttl}. Concurrent
+ * misses for the same key are coalesced: the first caller starts the load and every other caller
+ * gets that same result instead of making its own upstream call.</p>
+ *
+ * <p>Entries are invalidated by local writes; changes made elsewhere show up once the TTL expires.
+ * Every invalidation bumps a generation counter of the customer's stripe, and a load that was in
+ * flight while its stripe moved on is returned to its callers but not cached, so it can never
+ * re-populate the cache with a value read before the write. Writes for other customers, such as a
+ * running campaign, only hold back the loads that share their stripe.</p>
+ *
+ * <p>A load answered by the fallback instead of notification-service, such as an empty list during an
+ * outage, is likewise returned to its callers but not cached, so the real value is read again on the
+ * next call.</p>
+ */
+@Component
+class NotificationReadCache {
+
+    private static final int STRIPES = 1024;
+
+    enum Query {
+        COUNT_ALL, COUNT_UNREAD, LIST_ALL, LIST_UNREAD
+    }
+
+    record Key(Long customerId, Query query) {}
+
+    private final Cache<Key, Object> cache;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+    private final Counter coalesced;
+
+    NotificationReadCache(NotificationProperties notificationProperties, MeterRegistry meterRegistry) {
+        NotificationProperties.ReadCache properties = notificationProperties.getReadCache();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumSize(properties.getMaximumSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notification-reads");
+        this.coalesced = Counter.builder("notification.reads.coalesced")
+                .description("Notification reads that waited for a load already in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value, or loads it once for all concurrent callers on the caller's thread.
+     */
+    <T> T get(Long customerId, Query query, Supplier<T> loader) {
+        return await(getAsync(customerId, query, () -> {
+            try {
+                return CompletableFuture.completedFuture(loader.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }));
+    }
+
+    /**
+     * Returns the cached value, or starts one load for all concurrent callers.
+     */
+    <T> CompletableFuture<T> getAsync(Long customerId, Query query, Supplier<CompletableFuture<T>> loader) {
+        return getAsync(customerId, query, onFallback -> loader.get());
+    }
+
+    /**
+     * Returns the cached value, or starts one load for all concurrent callers. The loader is handed a callback
+     * to run when the fallback answers instead of notification-service; that answer is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> getAsync(Long customerId, Query query, Function<Runnable, CompletableFuture<T>> loader) {
+        Key key = new Key(customerId, query);
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture((T) cached);
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.thenApply(value -> (T) value);
+        }
+
+        int stripe = stripe(customerId);
+        long generation = invalidations.get(stripe);
+        AtomicBoolean fellBack = new AtomicBoolean();
+        CompletableFuture<T> loading;
+        try {
+            loading = loader.apply(() -> fellBack.set(true));
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((value, error) -> {
+            if (error != null) {
+                load.completeExceptionally(unwrap(error));
+            } else {
+                if (value != null && !fellBack.get() && invalidations.get(stripe) == generation) {
+                    cache.put(key, value);
+                    // An invalidation between the check and the put must not leave the value behind
+                    if (invalidations.get(stripe) != generation) {
+                        cache.invalidate(key);
+                    }
+                }
+                load.complete(value);
+            }
+            inFlight.remove(key, load);
+        });
+        return load.thenApply(value -> (T) value);
+    }
+
+    /**
+     * Drops everything cached for a customer, and keeps loads already in flight from caching their result.
+     */
+    void invalidate(Long customerId) {
+        invalidations.incrementAndGet(stripe(customerId));
+        for (Query query : Query.values()) {
+            Key key = new Key(customerId, query);
+            cache.invalidate(key);
+            inFlight.remove(key);
+        }
+    }
+
+    private static int stripe(Long customerId) {
+        return Long.hashCode(customerId) & (STRIPES - 1);
+    }
+
+    private static <T> T await(CompletableFuture<T> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,32 @@
+package com.relatia.customer_service.notification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces calls evenly at a fixed rate. Idle time does not build up credit, so there are no bursts.
+ */
+final class Pacer {
+
+    private final long intervalNanos;
+    private long next = System.nanoTime();
+
+    Pacer(int permitsPerSecond) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+    }
+
+    /**
+     * Blocks until the caller's slot comes up.
+     */
+    void acquire() throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            next = Math.max(next, now);
+            wait = next - now;
+            next += intervalNanos;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
@@ -18,3 +18,115 @@ CREATE TABLE IF NOT EXISTS customers (
     version BIGINT DEFAULT 0,
     CONSTRAINT uk_customer_email UNIQUE (email)
 );
+
+-- =============================================
+-- Archive of purged, soft-deleted customers
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS customers_archive (
+    id BIGINT PRIMARY KEY,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    phone VARCHAR(20),
+    address VARCHAR(500),
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    version BIGINT,
+    purged_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- =============================================
+-- Notification outbox
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT PRIMARY KEY,
+    recipient_id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(2000) NOT NULL,
+    type VARCHAR(255),
+    action_url VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    sent_at TIMESTAMP NULL,
+    -- Orders each recipient's entries, see NotificationOutboxRepository.claimDue
+    created_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6),
+    updated_at TIMESTAMP NULL,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    is_deleted BOOLEAN DEFAULT FALSE,
+    version BIGINT DEFAULT 0
+);
+
+-- =============================================
+-- Notification campaigns
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS notification_campaigns (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    message VARCHAR(2000) NOT NULL,
+    type VARCHAR(255),
+    action_url VARCHAR(255),
+    email_domain VARCHAR(255),
+    created_after TIMESTAMP NULL,
+    status VARCHAR(20) NOT NULL,
+    last_customer_id BIGINT NOT NULL DEFAULT 0,
+    sent BIGINT NOT NULL DEFAULT 0,
+    deferred BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    lease_owner VARCHAR(36),
+    lease_until TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NULL,
+    created_by VARCHAR(255),
+    updated_by VARCHAR(255),
+    is_deleted BOOLEAN DEFAULT FALSE,
+    version BIGINT DEFAULT 0
+);
+
+-- =============================================
+-- Id allocation (pooled, one row per entity table)
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS id_generator (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+-- Seed above any id handed out by AUTO_INCREMENT before the switch to pooled ids.
+-- The pooled optimizer starts each block at next_val - 49 (allocationSize = 50).
+-- MAX() always yields a row, so the existence check sits outside the aggregate to keep reruns a no-op.
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'customers', seed.next_val
+FROM (SELECT COALESCE(MAX(id), 0) + 50 AS next_val FROM customers) seed
+WHERE NOT EXISTS (SELECT 1 FROM id_generator WHERE sequence_name = 'customers');
+
+-- =============================================
+-- Replication heartbeat (single row, written on the primary, read on replicas to measure lag)
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+    id INT NOT NULL PRIMARY KEY,
+    beat_at BIGINT NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_at)
+SELECT 1, 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM replication_heartbeat WHERE id = 1);
+
+-- =============================================
+-- Email directory (sharded customers only; takes the place of uk_customer_email across shards)
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS customer_email_directory (
+    email VARCHAR(255) NOT NULL PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    claimed_at TIMESTAMP NOT NULL
+);
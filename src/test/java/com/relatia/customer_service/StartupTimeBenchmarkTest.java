@@ -0,0 +1,131 @@
+package com.relatia.customer_service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cold start as a client sees it: the time from launching a fresh JVM until
+ * {@code GET api/v1/customers/{id}} is first answered.
+ *
+ * <p>Each round starts the application in its own JVM against an in-memory H2 database, offline (no
+ * config server, Eureka or bus), and polls the endpoint; a 404 counts as answered. The median of
+ * {@code -Dbenchmark.rounds=} rounds (default 5) is reported. By default the test classpath is launched;
+ * with {@code -Dbenchmark.jar=target/fast-startup/customer-service-0.0.1-SNAPSHOT.jar} the jar extracted by
+ * {@code mvn package -Pfast-startup} is launched with its AOT code and, if present next to it, the
+ * {@code application.jsa} class-data sharing archive, so both builds can be compared.</p>
+ *
+ * <p>Excluded from the default build; run with {@code mvn test -Pbenchmark}. The application itself logs
+ * a per-phase startup report and publishes {@code application.first-request.time}.</p>
+ */
+@Slf4j
+@Tag("benchmark")
+class StartupTimeBenchmarkTest {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 5);
+    private static final String JAR = System.getProperty("benchmark.jar");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void timeToFirstCustomerRead() throws Exception {
+        List<Long> millis = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            millis.add(launchAndWaitForFirstRead());
+        }
+
+        List<Long> sorted = millis.stream().sorted().toList();
+        log.info("{}: time to first GET api/v1/customers/{id} median {} ms, min {} ms, max {} ms over {} rounds",
+                JAR == null ? "test classpath" : JAR, sorted.get(sorted.size() / 2), sorted.get(0),
+                sorted.get(sorted.size() - 1), ROUNDS);
+        assertEquals(ROUNDS, millis.size());
+    }
+
+    private long launchAndWaitForFirstRead() throws Exception {
+        int port = freePort();
+        Path output = Files.createTempFile("startup-benchmark", ".log");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command(port))
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/customers/1"))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + output);
+                }
+                try {
+                    int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status < 500) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No answer within " + TIMEOUT + ", see " + output);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static List<String> command(int port) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (JAR == null) {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+        } else {
+            Path archive = Path.of(JAR).resolveSibling("application.jsa");
+            if (Files.exists(archive)) {
+                command.add("-XX:SharedArchiveFile=" + archive);
+            }
+            command.add("-Dspring.aot.enabled=true");
+            // The jar's manifest brings its own libraries; H2 comes from the test classpath
+            command.add("-cp");
+            command.add(JAR + File.pathSeparator + System.getProperty("java.class.path"));
+        }
+        command.add(CustomerServiceApplication.class.getName());
+        command.addAll(List.of(
+                "--spring.profiles.active=test",
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1",
+                "--spring.cloud.config.enabled=false",
+                "--spring.cloud.config.import-check.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.cloud.bus.enabled=false",
+                "--notification.journal.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.hibernate.SQL=INFO",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"));
+        return command;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.relatia.customer_service.customer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerCacheTest {
+
+    private final CustomerCache cache = new CustomerCache(new ConcurrentMapCacheManager(CustomerCache.NAME));
+
+    @Test
+    void get_OnMiss_ShouldLoadOnceAndCache() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.get(1L, () -> customer(1L, loads.incrementAndGet()));
+        CustomerResponse second = cache.get(1L, () -> customer(1L, loads.incrementAndGet()));
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(1L, second.getVersion());
+    }
+
+    @Test
+    void get_WhenChangeCommitsDuringLoad_ShouldNotCacheTheOldRow() {
+        // When
+        CustomerResponse stale = cache.get(1L, () -> {
+            // The row was read; the writer commits and evicts before this load puts
+            cache.onCustomerChanged(CustomerChangedEvent.deleted(1L, null));
+            return customer(1L, 1);
+        });
+
+        // Then
+        assertEquals(1L, stale.getVersion());
+        assertTrue(cache.peek(1L).isEmpty());
+        assertEquals(2L, cache.get(1L, () -> customer(1L, 2)).getVersion());
+        assertEquals(2L, cache.peek(1L).orElseThrow().getVersion());
+    }
+
+    @Test
+    void get_WhenChangeCommittedSinceTheTransactionStarted_ShouldNotCache() {
+        // Given
+        long since = cache.generation();
+        cache.onCustomerChanged(CustomerChangedEvent.deleted(1L, null));
+
+        // When
+        cache.get(1L, since, () -> customer(1L, 1));
+
+        // Then
+        assertTrue(cache.peek(1L).isEmpty());
+    }
+
+    @Test
+    void get_WhenOtherCustomerChanged_ShouldStillCache() {
+        // When
+        cache.get(1L, () -> {
+            cache.onCustomerChanged(CustomerChangedEvent.deleted(2L, null));
+            return customer(1L, 1);
+        });
+
+        // Then
+        assertTrue(cache.peek(1L).isPresent());
+    }
+
+    @Test
+    void onCustomerChanged_WhenCreated_ShouldKeepCachedEntries() {
+        // Given
+        cache.get(1L, () -> customer(1L, 1));
+
+        // When
+        cache.onCustomerChanged(CustomerChangedEvent.created(customer(1L, 0)));
+
+        // Then
+        assertTrue(cache.peek(1L).isPresent());
+    }
+
+    private static CustomerResponse customer(long id, long version) {
+        return CustomerResponse.builder().id(id).email("john.doe@example.com").version(version).build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.relatia.customer_service.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relatia.customer_service.config.BusConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.cloud.bus.event.Destination;
+import org.springframework.cloud.bus.event.PathDestinationFactory;
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+import org.springframework.cloud.bus.jackson.BusJacksonAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerChangeBroadcasterTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Destination.Factory destinationFactory = new PathDestinationFactory();
+
+    private CustomerChangeBroadcaster nodeA;
+    private CustomerChangeBroadcaster nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new CustomerChangeBroadcaster(eventPublisher, busProperties("customer-service:8080:a"), destinationFactory);
+        nodeB = new CustomerChangeBroadcaster(eventPublisher, busProperties("customer-service:8080:b"), destinationFactory);
+    }
+
+    @Test
+    void broadcast_ThenReceiveOnOtherNode_ShouldReplayAsRemoteChange() {
+        // Given
+        CustomerChangedEvent local = CustomerChangedEvent.deleted(42L, "john.doe@example.com");
+
+        // When
+        nodeA.broadcast(local);
+        ArgumentCaptor<CustomerChangedRemoteEvent> sent = ArgumentCaptor.forClass(CustomerChangedRemoteEvent.class);
+        verify(eventPublisher).publishEvent(sent.capture());
+        nodeB.receive(sent.getValue());
+
+        // Then
+        ArgumentCaptor<CustomerChangedEvent> replayed = ArgumentCaptor.forClass(CustomerChangedEvent.class);
+        verify(eventPublisher).publishEvent(replayed.capture());
+        assertEquals(CustomerChangedEvent.Type.DELETED, replayed.getValue().type());
+        assertEquals(42L, replayed.getValue().customerId());
+        assertEquals("john.doe@example.com", replayed.getValue().previousEmail());
+        assertTrue(replayed.getValue().remote());
+    }
+
+    @Test
+    void receive_WhenOwnBroadcast_ShouldIgnore() {
+        // Given
+        nodeA.broadcast(CustomerChangedEvent.deleted(42L, null));
+        ArgumentCaptor<CustomerChangedRemoteEvent> sent = ArgumentCaptor.forClass(CustomerChangedRemoteEvent.class);
+        verify(eventPublisher).publishEvent(sent.capture());
+
+        // When
+        nodeA.receive(sent.getValue());
+
+        // Then
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void broadcast_WhenRemoteChange_ShouldNotRebroadcast() {
+        // When
+        nodeB.broadcast(new CustomerChangedEvent(CustomerChangedEvent.Type.DELETED, 42L, null, null, true));
+
+        // Then
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void broadcast_ShouldSurviveTheBusMessageConverter() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class, BusJacksonAutoConfiguration.class))
+                .withUserConfiguration(BusConfiguration.class)
+                .run(context -> {
+                    // Given
+                    // Outbound the stream's JSON converter writes the event with the application's ObjectMapper,
+                    // inbound the bus converter resolves its subtype
+                    ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+                    MessageConverter converter = context.getBean("busJsonConverter", MessageConverter.class);
+                    CustomerResponse customer = CustomerResponse.builder()
+                            .id(42L)
+                            .firstName("John")
+                            .lastName("Doe")
+                            .email("john.doe@example.com")
+                            .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5))
+                            .version(3L)
+                            .build();
+                    nodeA.broadcast(CustomerChangedEvent.updated(customer, "old@example.com"));
+                    ArgumentCaptor<CustomerChangedRemoteEvent> sent = ArgumentCaptor.forClass(CustomerChangedRemoteEvent.class);
+                    verify(eventPublisher).publishEvent(sent.capture());
+
+                    // When
+                    Message<byte[]> message = MessageBuilder.withPayload(objectMapper.writeValueAsBytes(sent.getValue()))
+                            .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+                            .build();
+                    Object received = converter.fromMessage(message, RemoteApplicationEvent.class);
+
+                    // Then
+                    CustomerChangedRemoteEvent event = assertInstanceOf(CustomerChangedRemoteEvent.class, received);
+                    assertEquals("customer-service:8080:a", event.getOriginService());
+                    CustomerChangedEvent replayed = event.toLocalEvent();
+                    assertEquals(CustomerChangedEvent.Type.UPDATED, replayed.type());
+                    assertEquals(42L, replayed.customerId());
+                    assertEquals("old@example.com", replayed.previousEmail());
+                    assertEquals(42L, replayed.customer().getId());
+                    assertEquals("john.doe@example.com", replayed.customer().getEmail());
+                    assertEquals(customer.getCreatedAt(), replayed.customer().getCreatedAt());
+                    assertEquals(3L, replayed.customer().getVersion());
+                    assertTrue(replayed.remote());
+                });
+    }
+
+    private static BusProperties busProperties(String id) {
+        BusProperties properties = new BusProperties();
+        properties.setId(id);
+        return properties;
+    }
+}
@@ -6,14 +6,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
+import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -74,9 +81,91 @@ class CustomerControllerTest {
 
         // When & Then
         mockMvc.perform(get("/api/v1/customers")
+                .param("unpaged", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].email").value("john.doe@example.com"));
     }
+
+    @Test
+    void getCustomersPage_ShouldReturnPageWithNextCursor() throws Exception {
+        // Given
+        CustomerPage page = CustomerPage.builder()
+                .content(Collections.singletonList(testCustomerResponse))
+                .next("MQ")
+                .size(1)
+                .build();
+        when(customerService.findPage("MA", 1)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers")
+                .param("cursor", "MA")
+                .param("size", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email").value("john.doe@example.com"))
+                .andExpect(jsonPath("$.next").value("MQ"))
+                .andExpect(jsonPath("$.size").value(1));
+    }
+
+    @Test
+    void searchCustomers_ShouldReturnMatches() throws Exception {
+        // Given
+        CustomerPage page = CustomerPage.builder()
+                .content(Collections.singletonList(testCustomerResponse))
+                .size(50)
+                .build();
+        when(customerService.search("john", null, null)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers/search")
+                .param("q", "john")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email").value("john.doe@example.com"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnETagFromVersion() throws Exception {
+        // Given
+        testCustomerResponse.setVersion(3L);
+        when(customerService.findById(1L)).thenReturn(testCustomerResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers/1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""));
+    }
+
+    @Test
+    void getCustomerById_WhenETagMatches_ShouldReturnNotModifiedWithoutLoadingCustomer() throws Exception {
+        // Given
+        when(customerService.findVersion(1L)).thenReturn(Optional.of(3L));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(content().string(""));
+        verify(customerService, never()).findById(any());
+    }
+
+    @Test
+    void getCustomerById_WhenETagIsStale_ShouldReturnCustomer() throws Exception {
+        // Given
+        testCustomerResponse.setVersion(4L);
+        when(customerService.findVersion(1L)).thenReturn(Optional.of(4L));
+        when(customerService.findById(1L)).thenReturn(testCustomerResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/customers/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
 }
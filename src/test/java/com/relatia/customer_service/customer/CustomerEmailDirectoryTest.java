@@ -0,0 +1,177 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.ShardedDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerEmailDirectoryTest {
+
+    private ShardedDatabases databases;
+    private CustomerEmailDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        databases = new ShardedDatabases("a", "b");
+        directory = new CustomerEmailDirectory(databases.shards());
+    }
+
+    @AfterEach
+    void tearDown() {
+        databases.close();
+    }
+
+    @Test
+    void claim_ShouldStoreTheClaimOnTheShardTheEmailHashesTo() {
+        // Given
+        String onA = databases.emailOn("a", "john");
+        String onB = databases.emailOn("b", "jane");
+
+        // When
+        boolean claimedA = directory.claim(onA.toUpperCase(), 1L);
+        boolean claimedB = directory.claim(onB, 2L);
+        boolean claimedAgain = directory.claim(onA, 1L);
+
+        // Then
+        assertTrue(claimedA);
+        assertTrue(claimedB);
+        assertFalse(claimedAgain);
+        assertEquals(List.of(onA), emails("a"));
+        assertEquals(List.of(onB), emails("b"));
+        assertEquals(Optional.of(1L), directory.findId(onA));
+        assertEquals(Set.of(onA, onB), Set.copyOf(directory.findExisting(List.of(onA, onB, "nobody@example.com"))));
+    }
+
+    @Test
+    void claim_WhenCustomersRaceForAnEmail_ShouldLetExactlyOneWin() throws Exception {
+        // Given
+        int customers = 8;
+        CyclicBarrier start = new CyclicBarrier(customers);
+        ExecutorService executor = Executors.newFixedThreadPool(customers);
+        List<Callable<Boolean>> claims = new ArrayList<>();
+        for (long id = 1; id <= customers; id++) {
+            long customerId = id;
+            claims.add(() -> {
+                start.await();
+                try {
+                    return directory.claim("race@example.com", customerId);
+                } catch (DuplicateKeyException e) {
+                    return false;
+                }
+            });
+        }
+
+        // When
+        List<Future<Boolean>> results;
+        try {
+            results = executor.invokeAll(claims);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            winners += result.get() ? 1 : 0;
+        }
+        assertEquals(1, winners);
+        assertTrue(directory.findId("race@example.com").isPresent());
+    }
+
+    @Test
+    void claim_WhenClaimIsStale_ShouldTakeItOver() {
+        // Given
+        String email = databases.emailOn("b", "stale");
+        claimedAt(email, 1L, LocalDateTime.now().minus(CustomerEmailDirectory.CLAIM_GRACE).minusMinutes(1));
+
+        // When
+        boolean claimed = directory.claim(email, 2L);
+
+        // Then
+        assertTrue(claimed);
+        assertEquals(Optional.of(2L), directory.findId(email));
+    }
+
+    @Test
+    void claim_WhenClaimIsWithinGrace_ShouldRejectTheEmail() {
+        // Given
+        String email = databases.emailOn("a", "fresh");
+        claimedAt(email, 1L, LocalDateTime.now().minusMinutes(1));
+
+        // When / Then
+        assertThrows(DuplicateKeyException.class, () -> directory.claim(email, 2L));
+        assertEquals(Optional.of(1L), directory.findId(email));
+    }
+
+    @Test
+    void claim_WhenStaleClaimsCustomerHasTheEmail_ShouldRejectTheEmail() {
+        // Given
+        String email = databases.emailOn("a", "owned");
+        long owner = databases.idOn("b", 1);
+        claimedAt(email, owner, LocalDateTime.now().minus(CustomerEmailDirectory.CLAIM_GRACE).minusMinutes(1));
+        databases.shard("b").update("INSERT INTO customers (id, first_name, last_name, email, is_deleted, version) "
+                + "VALUES (?, 'Owner', 'Customer', ?, FALSE, 0)", owner, email.toUpperCase());
+
+        // When / Then
+        assertThrows(DuplicateKeyException.class, () -> directory.claim(email, owner + 1));
+        assertEquals(Optional.of(owner), directory.findId(email));
+    }
+
+    @Test
+    void onCustomerChanged_WhenEmailChanged_ShouldReleaseThePreviousEmail() {
+        // Given
+        String previous = databases.emailOn("a", "old");
+        String current = databases.emailOn("b", "new");
+        directory.claim(previous, 7L);
+        directory.claim(current, 7L);
+
+        // When
+        directory.onCustomerChanged(CustomerChangedEvent.updated(customer(7L, current), previous));
+
+        // Then
+        assertTrue(directory.findId(previous).isEmpty());
+        assertEquals(Optional.of(7L), directory.findId(current));
+    }
+
+    @Test
+    void onCustomerChanged_WhenOnlyTheCaseChanged_ShouldKeepTheClaim() {
+        // Given
+        String email = databases.emailOn("a", "case");
+        directory.claim(email, 7L);
+
+        // When
+        directory.onCustomerChanged(CustomerChangedEvent.updated(customer(7L, email.toUpperCase()), email));
+
+        // Then
+        assertEquals(Optional.of(7L), directory.findId(email));
+    }
+
+    private void claimedAt(String email, long customerId, LocalDateTime claimedAt) {
+        databases.shard(databases.shards().shardOf(email)).update(
+                "INSERT INTO customer_email_directory (email, customer_id, claimed_at) VALUES (?, ?, ?)",
+                email, customerId, Timestamp.valueOf(claimedAt));
+    }
+
+    private List<String> emails(String shard) {
+        return databases.shard(shard).queryForList("SELECT email FROM customer_email_directory", String.class);
+    }
+
+    private static CustomerResponse customer(long id, String email) {
+        return CustomerResponse.builder().id(id).email(email).build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.relatia.customer_service.customer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relatia.customer_service.customer.CustomerExporter.ExportFormat;
+import com.relatia.customer_service.datasource.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CustomerExporterTest {
+
+    private static final String CSV_HEADER =
+            "id,firstName,lastName,email,phone,address,createdAt,updatedAt,createdBy,updatedBy,deleted,version";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("export-" + System.nanoTime())
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        CustomerProperties properties = new CustomerProperties();
+        // Smaller than the table, so the cursor needs several round trips
+        properties.getExport().setFetchSize(2);
+        exporter = new CustomerExporter(jdbcTemplate, Shards.unsharded(), objectMapper, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void export_AsNdjson_ShouldStreamOneObjectPerLineInIdOrder() throws Exception {
+        // Given
+        insert(3, "Zoë", "Zimmer", "zoe@example.com", null, false);
+        insert(1, "John", "Doe", "john@example.com", "+1 555-0100", false);
+        insert(2, "Jane", "Roe", "jane@example.com", "+1 555-0101", true);
+        insert(4, "Max", "Muster", "max@example.com", null, false);
+
+        // When
+        String output = export(ExportFormat.NDJSON);
+
+        // Then
+        List<String> lines = output.lines().toList();
+        assertEquals(3, lines.size());
+        assertTrue(output.endsWith("\n"));
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("john@example.com", first.get("email").asText());
+        assertEquals("2024-01-02 03:04:05", first.get("createdAt").asText());
+        assertFalse(first.get("deleted").asBoolean());
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(3, second.get("id").asLong());
+        assertEquals("Zoë", second.get("firstName").asText());
+        // Null fields are omitted, as in CustomerResponse
+        assertFalse(second.has("phone"));
+        assertEquals(4, objectMapper.readTree(lines.get(2)).get("id").asLong());
+        assertEquals(3.0, meterRegistry.get("customer.export.rows").tag("format", "ndjson").counter().count());
+    }
+
+    @Test
+    void export_AsCsv_ShouldQuoteValuesThatNeedIt() throws Exception {
+        // Given
+        insert(1, "Anne, Marie", "O\"Neil", "anne@example.com", null, false);
+        jdbcTemplate.update("UPDATE customers SET address = ? WHERE id = 1", "1 Main St\nSpringfield");
+
+        // When
+        String output = export(ExportFormat.CSV);
+
+        // Then
+        assertEquals(CSV_HEADER + "\n"
+                + "1,\"Anne, Marie\",\"O\"\"Neil\",anne@example.com,,\"1 Main St\nSpringfield\","
+                + "\"2024-01-02 03:04:05\",,,,false,0\n", output);
+    }
+
+    @Test
+    void export_WhenTableIsEmpty_ShouldWriteNoRows() throws Exception {
+        // When
+        String ndjson = export(ExportFormat.NDJSON);
+        String csv = export(ExportFormat.CSV);
+
+        // Then
+        assertEquals("", ndjson);
+        assertEquals(CSV_HEADER + "\n", csv);
+    }
+
+    @Test
+    void export_ShouldLeaveTheStreamOpen() throws Exception {
+        // Given
+        insert(1, "John", "Doe", "john@example.com", null, false);
+        boolean[] closed = {false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        // When
+        exporter.export(ExportFormat.NDJSON, out);
+        exporter.export(ExportFormat.CSV, out);
+
+        // Then
+        assertFalse(closed[0]);
+    }
+
+    @Test
+    void exportEndpoint_ShouldStreamAsAttachment() throws Exception {
+        // Given
+        insert(1, "John", "Doe", "john@example.com", null, false);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CustomerExportController(exporter)).build();
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/customers/export").param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"customers.csv\""))
+                .andReturn();
+
+        // Then
+        assertTrue(result.getResponse().getContentType().startsWith("text/csv"));
+        assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).startsWith(CSV_HEADER + "\n1,John,Doe,"));
+    }
+
+    private String export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void insert(long id, String firstName, String lastName, String email, String phone, boolean deleted) {
+        jdbcTemplate.update("""
+                INSERT INTO customers (id, first_name, last_name, email, phone, created_at, is_deleted, version)
+                VALUES (?, ?, ?, ?, ?, TIMESTAMP '2024-01-02 03:04:05', ?, 0)""",
+                id, firstName, lastName, email, phone, deleted);
+    }
+}
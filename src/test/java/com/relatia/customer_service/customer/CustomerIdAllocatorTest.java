@@ -0,0 +1,108 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.ShardedDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerIdAllocatorTest {
+
+    private ShardedDatabases databases;
+
+    @BeforeEach
+    void setUp() {
+        databases = new ShardedDatabases("a", "b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        databases.close();
+    }
+
+    @Test
+    void next_ShouldHandOutTheBlocksOfTheCustomersSegmentOnTheMainDatabase() {
+        // Given
+        CustomerIdAllocator allocator = new CustomerIdAllocator(databases.shards());
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i <= CustomerIdAllocator.BLOCK_SIZE; i++) {
+            ids.add(allocator.next());
+        }
+
+        // Then
+        // schema.sql seeds an empty table with next_val 50, the end of the first block
+        assertEquals(1L, ids.get(0));
+        assertEquals(CustomerIdAllocator.BLOCK_SIZE + 1L, ids.get(CustomerIdAllocator.BLOCK_SIZE));
+        assertEquals(3L * CustomerIdAllocator.BLOCK_SIZE, nextVal());
+        ids.forEach(id -> assertTrue(databases.names().contains(databases.shards().shardOf(id))));
+    }
+
+    @Test
+    void next_FromSeveralInstances_ShouldNeverHandOutAnIdTwice() throws Exception {
+        // Given
+        // One allocator per application instance, all sharing the main database
+        List<CustomerIdAllocator> allocators = List.of(new CustomerIdAllocator(databases.shards()),
+                new CustomerIdAllocator(databases.shards()), new CustomerIdAllocator(databases.shards()));
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        for (int t = 0; t < 6; t++) {
+            CustomerIdAllocator allocator = allocators.get(t % allocators.size());
+            tasks.add(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    ids.add(allocator.next());
+                }
+                return ids;
+            });
+        }
+
+        // When
+        List<Future<List<Long>>> results;
+        try {
+            results = executor.invokeAll(tasks);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        Set<Long> ids = new HashSet<>();
+        for (Future<List<Long>> result : results) {
+            for (long id : result.get()) {
+                assertTrue(ids.add(id), "id " + id + " was handed out twice");
+            }
+        }
+        assertEquals(3_000, ids.size());
+    }
+
+    @Test
+    void next_AfterExistingIds_ShouldContinuePastThem() {
+        // Given
+        // Rows written before sharding was enabled, with the generator moved past them
+        databases.main().update("UPDATE id_generator SET next_val = 1050 WHERE sequence_name = 'customers'");
+        CustomerIdAllocator allocator = new CustomerIdAllocator(databases.shards());
+
+        // When
+        long id = allocator.next();
+
+        // Then
+        assertEquals(1001L, id);
+        assertEquals(1100L, nextVal());
+    }
+
+    private long nextVal() {
+        return databases.main().queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'customers'", Long.class);
+    }
+}
@@ -0,0 +1,163 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.ShardedDatabases;
+import com.relatia.customer_service.datasource.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerPurgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomerProperties properties = new CustomerProperties();
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("purge-" + System.nanoTime())
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        properties.getPurge().setRetention(Duration.ofDays(30));
+        properties.getPurge().setBatchSize(2);
+        properties.getPurge().setPause(Duration.ZERO);
+        purger = new CustomerPurger(new NamedParameterJdbcTemplate(database),
+                new TransactionTemplate(new DataSourceTransactionManager(database)),
+                Shards.unsharded(), properties, new StaticListableBeanFactory().getBeanProvider(CustomerEmailDirectory.class),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void purge_ShouldRemoveOnlyExpiredSoftDeletedCustomersInBatches() {
+        // Given
+        insert(1, true, 40);
+        insert(2, true, 31);
+        insert(3, false, 90);
+        insert(4, true, 60);
+        insert(5, true, 1);
+        insert(6, true, 45);
+        insert(7, true, 35);
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(5, purged);
+        assertEquals(List.of(3L, 5L), ids("customers"));
+        assertEquals(List.of(), ids("customers_archive"));
+        assertEquals(5.0, meterRegistry.get("customer.purge.rows").counter().count());
+        // Five rows at two per batch
+        assertEquals(3, meterRegistry.get("customer.purge.batch").timer().count());
+    }
+
+    @Test
+    void purge_WhenBatchLimitIsReached_ShouldLeaveTheRestForTheNextRun() {
+        // Given
+        properties.getPurge().setMaxBatchesPerRun(1);
+        insert(1, true, 40);
+        insert(2, true, 40);
+        insert(3, true, 40);
+
+        // When
+        long first = purger.purge();
+        long second = purger.purge();
+
+        // Then
+        assertEquals(2, first);
+        assertEquals(1, second);
+        assertEquals(List.of(), ids("customers"));
+    }
+
+    @Test
+    void purge_WhenArchiving_ShouldCopyRowsBeforeDeletingThem() {
+        // Given
+        properties.getPurge().setArchive(true);
+        insert(1, true, 40);
+        insert(2, false, 40);
+        insert(3, true, 40);
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(2, purged);
+        assertEquals(List.of(2L), ids("customers"));
+        assertEquals(List.of(1L, 3L), ids("customers_archive"));
+        assertEquals("customer1@example.com",
+                jdbcTemplate.queryForObject("SELECT email FROM customers_archive WHERE id = 1", String.class));
+    }
+
+    @Test
+    void purge_WhenSharded_ShouldReleaseThePurgedEmails() {
+        // Given
+        try (ShardedDatabases databases = new ShardedDatabases("a", "b")) {
+            CustomerEmailDirectory directory = new CustomerEmailDirectory(databases.shards());
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("customerEmailDirectory", directory);
+            CustomerPurger shardedPurger = new CustomerPurger(new NamedParameterJdbcTemplate(databases.routing()),
+                    new TransactionTemplate(new DataSourceTransactionManager(databases.routing())), databases.shards(),
+                    properties, beans.getBeanProvider(CustomerEmailDirectory.class), meterRegistry);
+            long purgedOnA = databases.idOn("a", 1);
+            long keptOnB = databases.idOn("b", 1);
+            long purgedOnB = databases.idOn("b", keptOnB + 1);
+            insert(databases.shard("a"), purgedOnA, true, 40);
+            insert(databases.shard("b"), keptOnB, true, 1);
+            insert(databases.shard("b"), purgedOnB, true, 40);
+            for (long id : List.of(purgedOnA, keptOnB, purgedOnB)) {
+                directory.claim("customer" + id + "@example.com", id);
+            }
+
+            // When
+            long purged = shardedPurger.purge();
+
+            // Then
+            assertEquals(2, purged);
+            assertTrue(directory.findId("customer" + purgedOnA + "@example.com").isEmpty());
+            assertTrue(directory.findId("customer" + purgedOnB + "@example.com").isEmpty());
+            assertEquals(Optional.of(keptOnB), directory.findId("customer" + keptOnB + "@example.com"));
+        }
+    }
+
+    private void insert(long id, boolean deleted, int daysSinceUpdate) {
+        insert(jdbcTemplate, id, deleted, daysSinceUpdate);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, long id, boolean deleted, int daysSinceUpdate) {
+        jdbcTemplate.update("""
+                INSERT INTO customers (id, first_name, last_name, email, updated_at, is_deleted, version)
+                VALUES (?, 'Some', 'Customer', ?, ?, ?, 0)""",
+                id, "customer" + id + "@example.com",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(daysSinceUpdate)), deleted);
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+}
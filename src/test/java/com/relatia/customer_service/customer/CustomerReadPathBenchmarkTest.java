@@ -0,0 +1,184 @@
+package com.relatia.customer_service.customer;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the entity read path ({@code Customer} + {@link CustomerResponse#fromEntity}) with the
+ * {@link CustomerView} projection path on a large table, reporting throughput and allocated bytes per row.
+ *
+ * <p>Excluded from the default build; run with {@code mvn test -Pbenchmark}. The table size defaults
+ * to 1M rows and can be changed with {@code -Dbenchmark.rows=}.</p>
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerReadPathBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int PAGE_SIZE = 500;
+    private static final int LOOKUPS = 100_000;
+    private static final int ROUNDS = 3;
+
+    private static final String ENTITY_PAGE_QUERY = "select c from Customer c where c.id > :id order by c.id";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    void seed() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> batch = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            batch.add(new Object[]{id, "First" + id, "Last" + id, "customer" + id + "@example.com",
+                    "+1555" + id, id + " Main St", now, now, "benchmark", "benchmark"});
+            if (batch.size() == 10_000 || id == ROWS) {
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO customers (id, first_name, last_name, email, phone, address,
+                                               created_at, updated_at, created_by, updated_by, is_deleted, version)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, 0)""", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Test
+    void scanAllCustomers() {
+        Result entity = measure("scan/entity", this::scanEntities);
+        Result projection = measure("scan/projection", this::scanViews);
+
+        assertEquals(ROWS, entity.rows());
+        assertEquals(ROWS, projection.rows());
+    }
+
+    @Test
+    void lookUpCustomersById() {
+        Result entity = measure("findById/entity", () -> lookUp(id -> customerRepository.findById(id)
+                .map(CustomerResponse::fromEntity).isPresent()));
+        Result projection = measure("findById/projection", () -> lookUp(id -> customerRepository.findViewById(id)
+                .map(CustomerView::toResponse).isPresent()));
+
+        assertEquals(LOOKUPS, entity.rows());
+        assertEquals(LOOKUPS, projection.rows());
+    }
+
+    private long scanEntities() {
+        long rows = 0;
+        long lastId = 0;
+        while (true) {
+            long after = lastId;
+            List<CustomerResponse> page = readOnly.execute(status -> entityManager
+                    .createQuery(ENTITY_PAGE_QUERY, Customer.class)
+                    .setParameter("id", after)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultStream()
+                    .map(CustomerResponse::fromEntity)
+                    .toList());
+            if (page.isEmpty()) {
+                return rows;
+            }
+            rows += page.size();
+            lastId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private long scanViews() {
+        long rows = 0;
+        long lastId = 0;
+        while (true) {
+            long after = lastId;
+            List<CustomerResponse> page = readOnly.execute(status -> customerRepository
+                    .findViewsAfter(after, Limit.of(PAGE_SIZE)).stream()
+                    .map(CustomerView::toResponse)
+                    .toList());
+            if (page.isEmpty()) {
+                return rows;
+            }
+            rows += page.size();
+            lastId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private long lookUp(LongPredicate find) {
+        SplittableRandom random = new SplittableRandom(42);
+        long found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            long id = random.nextLong(1, ROWS + 1L);
+            if (Boolean.TRUE.equals(readOnly.execute(status -> find.test(id)))) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Runs one warm-up round, then reports the average of the measured rounds.
+     */
+    private Result measure(String name, LongSupplier run) {
+        run.getAsLong();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long rows = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            rows = run.getAsLong();
+            nanos += System.nanoTime() - start;
+            bytes += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        double rowsPerSecond = rows * ROUNDS * 1_000_000_000d / nanos;
+        double bytesPerRow = (double) bytes / (rows * ROUNDS);
+        log.info("{}: {} rows, {} rows/s, {} bytes allocated per row",
+                name, rows, String.format("%,.0f", rowsPerSecond), String.format("%,.0f", bytesPerRow));
+        return new Result(rows, rowsPerSecond, bytesPerRow);
+    }
+
+    private record Result(long rows, double rowsPerSecond, double bytesPerRow) {}
+}
@@ -0,0 +1,103 @@
+package com.relatia.customer_service.customer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+// The id generator reserves its blocks in transactions of its own
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerRepositoryTest {
+
+    private static final int EXISTING = 120;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * A table filled before the switch to pooled ids, then seeded by schema.sql as on a deployment.
+     */
+    @BeforeAll
+    void populate() {
+        jdbcTemplate.update("DELETE FROM id_generator");
+        for (long id = 1; id <= EXISTING; id++) {
+            jdbcTemplate.update("INSERT INTO customers (id, first_name, last_name, email, is_deleted, version) "
+                    + "VALUES (?, 'Existing', 'Customer', ?, FALSE, 0)", id, "existing" + id + "@example.com");
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+    }
+
+    @Test
+    void save_AfterExistingIds_ShouldAllocateFromTheCustomersSegment() {
+        // When
+        Customer saved = customerRepository.save(customer("single@example.com"));
+        List<Customer> batch = customerRepository.saveAll(List.of(
+                customer("batch1@example.com"), customer("batch2@example.com"), customer("batch3@example.com")));
+
+        // Then
+        assertTrue(saved.getId() > EXISTING, "id " + saved.getId() + " collides with an existing customer");
+        batch.forEach(customer -> assertTrue(customer.getId() > EXISTING));
+        assertEquals(EXISTING + 4, customerRepository.count());
+        assertEquals(List.of("customers"), jdbcTemplate.queryForList(
+                "SELECT sequence_name FROM id_generator WHERE sequence_name IN ('customers', 'default')", String.class));
+    }
+
+    @Test
+    void schema_WhenRunAgain_ShouldKeepTheSeededSegment() {
+        // Given
+        Long seeded = jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'customers'", Long.class);
+
+        // When
+        // Every start runs schema.sql against the existing database
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        // Then
+        assertEquals(seeded, jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'customers'", Long.class));
+    }
+
+    @Test
+    void existsByEmail_WhenCustomerIsSoftDeleted_ShouldStillReportTheEmail() {
+        // Given
+        jdbcTemplate.update("INSERT INTO customers (id, first_name, last_name, email, is_deleted, version) "
+                + "VALUES (1000000, 'Deleted', 'Customer', 'deleted@example.com', TRUE, 0)");
+
+        // When & Then
+        // uk_customer_email keeps the email reserved until the row is purged
+        assertTrue(customerRepository.existsByEmail("deleted@example.com"));
+        assertEquals(List.of("deleted@example.com"),
+                customerRepository.findExistingEmails(List.of("deleted@example.com", "fresh@example.com")));
+        assertTrue(customerRepository.findIdByEmail("deleted@example.com").isEmpty());
+        assertFalse(customerRepository.existsByEmail("fresh@example.com"));
+    }
+
+    private static Customer customer(String email) {
+        return Customer.builder()
+                .firstName("New")
+                .lastName("Customer")
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the heap held by {@link CustomerSearchIndex} and its search latency for a synthetic customer base
+ * with realistic term skew: a few hundred first and last names, a handful of email domains and
+ * formatted phone numbers.
+ *
+ * <p>Excluded from the default build; run with {@code mvn test -Pbenchmark}. The customer count defaults
+ * to 1M and can be changed with {@code -Dbenchmark.customers=}; give the JVM enough heap for it.</p>
+ */
+@Slf4j
+@Tag("benchmark")
+class CustomerSearchIndexBenchmarkTest {
+
+    private static final int CUSTOMERS = Integer.getInteger("benchmark.customers", 1_000_000);
+    private static final int SEARCHES = 20_000;
+    private static final String[] DOMAINS = {"example.com", "gmail.com", "corp.example", "mail.example.org", "web.de"};
+
+    @Test
+    void indexAndSearch() {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] firstNames = names(random, 300);
+        String[] lastNames = names(random, 500);
+
+        long heapBefore = usedHeapAfterGc();
+        CustomerSearchIndex index = new CustomerSearchIndex(mock(JdbcTemplate.class), Shards.unsharded(),
+                new CustomerProperties(), new SimpleMeterRegistry());
+        index.build();
+        long start = System.nanoTime();
+        for (long id = 1; id <= CUSTOMERS; id++) {
+            String firstName = firstNames[random.nextInt(firstNames.length)];
+            String lastName = lastNames[random.nextInt(lastNames.length)];
+            String email = firstName.toLowerCase() + "." + lastName.toLowerCase() + id + "@"
+                    + DOMAINS[random.nextInt(DOMAINS.length)];
+            String phone = String.format("+1 %03d-%03d-%04d", random.nextInt(200, 1000), random.nextInt(1000),
+                    random.nextInt(10_000));
+            index.onCustomerChanged(CustomerChangedEvent.created(customer(id, firstName, lastName, email, phone)));
+        }
+        long indexMillis = (System.nanoTime() - start) / 1_000_000;
+        long heap = usedHeapAfterGc() - heapBefore;
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < SEARCHES; i++) {
+            String first = firstNames[random.nextInt(firstNames.length)].toLowerCase();
+            String last = lastNames[random.nextInt(lastNames.length)].toLowerCase();
+            queries.add(switch (i % 5) {
+                case 0 -> first.substring(0, 2);
+                case 1 -> first.substring(0, 4);
+                case 2 -> first + " " + last.substring(0, 3);
+                case 3 -> String.format("%04d", random.nextInt(10_000));
+                default -> first + "." + last;
+            });
+        }
+        // Warm-up
+        queries.forEach(query -> index.search(query, 0, 20));
+        long[] nanos = new long[SEARCHES];
+        int hits = 0;
+        for (int i = 0; i < SEARCHES; i++) {
+            long searchStart = System.nanoTime();
+            hits += index.search(queries.get(i), 0, 20).ids().size();
+            nanos[i] = System.nanoTime() - searchStart;
+        }
+        Arrays.sort(nanos);
+
+        log.info("search index: {} customers indexed in {} ms, {} MB heap ({} bytes per customer)",
+                CUSTOMERS, indexMillis, heap / (1024 * 1024), heap / CUSTOMERS);
+        log.info("search index: {} searches, p50 {} us, p99 {} us, max {} us", SEARCHES,
+                nanos[SEARCHES / 2] / 1_000, nanos[SEARCHES * 99 / 100] / 1_000, nanos[SEARCHES - 1] / 1_000);
+        assertTrue(hits > 0);
+        assertFalse(index.search(queries.get(0), 0, 20).ids().isEmpty());
+    }
+
+    /**
+     * Random capitalised names of four to eight letters, so short prefixes are shared by many names.
+     */
+    private static String[] names(SplittableRandom random, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            char[] letters = new char[random.nextInt(4, 9)];
+            for (int j = 0; j < letters.length; j++) {
+                letters[j] = (char) ((j == 0 ? 'A' : 'a') + random.nextInt(26));
+            }
+            names[i] = new String(letters);
+        }
+        return names;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static CustomerResponse customer(long id, String firstName, String lastName, String email, String phone) {
+        CustomerResponse customer = CustomerResponse.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phone(phone)
+                .build();
+        customer.setId(id);
+        return customer;
+    }
+}
@@ -0,0 +1,119 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.Shards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CustomerSearchIndexTest {
+
+    private CustomerSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // An empty table: the build finds no id ranges and the index becomes ready
+        index = new CustomerSearchIndex(mock(JdbcTemplate.class), Shards.unsharded(), new CustomerProperties(),
+                new SimpleMeterRegistry());
+        index.build();
+        index.onCustomerChanged(CustomerChangedEvent.created(customer(1L, "John", "Doe", "john.doe@example.com", "+1 555-010-0100")));
+        index.onCustomerChanged(CustomerChangedEvent.created(customer(2L, "Johanna", "O'Brien", "jo@corp.example", null)));
+        index.onCustomerChanged(CustomerChangedEvent.created(customer(3L, "Zoë", "Johnson", "zoe@example.com", "020 7946 0958")));
+    }
+
+    @Test
+    void search_ShouldMatchNamePrefixes() {
+        // When
+        CustomerSearchIndex.Hits hits = index.search("joh", 0, 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), hits.ids());
+        assertFalse(hits.hasMore());
+    }
+
+    @Test
+    void search_ShouldRankExactTermsFirst() {
+        // When
+        CustomerSearchIndex.Hits hits = index.search("john", 0, 10);
+
+        // Then
+        assertEquals(1L, hits.ids().get(0));
+    }
+
+    @Test
+    void search_ShouldRequireEveryWord() {
+        // When & Then
+        assertEquals(List.of(1L), index.search("john do", 0, 10).ids());
+        assertEquals(List.of(2L), index.search("obrien", 0, 10).ids());
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsAndCase() {
+        // When & Then
+        assertEquals(List.of(3L), index.search("ZOE", 0, 10).ids());
+    }
+
+    @Test
+    void search_ShouldMatchPhoneSuffixesIgnoringFormatting() {
+        // When & Then
+        assertEquals(List.of(1L), index.search("0100", 0, 10).ids());
+        assertEquals(List.of(1L), index.search("(555) 010-0100", 0, 10).ids());
+        assertEquals(List.of(3L), index.search("7946", 0, 10).ids());
+    }
+
+    @Test
+    void search_ShouldMatchPhonesOnlyFromTheStartOfADigitGroup() {
+        // When & Then
+        assertEquals(List.of(1L), index.search("555010", 0, 10).ids());
+        assertTrue(index.search("5501", 0, 10).ids().isEmpty());
+    }
+
+    @Test
+    void search_ShouldMatchEmailPrefixes() {
+        // When & Then
+        assertEquals(List.of(1L), index.search("john.doe@ex", 0, 10).ids());
+        assertEquals(List.of(2L), index.search("corp", 0, 10).ids());
+    }
+
+    @Test
+    void search_ShouldPage() {
+        // When
+        CustomerSearchIndex.Hits first = index.search("joh", 0, 2);
+        CustomerSearchIndex.Hits second = index.search("joh", 2, 2);
+
+        // Then
+        assertEquals(2, first.ids().size());
+        assertTrue(first.hasMore());
+        assertEquals(1, second.ids().size());
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void onCustomerChanged_ShouldReindexUpdatesAndDropDeletes() {
+        // When
+        index.onCustomerChanged(CustomerChangedEvent.updated(
+                customer(1L, "Jack", "Doe", "jack.doe@example.com", null), "john.doe@example.com"));
+        index.onCustomerChanged(CustomerChangedEvent.deleted(3L, null));
+
+        // Then
+        assertEquals(List.of(2L), index.search("joh", 0, 10).ids());
+        assertEquals(List.of(1L), index.search("jack", 0, 10).ids());
+        assertTrue(index.search("0100", 0, 10).ids().isEmpty());
+    }
+
+    private static CustomerResponse customer(Long id, String firstName, String lastName, String email, String phone) {
+        CustomerResponse customer = CustomerResponse.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .phone(phone)
+                .build();
+        customer.setId(id);
+        return customer;
+    }
+}
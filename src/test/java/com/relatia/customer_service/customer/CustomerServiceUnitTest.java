@@ -1,17 +1,28 @@
 package com.relatia.customer_service.customer;
 
+import com.relatia.customer_service.exception.ErrorMessages;
 import com.relatia.customer_service.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +31,27 @@ class CustomerServiceUnitTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private ErrorMessages errorMessages;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CustomerEmailIndex emailIndex;
+
+    @Mock
+    private CustomerCache customerCache;
+
+    @Spy
+    private CustomerProperties customerProperties = new CustomerProperties();
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -40,7 +72,9 @@ class CustomerServiceUnitTest {
     @Test
     void findById_WhenCustomerExists_ShouldReturnCustomer() {
         // Given
-        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(customerRepository.findViewById(1L)).thenReturn(Optional.of(view(testCustomer)));
+        when(customerCache.get(eq(1L), any())).thenAnswer(invocation ->
+                invocation.<Callable<CustomerResponse>>getArgument(1).call());
 
         // When
         CustomerResponse result = customerService.findById(1L);
@@ -50,6 +84,205 @@ class CustomerServiceUnitTest {
         assertEquals(1L, result.getId());
         assertEquals("john.doe@example.com", result.getEmail());
         
-        verify(customerRepository, times(1)).findById(1L);
+        verify(customerRepository, times(1)).findViewById(1L);
+        verify(customerRepository, never()).findById(any());
+    }
+
+    @Test
+    void findByEmail_WhenIndexedCustomerStillHasEmail_ShouldNotQueryTheEmail() {
+        // Given
+        when(emailIndex.findId("John.Doe@example.com")).thenReturn(Optional.of(1L));
+        when(customerRepository.findViewById(1L)).thenReturn(Optional.of(view(testCustomer)));
+        when(customerCache.get(eq(1L), anyLong(), any())).thenAnswer(invocation ->
+                invocation.<Callable<CustomerResponse>>getArgument(2).call());
+
+        // When
+        CustomerResponse result = customerService.findByEmail("John.Doe@example.com");
+
+        // Then
+        assertEquals(1L, result.getId());
+        verify(customerRepository, never()).findIdByEmail(any());
+    }
+
+    @Test
+    void findByEmail_WhenIndexIsBehindAnEmailChange_ShouldResolveTheEmailInTheDatabase() {
+        // Given
+        Customer moved = Customer.builder().id(1L).firstName("John").lastName("Doe").email("john@new.example").build();
+        Customer current = Customer.builder().id(2L).firstName("Jane").lastName("Doe").email("john.doe@example.com").build();
+        when(emailIndex.findId("john.doe@example.com")).thenReturn(Optional.of(1L));
+        when(customerRepository.findIdByEmail("john.doe@example.com")).thenReturn(Optional.of(2L));
+        when(customerRepository.findViewById(1L)).thenReturn(Optional.of(view(moved)));
+        when(customerRepository.findViewById(2L)).thenReturn(Optional.of(view(current)));
+        when(customerCache.get(anyLong(), anyLong(), any())).thenAnswer(invocation ->
+                invocation.<Callable<CustomerResponse>>getArgument(2).call());
+
+        // When
+        CustomerResponse result = customerService.findByEmail("john.doe@example.com");
+
+        // Then
+        assertEquals(2L, result.getId());
+    }
+
+    @Test
+    void findPage_WhenMoreRowsThanPageSize_ShouldReturnNextCursor() {
+        // Given
+        Customer second = Customer.builder()
+                .id(2L)
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@example.com")
+                .build();
+        when(customerRepository.findViewsAfter(0L, Limit.of(2)))
+                .thenReturn(List.of(view(testCustomer), view(second)));
+
+        // When
+        CustomerPage page = customerService.findPage(null, 1);
+
+        // Then
+        assertEquals(1, page.getContent().size());
+        assertEquals(1L, page.getContent().get(0).getId());
+        assertNotNull(page.getNext());
+
+        // The cursor resumes right after the last returned id
+        when(customerRepository.findViewsAfter(1L, Limit.of(2)))
+                .thenReturn(List.of(view(second)));
+        CustomerPage last = customerService.findPage(page.getNext(), 1);
+        assertEquals(2L, last.getContent().get(0).getId());
+        assertNull(last.getNext());
+    }
+
+    @Test
+    void findPage_WhenSizeAboveMaximum_ShouldClampSize() {
+        // Given
+        customerProperties.getPagination().setMaxSize(10);
+        when(customerRepository.findViewsAfter(0L, Limit.of(11)))
+                .thenReturn(List.of(view(testCustomer)));
+
+        // When
+        CustomerPage page = customerService.findPage(null, 1000);
+
+        // Then
+        assertEquals(10, page.getSize());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void createAll_ShouldCreateNewCustomersAndReportDuplicates() {
+        // Given
+        List<CustomerRequest> requests = List.of(
+                request("new@example.com"),
+                request("NEW@example.com"),
+                request("taken@example.com"));
+        when(emailIndex.mightExist(any())).thenReturn(true);
+        when(customerRepository.findExistingEmails(any())).thenReturn(List.of("taken@example.com"));
+        when(customerRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(customer -> customer.setId(10L));
+            return customers;
+        });
+
+        // When
+        CustomerBatchResponse response = customerService.createAll(requests);
+
+        // Then
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getRejected());
+        assertEquals(CustomerBatchResult.Status.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(10L, response.getResults().get(0).getId());
+        assertEquals(CustomerBatchResult.Status.DUPLICATE_EMAIL, response.getResults().get(1).getStatus());
+        assertEquals(CustomerBatchResult.Status.DUPLICATE_EMAIL, response.getResults().get(2).getStatus());
+        verify(customerRepository, times(1)).findExistingEmails(any());
+        verify(customerRepository, never()).existsByEmail(any());
+        verify(eventPublisher, times(1)).publishEvent(any(CustomerChangedEvent.class));
+    }
+
+    @Test
+    void createAll_WhenBatchTooLarge_ShouldThrow() {
+        // Given
+        customerProperties.getBatch().setMaxItems(1);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> customerService.createAll(List.of(request("a@example.com"), request("b@example.com"))));
+        verifyNoInteractions(customerRepository);
+    }
+
+    private static CustomerView view(Customer customer) {
+        return new CustomerView(customer.getId(), customer.getFirstName(), customer.getLastName(),
+                customer.getEmail(), customer.getPhone(), customer.getAddress(), customer.getCreatedAt(),
+                customer.getUpdatedAt(), customer.getCreatedBy(), customer.getUpdatedBy(),
+                customer.isDeleted(), customer.getVersion());
+    }
+
+    private static CustomerRequest request(String email) {
+        return CustomerRequest.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email(email)
+                .build();
+    }
+
+    @Test
+    void create_WhenEmailIndexKnowsEmailIsNew_ShouldSkipExistsQuery() {
+        // Given
+        when(emailIndex.mightExist("new@example.com")).thenReturn(false);
+        when(customerRepository.save(any(Customer.class))).thenAnswer(invocation -> {
+            Customer customer = invocation.getArgument(0);
+            customer.setId(2L);
+            return customer;
+        });
+
+        // When
+        CustomerResponse result = customerService.create(request("new@example.com"));
+
+        // Then
+        assertEquals(2L, result.getId());
+        verify(customerRepository, never()).existsByEmail(any());
+    }
+
+    @Test
+    void delete_WhenCustomerExists_ShouldSoftDeleteAndPublishEvent() {
+        // Given
+        when(customerRepository.softDeleteById(eq(1L), any())).thenReturn(1);
+
+        // When
+        customerService.delete(1L);
+
+        // Then
+        verify(customerRepository, never()).deleteById(any());
+        verify(eventPublisher, times(1)).publishEvent(any(CustomerChangedEvent.class));
+    }
+
+    @Test
+    void delete_WhenCustomerDoesNotExist_ShouldThrowNotFound() {
+        // Given
+        when(customerRepository.softDeleteById(eq(99L), any())).thenReturn(0);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> customerService.delete(99L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void findVersion_WhenCached_ShouldNotQueryDatabase() {
+        // Given
+        CustomerResponse cached = CustomerResponse.fromEntity(testCustomer);
+        cached.setVersion(7L);
+        when(customerCache.peek(1L)).thenReturn(Optional.of(cached));
+
+        // When & Then
+        assertEquals(Optional.of(7L), customerService.findVersion(1L));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void findVersion_WhenNotCached_ShouldSelectVersionOnly() {
+        // Given
+        when(customerCache.peek(1L)).thenReturn(Optional.empty());
+        when(customerRepository.findVersionById(1L)).thenReturn(Optional.of(2L));
+
+        // When & Then
+        assertEquals(Optional.of(2L), customerService.findVersion(1L));
+        verify(customerRepository, never()).findViewById(any());
     }
 }
@@ -0,0 +1,118 @@
+package com.relatia.customer_service.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdSetTest {
+
+    @Test
+    void forEach_ShouldVisitIdsInAscendingOrderOnce() {
+        // Given
+        IdSet ids = new IdSet();
+
+        // When
+        for (long id : new long[]{5, 1, 9, 3, 9, 1, 12}) {
+            ids.add(id);
+        }
+
+        // Then
+        assertEquals(List.of(1L, 3L, 5L, 9L, 12L), toList(ids));
+        assertEquals(5, ids.size());
+    }
+
+    @Test
+    void remove_ShouldDropOnlyTheGivenId() {
+        // Given
+        IdSet ids = new IdSet();
+        for (long id = 1; id <= 10; id++) {
+            ids.add(id);
+        }
+
+        // When
+        boolean removed = ids.remove(4);
+        boolean removedAgain = ids.remove(4);
+
+        // Then
+        assertTrue(removed);
+        assertFalse(removedAgain);
+        assertFalse(ids.contains(4));
+        assertTrue(ids.contains(5));
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L, 7L, 8L, 9L, 10L), toList(ids));
+    }
+
+    @Test
+    void addAndRemove_InAnyOrder_ShouldKeepTheIdsSorted() {
+        // Given
+        IdSet ids = new IdSet();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 5_000; i++) {
+            long id = random.nextInt(1_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(id), ids.remove(id));
+            } else {
+                ids.add(id);
+                expected.add(id);
+            }
+        }
+
+        // Then
+        assertEquals(List.copyOf(expected), toList(ids));
+        assertEquals(expected.size(), ids.size());
+    }
+
+    @Test
+    void forEach_ShouldStopWhenTheActionReturnsFalse() {
+        // Given
+        IdSet ids = new IdSet();
+        for (long id = 1; id <= 10; id++) {
+            ids.add(id);
+        }
+        List<Long> visited = new ArrayList<>();
+
+        // When
+        ids.forEach(id -> visited.add(id) && visited.size() < 3);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), visited);
+    }
+
+    @Test
+    void add_FromConcurrentThreads_ShouldKeepEveryId() throws InterruptedException {
+        // Given
+        IdSet ids = new IdSet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long offset = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long id = offset; id < 40_000; id += 4) {
+                    ids.add(id);
+                }
+            }));
+        }
+
+        // When
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(40_000, ids.size());
+        assertEquals(0L, toList(ids).get(0));
+        assertEquals(39_999L, toList(ids).get(39_999));
+    }
+
+    private static List<Long> toList(IdSet ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+}
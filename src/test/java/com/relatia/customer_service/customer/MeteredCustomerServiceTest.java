@@ -0,0 +1,189 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.exception.DuplicateEmailException;
+import com.relatia.customer_service.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MeteredCustomerServiceTest {
+
+    private final CustomerService delegate = mock(CustomerService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeteredCustomerService customerService = new MeteredCustomerService(delegate, meterRegistry);
+
+    @Test
+    void findById_WhenFound_ShouldRecordSuccess() {
+        // Given
+        CustomerResponse customer = CustomerResponse.builder().id(1L).build();
+        when(delegate.findById(1L)).thenReturn(customer);
+
+        // When
+        CustomerResponse result = customerService.findById(1L);
+
+        // Then
+        assertSame(customer, result);
+        assertEquals(1, timerCount("findById", "success"));
+    }
+
+    @Test
+    void findById_WhenMissing_ShouldRecordNotFoundAndRethrow() {
+        // Given
+        when(delegate.findById(1L)).thenThrow(new ResourceNotFoundException("Customer with id 1 not found"));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> customerService.findById(1L));
+        assertEquals(1, timerCount("findById", "not_found"));
+        assertEquals(0, timerCount("findById", "success"));
+    }
+
+    @Test
+    void create_WhenEmailIsTaken_ShouldRecordDuplicateEmail() {
+        // Given
+        CustomerRequest request = new CustomerRequest();
+        when(delegate.create(request)).thenThrow(new DuplicateEmailException("Email already in use"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> customerService.create(request));
+        assertEquals(1, timerCount("create", "duplicate_email"));
+    }
+
+    @Test
+    void create_WhenEmailConstraintRejectsTheWrite_ShouldRecordDuplicateEmail() {
+        // Given
+        CustomerRequest request = new CustomerRequest();
+        when(delegate.create(request)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", null, "UK_CUSTOMER_EMAIL")));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> customerService.create(request));
+        assertEquals(1, timerCount("create", "duplicate_email"));
+    }
+
+    @Test
+    void create_WhenAnotherConstraintRejectsTheWrite_ShouldRecordError() {
+        // Given
+        CustomerRequest request = new CustomerRequest();
+        when(delegate.create(request)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("NULL not allowed", null, "last_name")));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> customerService.create(request));
+        assertEquals(1, timerCount("create", "error"));
+        assertEquals(0, timerCount("create", "duplicate_email"));
+    }
+
+    @Test
+    void update_WhenNullPointerEscapes_ShouldRecordError() {
+        // Given
+        CustomerRequest request = new CustomerRequest();
+        when(delegate.update(1L, request)).thenThrow(new NullPointerException());
+
+        // When & Then
+        assertThrows(NullPointerException.class, () -> customerService.update(1L, request));
+        assertEquals(1, timerCount("update", "error"));
+        assertEquals(0, timerCount("update", "invalid"));
+    }
+
+    @Test
+    void delete_WhenIdIsNull_ShouldRecordInvalid() {
+        // Given
+        doThrow(new IllegalArgumentException("ID cannot be null")).when(delegate).delete(null);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> customerService.delete(null));
+        assertEquals(1, timerCount("delete", "invalid"));
+    }
+
+    @Test
+    void findById_ShouldNotAllocate() {
+        // Given
+        CustomerResponse customer = CustomerResponse.builder().id(1L).build();
+        Long id = 1L;
+        CustomerService stub = new StubCustomerService(customer);
+        MeteredCustomerService metered = new MeteredCustomerService(stub, meterRegistry);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < 200_000; i++) {
+            metered.findById(id);
+        }
+
+        // When
+        int calls = 100_000;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            metered.findById(id);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Then
+        assertTrue(allocated < calls, "expected no allocation per call, saw " + allocated + " bytes for " + calls + " calls");
+    }
+
+    private double timerCount(String method, String outcome) {
+        return meterRegistry.timer("customer.service.calls", "method", method, "outcome", outcome).count();
+    }
+
+    /**
+     * Answers {@code findById} with a fixed customer, without the allocations a mock makes per invocation.
+     */
+    private record StubCustomerService(CustomerResponse customer) implements CustomerService {
+        @Override
+        public CustomerResponse findById(Long id) {
+            return customer;
+        }
+
+        @Override
+        public List<CustomerResponse> findAll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CustomerPage findPage(String cursor, Integer size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CustomerPage search(String query, String cursor, Integer size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Long> findVersion(Long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CustomerResponse findByEmail(String email) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CustomerResponse create(CustomerRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CustomerBatchResponse createAll(List<CustomerRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CustomerResponse update(Long id, CustomerRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(Long id) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.relatia.customer_service.customer;
+
+import com.relatia.customer_service.datasource.ShardedDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardedCustomerRepositoryTest {
+
+    private ShardedDatabases databases;
+    private CustomerEmailDirectory emailDirectory;
+    private ShardedCustomerRepository repository;
+    private final CustomerRepository delegate = mock(CustomerRepository.class);
+    private final Set<String> failingShards = new CopyOnWriteArraySet<>();
+
+    @BeforeEach
+    void setUp() {
+        databases = new ShardedDatabases("a", "b");
+        emailDirectory = new CustomerEmailDirectory(databases.shards());
+        repository = new ShardedCustomerRepository(delegate, databases.shards(),
+                new CustomerIdAllocator(databases.shards()), emailDirectory);
+
+        // Stands in for the JPA repository: writes to whatever shard the call was routed to
+        when(delegate.save(any(Customer.class))).thenAnswer(invocation -> insert(invocation.getArgument(0)));
+        when(delegate.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(this::insert);
+            return customers;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        databases.close();
+    }
+
+    @Test
+    void save_ShouldAllocateAnIdAndWriteTheCustomerToItsShard() {
+        // When
+        Customer saved = repository.save(customer(null, "john.doe@example.com"));
+
+        // Then
+        String shard = databases.shards().shardOf(saved.getId());
+        assertEquals(List.of(saved.getId()), ids(shard));
+        assertEquals(List.of(), ids(shard.equals("a") ? "b" : "a"));
+        assertTrue(repository.existsByEmail("John.Doe@example.com"));
+    }
+
+    @Test
+    void save_WhenTransactionRollsBack_ShouldReleaseTheClaim() {
+        // Given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(databases.shards().mainDataSource()));
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.save(customer(databases.idOn("b", 1), "rolled.back@example.com"));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertFalse(repository.existsByEmail("rolled.back@example.com"));
+    }
+
+    @Test
+    void saveAll_WhenOneShardFails_ShouldReleaseTheClaimsOfThatShard() {
+        // Given
+        failingShards.add("b");
+        Customer onA = customer(databases.idOn("a", 1), "on.a@example.com");
+        Customer onB = customer(databases.idOn("b", 1), "on.b@example.com");
+        Customer alsoOnB = customer(databases.idOn("b", onB.getId() + 1), "also.on.b@example.com");
+
+        // When
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> repository.saveAll(List.of(onA, onB, alsoOnB)));
+
+        // Then
+        // Shard a committed its part, shard b wrote nothing
+        assertEquals(List.of(onA.getId()), ids("a"));
+        assertEquals(List.of(), ids("b"));
+        assertTrue(repository.existsByEmail("on.a@example.com"));
+        assertFalse(repository.existsByEmail("on.b@example.com"));
+        assertFalse(repository.existsByEmail("also.on.b@example.com"));
+    }
+
+    @Test
+    void saveAll_WhenAnEmailIsTaken_ShouldReleaseEveryClaimAndWriteNothing() {
+        // Given
+        repository.save(customer(databases.idOn("a", 1), "taken@example.com"));
+        Customer first = customer(databases.idOn("a", 100), "first@example.com");
+        Customer second = customer(databases.idOn("b", 100), "second@example.com");
+        Customer duplicate = customer(databases.idOn("b", second.getId() + 1), "TAKEN@example.com");
+
+        // When
+        assertThrows(DuplicateKeyException.class, () -> repository.saveAll(List.of(first, second, duplicate)));
+
+        // Then
+        assertEquals(1, ids("a").size() + ids("b").size());
+        assertFalse(repository.existsByEmail("first@example.com"));
+        assertFalse(repository.existsByEmail("second@example.com"));
+        assertTrue(repository.existsByEmail("taken@example.com"));
+    }
+
+    private Customer insert(Customer customer) {
+        String shard = databases.shards().shardOf(customer.getId());
+        if (failingShards.contains(shard)) {
+            throw new DataAccessResourceFailureException("Shard " + shard + " is down");
+        }
+        databases.bound().update("INSERT INTO customers (id, first_name, last_name, email, is_deleted, version) "
+                + "VALUES (?, ?, ?, ?, FALSE, 0)", customer.getId(), customer.getFirstName(),
+                customer.getLastName(), customer.getEmail());
+        return customer;
+    }
+
+    private List<Long> ids(String shard) {
+        return databases.shard(shard).queryForList("SELECT id FROM customers ORDER BY id", Long.class);
+    }
+
+    private static Customer customer(Long id, String email) {
+        Customer customer = Customer.builder().firstName("John").lastName("Doe").email(email).build();
+        customer.setId(id);
+        return customer;
+    }
+}
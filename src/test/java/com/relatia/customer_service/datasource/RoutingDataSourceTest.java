@@ -0,0 +1,257 @@
+package com.relatia.customer_service.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingDataSourceTest {
+
+    private final MutableClock clock = new MutableClock(1_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSourceRoutingProperties properties = new DataSourceRoutingProperties();
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replicaDatabase;
+    private ReplicaPool pool;
+    private ReplicaPool.Replica replica;
+    private ReplicaHeartbeat heartbeat;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replicaDatabase = database("replica");
+        replica = new ReplicaPool.Replica("replica", replicaDatabase);
+        pool = new ReplicaPool(List.of(replica), clock, properties);
+        heartbeat = new ReplicaHeartbeat(primary, pool, clock, properties, meterRegistry);
+
+        RoutingDataSource routing = new RoutingDataSource(primary, pool, clock, meterRegistry);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+        primary.shutdown();
+        replicaDatabase.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaIsCaughtUp_ShouldReadFromReplica() {
+        // Given
+        heartbeat.beat();
+
+        // When
+        String readNode = reads.execute(status -> node());
+        String writeNode = writes.execute(status -> node());
+
+        // Then
+        assertEquals("replica", readNode);
+        assertEquals("primary", writeNode);
+        assertEquals(1.0, meterRegistry.get("datasource.reads").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void readOnlyTransaction_WhenWriteTokenIsNewerThanReplica_ShouldReadFromPrimary() {
+        // Given
+        heartbeat.beat();
+        clock.advance(100);
+        writes.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+
+        // When
+        String staleNode = reads.execute(status -> node());
+        clock.advance(properties.getClockSkew().toMillis());
+        replicateHeartbeat();
+        String caughtUpNode = reads.execute(status -> node());
+
+        // Then
+        assertEquals(1_000_100L, ReadYourWrites.writtenAt());
+        assertEquals("primary", staleNode);
+        assertEquals("replica", caughtUpNode);
+    }
+
+    @Test
+    void cachedRead_WhenAnotherClientMissesOnALaggingReplica_ShouldNotHideTheWriteFromTheWriter() {
+        // Given
+        Map<Long, String> cache = new HashMap<>();
+        heartbeat.beat();
+        clock.advance(100);
+        writes.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = 'written'"));
+        long token = ReadYourWrites.writtenAt();
+        // The writer's transaction evicted the entry when it committed
+        long evictedAt = clock.millis();
+
+        // When
+        ReadYourWrites.clear();
+        String otherClientRead = reads.execute(status -> cachedNode(cache, evictedAt));
+        ReadYourWrites.require(token);
+        String writerRead = reads.execute(status -> cachedNode(cache, evictedAt));
+
+        // Then
+        assertEquals("replica", otherClientRead);
+        assertEquals("written", writerRead);
+        assertEquals("written", cache.get(1L));
+        assertFalse(ReplicaReads.mayPredate(evictedAt), "nothing should stay bound after the transaction");
+    }
+
+    @Test
+    void mayPredate_WhenReplicaHasReplicatedTheWrite_ShouldBeFalse() {
+        // Given
+        heartbeat.beat();
+        clock.advance(100);
+        long committedAt = clock.millis();
+        clock.advance(properties.getClockSkew().toMillis());
+        replicateHeartbeat();
+
+        // When
+        boolean replicaMayPredate = reads.execute(status -> {
+            assertEquals("replica", node());
+            return ReplicaReads.mayPredate(committedAt);
+        });
+        boolean primaryMayPredate = writes.execute(status -> {
+            assertEquals("primary", node());
+            return ReplicaReads.mayPredate(committedAt);
+        });
+
+        // Then
+        assertEquals(Boolean.FALSE, replicaMayPredate);
+        assertEquals(Boolean.FALSE, primaryMayPredate);
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaLagsTooFarBehind_ShouldReadFromPrimary() {
+        // Given
+        heartbeat.beat();
+        clock.advance(properties.getMaxLag().toMillis() + 1);
+
+        // When
+        String node = reads.execute(status -> node());
+
+        // Then
+        assertEquals("primary", node);
+        assertEquals(properties.getMaxLag().toMillis() + 1, pool.lagMillis(replica));
+    }
+
+    @Test
+    void beat_WhenProbesKeepFailing_ShouldEjectReplicaUntilItAnswersAgain() {
+        // Given
+        heartbeat.beat();
+        new JdbcTemplate(replicaDatabase).execute("ALTER TABLE replication_heartbeat RENAME TO replication_heartbeat_off");
+
+        // When
+        for (int i = 1; i < properties.getFailureThreshold(); i++) {
+            heartbeat.beat();
+            assertTrue(replica.isHealthy());
+        }
+        heartbeat.beat();
+        String ejectedNode = reads.execute(status -> node());
+        new JdbcTemplate(replicaDatabase).execute("ALTER TABLE replication_heartbeat_off RENAME TO replication_heartbeat");
+        replicateHeartbeat();
+
+        // Then
+        assertEquals("primary", ejectedNode);
+        assertTrue(replica.isHealthy());
+        assertEquals("replica", reads.execute(status -> node()));
+    }
+
+    /**
+     * Reads through {@code cache} the way CustomerCache does: a miss is only cached if it was not read
+     * from a replica that may predate the entry's last eviction.
+     */
+    private String cachedNode(Map<Long, String> cache, long evictedAt) {
+        String cached = cache.get(1L);
+        if (cached != null) {
+            return cached;
+        }
+        String loaded = node();
+        if (!ReplicaReads.mayPredate(evictedAt)) {
+            cache.put(1L, loaded);
+        }
+        return loaded;
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    /**
+     * Beats and copies the primary's heartbeat to the replica, as replication would.
+     */
+    private void replicateHeartbeat() {
+        new JdbcTemplate(primary).update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", clock.millis());
+        new JdbcTemplate(replicaDatabase).update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", clock.millis());
+        heartbeat.beat();
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE replication_heartbeat (id INT NOT NULL PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        // Both start out with the heartbeat the replica last replicated
+        jdbcTemplate.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", 1_000_000L);
+        return database;
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.relatia.customer_service.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardMapTest {
+
+    @Test
+    void shardOf_WithoutBucketRanges_ShouldSpreadIdsEvenly() {
+        // Given
+        ShardMap map = new ShardMap(properties(16, shard("a"), shard("b")));
+
+        // When
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= 10_000; id++) {
+            counts.merge(map.shardOf(id), 1, Integer::sum);
+        }
+
+        // Then
+        assertEquals(List.of("a", "b"), map.names());
+        assertTrue(counts.get("a") > 4_500 && counts.get("b") > 4_500, counts::toString);
+    }
+
+    @Test
+    void shardOf_WithBucketRanges_ShouldFollowTheRanges() {
+        // Given
+        ShardMap map = new ShardMap(properties(4, shard("a", "0-2"), shard("b", "3")));
+
+        // When / Then
+        for (long id = 1; id <= 100; id++) {
+            assertEquals(map.bucketOf(id) == 3 ? "b" : "a", map.shardOf(id));
+        }
+    }
+
+    @Test
+    void shardOf_ShouldBeStable() {
+        // Given
+        ShardMap first = new ShardMap(properties(1024, shard("a"), shard("b"), shard("c")));
+        ShardMap second = new ShardMap(properties(1024, shard("a"), shard("b"), shard("c")));
+
+        // When / Then
+        for (long id = 1; id <= 1_000; id++) {
+            assertEquals(first.shardOf(id), second.shardOf(id));
+        }
+        assertEquals(first.shardOf("jane@example.com"), second.shardOf("jane@example.com"));
+    }
+
+    @Test
+    void constructor_WhenBucketIsNotAssigned_ShouldThrow() {
+        // Given
+        ShardingProperties properties = properties(4, shard("a", "0-1"), shard("b", "3"));
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new ShardMap(properties));
+        assertEquals("Bucket 2 is not assigned to any shard", e.getMessage());
+    }
+
+    @Test
+    void constructor_WhenBucketIsAssignedTwice_ShouldThrow() {
+        // Given
+        ShardingProperties properties = properties(4, shard("a", "0-2"), shard("b", "2-3"));
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new ShardMap(properties));
+        assertEquals("Bucket 2 is assigned to both a and b", e.getMessage());
+    }
+
+    @Test
+    void constructor_WhenRangeIsOutOfBounds_ShouldThrow() {
+        // Given
+        ShardingProperties properties = properties(4, shard("a", "0-4"));
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> new ShardMap(properties));
+    }
+
+    @Test
+    void constructor_WhenNoShards_ShouldThrow() {
+        assertThrows(IllegalStateException.class, () -> new ShardMap(properties(4)));
+    }
+
+    static ShardingProperties properties(int buckets, ShardingProperties.Shard... shards) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setBuckets(buckets);
+        properties.setShards(List.of(shards));
+        return properties;
+    }
+
+    static ShardingProperties.Shard shard(String name, String... buckets) {
+        ShardingProperties.Shard shard = new ShardingProperties.Shard();
+        shard.setName(name);
+        shard.setUrl("jdbc:h2:mem:" + name);
+        shard.setBuckets(List.of(buckets));
+        return shard;
+    }
+}
@@ -0,0 +1,167 @@
+package com.relatia.customer_service.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.relatia.customer_service.datasource.ShardMapTest.properties;
+import static com.relatia.customer_service.datasource.ShardMapTest.shard;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRoutingDataSourceTest {
+
+    private EmbeddedDatabase main;
+    private EmbeddedDatabase shardA;
+    private EmbeddedDatabase shardB;
+    private Shards shards;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        main = database("main");
+        shardA = database("a");
+        shardB = database("b");
+        Map<String, EmbeddedDatabase> pools = Map.of("a", shardA, "b", shardB);
+        ShardingProperties properties = properties(4, shard("a", "0-1"), shard("b", "2-3"));
+        shards = new Shards(new ShardMap(properties), pools, main, properties);
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(main, pools);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.close();
+        main.shutdown();
+        shardA.shutdown();
+        shardB.shutdown();
+    }
+
+    @Test
+    void bindTransaction_ShouldSendTheTransactionToTheShard() {
+        // When
+        String bound = transactionTemplate.execute(status -> {
+            shards.bindTransaction("b");
+            return node();
+        });
+        String unbound = transactionTemplate.execute(status -> node());
+
+        // Then
+        assertEquals("b", bound);
+        assertEquals("main", unbound);
+        assertNull(Shards.current());
+    }
+
+    @Test
+    void bindTransaction_WhenBoundToAnotherShard_ShouldThrow() {
+        // When / Then
+        transactionTemplate.executeWithoutResult(status -> {
+            shards.bindTransaction("a");
+            shards.bindTransaction("a");
+            assertThrows(IllegalStateException.class, () -> shards.bindTransaction("b"));
+        });
+    }
+
+    @Test
+    void bindTransaction_WhenNestedTransactionIsSuspended_ShouldRestoreTheShard() {
+        // Given
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // When
+        List<String> nodes = transactionTemplate.execute(status -> {
+            shards.bindTransaction("a");
+            String outer = node();
+            String inner = requiresNew.execute(nested -> node());
+            return List.of(outer, inner, node());
+        });
+
+        // Then
+        assertEquals(List.of("a", "main", "a"), nodes);
+    }
+
+    @Test
+    void call_ShouldRouteStatementsAndTransactionsStartedInside() {
+        // When
+        String statement = shards.call("a", this::node);
+        String transaction = shards.call("b", () -> transactionTemplate.execute(status -> node()));
+
+        // Then
+        assertEquals("a", statement);
+        assertEquals("b", transaction);
+        assertNull(Shards.current());
+    }
+
+    @Test
+    void call_InsideTransaction_ShouldThrow() {
+        transactionTemplate.executeWithoutResult(status ->
+                assertThrows(IllegalStateException.class, () -> shards.call("a", this::node)));
+    }
+
+    @Test
+    void scatter_ShouldRunOncePerShardInOrder() {
+        // When
+        List<String> nodes = shards.scatter(shard -> node());
+
+        // Then
+        assertEquals(List.of("a", "b"), nodes);
+    }
+
+    @Test
+    void scatter_WhenShardFails_ShouldRethrowItsException() {
+        // When / Then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> shards.scatter(shard -> {
+            if (shard.equals("b")) {
+                throw new IllegalArgumentException("shard b failed");
+            }
+            return node();
+        }));
+        assertEquals("shard b failed", e.getMessage());
+    }
+
+    @Test
+    void unsharded_ShouldRunInline() {
+        // Given
+        Shards unsharded = Shards.unsharded();
+
+        // When
+        List<String> nodes = unsharded.scatter(shard -> unsharded.call(shard, this::node));
+
+        // Then
+        assertFalse(unsharded.isSharded());
+        assertEquals(List.of(Shards.MAIN), unsharded.names());
+        assertEquals(List.of("main"), nodes);
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,109 @@
+package com.relatia.customer_service.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A main database and shards, each an in-memory H2 database with {@code schema.sql} applied, for tests of
+ * the sharded customer classes outside this package. The shards split the buckets evenly.
+ */
+public final class ShardedDatabases implements AutoCloseable {
+
+    private final EmbeddedDatabase main;
+    private final Map<String, EmbeddedDatabase> databases = new LinkedHashMap<>();
+    private final Shards shards;
+    private final ShardRoutingDataSource routing;
+
+    public ShardedDatabases(String... names) {
+        main = database("main");
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setBuckets(64);
+        for (String name : names) {
+            databases.put(name, database(name));
+            ShardingProperties.Shard shard = new ShardingProperties.Shard();
+            shard.setName(name);
+            shard.setUrl("jdbc:h2:mem:" + name);
+            properties.getShards().add(shard);
+        }
+        shards = new Shards(new ShardMap(properties), databases, main, properties);
+        routing = new ShardRoutingDataSource(main, databases);
+        routing.afterPropertiesSet();
+    }
+
+    public Shards shards() {
+        return shards;
+    }
+
+    public JdbcTemplate main() {
+        return new JdbcTemplate(main);
+    }
+
+    public JdbcTemplate shard(String name) {
+        return new JdbcTemplate(shards.dataSource(name));
+    }
+
+    /**
+     * @return the data source sending statements to the shard bound to the current thread, as the application's does
+     */
+    public DataSource routing() {
+        return routing;
+    }
+
+    /**
+     * @return a template on the shard bound to the current thread, or on the main database if none is
+     */
+    public JdbcTemplate bound() {
+        String shard = Shards.current();
+        return shard == null ? main() : shard(shard);
+    }
+
+    public List<String> names() {
+        return shards.names();
+    }
+
+    /**
+     * @return the lowest id from {@code from} on that lives on {@code shard}
+     */
+    public long idOn(String shard, long from) {
+        long id = from;
+        while (!shards.shardOf(id).equals(shard)) {
+            id++;
+        }
+        return id;
+    }
+
+    /**
+     * @return an email of the form {@code <prefix><n>@example.com} whose directory entry lives on {@code shard}
+     */
+    public String emailOn(String shard, String prefix) {
+        for (int n = 0; ; n++) {
+            String email = prefix + n + "@example.com";
+            if (shards.shardOf(email).equals(shard)) {
+                return email;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        shards.close();
+        main.shutdown();
+        databases.values().forEach(EmbeddedDatabase::shutdown);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .addScript("schema.sql")
+                .build();
+    }
+}
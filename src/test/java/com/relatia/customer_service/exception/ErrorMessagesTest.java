@@ -0,0 +1,71 @@
+package com.relatia.customer_service.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.StaticMessageSource;
+
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorMessagesTest {
+
+    private final StaticMessageSource messageSource = new StaticMessageSource();
+    private final ErrorMessages errorMessages = new ErrorMessages(messageSource);
+
+    @Test
+    void get_WithSingleArgument_ShouldRenderIdWithoutGrouping() {
+        // Given
+        messageSource.addMessage("error.customer.notfound", Locale.getDefault(), "Customer not found with id: {0}");
+
+        // When
+        String message = errorMessages.get("error.customer.notfound", 1234567L);
+
+        // Then
+        assertEquals("Customer not found with id: 1234567", message);
+    }
+
+    @Test
+    void get_WithoutArguments_ShouldReturnMessage() {
+        // Given
+        messageSource.addMessage("error.email.exists", Locale.getDefault(), "Email already in use");
+
+        // When & Then
+        assertEquals("Email already in use", errorMessages.get("error.email.exists"));
+        assertEquals("Email already in use", errorMessages.get("error.email.exists"));
+    }
+
+    @Test
+    void get_WithQuotedPattern_ShouldFallBackToMessageFormat() {
+        // Given
+        messageSource.addMessage("error.customer.email.notfound", Locale.getDefault(), "No customer ''{0}''");
+
+        // When
+        String message = errorMessages.get("error.customer.email.notfound", "john@example.com");
+
+        // Then
+        assertEquals("No customer 'john@example.com'", message);
+    }
+
+    @Test
+    void get_ForManyDistinctLocales_ShouldKeepOnlyABoundedNumber() {
+        // Given
+        Properties messages = new Properties();
+        messages.setProperty("error.email.exists", "Email already in use");
+        messageSource.setCommonMessages(messages);
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            LocaleContextHolder.setLocale(Locale.of("en", "C" + i));
+            try {
+                assertEquals("Email already in use", errorMessages.get("error.email.exists"));
+            } finally {
+                LocaleContextHolder.resetLocaleContext();
+            }
+        }
+
+        // Then
+        assertTrue(errorMessages.cachedLocales() <= ErrorMessages.MAX_LOCALES);
+    }
+}
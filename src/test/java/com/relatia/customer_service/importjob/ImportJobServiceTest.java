@@ -0,0 +1,176 @@
+package com.relatia.customer_service.importjob;
+
+import com.relatia.customer_service.customer.CustomerBatchResponse;
+import com.relatia.customer_service.customer.CustomerBatchResult;
+import com.relatia.customer_service.customer.CustomerProperties;
+import com.relatia.customer_service.customer.CustomerRequest;
+import com.relatia.customer_service.customer.CustomerService;
+import com.relatia.customer_service.exception.ErrorMessages;
+import com.relatia.customer_service.exception.ResourceNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportJobServiceTest {
+
+    private static final String HEADER = "firstName,lastName,email,phone\n";
+
+    @TempDir
+    private Path spoolDir;
+
+    private final CustomerService customerService = mock(CustomerService.class);
+    private final List<Integer> chunkSizes = new CopyOnWriteArrayList<>();
+    private final CustomerProperties properties = new CustomerProperties();
+    private ImportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.getImports().setSpoolDir(spoolDir);
+        properties.getImports().setChunkSize(2);
+        StaticMessageSource messageSource = new StaticMessageSource();
+        messageSource.addMessage("error.email.exists", Locale.getDefault(), "Email already exists");
+        messageSource.addMessage("error.import.notfound", Locale.getDefault(), "Import job not found with id: {0}");
+        service = new ImportJobService(customerService, properties, new ErrorMessages(messageSource));
+
+        // Chunks containing taken@example.com lose the race against another writer
+        when(customerService.createAll(anyList())).thenAnswer(invocation -> {
+            List<CustomerRequest> requests = invocation.getArgument(0);
+            chunkSizes.add(requests.size());
+            if (requests.stream().anyMatch(request -> request.getEmail().equals("taken@example.com"))) {
+                throw new DataIntegrityViolationException("uk_customer_email");
+            }
+            List<CustomerBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(CustomerBatchResult.builder().index(i).status(CustomerBatchResult.Status.CREATED).build());
+            }
+            return CustomerBatchResponse.builder().created(requests.size()).results(results).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void submit_ShouldImportTheFileInChunks() throws Exception {
+        // Given
+        MockMultipartFile file = csv(HEADER
+                + "John,Doe,john@example.com,+1 555-0100\n"
+                + "Jane,Roe,jane@example.com,\n"
+                + "Max,Muster,max@example.com,\n"
+                + "Erika,Muster,erika@example.com,\n"
+                + "Zoë,Zimmer,zoe@example.com,\n");
+
+        // When
+        ImportJob job = awaitFinished(service.submit(file));
+
+        // Then
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getRowsRead().get());
+        assertEquals(5, job.getRowsCreated().get());
+        assertEquals(0, job.getRowsRejected().get());
+        assertEquals(List.of(1, 2, 2), chunkSizes.stream().sorted().toList());
+        assertFalse(Files.exists(job.getSpoolFile()), "spool file should be deleted");
+    }
+
+    @Test
+    void submit_WhenChunkHitsDuplicateEmail_ShouldRejectOnlyThatRow() throws Exception {
+        // Given
+        MockMultipartFile file = csv(HEADER
+                + "John,Doe,john@example.com,\n"
+                + "Taken,Already,taken@example.com,\n"
+                + "Jane,Roe,jane@example.com,\n");
+
+        // When
+        ImportJob job = awaitFinished(service.submit(file));
+
+        // Then
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getRowsCreated().get());
+        assertEquals(1, job.getRowsRejected().get());
+        assertEquals(List.of(new ImportJobResponse.RowError(2, "Email already exists")), job.errorsSnapshot());
+    }
+
+    @Test
+    void submit_WhenRowIsMalformed_ShouldRejectItAndContinue() throws Exception {
+        // Given
+        MockMultipartFile file = csv(HEADER
+                + "John,Doe,john@example.com,\n"
+                + "Too,Many,columns@example.com,,extra\n"
+                + "Jane,Roe,jane@example.com,\n");
+
+        // When
+        ImportJob job = awaitFinished(service.submit(file));
+
+        // Then
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsRead().get());
+        assertEquals(2, job.getRowsCreated().get());
+        assertEquals(1, job.getRowsRejected().get());
+        assertEquals(2, job.errorsSnapshot().get(0).row());
+        assertTrue(job.errorsSnapshot().get(0).reason().startsWith("Malformed row"));
+    }
+
+    @Test
+    void find_WhenJobIsUnknown_ShouldThrowNotFound() {
+        // When & Then
+        UUID id = UUID.randomUUID();
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class, () -> service.find(id));
+        assertEquals("Import job not found with id: " + id, e.getMessage());
+    }
+
+    @Test
+    void properties_WhenChunkSizeExceedsBatchLimit_ShouldBeInvalid() {
+        // Given
+        CustomerProperties invalid = new CustomerProperties();
+        invalid.getBatch().setMaxItems(500);
+        invalid.getImports().setChunkSize(1000);
+
+        // When
+        Set<ConstraintViolation<CustomerProperties>> violations;
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            violations = factory.getValidator().validate(invalid);
+        }
+
+        // Then
+        assertEquals(1, violations.size());
+        assertEquals("customer.imports.chunk-size must not exceed customer.batch.max-items",
+                violations.iterator().next().getMessage());
+    }
+
+    private ImportJob awaitFinished(ImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!service.find(job.getId()).isFinished()) {
+            assertTrue(System.currentTimeMillis() < deadline, "import did not finish");
+            Thread.sleep(10);
+        }
+        return job;
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "customers.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,190 @@
+package com.relatia.customer_service.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are started at a fixed arrival rate whether or not earlier ones have
+ * finished, the way independent users arrive, and each is picked from a weighted mix of operations.
+ *
+ * <p>Latency is measured from the moment a request was <em>scheduled</em> to start, not from when it was
+ * sent, so a stalled service shows up in the percentiles instead of silently lowering the request rate
+ * (coordinated omission). Requests that would exceed {@code maxOutstanding} are not sent and are
+ * counted as dropped.</p>
+ */
+@Slf4j
+final class ArrivalRateLoad {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    /**
+     * One kind of request in the mix. {@code request} is only called from the scheduling thread.
+     */
+    record Operation(String name, int weight, RequestFactory request) {}
+
+    @FunctionalInterface
+    interface RequestFactory {
+        HttpRequest next(SplittableRandom random);
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final int maxOutstanding;
+
+    ArrivalRateLoad(List<Operation> operations, int maxOutstanding) {
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * Runs the mix at {@code ratePerSecond} for {@code warmUp}, discards what was measured, then runs it
+     * for {@code duration} and waits for the outstanding requests.
+     */
+    Report run(double ratePerSecond, Duration warmUp, Duration duration) {
+        schedule(ratePerSecond, warmUp, new Report(operations, ratePerSecond));
+        Report report = new Report(operations, ratePerSecond);
+        schedule(ratePerSecond, duration, report);
+        return report;
+    }
+
+    private void schedule(double ratePerSecond, Duration duration, Report report) {
+        SplittableRandom random = new SplittableRandom(42);
+        AtomicInteger outstanding = new AtomicInteger();
+        long intervalNanos = (long) (1_000_000_000d / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(random);
+            Report.Stats stats = report.stats(operation.name());
+            if (outstanding.get() >= maxOutstanding) {
+                stats.dropped.increment();
+                continue;
+            }
+            outstanding.incrementAndGet();
+            httpClient.sendAsync(operation.request().next(random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long micros = (System.nanoTime() - intended) / 1_000;
+                        stats.latency.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                        if (error != null || response.statusCode() >= 400) {
+                            stats.errors.increment();
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+        while (outstanding.get() > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights changed while running");
+    }
+
+    /**
+     * Latency (from intended start, in microseconds), error and drop counts per operation.
+     */
+    static final class Report {
+
+        static final class Stats {
+            final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+            final LongAdder errors = new LongAdder();
+            final LongAdder dropped = new LongAdder();
+        }
+
+        private final Map<String, Stats> stats = new LinkedHashMap<>();
+        private final double ratePerSecond;
+        private long elapsedNanos;
+
+        private Report(List<Operation> operations, double ratePerSecond) {
+            operations.forEach(operation -> stats.put(operation.name(), new Stats()));
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        Stats stats(String operation) {
+            return stats.get(operation);
+        }
+
+        long completed(String operation) {
+            return stats.get(operation).latency.getTotalCount();
+        }
+
+        long errors(String operation) {
+            return stats.get(operation).errors.sum();
+        }
+
+        long dropped() {
+            return stats.values().stream().mapToLong(s -> s.dropped.sum()).sum();
+        }
+
+        /**
+         * Logs one line per operation and writes each latency distribution as an {@code .hgrm} file,
+         * which HdrHistogram's plotter reads, to {@code directory}.
+         */
+        void print(String name, Path directory) throws IOException {
+            Files.createDirectories(directory);
+            List<String> lines = new ArrayList<>();
+            long total = 0;
+            for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                Histogram latency = entry.getValue().latency;
+                total += latency.getTotalCount();
+                lines.add(String.format("  %-22s %8d done %6d errors %6d dropped   p50 %8.1f  p90 %8.1f  p99 %8.1f  p99.9 %8.1f  max %8.1f ms",
+                        entry.getKey(), latency.getTotalCount(), entry.getValue().errors.sum(),
+                        entry.getValue().dropped.sum(),
+                        millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                        latency.getMaxValue() / 1000d));
+                try (PrintStream out = new PrintStream(Files.newOutputStream(
+                        directory.resolve(name + "-" + entry.getKey() + ".hgrm")))) {
+                    latency.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+            double achieved = total * 1_000_000_000d / elapsedNanos;
+            log.info("{}: target {} req/s, achieved {} req/s\n{}", name, String.format("%.0f", ratePerSecond),
+                    String.format("%.0f", achieved), String.join("\n", lines));
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000d;
+        }
+    }
+}
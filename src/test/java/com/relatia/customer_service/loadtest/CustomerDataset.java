@@ -0,0 +1,58 @@
+package com.relatia.customer_service.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic customers with ids {@code 1..size}, written straight through JDBC.
+ *
+ * <p>Seeding only adds the ids that are missing, so a file-backed database is filled once and reused
+ * by later runs. Afterwards the pooled id generator is moved past the seeded ids so customers created
+ * through the API don't collide with them.</p>
+ */
+@Slf4j
+final class CustomerDataset {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final int size;
+
+    CustomerDataset(int size) {
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    static String email(long id) {
+        return "customer" + id + "@example.com";
+    }
+
+    void seed(JdbcTemplate jdbcTemplate) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM customers", Long.class);
+        long start = System.nanoTime();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = existing + 1; id <= size; id++) {
+            batch.add(new Object[]{id, "First" + id, "Last" + id, email(id), "+1555" + id, id + " Main St",
+                    now, now, "loadtest", "loadtest"});
+            if (batch.size() == BATCH_SIZE || id == size) {
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO customers (id, first_name, last_name, email, phone, address,
+                                               created_at, updated_at, created_by, updated_by, is_deleted, version)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, 0)""", batch);
+                batch.clear();
+            }
+        }
+        // The pooled optimizer hands out next_val - 49 .. next_val, see schema.sql
+        jdbcTemplate.update("UPDATE id_generator SET next_val = (SELECT MAX(id) FROM customers) + 50 "
+                + "WHERE sequence_name = 'customers' AND next_val < (SELECT MAX(id) FROM customers) + 50");
+        log.info("Seeded {} customers in {} ms ({} already present)", Math.max(0, size - existing),
+                (System.nanoTime() - start) / 1_000_000, existing);
+    }
+}
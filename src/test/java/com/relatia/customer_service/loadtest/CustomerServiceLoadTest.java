@@ -0,0 +1,223 @@
+package com.relatia.customer_service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.relatia.customer_service.CustomerServiceApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput and latency of the whole service under a mixed customer and notification workload.
+ *
+ * <p>The application is started offline (no config server, Eureka or bus) against H2 holding a synthetic
+ * customer table, with notification-service replaced by {@link NotificationServiceStub}. The mix is
+ * driven at a fixed arrival rate by {@link ArrivalRateLoad}; latency percentiles, errors and dropped
+ * requests are logged per operation and full distributions are written to {@code target/loadtest}.</p>
+ *
+ * <p>Excluded from the default build; run with {@code mvn test -Ploadtest}. Tunables:</p>
+ * <ul>
+ *   <li>{@code -Dloadtest.customers=} synthetic customers (default 100000)</li>
+ *   <li>{@code -Dloadtest.rate=} requests per second (default 500)</li>
+ *   <li>{@code -Dloadtest.warmup=} and {@code -Dloadtest.duration=} in seconds (default 15 and 60)</li>
+ *   <li>{@code -Dloadtest.notification.latencyMs=}, {@code .jitterMs=} and {@code .failureRate=} for the
+ *       stand-in (default 20, 30 and 0)</li>
+ *   <li>{@code -Dloadtest.datasource.url=} e.g. {@code jdbc:h2:file:./target/loadtest/db} to keep the
+ *       dataset between runs</li>
+ * </ul>
+ */
+@Tag("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CustomerServiceLoadTest {
+
+    private static final int CUSTOMERS = Integer.getInteger("loadtest.customers", 100_000);
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "500"));
+    private static final Duration WARM_UP = Duration.ofSeconds(Long.getLong("loadtest.warmup", 15));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 60));
+    private static final Duration NOTIFICATION_LATENCY = Duration.ofMillis(Long.getLong("loadtest.notification.latencyMs", 20));
+    private static final Duration NOTIFICATION_JITTER = Duration.ofMillis(Long.getLong("loadtest.notification.jitterMs", 30));
+    private static final double NOTIFICATION_FAILURE_RATE =
+            Double.parseDouble(System.getProperty("loadtest.notification.failureRate", "0"));
+    private static final String DATASOURCE_URL = System.getProperty("loadtest.datasource.url",
+            "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+    private static final Path REPORT_DIRECTORY = Path.of("target", "loadtest");
+    private static final int MAX_OUTSTANDING = 10_000;
+
+    private static final List<String> CUSTOMER_OPERATIONS =
+            List.of("findById", "findPage", "findByEmail", "create", "update");
+
+    private final AtomicLong created = new AtomicLong();
+    private NotificationServiceStub notificationService;
+    private ConfigurableApplicationContext app;
+    private CustomerDataset dataset;
+    private String baseUrl;
+
+    @BeforeAll
+    void start() throws Exception {
+        notificationService = new NotificationServiceStub(NOTIFICATION_LATENCY, NOTIFICATION_JITTER, NOTIFICATION_FAILURE_RATE);
+        app = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .run("--spring.profiles.active=test",
+                        "--server.port=0",
+                        "--spring.datasource.url=" + DATASOURCE_URL,
+                        "--spring.cloud.config.enabled=false",
+                        "--spring.cloud.config.import-check.enabled=false",
+                        "--eureka.client.enabled=false",
+                        "--spring.cloud.bus.enabled=false",
+                        "--spring.cloud.discovery.client.simple.instances.notification-service[0].uri="
+                                + notificationService.uri(),
+                        "--customer.email-index.enabled=false",
+                        "--customer.search.enabled=false",
+                        "--customer.purge.enabled=false",
+                        "--notification.journal.directory=" + REPORT_DIRECTORY.resolve("journal").toAbsolutePath(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=INFO",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+                        "--logging.level.org.springframework.cloud.openfeign=INFO");
+        baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        dataset = new CustomerDataset(CUSTOMERS);
+        dataset.seed(app.getBean(JdbcTemplate.class));
+    }
+
+    @AfterAll
+    void stop() {
+        if (app != null) {
+            app.close();
+        }
+        if (notificationService != null) {
+            notificationService.close();
+        }
+    }
+
+    /**
+     * Creates must get ids from past the seeded ones; a generator left behind them turns every create in
+     * the mix into a primary key violation.
+     */
+    @Test
+    void createsAfterSeeding() throws Exception {
+        // Given
+        ObjectMapper objectMapper = app.getBean(ObjectMapper.class);
+        String customers = baseUrl + "/api/v1/customers";
+
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            for (int i = 0; i < 100; i++) {
+                // When
+                HttpResponse<String> response = httpClient.send(send("POST", customers,
+                                customerJson("seeded" + System.nanoTime() + "-" + i + "@example.com")),
+                        HttpResponse.BodyHandlers.ofString());
+
+                // Then
+                assertEquals(201, response.statusCode(), response.body());
+                long id = objectMapper.readTree(response.body()).get("id").asLong();
+                assertTrue(id > dataset.size(), "created customer got seeded id " + id);
+            }
+        }
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        // Given
+        notificationService.tune(NOTIFICATION_LATENCY, NOTIFICATION_JITTER, NOTIFICATION_FAILURE_RATE);
+        ArrivalRateLoad load = new ArrivalRateLoad(mix(), MAX_OUTSTANDING);
+
+        // When
+        ArrivalRateLoad.Report report = load.run(RATE, WARM_UP, DURATION);
+
+        // Then
+        report.print("mixed", REPORT_DIRECTORY);
+        assertEquals(0, report.dropped(), "the service fell behind the arrival rate");
+        for (String operation : CUSTOMER_OPERATIONS) {
+            assertTrue(report.errors(operation) <= report.completed(operation) / 100,
+                    operation + " failed " + report.errors(operation) + " of " + report.completed(operation) + " times");
+        }
+    }
+
+    /**
+     * Notification-service slows down tenfold and fails a fifth of its calls: notification endpoints should
+     * degrade to their fallbacks while customer endpoints keep their latency.
+     */
+    @Test
+    void mixedWorkloadWithDegradedNotificationService() throws Exception {
+        // Given
+        notificationService.tune(NOTIFICATION_LATENCY.multipliedBy(10), NOTIFICATION_JITTER.multipliedBy(10), 0.2);
+        ArrivalRateLoad load = new ArrivalRateLoad(mix(), MAX_OUTSTANDING);
+
+        // When
+        ArrivalRateLoad.Report report = load.run(RATE, WARM_UP, DURATION);
+
+        // Then
+        report.print("degraded", REPORT_DIRECTORY);
+        for (String operation : CUSTOMER_OPERATIONS) {
+            assertTrue(report.errors(operation) <= report.completed(operation) / 100,
+                    operation + " failed " + report.errors(operation) + " of " + report.completed(operation) + " times");
+        }
+    }
+
+    private List<ArrivalRateLoad.Operation> mix() {
+        String customers = baseUrl + "/api/v1/customers";
+        return List.of(
+                new ArrivalRateLoad.Operation("findById", 40, random ->
+                        get(customers + "/" + customerId(random))),
+                new ArrivalRateLoad.Operation("findPage", 10, random ->
+                        get(customers + "?size=20")),
+                new ArrivalRateLoad.Operation("findByEmail", 5, random ->
+                        get(customers + "/by-email?email=" + CustomerDataset.email(customerId(random)))),
+                new ArrivalRateLoad.Operation("create", 5, random ->
+                        send("POST", customers, customerJson("loadtest" + System.nanoTime() + "-"
+                                + created.incrementAndGet() + "@example.com"))),
+                new ArrivalRateLoad.Operation("update", 5, random -> {
+                    long id = customerId(random);
+                    return send("PUT", customers + "/" + id, customerJson(CustomerDataset.email(id)));
+                }),
+                new ArrivalRateLoad.Operation("notifications", 15, random ->
+                        get(customers + "/" + customerId(random) + "/notifications")),
+                new ArrivalRateLoad.Operation("unreadNotifications", 10, random ->
+                        get(customers + "/" + customerId(random) + "/notifications/unread")),
+                new ArrivalRateLoad.Operation("notificationCount", 8, random ->
+                        get(customers + "/" + customerId(random) + "/notifications/count?unreadOnly=true")),
+                new ArrivalRateLoad.Operation("markAsRead", 2, random -> {
+                    long id = customerId(random);
+                    return send("PUT", customers + "/" + id + "/notifications/" + (id * 1000 + 1) + "/read", null);
+                }));
+    }
+
+    private long customerId(SplittableRandom random) {
+        return random.nextLong(1, dataset.size() + 1L);
+    }
+
+    private static String customerJson(String email) {
+        return """
+                {"firstName":"Load","lastName":"Test","email":"%s","phone":"+15550000000","address":"1 Load St"}"""
+                .formatted(email);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest send(String method, String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, json == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.relatia.customer_service.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.relatia.customer_service.constants.GlobalConstants.NOTIFICATION_API;
+
+/**
+ * In-process stand-in for notification-service, answering every {@code NotificationClient} call after a
+ * tunable delay and failing a tunable share of them with a 503.
+ *
+ * <p>Notification ids encode their recipient as {@code recipientId * 1000 + n}, so a load generator can
+ * address a customer's notifications without asking for them first. Latency and failure rate can be
+ * changed while the stub is running.</p>
+ */
+final class NotificationServiceStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private volatile double failureRate;
+
+    NotificationServiceStub(Duration latency, Duration jitter, double failureRate) throws IOException {
+        tune(latency, jitter, failureRate);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.setExecutor(executor);
+        server.createContext(NOTIFICATION_API, this::handle);
+        server.start();
+    }
+
+    void tune(Duration latency, Duration jitter, double failureRate) {
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = jitter.toNanos();
+        this.failureRate = failureRate;
+    }
+
+    String uri() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    long failures() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        try (exchange) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = latencyNanos + (jitterNanos > 0 ? random.nextLong(jitterNanos) : 0);
+            if (delay > 0) {
+                Thread.sleep(Duration.ofNanos(delay));
+            }
+            if (random.nextDouble() < failureRate) {
+                failures.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            respond(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath().substring(NOTIFICATION_API.length());
+        String query = exchange.getRequestURI().getQuery();
+
+        if ("DELETE".equals(method)) {
+            exchange.sendResponseHeaders(204, -1);
+        } else if ("POST".equals(method)) {
+            send(exchange, notification(System.nanoTime() & 0xffffffL, 0, false));
+        } else if (path.equals("/count")) {
+            send(exchange, "3");
+        } else if (path.isEmpty() || path.equals("/")) {
+            long recipientId = Long.parseLong(parameter(query, "recipientId"));
+            boolean unread = "true".equals(parameter(query, "unread"));
+            StringBuilder body = new StringBuilder("[");
+            for (int n = 0; n < 3; n++) {
+                body.append(n == 0 ? "" : ",").append(notification(recipientId * 1000 + n, recipientId, !unread && n == 0));
+            }
+            send(exchange, body.append(']').toString());
+        } else {
+            // /{id} and /{id}/read
+            String id = path.substring(1).replace("/read", "");
+            long notificationId = Long.parseLong(id);
+            send(exchange, notification(notificationId, notificationId / 1000, path.endsWith("/read")));
+        }
+    }
+
+    private static String notification(long id, long recipientId, boolean read) {
+        return """
+                {"id":%d,"recipientId":%d,"title":"Welcome","message":"Thanks for signing up","type":"INFO","read":%b}"""
+                .formatted(id, recipientId, read);
+    }
+
+    private static String parameter(String query, String name) {
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                    return pair.substring(eq + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
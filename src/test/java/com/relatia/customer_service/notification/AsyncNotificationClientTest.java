@@ -0,0 +1,188 @@
+package com.relatia.customer_service.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncNotificationClientTest {
+
+    private final LoadBalancerClient loadBalancer = mock(LoadBalancerClient.class);
+    private final NotificationClientFallback fallback = mock(NotificationClientFallback.class);
+    private final Runnable onFallback = mock(Runnable.class);
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<String> lastRequest = new AtomicReference<>();
+    private final CountDownLatch slowAnswer = new CountDownLatch(1);
+    private HttpServer notificationService;
+    private AsyncNotificationClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        notificationService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        notificationService.createContext("/api/v1/notifications", exchange -> {
+            lastRequest.set(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/count")) {
+                respond(exchange, 200, "3");
+            } else if (path.endsWith("/-1")) {
+                awaitQuietly(slowAnswer);
+                respond(exchange, 200, "{\"id\":1}");
+            } else if (path.endsWith("/404")) {
+                respond(exchange, 404, "");
+            } else if (exchange.getRequestMethod().equals("DELETE")) {
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 200, "[{\"id\":1,\"recipientId\":7,\"title\":\"Welcome\",\"read\":false}]");
+            }
+        });
+        notificationService.setExecutor(Executors.newCachedThreadPool());
+        notificationService.start();
+        when(loadBalancer.choose("notification-service")).thenReturn(new DefaultServiceInstance(
+                "notification-service-1", "notification-service", "localhost",
+                notificationService.getAddress().getPort(), false));
+        client = new AsyncNotificationClient(loadBalancer, new ObjectMapper().findAndRegisterModules(), fallback,
+                new NotificationClientMetrics(meterRegistry), CircuitBreakerRegistry.ofDefaults(), bulkheadRegistry,
+                new NotificationProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowAnswer.countDown();
+        notificationService.stop(0);
+    }
+
+    @Test
+    void getNotifications_ShouldReadListFromNotificationService() {
+        // When
+        List<NotificationResponse> notifications = client.getNotifications(7L, true, onFallback).join();
+
+        // Then
+        assertEquals(1, notifications.size());
+        assertEquals("Welcome", notifications.get(0).getTitle());
+        assertEquals("GET /api/v1/notifications?recipientId=7&unread=true", lastRequest.get());
+    }
+
+    @Test
+    void getNotificationCount_ShouldReadCount() {
+        // When & Then
+        assertEquals(3L, client.getNotificationCount(7L, false, onFallback).join());
+        verifyNoInteractions(onFallback);
+    }
+
+    @Test
+    void deleteNotification_ShouldIgnoreEmptyBody() {
+        // When
+        client.deleteNotification(5L).join();
+
+        // Then
+        assertEquals("DELETE /api/v1/notifications/5", lastRequest.get());
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void getNotification_WhenServiceAnswersWithError_ShouldAnswerWithFallback() {
+        // Given
+        NotificationResponse unavailable = NotificationResponse.builder().id(404L).build();
+        when(fallback.getNotification(404L)).thenReturn(unavailable);
+
+        // When & Then
+        assertSame(unavailable, client.getNotification(404L).join());
+        assertEquals(1, meterRegistry.timer("notification.client.calls",
+                "method", "getNotification", "client", "async", "outcome", "error").count());
+    }
+
+    @Test
+    void getNotificationCount_WhenNoInstanceIsAvailable_ShouldAnswerWithFallback() {
+        // Given
+        when(loadBalancer.choose("notification-service")).thenReturn(null);
+        when(fallback.getNotificationCount(7L, false)).thenReturn(0L);
+
+        // When & Then
+        assertEquals(0L, client.getNotificationCount(7L, false, onFallback).join());
+        verify(onFallback).run();
+    }
+
+    @Test
+    void getNotificationCount_ShouldShareBulkheadWithFeignMethod() {
+        // When
+        client.getNotificationCount(7L, false, onFallback).join();
+
+        // Then
+        assertTrue(bulkheadRegistry.find("notification-service.getNotificationCount").isPresent());
+    }
+
+    @Test
+    void cancel_WhileCallIsInFlight_ShouldReleaseTheBulkheadPermit() throws Exception {
+        // Given
+        NotificationProperties properties = new NotificationProperties();
+        properties.getResilience().getDefaults().setInitialLimit(1);
+        client = new AsyncNotificationClient(loadBalancer, new ObjectMapper().findAndRegisterModules(), fallback,
+                new NotificationClientMetrics(meterRegistry), CircuitBreakerRegistry.ofDefaults(), bulkheadRegistry,
+                properties);
+        CompletableFuture<NotificationResponse> loser = client.getNotification(-1L);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead("notification-service.getNotification");
+        awaitUntil(() -> "GET /api/v1/notifications/-1".equals(lastRequest.get()));
+        assertEquals(0, bulkhead.getMetrics().getAvailableConcurrentCalls());
+
+        // When
+        loser.cancel(true);
+
+        // Then
+        // notification-service has not answered; only the cancellation can have handed the permit back
+        awaitUntil(() -> bulkhead.getMetrics().getAvailableConcurrentCalls() == 1);
+        assertTrue(loser.isCancelled());
+        verifyNoInteractions(fallback);
+        assertEquals(0, meterRegistry.timer("notification.client.calls",
+                "method", "getNotification", "client", "async", "outcome", "error").count());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -8,10 +8,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -19,6 +22,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(CustomerNotificationController.class)
 class CustomerNotificationControllerTest {
@@ -61,10 +65,10 @@ class CustomerNotificationControllerTest {
     void getCustomerNotifications_ShouldReturnNotifications() throws Exception {
         // Given
         List<NotificationResponse> notifications = Arrays.asList(testNotification);
-        when(notificationService.getCustomerNotifications(anyLong())).thenReturn(notifications);
+        when(notificationService.getCustomerNotifications(anyLong())).thenReturn(CompletableFuture.completedFuture(notifications));
 
         // When/Then
-        mockMvc.perform(get("/api/v1/customers/1/notifications"))
+        mockMvc.perform(asyncDispatch(started(get("/api/v1/customers/1/notifications"))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(testNotification.getId().intValue())))
@@ -75,10 +79,10 @@ class CustomerNotificationControllerTest {
     void getUnreadCustomerNotifications_ShouldReturnUnreadNotifications() throws Exception {
         // Given
         List<NotificationResponse> notifications = Arrays.asList(testNotification);
-        when(notificationService.getUnreadCustomerNotifications(anyLong())).thenReturn(notifications);
+        when(notificationService.getUnreadCustomerNotifications(anyLong())).thenReturn(CompletableFuture.completedFuture(notifications));
 
         // When/Then
-        mockMvc.perform(get("/api/v1/customers/1/notifications/unread"))
+        mockMvc.perform(asyncDispatch(started(get("/api/v1/customers/1/notifications/unread"))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].read", is(false)));
@@ -87,10 +91,10 @@ class CustomerNotificationControllerTest {
     @Test
     void getNotificationCount_ShouldReturnCount() throws Exception {
         // Given
-        when(notificationService.getNotificationCount(anyLong(), anyBoolean())).thenReturn(5L);
+        when(notificationService.getNotificationCount(anyLong(), anyBoolean())).thenReturn(CompletableFuture.completedFuture(5L));
 
         // When/Then
-        mockMvc.perform(get("/api/v1/customers/1/notifications/count?unreadOnly=true"))
+        mockMvc.perform(asyncDispatch(started(get("/api/v1/customers/1/notifications/count?unreadOnly=true"))))
                 .andExpect(status().isOk())
                 .andExpect(content().string("5"));
     }
@@ -99,25 +103,29 @@ class CustomerNotificationControllerTest {
     void markAsRead_ShouldReturnUpdatedNotification() throws Exception {
         // Given
         testNotification.setRead(true);
-        when(notificationService.markNotificationAsRead(anyLong())).thenReturn(testNotification);
+        when(notificationService.markNotificationAsRead(anyLong(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(testNotification));
 
         // When/Then
-        mockMvc.perform(put("/api/v1/customers/1/notifications/1/read"))
+        mockMvc.perform(asyncDispatch(started(put("/api/v1/customers/1/notifications/1/read"))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.read", is(true)));
     }
 
     @Test
     void deleteNotification_ShouldReturnNoContent() throws Exception {
+        // Given
+        when(notificationService.deleteNotification(1L, 1L)).thenReturn(CompletableFuture.completedFuture(null));
+
         // When/Then
-        mockMvc.perform(delete("/api/v1/customers/1/notifications/1"))
+        mockMvc.perform(asyncDispatch(started(delete("/api/v1/customers/1/notifications/1"))))
                 .andExpect(status().isNoContent());
 
-        verify(notificationService, times(1)).deleteNotification(1L);
+        verify(notificationService, times(1)).deleteNotification(1L, 1L);
     }
 
     @Test
-    void sendNotification_ShouldCreateNotification() throws Exception {
+    void sendNotification_ShouldQueueNotification() throws Exception {
         // Given
         when(notificationService.sendCustomerNotification(
                 anyLong(), anyString(), anyString(), anyString()))
@@ -127,7 +135,7 @@ class CustomerNotificationControllerTest {
         mockMvc.perform(post("/api/v1/customers/1/notifications")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(sendRequest)))
-                .andExpect(status().isCreated())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.id", is(testNotification.getId().intValue())))
                 .andExpect(jsonPath("$.title", is(testNotification.getTitle())));
     }
@@ -147,4 +155,10 @@ class CustomerNotificationControllerTest {
                 .andExpect(jsonPath("$.message", is("Validation failed")))
                 .andExpect(jsonPath("$.path", is("/api/v1/customers/1/notifications")));
     }
+
+    private MvcResult started(RequestBuilder requestBuilder) throws Exception {
+        return mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
 }
@@ -0,0 +1,139 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HedgedNotificationReadsTest {
+
+    private final AsyncNotificationClient notificationClient = mock(AsyncNotificationClient.class);
+    private final NotificationClientFallback fallback = mock(NotificationClientFallback.class);
+    private final Runnable onFallback = mock(Runnable.class);
+    private final NotificationProperties properties = new NotificationProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgedNotificationReads hedgedReads;
+
+    @Test
+    void getNotificationCount_WhenDisabled_ShouldCallClientDirectly() {
+        // Given
+        hedgedReads = create();
+        when(notificationClient.getNotificationCount(eq(1L), eq(true), any())).thenReturn(CompletableFuture.completedFuture(3L));
+
+        // When
+        long count = hedgedReads.getNotificationCount(1L, true, onFallback).join();
+
+        // Then
+        assertEquals(3L, count);
+        assertEquals(0, meterRegistry.counter("notification.hedge.reads", "method", "getNotificationCount").count());
+    }
+
+    @Test
+    void getNotificationCount_WhenFirstAttemptIsSlow_ShouldBeAnsweredByHedge() {
+        // Given
+        enable();
+        properties.getHedging().setMaxHedgeRatio(1.0);
+        hedgedReads = create();
+        warmUp();
+        CompletableFuture<Long> slow = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        when(notificationClient.getNotificationCount(eq(1L), eq(false), any())).thenAnswer(invocation ->
+                calls.incrementAndGet() == 1 ? slow : CompletableFuture.completedFuture(7L));
+
+        // When
+        long count = hedgedReads.getNotificationCount(1L, false, onFallback).orTimeout(2, TimeUnit.SECONDS).join();
+
+        // Then
+        assertEquals(7L, count);
+        assertEquals(2, calls.get());
+        verifyNoInteractions(onFallback);
+        assertEquals(1, meterRegistry.counter("notification.hedge.sent", "method", "getNotificationCount").count());
+        assertEquals(1, meterRegistry.counter("notification.hedge.wins", "method", "getNotificationCount").count());
+    }
+
+    @Test
+    void getNotificationCount_WhenHedgeBudgetIsSpent_ShouldNotHedge() {
+        // Given
+        enable();
+        properties.getHedging().setMaxHedgeRatio(0.0);
+        hedgedReads = create();
+        warmUp();
+        when(notificationClient.getNotificationCount(eq(1L), eq(false), any())).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+                () -> 7L, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)));
+
+        // When
+        long count = hedgedReads.getNotificationCount(1L, false, onFallback).join();
+
+        // Then
+        assertEquals(7L, count);
+        verify(notificationClient, times(1)).getNotificationCount(eq(1L), eq(false), any());
+        assertEquals(0, meterRegistry.counter("notification.hedge.sent", "method", "getNotificationCount").count());
+    }
+
+    @Test
+    void getNotificationCount_WhenNoAttemptAnswersInTime_ShouldReturnFallback() {
+        // Given
+        enable();
+        properties.getHedging().setMaxHedgeRatio(0.0);
+        properties.getHedging().setMaxTimeout(Duration.ofMillis(100));
+        hedgedReads = create();
+        when(notificationClient.getNotificationCount(eq(1L), eq(false), any())).thenReturn(new CompletableFuture<>());
+        when(fallback.getNotificationCount(1L, false)).thenReturn(0L);
+
+        // When
+        long count = hedgedReads.getNotificationCount(1L, false, onFallback).orTimeout(2, TimeUnit.SECONDS).join();
+
+        // Then
+        assertEquals(0L, count);
+        assertEquals(1, meterRegistry.counter("notification.hedge.timeouts", "method", "getNotificationCount").count());
+        verify(onFallback).run();
+    }
+
+    @Test
+    void getNotificationCount_WhenClientFails_ShouldPropagateFailure() {
+        // Given
+        enable();
+        hedgedReads = create();
+        when(notificationClient.getNotificationCount(eq(1L), eq(false), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+        // When
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> hedgedReads.getNotificationCount(1L, false, onFallback).join());
+
+        // Then
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+    }
+
+    private void enable() {
+        NotificationProperties.Hedging hedging = properties.getHedging();
+        hedging.setEnabled(true);
+        hedging.setMinSamples(1);
+        hedging.setWindow(Duration.ofMillis(50));
+        hedging.setMinHedgeDelay(Duration.ofMillis(20));
+    }
+
+    /**
+     * Records fast latencies for a window, so the next read has a hedge delay to go by.
+     */
+    private void warmUp() {
+        when(notificationClient.getNotificationCount(eq(2L), eq(false), any())).thenReturn(CompletableFuture.completedFuture(1L));
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(120);
+        while (System.nanoTime() < until) {
+            hedgedReads.getNotificationCount(2L, false, onFallback).join();
+        }
+    }
+
+    private HedgedNotificationReads create() {
+        return new HedgedNotificationReads(notificationClient, fallback, properties, meterRegistry);
+    }
+}
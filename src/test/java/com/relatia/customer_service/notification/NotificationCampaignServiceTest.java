@@ -0,0 +1,160 @@
+package com.relatia.customer_service.notification;
+
+import com.relatia.customer_service.customer.CustomerRepository;
+import com.relatia.customer_service.exception.ErrorMessages;
+import com.relatia.customer_service.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationCampaignServiceTest {
+
+    private final NotificationCampaignRepository campaignRepository = mock(NotificationCampaignRepository.class);
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final NotificationClient notificationClient = mock(NotificationClient.class);
+    private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+    private final NotificationJournal journal = mock(NotificationJournal.class);
+    private final NotificationProperties properties = new NotificationProperties();
+    private final StaticMessageSource messageSource = new StaticMessageSource();
+    private NotificationCampaignService campaignService;
+
+    @BeforeEach
+    void setUp() {
+        properties.getCampaign().setRatePerSecond(10_000);
+        messageSource.addMessage("error.campaign.notfound", Locale.getDefault(), "Notification campaign not found with id: {0}");
+        campaignService = new NotificationCampaignService(campaignRepository, customerRepository, notificationClient,
+                outboxRepository, mock(NotificationReadCache.class), journal,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties,
+                new ErrorMessages(messageSource), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        campaignService.shutdown();
+    }
+
+    @Test
+    void find_WhenCampaignIsUnknown_ShouldThrowNotFound() {
+        // Given
+        when(campaignRepository.findById(12345L)).thenReturn(Optional.empty());
+
+        // When
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class, () -> campaignService.find(12345L));
+
+        // Then
+        assertEquals("Notification campaign not found with id: 12345", e.getMessage());
+    }
+
+    @Test
+    void start_ShouldNotifyEverySegmentMemberAndComplete() {
+        // Given
+        NotificationCampaign campaign = campaign(0);
+        when(campaignRepository.save(any())).thenReturn(campaign);
+        when(campaignRepository.findById(1L)).thenReturn(Optional.of(campaign));
+        when(customerRepository.findIdsInSegment(anyLong(), eq("%@example.com"), any(), eq(Limit.of(500))))
+                .thenReturn(List.of(1L, 2L, 3L), List.of());
+        // notification-service is unavailable for customer 2 and the journal is full, so it goes to the outbox
+        when(notificationClient.createNotification(any())).thenAnswer(invocation ->
+                invocation.<NotificationRequest>getArgument(0).getRecipientId() == 2L
+                        ? NotificationResponse.builder().build()
+                        : NotificationResponse.builder().id(42L).build());
+        when(campaignRepository.checkpoint(any(), anyString(), anyLong(), anyLong(), anyLong(), any())).thenReturn(1);
+
+        // When
+        campaignService.start(request());
+
+        // Then
+        verify(campaignRepository, timeout(5000)).complete(eq(1L), anyString(), any());
+        verify(campaignRepository).checkpoint(eq(1L), anyString(), eq(3L), eq(2L), eq(1L), any());
+        verify(journal).append(argThat(request -> request.getRecipientId() == 2L));
+        verify(outboxRepository).save(argThat((NotificationOutboxEntry entry) -> entry.getRecipientId() == 2L));
+        verify(customerRepository).findIdsInSegment(eq(3L), any(), any(), any());
+    }
+
+    @Test
+    void start_WhenTakenOverByAnotherRun_ShouldStopAtCheckpoint() {
+        // Given
+        NotificationCampaign campaign = campaign(0);
+        when(campaignRepository.save(any())).thenReturn(campaign);
+        when(campaignRepository.findById(1L)).thenReturn(Optional.of(campaign));
+        when(customerRepository.findIdsInSegment(anyLong(), any(), any(), any())).thenReturn(List.of(1L));
+        when(notificationClient.createNotification(any())).thenReturn(NotificationResponse.builder().id(42L).build());
+        when(campaignRepository.checkpoint(any(), anyString(), anyLong(), anyLong(), anyLong(), any())).thenReturn(0);
+
+        // When
+        campaignService.start(request());
+
+        // Then
+        verify(campaignRepository, timeout(5000)).checkpoint(eq(1L), anyString(), eq(1L), eq(1L), eq(0L), any());
+        verify(customerRepository, after(200).times(1)).findIdsInSegment(anyLong(), any(), any(), any());
+        verify(campaignRepository, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void resumeOrphaned_ShouldContinueFromCheckpoint() {
+        // Given
+        when(campaignRepository.findOrphanedIds(any())).thenReturn(List.of(1L));
+        when(campaignRepository.claim(eq(1L), anyString(), any(), any())).thenReturn(1);
+        when(campaignRepository.findById(1L)).thenReturn(Optional.of(campaign(250)));
+        when(customerRepository.findIdsInSegment(anyLong(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        campaignService.resumeOrphaned();
+
+        // Then
+        verify(campaignRepository, timeout(5000)).complete(eq(1L), anyString(), any());
+        verify(customerRepository).findIdsInSegment(eq(250L), any(), any(), any());
+        verifyNoInteractions(notificationClient);
+    }
+
+    @Test
+    void resumeOrphaned_WhenClaimedElsewhere_ShouldNotRun() {
+        // Given
+        when(campaignRepository.findOrphanedIds(any())).thenReturn(List.of(1L));
+        when(campaignRepository.claim(eq(1L), anyString(), any(), any())).thenReturn(0);
+
+        // When
+        campaignService.resumeOrphaned();
+
+        // Then
+        verify(campaignRepository, after(200).never()).findById(any());
+        assertEquals(0, campaignService.recipientsPerSecond(campaign(0)));
+    }
+
+    private static NotificationCampaign campaign(long lastCustomerId) {
+        return NotificationCampaign.builder()
+                .id(1L)
+                .title("Spring sale")
+                .message("20% off this week")
+                .type("PROMOTION")
+                .emailDomain("Example.com")
+                .lastCustomerId(lastCustomerId)
+                .build();
+    }
+
+    private static NotificationCampaignRequest request() {
+        return NotificationCampaignRequest.builder()
+                .title("Spring sale")
+                .message("20% off this week")
+                .type("PROMOTION")
+                .emailDomain("Example.com")
+                .build();
+    }
+}
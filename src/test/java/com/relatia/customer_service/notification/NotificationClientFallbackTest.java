@@ -0,0 +1,79 @@
+package com.relatia.customer_service.notification;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationClientFallbackTest {
+
+    private static final Request REQUEST = Request.create(Request.HttpMethod.POST, "http://notification-service",
+            Map.of(), null, StandardCharsets.UTF_8, null);
+
+    private final NotificationJournal journal = mock(NotificationJournal.class);
+    private final NotificationClientFallback fallback = new NotificationClientFallback(journal,
+            new NotificationClientMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void forFailure_WhenServiceIsUnavailable_ShouldSpoolTheNotification() {
+        // Given
+        when(journal.append(any())).thenReturn(true);
+        List<Throwable> failures = List.of(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("create")),
+                new TimeoutException(),
+                new FeignException.ServiceUnavailable("down", REQUEST, null, null),
+                new FeignException.TooManyRequests("slow down", REQUEST, null, null),
+                new RetryableException(-1, "Connection refused", Request.HttpMethod.POST, (Long) null, REQUEST),
+                new RuntimeException(new TimeoutException()));
+
+        // When
+        for (Throwable failure : failures) {
+            NotificationResponse response = fallback.forFailure(failure).createNotification(request());
+
+            // Then
+            assertNull(response.getId(), failure.toString());
+        }
+        verify(journal, times(failures.size())).append(request());
+    }
+
+    @Test
+    void forFailure_WhenRequestIsRejected_ShouldPassTheErrorOnWithoutSpooling() {
+        // Given
+        FeignException rejection = new FeignException.BadRequest("invalid", REQUEST, null, null);
+
+        // When
+        NotificationClient client = fallback.forFailure(rejection);
+
+        // Then
+        assertSame(rejection, assertThrows(FeignException.BadRequest.class, () -> client.createNotification(request())));
+        assertEquals(0L, client.getNotificationCount(1L, true));
+        verify(journal, never()).append(any());
+    }
+
+    @Test
+    void isRejected_ShouldOnlyHoldForClientErrorsARetryWouldGetAgain() {
+        // When & Then
+        assertTrue(NotificationClientFallback.isRejected(new FeignException.NotFound("gone", REQUEST, null, null)));
+        assertTrue(NotificationClientFallback.isRejected(
+                new RuntimeException(new FeignException.UnprocessableEntity("invalid", REQUEST, null, null))));
+        assertFalse(NotificationClientFallback.isRejected(new FeignException.TooManyRequests("slow down", REQUEST, null, null)));
+        assertFalse(NotificationClientFallback.isRejected(new FeignException.InternalServerError("oops", REQUEST, null, null)));
+        assertFalse(NotificationClientFallback.isRejected(new IllegalStateException("boom")));
+    }
+
+    private static NotificationRequest request() {
+        return NotificationRequest.builder().recipientId(1L).title("Welcome").message("Hello").build();
+    }
+}
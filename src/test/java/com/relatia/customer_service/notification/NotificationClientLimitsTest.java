@@ -0,0 +1,138 @@
+package com.relatia.customer_service.notification;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationClientLimitsTest {
+
+    private static final String GET_NOTIFICATIONS = "notification-service.getNotifications";
+    private static final String CREATE_NOTIFICATION = "notification-service.createNotification";
+
+    private final BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationProperties properties = new NotificationProperties();
+    private NotificationClientLimits clientLimits;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProperties.MethodLimits reads = new NotificationProperties.MethodLimits();
+        reads.setInitialLimit(4);
+        reads.setMinLimit(2);
+        reads.setMaxLimit(5);
+        reads.setSlowCallThreshold(Duration.ofMillis(500));
+        properties.getResilience().getMethods().put("getNotifications", reads);
+        properties.getResilience().setBackoffRatio(0.5);
+        clientLimits = new NotificationClientLimits(bulkheadRegistry, circuitBreakerRegistry, properties, meterRegistry);
+    }
+
+    @Test
+    void constructor_ShouldCreateOneBulkheadPerMethod() {
+        // When & Then
+        assertEquals(4, bulkheadRegistry.bulkhead(GET_NOTIFICATIONS).getBulkheadConfig().getMaxConcurrentCalls());
+        assertEquals(20, bulkheadRegistry.bulkhead(CREATE_NOTIFICATION).getBulkheadConfig().getMaxConcurrentCalls());
+        assertEquals(4, meterRegistry.get("notification.client.limit").tag("method", "getNotifications").gauge().value());
+    }
+
+    @Test
+    void adjust_AfterFailures_ShouldLowerOnlyThatMethodsLimit() throws InterruptedException {
+        // Given
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(GET_NOTIFICATIONS);
+        circuitBreaker.onError(10, TimeUnit.MILLISECONDS, new IllegalStateException("down"));
+
+        // When
+        clientLimits.adjust();
+
+        // Then
+        awaitLimit(GET_NOTIFICATIONS, 2);
+        assertEquals(20, bulkheadRegistry.bulkhead(CREATE_NOTIFICATION).getBulkheadConfig().getMaxConcurrentCalls());
+    }
+
+    @Test
+    void adjust_AfterSlowCalls_ShouldNotGoBelowMinimum() throws InterruptedException {
+        // Given
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(GET_NOTIFICATIONS);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onSuccess(1, TimeUnit.SECONDS);
+            clientLimits.adjust();
+            awaitLowered();
+        }
+
+        // Then
+        awaitLimit(GET_NOTIFICATIONS, 2);
+    }
+
+    @Test
+    void adjust_WhenLimitIsWellUsed_ShouldRaiseItUpToMaximum() {
+        // Given
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(GET_NOTIFICATIONS);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(GET_NOTIFICATIONS);
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onSuccess(10, TimeUnit.MILLISECONDS);
+            clientLimits.adjust();
+        }
+
+        // Then
+        assertEquals(5, bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+        assertEquals(2, meterRegistry.get("notification.client.in-flight").tag("method", "getNotifications").gauge().value());
+    }
+
+    @Test
+    void adjust_WhenLimitIsBarelyUsed_ShouldKeepIt() {
+        // Given
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(GET_NOTIFICATIONS);
+        circuitBreaker.onSuccess(10, TimeUnit.MILLISECONDS);
+
+        // When
+        clientLimits.adjust();
+
+        // Then
+        assertEquals(4, bulkheadRegistry.bulkhead(GET_NOTIFICATIONS).getBulkheadConfig().getMaxConcurrentCalls());
+    }
+
+    @Test
+    void bulkhead_WhenFull_ShouldCountRejection() {
+        // Given
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(GET_NOTIFICATIONS);
+        for (int i = 0; i < 4; i++) {
+            bulkhead.acquirePermission();
+        }
+
+        // When
+        boolean permitted = bulkhead.tryAcquirePermission();
+
+        // Then
+        assertFalse(permitted);
+        assertEquals(1, meterRegistry.counter("notification.client.rejected", "method", "getNotifications").count());
+    }
+
+    private void awaitLimit(String id, int expected) throws InterruptedException {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(id);
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (bulkhead.getBulkheadConfig().getMaxConcurrentCalls() != expected && System.nanoTime() < until) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, bulkhead.getBulkheadConfig().getMaxConcurrentCalls());
+    }
+
+    private void awaitLowered() throws InterruptedException {
+        // Lowering runs on its own thread; give it the chance to finish before the next interval
+        Thread.sleep(50);
+    }
+}
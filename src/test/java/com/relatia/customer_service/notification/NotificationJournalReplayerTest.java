@@ -0,0 +1,112 @@
+package com.relatia.customer_service.notification;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class NotificationJournalReplayerTest {
+
+    private static final Request REQUEST = Request.create(Request.HttpMethod.POST, "http://notification-service",
+            Map.of(), null, StandardCharsets.UTF_8, null);
+
+    @TempDir
+    Path directory;
+
+    private final NotificationClient notificationClient = mock(NotificationClient.class);
+    private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationJournal journal;
+    private NotificationJournalReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProperties properties = new NotificationProperties();
+        properties.getJournal().setDirectory(directory);
+        properties.getJournal().setReplayRatePerSecond(1_000);
+        journal = new NotificationJournal(properties, meterRegistry);
+        replayer = new NotificationJournalReplayer(journal, notificationClient, mock(NotificationReadCache.class),
+                outboxRepository, properties, meterRegistry);
+        for (long id = 1; id <= 3; id++) {
+            journal.append(request(id));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void replay_WhenANotificationIsRejected_ShouldDeadLetterItAndGoOn() {
+        // Given
+        when(notificationClient.createNotification(any())).thenAnswer(invocation -> {
+            NotificationRequest request = invocation.getArgument(0);
+            if (request.getRecipientId() == 2L) {
+                throw new FeignException.BadRequest("invalid", REQUEST, null, null);
+            }
+            return NotificationResponse.builder().id(request.getRecipientId()).build();
+        });
+
+        // When
+        int replayed = replayer.replay();
+
+        // Then
+        assertEquals(2, replayed);
+        assertEquals(0, journal.pending());
+        verify(outboxRepository).save(argThat(entry -> entry.getRecipientId() == 2L
+                && entry.getStatus() == NotificationOutboxStatus.FAILED && entry.getLastError().contains("invalid")));
+        assertEquals(1, meterRegistry.counter("notification.journal.dead-lettered").count());
+    }
+
+    @Test
+    void replay_WhenServiceIsUnavailable_ShouldStopAndKeepTheNotifications() {
+        // Given
+        // What the fallback answers while notification-service is down
+        when(notificationClient.createNotification(any())).thenReturn(NotificationResponse.builder().build());
+
+        // When
+        int replayed = replayer.replay();
+
+        // Then
+        assertEquals(0, replayed);
+        assertEquals(3, journal.pending());
+        verify(notificationClient, times(1)).createNotification(any());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void replay_WhenTheDeadLetterCannotBeWritten_ShouldKeepTheRejectedNotification() {
+        // Given
+        when(notificationClient.createNotification(any()))
+                .thenThrow(new FeignException.BadRequest("invalid", REQUEST, null, null));
+        when(outboxRepository.save(any())).thenThrow(new DataAccessResourceFailureException("database down"));
+
+        // When & Then
+        assertThrows(DataAccessResourceFailureException.class, () -> replayer.replay());
+        assertEquals(3, journal.pending());
+        assertEquals(request(1L), journal.next().request());
+    }
+
+    private static NotificationRequest request(Long recipientId) {
+        return NotificationRequest.builder()
+                .recipientId(recipientId)
+                .title("Welcome")
+                .message("Hello")
+                .type("INFO")
+                .build();
+    }
+}
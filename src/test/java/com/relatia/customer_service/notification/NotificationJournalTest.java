@@ -0,0 +1,170 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final NotificationProperties properties = new NotificationProperties();
+    private NotificationJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        properties.getJournal().setDirectory(directory);
+        properties.getJournal().setSegmentSize(DataSize.ofBytes(256));
+        properties.getJournal().setMaxSegments(4);
+        journal = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void next_ShouldReturnSpooledNotificationsInOrderUntilAcknowledged() {
+        // Given
+        journal.append(request(1L));
+        journal.append(request(2L));
+
+        // When
+        NotificationJournal.Entry first = journal.next();
+        NotificationJournal.Entry again = journal.next();
+        journal.acknowledge(first);
+        NotificationJournal.Entry second = journal.next();
+
+        // Then
+        assertEquals(request(1L), first.request());
+        assertEquals(first, again);
+        assertEquals(request(2L), second.request());
+        assertEquals(1, journal.pending());
+    }
+
+    @Test
+    void open_ShouldResumeAfterLastAcknowledgedNotification() {
+        // Given
+        journal.append(request(1L));
+        journal.append(request(2L));
+        journal.acknowledge(journal.next());
+        journal.close();
+
+        // When
+        journal = open();
+
+        // Then
+        assertEquals(1, journal.pending());
+        assertEquals(request(2L), journal.next().request());
+    }
+
+    @Test
+    void append_WhenSegmentIsFull_ShouldRotateAndDeleteReplayedSegments() throws IOException {
+        // Given
+        for (long id = 1; id <= 6; id++) {
+            assertTrue(journal.append(request(id)));
+        }
+        assertTrue(journal.segmentCount() > 1);
+
+        // When
+        for (long id = 1; id <= 6; id++) {
+            NotificationJournal.Entry entry = journal.next();
+            assertEquals(id, entry.request().getRecipientId());
+            journal.acknowledge(entry);
+        }
+
+        // Then
+        assertNull(journal.next());
+        assertEquals(1, journal.segmentCount());
+        assertEquals(1, segmentFiles());
+    }
+
+    @Test
+    void append_WhenAllSegmentsAreFull_ShouldReject() {
+        // Given
+        int appended = 0;
+        while (journal.append(request(appended + 1L))) {
+            appended++;
+        }
+
+        // When & Then
+        assertTrue(appended > 0);
+        assertEquals(4, journal.segmentCount());
+        assertEquals(appended, journal.pending());
+    }
+
+    @Test
+    void open_ShouldIgnoreTornTailAndKeepAppending() throws IOException {
+        // Given
+        journal.append(request(1L));
+        journal.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        byte[] content = Files.readAllBytes(segment);
+        int end = NotificationJournal.HEADER_SIZE + NotificationJournal.encode(request(1L)).length;
+        content[end + 3] = 42; // a length without a payload, as left by a crash mid-append
+        Files.write(segment, content);
+
+        // When
+        journal = open();
+        journal.append(request(2L));
+
+        // Then
+        assertEquals(2, journal.pending());
+        journal.close();
+        journal = open();
+        assertEquals(2, journal.pending());
+    }
+
+    @Test
+    void withoutSpooling_ShouldOnlyApplyInsideTheCall() {
+        // When
+        boolean inside = NotificationJournal.withoutSpooling(NotificationJournal::isSpoolingSuppressed);
+
+        // Then
+        assertTrue(inside);
+        assertFalse(NotificationJournal.isSpoolingSuppressed());
+    }
+
+    @Test
+    void encode_ShouldRoundTripNullFields() {
+        // Given
+        NotificationRequest request = NotificationRequest.builder().title("Tschüss").build();
+
+        // When & Then
+        assertEquals(request, NotificationJournal.decode(NotificationJournal.encode(request)));
+    }
+
+    private NotificationJournal open() {
+        return new NotificationJournal(properties, new SimpleMeterRegistry());
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static NotificationRequest request(Long recipientId) {
+        return NotificationRequest.builder()
+                .recipientId(recipientId)
+                .title("Welcome")
+                .message("Hello")
+                .type("INFO")
+                .build();
+    }
+}
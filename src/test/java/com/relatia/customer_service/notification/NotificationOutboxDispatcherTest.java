@@ -0,0 +1,115 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationOutboxDispatcherTest {
+
+    private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+    private final NotificationClient notificationClient = mock(NotificationClient.class);
+    private final NotificationProperties properties = new NotificationProperties();
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, notificationClient,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties,
+                mock(NotificationReadCache.class), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_WhenDelivered_ShouldMarkSent() {
+        // Given
+        NotificationOutboxEntry entry = entry(1L, 0);
+        when(outboxRepository.claimDue(any(), eq(Limit.of(100)))).thenReturn(List.of(entry));
+        when(notificationClient.createNotification(any())).thenReturn(NotificationResponse.builder().id(42L).build());
+
+        // When
+        int claimed = dispatcher.dispatch();
+
+        // Then
+        assertEquals(1, claimed);
+        assertEquals(1, entry.getAttempts());
+        verify(outboxRepository).markSent(eq(1L), any());
+        verify(outboxRepository, never()).markRetry(any(), any(), any());
+    }
+
+    @Test
+    void dispatch_WhenFallbackAnswers_ShouldScheduleRetry() {
+        // Given
+        NotificationOutboxEntry entry = entry(1L, 0);
+        when(outboxRepository.claimDue(any(), any())).thenReturn(List.of(entry));
+        when(notificationClient.createNotification(any())).thenReturn(NotificationResponse.builder().build());
+
+        // When
+        dispatcher.dispatch();
+
+        // Then
+        verify(outboxRepository).markRetry(eq(1L), any(LocalDateTime.class), anyString());
+        verify(outboxRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    void dispatch_WhenAttemptsExhausted_ShouldMarkFailed() {
+        // Given
+        properties.getOutbox().setMaxAttempts(3);
+        NotificationOutboxEntry entry = entry(1L, 2);
+        when(outboxRepository.claimDue(any(), any())).thenReturn(List.of(entry));
+        when(notificationClient.createNotification(any())).thenThrow(new IllegalStateException("boom"));
+
+        // When
+        dispatcher.dispatch();
+
+        // Then
+        verify(outboxRepository).markFailed(eq(1L), contains("boom"));
+        verify(outboxRepository, never()).markRetry(any(), any(), any());
+    }
+
+    @Test
+    void backoff_ShouldGrowExponentiallyAndStayCapped() {
+        // Given
+        NotificationProperties.Outbox outbox = properties.getOutbox();
+        outbox.setInitialBackoff(Duration.ofSeconds(1));
+        outbox.setMaxBackoff(Duration.ofSeconds(30));
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Duration.ofSeconds(1), NotificationOutboxDispatcher.backoff(1, outbox));
+            Duration third = NotificationOutboxDispatcher.backoff(3, outbox);
+            assertTrue(third.compareTo(Duration.ofSeconds(1)) >= 0 && third.compareTo(Duration.ofSeconds(4)) <= 0);
+            assertTrue(NotificationOutboxDispatcher.backoff(50, outbox).compareTo(Duration.ofSeconds(30)) <= 0);
+        }
+    }
+
+    private static NotificationOutboxEntry entry(Long id, int attempts) {
+        return NotificationOutboxEntry.builder()
+                .id(id)
+                .recipientId(7L)
+                .title("Welcome")
+                .message("Hello")
+                .type("INFO")
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.relatia.customer_service.notification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+class NotificationOutboxRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM notification_outbox");
+    }
+
+    @Test
+    void claimDue_WhenALaterEntryHasALowerId_ShouldClaimTheEarlierOneFirst() {
+        // Given
+        // Written by two instances: the later entry came from the instance with the lower id block
+        insert(60, 1, NOW.minusSeconds(2));
+        insert(10, 1, NOW.minusSeconds(1));
+        insert(20, 2, NOW.minusSeconds(1));
+
+        // When
+        List<Long> claimed = ids(outboxRepository.claimDue(NOW, Limit.of(10)));
+
+        // Then
+        assertEquals(List.of(60L, 20L), claimed);
+    }
+
+    @Test
+    void claimDue_WhenEntriesWereCreatedAtTheSameTime_ShouldClaimByIdFirst() {
+        // Given
+        insert(11, 1, NOW.minusSeconds(1));
+        insert(10, 1, NOW.minusSeconds(1));
+
+        // When
+        List<Long> claimed = ids(outboxRepository.claimDue(NOW, Limit.of(10)));
+
+        // Then
+        assertEquals(List.of(10L), claimed);
+    }
+
+    private void insert(long id, long recipientId, LocalDateTime createdAt) {
+        jdbcTemplate.update("""
+                INSERT INTO notification_outbox (id, recipient_id, title, message, status, attempts,
+                                                 next_attempt_at, created_at, is_deleted, version)
+                VALUES (?, ?, 'Title', 'Message', 'PENDING', 0, ?, ?, FALSE, 0)""",
+                id, recipientId, Timestamp.valueOf(NOW.minusMinutes(1)), Timestamp.valueOf(createdAt));
+    }
+
+    private static List<Long> ids(List<NotificationOutboxEntry> entries) {
+        return entries.stream().map(NotificationOutboxEntry::getId).toList();
+    }
+}
@@ -0,0 +1,209 @@
+package com.relatia.customer_service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationReadCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationReadCache cache = new NotificationReadCache(new NotificationProperties(), meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void get_WhenCached_ShouldNotLoadAgain() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        long first = cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> (long) loads.incrementAndGet());
+        long second = cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> (long) loads.incrementAndGet());
+
+        // Then
+        assertEquals(1L, first);
+        assertEquals(1L, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_WhenMissesAreConcurrent_ShouldShareOneLoad() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Long> leader = executor.submit(() -> cache.get(1L, NotificationReadCache.Query.COUNT_UNREAD, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return 5L;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        List<Future<Long>> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            followers.add(executor.submit(() -> cache.get(1L, NotificationReadCache.Query.COUNT_UNREAD,
+                    () -> (long) loads.incrementAndGet())));
+        }
+        while (meterRegistry.counter("notification.reads.coalesced").count() < followers.size()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Then
+        assertEquals(5L, leader.get(5, TimeUnit.SECONDS));
+        for (Future<Long> follower : followers) {
+            assertEquals(5L, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropCachedEntriesOfThatCustomerOnly() {
+        // Given
+        cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> 1L);
+        cache.get(2L, NotificationReadCache.Query.COUNT_ALL, () -> 2L);
+
+        // When
+        cache.invalidate(1L);
+
+        // Then
+        assertEquals(10L, cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> 10L));
+        assertEquals(2L, cache.get(2L, NotificationReadCache.Query.COUNT_ALL, () -> 20L));
+    }
+
+    @Test
+    void invalidate_WhileLoadInFlight_ShouldNotCacheStaleValue() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Long> stale = executor.submit(() -> cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> {
+            loading.countDown();
+            await(release);
+            return 1L;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        cache.invalidate(1L);
+        release.countDown();
+
+        // Then
+        assertEquals(1L, stale.get(5, TimeUnit.SECONDS));
+        assertEquals(2L, cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> 2L));
+    }
+
+    @Test
+    void invalidate_OfAnotherCustomerWhileLoadInFlight_ShouldStillCache() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Long> load = executor.submit(() -> cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> {
+            loading.countDown();
+            await(release);
+            return 1L;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        cache.invalidate(2L);
+        release.countDown();
+
+        // Then
+        assertEquals(1L, load.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> 2L));
+    }
+
+    @Test
+    void get_WhenLoadFails_ShouldNotCacheAndRethrow() {
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, NotificationReadCache.Query.LIST_ALL,
+                () -> { throw new IllegalStateException("boom"); }));
+        assertEquals(List.of(), cache.get(1L, NotificationReadCache.Query.LIST_ALL, List::of));
+    }
+
+    @Test
+    void getAsync_WhileLoadIsPending_ShouldShareItAndCacheResult() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<Long> upstream = new CompletableFuture<>();
+
+        // When
+        CompletableFuture<Long> first = cache.getAsync(1L, NotificationReadCache.Query.COUNT_ALL, () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<Long> second = cache.getAsync(1L, NotificationReadCache.Query.COUNT_ALL, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(9L);
+        });
+        upstream.complete(4L);
+
+        // Then
+        assertEquals(4L, first.join());
+        assertEquals(4L, second.join());
+        assertEquals(4L, cache.get(1L, NotificationReadCache.Query.COUNT_ALL, () -> 9L));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getAsync_WhenLoadFails_ShouldNotCache() {
+        // When
+        CompletableFuture<List<NotificationResponse>> failed = cache.getAsync(1L, NotificationReadCache.Query.LIST_ALL,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        // Then
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(List.of(), cache.getAsync(1L, NotificationReadCache.Query.LIST_ALL,
+                () -> CompletableFuture.completedFuture(List.<NotificationResponse>of())).join());
+    }
+
+    @Test
+    void getAsync_WhenFallbackAnswers_ShouldShareTheAnswerButNotCacheIt() {
+        // Given
+        CompletableFuture<Long> upstream = new CompletableFuture<>();
+        CompletableFuture<Long> first = cache.getAsync(1L, NotificationReadCache.Query.COUNT_UNREAD, onFallback -> {
+            // notification-service is down: the client runs the callback, then answers with the fallback's 0
+            return upstream.thenApply(ignored -> {
+                onFallback.run();
+                return 0L;
+            });
+        });
+        CompletableFuture<Long> second = cache.getAsync(1L, NotificationReadCache.Query.COUNT_UNREAD,
+                () -> CompletableFuture.completedFuture(9L));
+
+        // When
+        upstream.complete(null);
+
+        // Then
+        assertEquals(0L, first.join());
+        assertEquals(0L, second.join());
+        assertEquals(5L, cache.get(1L, NotificationReadCache.Query.COUNT_UNREAD, () -> 5L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.relatia.customer_service.notification;
+
+import com.relatia.customer_service.CustomerServiceApplication;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares platform and virtual request threads while notification-service is slow.
+ *
+ * <p>The service is started twice against an in-process notification-service stand-in that answers
+ * after a fixed delay: once with the default Tomcat pool and once with the {@code virtual-threads}
+ * profile. Each run fires a burst of concurrent notification requests and, while they are in flight,
+ * times plain customer reads. Reported are the peak concurrency seen by the stand-in, notification
+ * latency percentiles and customer read latency.</p>
+ *
+ * <p>Excluded from the default build; run with {@code mvn test -Pbenchmark}. The burst size and delay
+ * can be changed with {@code -Dbenchmark.requests=} and {@code -Dbenchmark.delayMs=}. The notification
+ * endpoints answer asynchronously; to compare with the blocking endpoints, run the same command on a
+ * revision from before that change.</p>
+ *
+ * <p>Both runs share one JVM and whichever runs first also pays for the warm-up, so run each on its own with
+ * {@code -Dtest=NotificationThreadingBenchmarkTest#platformThreads} and {@code #virtualThreads}. With the
+ * default resilience settings the adaptive bulkhead sheds most of the burst to the fallback in either mode;
+ * to measure the threads rather than the bulkhead, pass {@code -Dnotification.resilience.adaptive=false}
+ * and raise {@code notification.resilience.defaults.initial-limit}, {@code max-limit} and {@code timeout}
+ * above the burst.</p>
+ *
+ * <p>To exercise hedged reads, give the stand-in a slow tail with {@code -Dbenchmark.slowEvery=} (every
+ * n-th call takes {@code -Dbenchmark.slowDelayMs=}, ten times the delay by default) and pass
+ * {@code -Dnotification.hedging.enabled=true}. A paced warm-up of {@code -Dbenchmark.warmUp=} calls then
+ * fills the first hedging window, which is waited out before the burst. The run also reports the
+ * fallback answers and hedges the service counted during the burst.</p>
+ */
+@Slf4j
+@Tag("benchmark")
+class NotificationThreadingBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 2000);
+    private static final long DELAY_MS = Long.getLong("benchmark.delayMs", 250);
+    private static final int SLOW_EVERY = Integer.getInteger("benchmark.slowEvery", 0);
+    private static final long SLOW_DELAY_MS = Long.getLong("benchmark.slowDelayMs", DELAY_MS * 10);
+    private static final int WARM_UP = Integer.getInteger("benchmark.warmUp", 1);
+    private static final int WARM_UP_CONCURRENCY = 10;
+    private static final int CUSTOMER_PROBES = 20;
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+    private static final AtomicInteger calls = new AtomicInteger();
+    private static HttpServer notificationService;
+    private static ExecutorService stubExecutor;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @BeforeAll
+    static void startNotificationService() throws IOException {
+        notificationService = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        stubExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        notificationService.setExecutor(stubExecutor);
+        notificationService.createContext("/api/v1/notifications/count", exchange -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                boolean slow = SLOW_EVERY > 0 && calls.incrementAndGet() % SLOW_EVERY == 0;
+                Thread.sleep(slow ? SLOW_DELAY_MS : DELAY_MS);
+                byte[] body = "3".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        notificationService.start();
+    }
+
+    @AfterAll
+    static void stopNotificationService() {
+        notificationService.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void platformThreads() throws Exception {
+        Result result = run("test");
+        assertEquals(REQUESTS, result.succeeded());
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        Result result = run("test,virtual-threads");
+        assertEquals(REQUESTS, result.succeeded());
+    }
+
+    private Result run(String profiles) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .run("--spring.profiles.active=" + profiles,
+                        "--server.port=0",
+                        "--spring.cloud.config.enabled=false",
+                        "--spring.cloud.config.import-check.enabled=false",
+                        "--eureka.client.enabled=false",
+                        "--spring.cloud.bus.enabled=false",
+                        "--spring.cloud.discovery.client.simple.instances.notification-service[0].uri=http://localhost:"
+                                + notificationService.getAddress().getPort(),
+                        "--customer.email-index.enabled=false",
+                        "--customer.search.enabled=false",
+                        "--customer.purge.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=INFO",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+                        "--logging.level.org.springframework.cloud.openfeign=INFO")) {
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            peakInFlight.set(0);
+
+            // Warm up connection pools and JIT before measuring, on customers the burst does not read
+            for (int i = 0; i < WARM_UP; i += WARM_UP_CONCURRENCY) {
+                List<CompletableFuture<Long>> warmUp = new ArrayList<>();
+                for (int j = i; j < Math.min(WARM_UP, i + WARM_UP_CONCURRENCY); j++) {
+                    warmUp.add(send(baseUrl + "/api/v1/customers/" + (REQUESTS + j + 1) + "/notifications/count"));
+                }
+                warmUp.forEach(call -> call.exceptionally(e -> null).join());
+            }
+            send(baseUrl + "/api/v1/customers?size=1").join();
+            NotificationProperties.Hedging hedging = app.getBean(NotificationProperties.class).getHedging();
+            if (hedging.isEnabled()) {
+                // Hedging goes by the latencies of the last closed window
+                Thread.sleep(hedging.getWindow().toMillis());
+            }
+            MeterRegistry meterRegistry = app.getBean(MeterRegistry.class);
+            double fallbacksBefore = sum(meterRegistry, "notification.client.fallbacks");
+            double hedgesBefore = sum(meterRegistry, "notification.hedge.sent");
+
+            long start = System.nanoTime();
+            List<CompletableFuture<Long>> notifications = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                notifications.add(send(baseUrl + "/api/v1/customers/" + (i + 1) + "/notifications/count"));
+            }
+
+            List<Long> customerLatencies = new ArrayList<>();
+            for (int i = 0; i < CUSTOMER_PROBES; i++) {
+                customerLatencies.add(send(baseUrl + "/api/v1/customers?size=1").join());
+            }
+
+            List<Long> latencies = new ArrayList<>(REQUESTS);
+            for (CompletableFuture<Long> notification : notifications) {
+                Long latency = notification.exceptionally(e -> null).join();
+                if (latency != null) {
+                    latencies.add(latency);
+                }
+            }
+            long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            Result result = new Result(latencies.size(), peakInFlight.get(), elapsedMs);
+            log.info("{}: {}/{} notification calls in {} ms, peak {} concurrent downstream calls, "
+                            + "notification latency p50 {} ms / p99 {} ms / max {} ms, customer read p50 {} ms / max {} ms, "
+                            + "{} fallback answers, {} hedges",
+                    profiles, result.succeeded(), REQUESTS, elapsedMs, result.peakConcurrency(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                    percentile(customerLatencies, 0.50), percentile(customerLatencies, 1.0),
+                    (long) (sum(meterRegistry, "notification.client.fallbacks") - fallbacksBefore),
+                    (long) (sum(meterRegistry, "notification.hedge.sent") - hedgesBefore));
+            return result;
+        }
+    }
+
+    /**
+     * Sends a GET and completes with its latency in milliseconds, failing on any non-2xx status.
+     */
+    private CompletableFuture<Long> send(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMinutes(2))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException(url + " returned " + response.statusCode());
+                    }
+                    return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                });
+    }
+
+    private static double sum(MeterRegistry meterRegistry, String counter) {
+        return meterRegistry.find(counter).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static long percentile(List<Long> values, double percentile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = values.stream().sorted().toList();
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private record Result(int succeeded, int peakConcurrency, long elapsedMs) {}
+}